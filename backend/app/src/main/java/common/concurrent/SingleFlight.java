@@ -0,0 +1,120 @@
+package common.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent calls that share a key into one in-flight call.
+ *
+ * The first caller for a key (the leader) runs the call; callers that arrive while it is in
+ * flight wait on the same future and receive the same value or exception. The key is released
+ * before the result is published, so a caller arriving after completion starts a fresh call:
+ * nothing is cached beyond the lifetime of the call itself.
+ *
+ * Results are shared between callers and must not be mutated by them.
+ */
+public final class SingleFlight<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String name;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Run a blocking call, or wait for the identical call already in flight
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.incrementAndGet();
+            logger.debug("Joining in-flight {} call: {}", name, key);
+            return join(existing);
+        }
+
+        calls.incrementAndGet();
+        V value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(value);
+        return value;
+    }
+
+    /**
+     * Lazily start a reactive call, or share the identical call already in flight.
+     *
+     * The leader's call runs to completion even if its own subscriber cancels, since others may be
+     * waiting on it; bound it with a timeout inside the supplied Mono.
+     */
+    public Mono<V> executeMono(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                shared.incrementAndGet();
+                logger.debug("Joining in-flight {} call: {}", name, key);
+                return Mono.fromFuture(existing, true);
+            }
+
+            calls.incrementAndGet();
+            CompletableFuture<V> upstream;
+            try {
+                upstream = call.get().toFuture();
+            } catch (RuntimeException e) {
+                upstream = CompletableFuture.failedFuture(e);
+            }
+            upstream.whenComplete((value, error) -> {
+                inFlight.remove(key, mine);
+                if (error != null) {
+                    mine.completeExceptionally(error);
+                } else {
+                    mine.complete(value);
+                }
+            });
+            return Mono.fromFuture(mine, true);
+        });
+    }
+
+    /** Upstream calls actually made */
+    public long getCallCount() { return calls.get(); }
+
+    /** Callers served by another caller's in-flight call */
+    public long getSharedCount() { return shared.get(); }
+
+    public int getInFlightCount() { return inFlight.size(); }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
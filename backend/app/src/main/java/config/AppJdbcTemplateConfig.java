@@ -8,6 +8,8 @@ import org.springframework.boot.context.properties.*;
 import org.springframework.context.annotation.*;
 import org.springframework.jdbc.core.*;
 
+import com.zaxxer.hikari.*;
+
 /**
  * Exposes a JdbcTemplate bound to the primary application DataSource (spring.datasource),
  * ensuring repositories can target the main database (wto_tariffs) explicitly when multiple
@@ -24,10 +26,18 @@ public class AppJdbcTemplateConfig {
         return new DataSourceProperties();
     }
 
+    private static final String MYSQL_URL_PREFIX = "jdbc:mysql:";
+
     @Bean(name = "dataSource")
     @Primary
     public DataSource appDataSource(DataSourceProperties appDataSourceProperties) {
-        return appDataSourceProperties.initializeDataSourceBuilder().build();
+        DataSource dataSource = appDataSourceProperties.initializeDataSourceBuilder().build();
+        // Let Connector/J rewrite JDBC batches into multi-row INSERTs (bulk tariff upserts)
+        String url = appDataSourceProperties.getUrl();
+        if (dataSource instanceof HikariDataSource hikari && url != null && url.startsWith(MYSQL_URL_PREFIX)) {
+            hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+        return dataSource;
     }
 
     @Bean(name = "appJdbcTemplate")
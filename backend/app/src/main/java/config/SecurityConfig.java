@@ -59,7 +59,11 @@ public class SecurityConfig {
                         // Auth endpoints open (login/signup/refresh/logout/me handled in controller)
                         .requestMatchers("/auth/**").permitAll()
 
-                        // Tariffs: GET and POST open; PUT/DELETE admin-only
+                        // Tariffs: GET and POST open; PUT/DELETE, bulk writes, queued upserts and file imports admin-only
+                        .requestMatchers(HttpMethod.POST, "/api/v1/tariffs:batch").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/tariffs/async").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/tariffs:lookup").permitAll()
+                        .requestMatchers("/api/v1/tariffs/imports/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/tariffs/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/tariffs/**").permitAll()
                         .requestMatchers(HttpMethod.PUT, "/api/v1/tariffs/**").hasRole("ADMIN")
@@ -73,6 +77,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/v1/admin/news").hasRole("ADMIN") // Only admin can update remarks
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/admin/news").hasRole("ADMIN") // Only admin can delete from DB
 
+                        // WITS backfill jobs write TariffRates, so admin only
+                        .requestMatchers("/api/v1/wits/backfills/**").hasRole("ADMIN")
+
                         // WITS and WTO data open
                         .requestMatchers(HttpMethod.GET, "/api/v1/wits/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/indicators/**").permitAll()
@@ -80,6 +87,10 @@ public class SecurityConfig {
                         // Exchange rates open
                         .requestMatchers(HttpMethod.GET, "/api/v1/exchange").permitAll()
 
+                        // Tariff calculator open
+                        .requestMatchers(HttpMethod.POST, "/api/v1/calculations").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/calculations/rate").permitAll()
+
                         // Gemini endpoints (health + analyses) open as before
                         .requestMatchers(HttpMethod.GET, "/api/v1/gemini/health").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/gemini/analyses").permitAll()
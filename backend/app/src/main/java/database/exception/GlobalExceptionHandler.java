@@ -10,8 +10,13 @@ import org.springframework.web.context.request.WebRequest;
 
 import database.news.exception.NewsAlreadyExistsException;
 import database.news.exception.NewsNotFoundException;
+import database.tariffs.exception.InvalidTariffQueryException;
 import database.tariffs.exception.TariffAlreadyExistsException;
+import database.tariffs.exception.TariffImportJobNotFoundException;
+import database.tariffs.exception.TariffImportRejectedException;
 import database.tariffs.exception.TariffNotFoundException;
+import database.tariffs.exception.TariffWriteRejectedException;
+import database.tariffs.exception.TariffStreamRejectedException;
 import common.exception.ApiErrorResponse;
 import common.exception.ValidationErrorResponse;
 
@@ -58,6 +63,81 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
+    @ExceptionHandler(InvalidTariffQueryException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidTariffQuery(
+            InvalidTariffQueryException ex, WebRequest request) {
+        logger.warn("Invalid tariff query: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+    
+    @ExceptionHandler(TariffImportJobNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleTariffImportJobNotFound(
+            TariffImportJobNotFoundException ex, WebRequest request) {
+        logger.warn("Tariff import job not found: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.NOT_FOUND.value(),
+            "Not Found",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(TariffImportRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handleTariffImportRejected(
+            TariffImportRejectedException ex, WebRequest request) {
+        logger.warn("Tariff import rejected: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Requests",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
+    @ExceptionHandler(TariffWriteRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handleTariffWriteRejected(
+            TariffWriteRejectedException ex, WebRequest request) {
+        logger.warn("Tariff write rejected: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Requests",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
+    @ExceptionHandler(TariffStreamRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handleTariffStreamRejected(
+            TariffStreamRejectedException ex, WebRequest request) {
+        logger.warn("Tariff stream rejected: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Requests",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+    
     // News Exception Handlers
     
     @ExceptionHandler(NewsAlreadyExistsException.class)
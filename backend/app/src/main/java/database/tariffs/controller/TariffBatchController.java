@@ -0,0 +1,110 @@
+package database.tariffs.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.dto.TariffBatchResponse;
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.service.TariffBatchService;
+import database.tariffs.service.TariffService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Collection-level custom methods on tariffs ("/api/v1/tariffs:verb").
+ * Mapped from /api/v1 because Spring would otherwise insert a '/' before the colon.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@Tag(name = "Tariff Management", description = "RESTful API for managing tariff rates")
+public class TariffBatchController {
+    private static final Logger logger = LoggerFactory.getLogger(TariffBatchController.class);
+
+    private final TariffBatchService tariffBatchService;
+    private final TariffService tariffService;
+
+    public TariffBatchController(TariffBatchService tariffBatchService, TariffService tariffService) {
+        this.tariffBatchService = tariffBatchService;
+        this.tariffService = tariffService;
+    }
+
+    @Operation(
+        summary = "Bulk upsert tariff rates",
+        description = "Inserts or updates up to 10,000 tariff rates in one request. Every row is validated first; " +
+                "invalid rows are reported as REJECTED and skipped, valid rows are written with batched " +
+                "INSERT ... ON DUPLICATE KEY UPDATE statements in a single transaction and reported as UPSERTED " +
+                "(the database does not say per row whether it was inserted or updated)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed; see per-row results",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffBatchResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"received\": 2, \"written\": 1, \"rejected\": 1, \"results\": [{\"index\": 0, \"status\": \"UPSERTED\"}, {\"index\": 1, \"status\": \"REJECTED\", \"errors\": [\"year: Year must be 4 digits\"]}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or oversized batch",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping("/tariffs:batch")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<TariffBatchResponse> upsertTariffs(@RequestBody List<CreateTariffRequest> requests) {
+
+        logger.info("POST /api/v1/tariffs:batch - Upserting {} tariffs", requests == null ? 0 : requests.size());
+
+        return ResponseEntity.ok(tariffBatchService.upsertTariffs(requests));
+    }
+
+    @Operation(
+        summary = "Look up many tariff rates at once",
+        description = "Resolves up to 1,000 (reporter, partner, product, year) keys with one chunked database query. " +
+                "Returns one result per key in request order; keys without a tariff have found=false."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lookup processed; see per-key results",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffLookupResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"requested\": 2, \"found\": 1, \"results\": [{\"index\": 0, \"found\": true, \"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 25.0, \"unit\": \"percent\"}, {\"index\": 1, \"found\": false, \"reporter\": \"840\", \"partner\": \"156\", \"product\": 100630, \"year\": \"2020\"}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or oversized lookup, or a malformed key",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping("/tariffs:lookup")
+    public ResponseEntity<TariffLookupResponse> lookupTariffs(@RequestBody List<TariffLookupKey> keys) {
+
+        logger.info("POST /api/v1/tariffs:lookup - Looking up {} tariffs", keys == null ? 0 : keys.size());
+
+        return ResponseEntity.ok(tariffService.lookupTariffs(keys));
+    }
+}
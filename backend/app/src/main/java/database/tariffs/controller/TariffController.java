@@ -1,9 +1,17 @@
 package database.tariffs.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,11 +22,29 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.dto.TariffChangesResponse;
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.dto.TariffMatrixResponse;
+import database.tariffs.dto.TariffPageResponse;
+import database.tariffs.dto.TariffRollupResponse;
+import database.tariffs.dto.TariffSeriesResponse;
+import database.tariffs.dto.TariffStatsResponse;
 import database.tariffs.dto.TariffResponse;
 import database.tariffs.dto.UpdateTariffRequest;
+import database.tariffs.exception.TariffStreamRejectedException;
+import database.tariffs.service.TariffMatrixService;
 import database.tariffs.service.TariffService;
+import database.tariffs.service.TariffStatsService;
+import database.tariffs.util.TariffMatrixCodec;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -29,6 +55,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -40,11 +67,40 @@ import jakarta.validation.constraints.Pattern;
 public class TariffController {
     private static final Logger logger = LoggerFactory.getLogger(TariffController.class);
     private static final int HTTP_CREATED = 201;
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final char NDJSON_SEPARATOR = '\n';
+    // Streams may hold at most 1/MAX_POOL_SHARE_DIVISOR of the connection pool
+    private static final int MAX_POOL_SHARE_DIVISOR = 4;
+    // Distinguishes the NDJSON representation of /current from the JSON array in the ETag
+    private static final String NDJSON_ETAG_SUFFIX = "-ndjson";
+    // Distinguishes the binary representation of /matrix from its JSON form in the ETag
+    private static final String BINARY_ETAG_SUFFIX = "-bin";
 
     private final TariffService tariffService;
+    private final TariffMatrixService tariffMatrixService;
+    private final TariffStatsService tariffStatsService;
+    private final ObjectMapper objectMapper;
+    private final long streamTimeoutMs;
+    private final Semaphore streamPermits;
 
-    public TariffController(TariffService tariffService) {
+    public TariffController(TariffService tariffService, TariffMatrixService tariffMatrixService,
+                            TariffStatsService tariffStatsService, ObjectMapper objectMapper,
+                            @Value("${app.tariffs.stream.timeoutMs:600000}") long streamTimeoutMs,
+                            @Value("${app.tariffs.stream.maxConcurrent:1}") int maxConcurrentStreams,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
         this.tariffService = tariffService;
+        this.tariffMatrixService = tariffMatrixService;
+        this.tariffStatsService = tariffStatsService;
+        this.objectMapper = objectMapper;
+        this.streamTimeoutMs = streamTimeoutMs;
+        // Streams pin a pooled connection for up to streamTimeoutMs; keep three quarters of the pool
+        // for everything else (requests, version poll, rollup refresher, imports, rebuilds)
+        int streamLimit = Math.max(1, Math.min(maxConcurrentStreams, poolSize / MAX_POOL_SHARE_DIVISOR));
+        if (streamLimit < maxConcurrentStreams) {
+            logger.warn("Capping concurrent tariff streams at {} (configured {}) for a pool of {} connections",
+                    streamLimit, maxConcurrentStreams, poolSize);
+        }
+        this.streamPermits = new Semaphore(streamLimit);
     }
 
     @Operation(
@@ -59,7 +115,7 @@ public class TariffController {
                 mediaType = "application/json",
                 schema = @Schema(implementation = TariffResponse.class),
                 examples = @ExampleObject(
-                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\", \"timestamp\": \"2025-10-14T10:30:00\"}"
+                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\"}"
                 )
             )
         ),
@@ -89,6 +145,44 @@ public class TariffController {
         return ResponseEntity.status(HTTP_CREATED).body(response);
     }
 
+    @Operation(
+        summary = "Queue a tariff rate write",
+        description = "Accepts a tariff rate for a write-behind upsert and returns 202 without waiting for the database. " +
+                "Writes of the same reporter/partner/product/year that arrive within one flush window (a few " +
+                "milliseconds) are coalesced, last write wins, and never conflict. Returns 429 when the write queue " +
+                "stays full; retry later. A write the database rejects is retried twice unless a newer write to " +
+                "the same key replaces it, then dropped and logged, so a 202 does not guarantee the rate was " +
+                "stored. Admin only, like other writes that can overwrite an existing rate."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Tariff queued for writing",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Validation error",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Write queue full",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping("/async")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<TariffResponse> queueTariff(@Valid @RequestBody CreateTariffRequest request) {
+
+        logger.info("POST /api/v1/tariffs/async - Queueing tariff: {}", request);
+
+        return ResponseEntity.accepted().body(tariffService.queueTariff(request));
+    }
+
     @Operation(
         summary = "Update existing tariff rate",
         description = "Updates an existing tariff rate. Returns 404 if tariff doesn't exist."
@@ -131,7 +225,8 @@ public class TariffController {
 
     @Operation(
         summary = "Get specific tariff rate",
-        description = "Get specific tariff by providing reporter, partner, product, and year as query parameters. All parameters are required."
+        description = "Get specific tariff by providing reporter, partner, product, and year as query parameters. All parameters are required. " +
+                "Responses carry an ETag derived from the tariff table version; send it back in If-None-Match to get 304 while nothing has changed."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -140,10 +235,14 @@ public class TariffController {
             content = @Content(
                 mediaType = "application/json",
                 examples = @ExampleObject(
-                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\", \"timestamp\": \"2025-10-14T10:30:00\"}"
+                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\"}"
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified since the ETag sent in If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Missing required parameters",
@@ -172,15 +271,348 @@ public class TariffController {
             @RequestParam @NotNull Integer product,
 
             @Parameter(description = "Year (4 digits)", example = "2020", required = true)
-            @RequestParam @NotNull @Pattern(regexp = "\\d{4}", message = "Year must be 4 digits") String year) {
+            @RequestParam @NotNull @Pattern(regexp = "\\d{4}", message = "Year must be 4 digits") String year,
+
+            WebRequest request) {
 
         logger.info("GET /api/v1/tariffs - Getting tariff: reporter={}, partner={}, product={}, year={}",
                 reporter, partner, product, year);
+        if (notModified(request, "")) {
+            return null;
+        }
         
         TariffResponse response = tariffService.getTariff(reporter, partner, product, year);
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+        summary = "List tariff rates page by page",
+        description = "Returns tariffs in primary-key order using keyset (cursor) pagination. All filters are optional. " +
+                "Pass the returned 'next' cursor back with the same filters to fetch the following page; 'next' is null on the last page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffPageResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"items\": [{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\"}], \"limit\": 1, \"next\": \"ODQwfDM1NnwxMDA2MzB8MjAyMA\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid filter, limit or cursor",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/page")
+    public ResponseEntity<TariffPageResponse> getTariffPage(
+            @Parameter(description = "Reporter country ISO code", example = "840")
+            @RequestParam(required = false) String reporter,
+
+            @Parameter(description = "Partner country ISO code", example = "356")
+            @RequestParam(required = false) String partner,
+
+            @Parameter(description = "HS code prefix (1-6 digits), e.g. 72 for chapter 72", example = "1006")
+            @RequestParam(required = false) String hsPrefix,
+
+            @Parameter(description = "First year (inclusive)", example = "2015")
+            @RequestParam(required = false) Integer yearFrom,
+
+            @Parameter(description = "Last year (inclusive)", example = "2020")
+            @RequestParam(required = false) Integer yearTo,
+
+            @Parameter(description = "Page size (1-1000)", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+
+            @Parameter(description = "Opaque cursor from the previous page's 'next' field")
+            @RequestParam(required = false) String cursor) {
+
+        logger.info("GET /api/v1/tariffs/page - reporter={}, partner={}, hsPrefix={}, yearFrom={}, yearTo={}, limit={}",
+                reporter, partner, hsPrefix, yearFrom, yearTo, limit);
+
+        TariffFilter filter = new TariffFilter(reporter, partner, hsPrefix, yearFrom, yearTo);
+        return ResponseEntity.ok(tariffService.getTariffPage(filter, cursor, limit));
+    }
+
+    @Operation(
+        summary = "Get a tariff time series",
+        description = "Returns the yearly tariff rates of one reporter/partner/product between two years (inclusive), " +
+                "in ascending year order, from a single range query. With fill=true, years without a rate repeat the " +
+                "last known rate and are marked carried=true."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Series retrieved successfully (points is empty when there is no data)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffSeriesResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"from\": 2019, \"to\": 2021, \"fill\": true, \"points\": [{\"year\": \"2019\", \"rate\": 24.0, \"unit\": \"percent\", \"carried\": false}, {\"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\", \"carried\": true}, {\"year\": \"2021\", \"rate\": 26.0, \"unit\": \"percent\", \"carried\": false}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid year range",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/series")
+    public ResponseEntity<TariffSeriesResponse> getTariffSeries(
+            @Parameter(description = "Reporter country ISO code", example = "840", required = true)
+            @RequestParam @NotNull String reporter,
+
+            @Parameter(description = "Partner country ISO code", example = "356", required = true)
+            @RequestParam @NotNull String partner,
+
+            @Parameter(description = "Product HS code", example = "100630", required = true)
+            @RequestParam @NotNull Integer product,
+
+            @Parameter(description = "First year (inclusive)", example = "2015", required = true)
+            @RequestParam int from,
+
+            @Parameter(description = "Last year (inclusive)", example = "2020", required = true)
+            @RequestParam int to,
+
+            @Parameter(description = "Carry the last known rate forward into years without data", example = "false")
+            @RequestParam(defaultValue = "false") boolean fill) {
+
+        logger.info("GET /api/v1/tariffs/series - reporter={}, partner={}, product={}, from={}, to={}, fill={}",
+                reporter, partner, product, from, to, fill);
+
+        return ResponseEntity.ok(tariffService.getTariffSeries(reporter, partner, product, from, to, fill));
+    }
+
+    @Operation(
+        summary = "Get tariff changes since a token",
+        description = "Incremental sync. Returns inserts/updates (op=upsert, current rate) and deletes (op=delete) made after " +
+                "the given token, oldest first, plus the token to pass next time. Omit 'since' for a full initial sync. " +
+                "While hasMore is true, call again immediately with 'next'. Cost scales with the number of changes, not the table size."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Changes retrieved successfully (changes is empty when nothing changed)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffChangesResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"changes\": [{\"op\": \"upsert\", \"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 24.0, \"unit\": \"percent\", \"version\": 41}, {\"op\": \"delete\", \"reporter\": \"702\", \"partner\": \"156\", \"product\": 271019, \"year\": \"2020\", \"version\": 42}], \"next\": \"NDI\", \"hasMore\": false}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Malformed token, token ahead of the table, or invalid limit",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<TariffChangesResponse> getTariffChanges(
+            @Parameter(description = "Opaque token from the previous response's 'next' field; omit for a full sync")
+            @RequestParam(required = false) String since,
+
+            @Parameter(description = "Maximum changes per response (1-1000)", example = "500")
+            @RequestParam(defaultValue = "500") int limit) {
+
+        logger.info("GET /api/v1/tariffs/changes - since={}, limit={}", since, limit);
+
+        return ResponseEntity.ok(tariffService.getChanges(since, limit));
+    }
+
+    @Operation(
+        summary = "Get HS chapter or heading rollups",
+        description = "Returns min, max, mean and count of the tariff rates of one reporter/partner/year grouped by " +
+                "HS chapter (level=2) or HS heading (level=4). Rollups are precomputed and refreshed in the background " +
+                "shortly after each tariff write, so the response reads only precomputed rows and may briefly trail " +
+                "the latest write. Responses carry an ETag derived from the rollup version. Pass chapter with level=4 " +
+                "to get the headings of one chapter."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Rollups retrieved successfully (empty when there are no tariffs)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffRollupResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"year\": \"2020\", \"level\": 4, \"chapter\": \"10\", \"rollups\": [{\"hs\": \"1006\", \"count\": 4, \"min\": 2.5, \"max\": 24.0, \"mean\": 11.125}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified: If-None-Match matches the current rollup version"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid level, year or chapter",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/rollups")
+    public ResponseEntity<TariffRollupResponse> getTariffRollups(
+            @Parameter(description = "Reporter country ISO code", example = "840", required = true)
+            @RequestParam @NotNull String reporter,
+
+            @Parameter(description = "Partner country ISO code", example = "356", required = true)
+            @RequestParam @NotNull String partner,
+
+            @Parameter(description = "Year (4 digits)", example = "2020", required = true)
+            @RequestParam @NotNull String year,
+
+            @Parameter(description = "2 for HS chapters, 4 for HS headings", example = "2")
+            @RequestParam(defaultValue = "2") int level,
+
+            @Parameter(description = "Only headings of this HS chapter (level=4 only)", example = "10")
+            @RequestParam(required = false) Integer chapter,
+
+            WebRequest request) {
+
+        logger.info("GET /api/v1/tariffs/rollups - reporter={}, partner={}, year={}, level={}, chapter={}",
+                reporter, partner, year, level, chapter);
+        if (notModified(request, "", tariffService.getRollupVersion())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(tariffService.getRollups(reporter, partner, year, level, chapter));
+    }
+
+    @Operation(
+        summary = "Get tariff rate statistics",
+        description = "Filters every tariff by reporter, partner, HS prefix, year range and rate range and returns the " +
+                "count, min, max and mean of the matching rates, optionally grouped by reporter, partner, year or HS " +
+                "chapter and with a rate histogram. Answered from an in-memory columnar copy of the tariff table that " +
+                "is rebuilt in the background after writes, so 'version' may briefly trail the latest write."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Statistics computed (count 0 and no min/max/mean when nothing matches)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffStatsResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"version\": 42, \"scanned\": 2000000, \"count\": 3, \"min\": 2.5, \"max\": 24.0, \"mean\": 10.5, \"groupBy\": \"year\", \"groups\": [{\"key\": \"2020\", \"count\": 2, \"min\": 5.0, \"max\": 24.0, \"mean\": 14.5}, {\"key\": \"2021\", \"count\": 1, \"min\": 2.5, \"max\": 2.5, \"mean\": 2.5}], \"bucketWidth\": 10.0, \"histogram\": [2, 0, 1]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid filter, groupBy or bucketWidth",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<TariffStatsResponse> getTariffStats(
+            @Parameter(description = "Reporter country ISO code", example = "840")
+            @RequestParam(required = false) String reporter,
+
+            @Parameter(description = "Partner country ISO code", example = "356")
+            @RequestParam(required = false) String partner,
+
+            @Parameter(description = "Leading digits of the HS code", example = "10")
+            @RequestParam(required = false) String hsPrefix,
+
+            @Parameter(description = "First year (inclusive)", example = "2015")
+            @RequestParam(required = false) Integer yearFrom,
+
+            @Parameter(description = "Last year (inclusive)", example = "2020")
+            @RequestParam(required = false) Integer yearTo,
+
+            @Parameter(description = "Lowest rate (inclusive)", example = "0")
+            @RequestParam(required = false) Double minRate,
+
+            @Parameter(description = "Highest rate (inclusive)", example = "50")
+            @RequestParam(required = false) Double maxRate,
+
+            @Parameter(description = "reporter, partner, year or chapter", example = "year")
+            @RequestParam(required = false) String groupBy,
+
+            @Parameter(description = "Rate histogram bucket width", example = "10")
+            @RequestParam(required = false) Double bucketWidth) {
+
+        TariffFilter filter = new TariffFilter(reporter, partner, hsPrefix, yearFrom, yearTo);
+        logger.info("GET /api/v1/tariffs/stats - filter={}, minRate={}, maxRate={}, groupBy={}, bucketWidth={}",
+                filter, minRate, maxRate, groupBy, bucketWidth);
+
+        return ResponseEntity.ok(tariffStatsService.getStats(filter, minRate, maxRate, groupBy, bucketWidth));
+    }
+
+    @Operation(
+        summary = "Get the reporter x partner tariff matrix",
+        description = "Returns every reporter-to-partner rate of one product and year as a dense matrix for the globe view. " +
+                "'countries' lists every reporter or partner with a tariff in code order; rates[r * n + p] is the rate " +
+                "from countries[r] to countries[p], or null when there is none. Send Accept: application/octet-stream " +
+                "for a compact big-endian form: int32 n, n length-prefixed ASCII codes padded to 4 bytes, then n*n " +
+                "float32 rates with NaN for none. Responses carry an ETag derived from the tariff table version."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Matrix retrieved successfully",
+            content = {
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = TariffMatrixResponse.class),
+                    examples = @ExampleObject(
+                        value = "{\"product\": 100630, \"year\": \"2020\", \"countries\": [\"156\", \"356\", \"840\"], \"rates\": [null, 5.0, null, null, null, null, 3.0, 24.0, null], \"found\": 3}"
+                    )
+                ),
+                @Content(mediaType = "application/octet-stream")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Not modified: If-None-Match matches the current rollup version"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Missing product or invalid year",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping(value = "/matrix", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TariffMatrixResponse> getTariffMatrix(
+            @Parameter(description = "Product HS code", example = "100630", required = true)
+            @RequestParam @NotNull Integer product,
+
+            @Parameter(description = "Year (4 digits)", example = "2020", required = true)
+            @RequestParam @NotNull String year,
+
+            WebRequest request) {
+
+        logger.info("GET /api/v1/tariffs/matrix - product={}, year={}", product, year);
+        if (notModified(request, "")) {
+            return null;
+        }
+
+        return ResponseEntity.ok(tariffMatrixService.getMatrix(product, year));
+    }
+
+    @Operation(hidden = true)
+    @GetMapping(value = "/matrix", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getTariffMatrixBinary(
+            @RequestParam @NotNull Integer product,
+            @RequestParam @NotNull String year,
+            WebRequest request) {
+
+        logger.info("GET /api/v1/tariffs/matrix - product={}, year={} (binary)", product, year);
+        if (notModified(request, BINARY_ETAG_SUFFIX)) {
+            return null;
+        }
+
+        byte[] body = TariffMatrixCodec.encode(tariffMatrixService.getMatrix(product, year));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
     @Operation(
         summary = "Delete tariff rate",
         description = "Deletes a tariff rate by composite key"
@@ -225,7 +657,8 @@ public class TariffController {
 
     @Operation(
     summary = "Get all tariff rates",
-    description = "Returns the tariff rates that are currently in database. No parameters required."
+    description = "Returns the tariff rates that are currently in database. No parameters required. " +
+            "Responses carry an ETag derived from the tariff table version; send it back in If-None-Match to get 304 while nothing has changed."
 )
 @ApiResponses({
     @ApiResponse(
@@ -242,8 +675,7 @@ public class TariffController {
                 "product": 100630,
                 "year": "2020",
                 "rate": 24.0,
-                "unit": "percent",
-                "timestamp": "2025-10-14T10:30:00Z"
+                "unit": "percent"
               },
               {
                 "reporter": "702",
@@ -251,13 +683,16 @@ public class TariffController {
                 "product": 271019",
                 "year": "2020",
                 "rate": 5.0,
-                "unit": "percent",
-                "timestamp": "2025-10-14T10:30:00Z"
+                "unit": "percent"
               }
             ]
             """)
         )
     ),
+    @ApiResponse(
+        responseCode = "304",
+        description = "Not modified since the ETag sent in If-None-Match"
+    ),
     @ApiResponse(
         responseCode = "500",
         description = "Server error",
@@ -276,10 +711,110 @@ public class TariffController {
     )
 })
 @GetMapping("/current")
-public ResponseEntity<List<TariffResponse>> getCurrentTariffs() {
+public ResponseEntity<List<TariffResponse>> getCurrentTariffs(WebRequest request) {
+    if (notModified(request, "")) {
+        return null;
+    }
     List<TariffResponse> tariffs = tariffService.getAllTariffs(); 
     return ResponseEntity.ok(tariffs);
 }
 
-    
-}
\ No newline at end of file
+    @Operation(
+        summary = "Stream all tariff rates as NDJSON",
+        description = "Streams every tariff rate as newline-delimited JSON, one object per line, straight from a " +
+                "database cursor. Selected with Accept: application/x-ndjson or ?stream=true; memory use stays " +
+                "flat regardless of table size. Supports If-None-Match like the JSON form, with its own ETag. " +
+                "Only a few streams run at once; returns 429 when all are busy."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Tariffs streamed successfully",
+            content = @Content(
+                mediaType = APPLICATION_NDJSON,
+                examples = @ExampleObject(value = """
+                {"reporter":"840","partner":"356","product":100630,"year":"2020","rate":24.0,"unit":"percent"}
+                {"reporter":"702","partner":"156","product":271019,"year":"2020","rate":5.0,"unit":"percent"}
+                """)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Too many streams in progress",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping(value = "/current", produces = APPLICATION_NDJSON)
+    public WebAsyncTask<Void> streamCurrentTariffs(WebRequest request, HttpServletResponse response) {
+        logger.info("GET /api/v1/tariffs/current - Streaming tariffs as NDJSON");
+        if (notModified(request, NDJSON_ETAG_SUFFIX)) {
+            return null;
+        }
+        return streamTariffs(response);
+    }
+
+    @Operation(hidden = true)
+    @GetMapping(value = "/current", params = "stream=true")
+    public WebAsyncTask<Void> streamCurrentTariffsByFlag(WebRequest request, HttpServletResponse response) {
+        logger.info("GET /api/v1/tariffs/current?stream=true - Streaming tariffs as NDJSON");
+        if (notModified(request, NDJSON_ETAG_SUFFIX)) {
+            return null;
+        }
+        return streamTariffs(response);
+    }
+
+    /**
+     * Answer If-None-Match from the table version alone, before any tariff row is read.
+     * Sets a strong ETag on the response; returns true when a 304 has been prepared and the
+     * handler must return without a body. The version is read first, so a write racing with
+     * the data read can only make the ETag older than the body, never newer.
+     */
+    private boolean notModified(WebRequest request, String variant) {
+        return notModified(request, variant, tariffService.getTableVersion());
+    }
+
+    /** Same, against another version source (the rollup version for /rollups) */
+    private boolean notModified(WebRequest request, String variant, OptionalLong version) {
+        return version.isPresent() && request.checkNotModified("\"" + version.getAsLong() + variant + "\"");
+    }
+
+    /**
+     * Each stream holds a pooled connection on a forward-only cursor until the client has read
+     * the last row, so streams get their own async timeout and a cap on how many run at once
+     * instead of raising the container-wide async timeout.
+     */
+    private WebAsyncTask<Void> streamTariffs(HttpServletResponse response) {
+        ObjectWriter writer = objectMapper.writerFor(TariffResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        Callable<Void> body = () -> {
+            if (!streamPermits.tryAcquire()) {
+                throw new TariffStreamRejectedException("Too many tariff streams in progress; retry later");
+            }
+            try {
+                response.setContentType(APPLICATION_NDJSON);
+                OutputStream out = response.getOutputStream();
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    // Lines are separated explicitly; suppress Jackson's default space between root values
+                    generator.setRootValueSeparator(null);
+                    tariffService.streamAllTariffs(tariff -> {
+                        try {
+                            writer.writeValue(generator, tariff);
+                            generator.writeRaw(NDJSON_SEPARATOR);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    generator.flush();
+                }
+                out.flush();
+            } finally {
+                streamPermits.release();
+            }
+            return null;
+        };
+
+        return new WebAsyncTask<>(streamTimeoutMs, body);
+    }
+}
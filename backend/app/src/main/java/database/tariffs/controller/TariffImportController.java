@@ -0,0 +1,118 @@
+package database.tariffs.controller;
+
+import java.net.URI;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import database.tariffs.dto.TariffImportJobResponse;
+import database.tariffs.service.TariffImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Bulk file imports of tariff rates, run as background jobs
+ */
+@RestController
+@RequestMapping("/api/v1/tariffs/imports")
+@Tag(name = "Tariff Management", description = "RESTful API for managing tariff rates")
+public class TariffImportController {
+    private static final Logger logger = LoggerFactory.getLogger(TariffImportController.class);
+
+    private final TariffImportService tariffImportService;
+
+    public TariffImportController(TariffImportService tariffImportService) {
+        this.tariffImportService = tariffImportService;
+    }
+
+    @Operation(
+        summary = "Import tariff rates from a CSV or XLSX file",
+        description = "Starts a background job that streams the file row by row (the first worksheet for XLSX) and " +
+                "upserts valid rows in batches. The first row must be a header naming the reporter, partner, product, " +
+                "year and rate columns (unit is optional). Invalid rows are rejected and reported on the job; " +
+                "poll the returned Location for progress."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Import job queued",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffImportJobResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"jobId\": \"3f6c1a52-5d0e-4c1b-9d7a-2b1e8f0c4a11\", \"fileName\": \"tariffs-2020.csv\", \"format\": \"CSV\", \"status\": \"QUEUED\", \"rowsRead\": 0, \"rowsImported\": 0, \"rowsRejected\": 0, \"errors\": [], \"errorsTruncated\": false, \"submittedAt\": \"2025-10-14T10:30:00\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty file or unsupported file type",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Too many imports already running",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<TariffImportJobResponse> startImport(@RequestParam("file") MultipartFile file) {
+
+        logger.info("POST /api/v1/tariffs/imports - Importing {} ({} bytes)",
+                file.getOriginalFilename(), file.getSize());
+
+        TariffImportJobResponse response = tariffImportService.startImport(file);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/tariffs/imports/" + response.getJobId()))
+                .body(response);
+    }
+
+    @Operation(
+        summary = "Get tariff import job progress",
+        description = "Returns row counts so far, the job status (QUEUED, RUNNING, COMPLETED or FAILED) and the " +
+                "first rejected rows with their validation errors."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Job found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffImportJobResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"jobId\": \"3f6c1a52-5d0e-4c1b-9d7a-2b1e8f0c4a11\", \"fileName\": \"tariffs-2020.csv\", \"format\": \"CSV\", \"status\": \"COMPLETED\", \"rowsRead\": 2000000, \"rowsImported\": 1999999, \"rowsRejected\": 1, \"errors\": [{\"row\": 42, \"errors\": [\"year: Year must be 4 digits\"]}], \"errorsTruncated\": false, \"submittedAt\": \"2025-10-14T10:30:00\", \"finishedAt\": \"2025-10-14T10:31:05\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Unknown or expired job",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/{jobId}")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<TariffImportJobResponse> getImport(@PathVariable String jobId) {
+
+        logger.info("GET /api/v1/tariffs/imports/{}", jobId);
+
+        return ResponseEntity.ok(tariffImportService.getJob(jobId));
+    }
+}
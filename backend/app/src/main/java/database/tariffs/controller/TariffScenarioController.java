@@ -0,0 +1,72 @@
+package database.tariffs.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import database.tariffs.dto.TariffScenarioRequest;
+import database.tariffs.dto.TariffScenarioResponse;
+import database.tariffs.service.TariffScenarioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+/**
+ * What-if tariff scenarios; never modifies stored tariffs
+ */
+@RestController
+@RequestMapping("/api/v1/tariffs/scenarios")
+@Tag(name = "Tariff Management", description = "RESTful API for managing tariff rates")
+public class TariffScenarioController {
+    private static final Logger logger = LoggerFactory.getLogger(TariffScenarioController.class);
+
+    private final TariffScenarioService tariffScenarioService;
+
+    public TariffScenarioController(TariffScenarioService tariffScenarioService) {
+        this.tariffScenarioService = tariffScenarioService;
+    }
+
+    @Operation(
+        summary = "Simulate a what-if tariff scenario",
+        description = "Looks up the current tariff rate of every basket line, overlays the rules in order (ADD " +
+                "percentage points, MULTIPLY by a factor or SET a new rate on lines matching the rule's reporter, " +
+                "partner, HS prefix and year range) and returns baseline and scenario tariff totals plus the lines " +
+                "a rule changed. Amounts are value * rate / 100 in the basket's own currency; lines without a stored " +
+                "rate start from 0. Stored tariffs are not modified."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Scenario simulated",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TariffScenarioResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"name\": \"356 raises HS 72 by 10 points\", \"lines\": 2, \"linesWithoutRate\": 0, \"affectedLines\": 1, \"totalValue\": 3000.0, \"baselineTariff\": 150.0, \"scenarioTariff\": 350.0, \"tariffDelta\": 200.0, \"baselineLandedCost\": 3150.0, \"scenarioLandedCost\": 3350.0, \"changes\": [{\"index\": 1, \"reporter\": \"356\", \"partner\": \"840\", \"product\": 720890, \"year\": \"2020\", \"value\": 2000.0, \"baselineRate\": 5.0, \"scenarioRate\": 15.0, \"baselineTariff\": 100.0, \"scenarioTariff\": 300.0, \"delta\": 200.0, \"rule\": 0}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid rule or basket line",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping
+    public ResponseEntity<TariffScenarioResponse> simulate(@Valid @RequestBody TariffScenarioRequest request) {
+
+        logger.info("POST /api/v1/tariffs/scenarios - {} rules, {} lines",
+                request.getRules().size(), request.getLines().size());
+
+        return ResponseEntity.ok(tariffScenarioService.simulate(request));
+    }
+}
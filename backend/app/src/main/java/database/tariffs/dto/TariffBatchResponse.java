@@ -0,0 +1,39 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class TariffBatchResponse {
+
+    @JsonProperty("received")
+    private int received;
+
+    @JsonProperty("written")
+    private int written;
+
+    @JsonProperty("rejected")
+    private int rejected;
+
+    @JsonProperty("results")
+    private List<TariffBatchRowResult> results;
+
+    public TariffBatchResponse(int received, int written, int rejected, List<TariffBatchRowResult> results) {
+        this.received = received;
+        this.written = written;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+
+    public int getWritten() { return written; }
+    public void setWritten(int written) { this.written = written; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public List<TariffBatchRowResult> getResults() { return results; }
+    public void setResults(List<TariffBatchRowResult> results) { this.results = results; }
+}
@@ -0,0 +1,37 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffBatchRowResult {
+
+    public static final String STATUS_UPSERTED = "UPSERTED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("errors")
+    private List<String> errors;
+
+    public TariffBatchRowResult(int index, String status, List<String> errors) {
+        this.index = index;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
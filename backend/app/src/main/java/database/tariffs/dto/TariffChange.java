@@ -0,0 +1,72 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffChange {
+
+    public static final String OP_UPSERT = "upsert";
+    public static final String OP_DELETE = "delete";
+
+    @JsonProperty("op")
+    private String op;
+
+    @JsonProperty("reporter")
+    private String reporter;
+
+    @JsonProperty("partner")
+    private String partner;
+
+    @JsonProperty("product")
+    private Integer product;
+
+    @JsonProperty("year")
+    private String year;
+
+    @JsonProperty("rate")
+    private Double rate;
+
+    @JsonProperty("unit")
+    private String unit;
+
+    @JsonProperty("version")
+    private long version;
+
+    public TariffChange(String op, String reporter, String partner, Integer product, String year,
+                        Double rate, String unit, long version) {
+        this.op = op;
+        this.reporter = reporter;
+        this.partner = partner;
+        this.product = product;
+        this.year = year;
+        this.rate = rate;
+        this.unit = unit;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public Double getRate() { return rate; }
+    public void setRate(Double rate) { this.rate = rate; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
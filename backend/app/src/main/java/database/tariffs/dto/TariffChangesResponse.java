@@ -0,0 +1,32 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class TariffChangesResponse {
+
+    @JsonProperty("changes")
+    private List<TariffChange> changes;
+
+    @JsonProperty("next")
+    private String next;
+
+    @JsonProperty("hasMore")
+    private boolean hasMore;
+
+    public TariffChangesResponse(List<TariffChange> changes, String next, boolean hasMore) {
+        this.changes = changes;
+        this.next = next;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<TariffChange> getChanges() { return changes; }
+    public void setChanges(List<TariffChange> changes) { this.changes = changes; }
+
+    public String getNext() { return next; }
+    public void setNext(String next) { this.next = next; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,74 @@
+package database.tariffs.dto;
+
+/**
+ * Optional filters for tariff listings. Null fields are not applied.
+ * hsPrefix is matched against 6-digit HS codes, so "72" selects products 720000-729999.
+ */
+public class TariffFilter {
+
+    private static final int HS_CODE_DIGITS = 6;
+
+    private final String reporter;
+    private final String partner;
+    private final String hsPrefix;
+    private final Integer yearFrom;
+    private final Integer yearTo;
+
+    public TariffFilter(String reporter, String partner, String hsPrefix,
+                        Integer yearFrom, Integer yearTo) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.hsPrefix = hsPrefix;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+    }
+
+    public static TariffFilter none() {
+        return new TariffFilter(null, null, null, null, null);
+    }
+
+    public String getReporter() { return reporter; }
+    public String getPartner() { return partner; }
+    public String getHsPrefix() { return hsPrefix; }
+    public Integer getYearFrom() { return yearFrom; }
+    public Integer getYearTo() { return yearTo; }
+
+    /**
+     * Lowest product_id covered by hsPrefix (inclusive), or null when no prefix is set
+     */
+    public Integer getProductFrom() {
+        if (hsPrefix == null || hsPrefix.isEmpty()) {
+            return null;
+        }
+        return Integer.parseInt(hsPrefix) * pow10(HS_CODE_DIGITS - hsPrefix.length());
+    }
+
+    /**
+     * Highest product_id covered by hsPrefix (inclusive), or null when no prefix is set
+     */
+    public Integer getProductTo() {
+        if (hsPrefix == null || hsPrefix.isEmpty()) {
+            return null;
+        }
+        return (Integer.parseInt(hsPrefix) + 1) * pow10(HS_CODE_DIGITS - hsPrefix.length()) - 1;
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TariffFilter{" +
+                "reporter='" + reporter + '\'' +
+                ", partner='" + partner + '\'' +
+                ", hsPrefix='" + hsPrefix + '\'' +
+                ", yearFrom=" + yearFrom +
+                ", yearTo=" + yearTo +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffImportJobResponse {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @JsonProperty("jobId")
+    private String jobId;
+
+    @JsonProperty("fileName")
+    private String fileName;
+
+    @JsonProperty("format")
+    private String format;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("rowsRead")
+    private long rowsRead;
+
+    @JsonProperty("rowsImported")
+    private long rowsImported;
+
+    @JsonProperty("rowsRejected")
+    private long rowsRejected;
+
+    @JsonProperty("errors")
+    private List<TariffImportRowError> errors;
+
+    @JsonProperty("errorsTruncated")
+    private boolean errorsTruncated;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("submittedAt")
+    private LocalDateTime submittedAt;
+
+    @JsonProperty("finishedAt")
+    private LocalDateTime finishedAt;
+
+    public TariffImportJobResponse() {
+    }
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getRowsImported() { return rowsImported; }
+    public void setRowsImported(long rowsImported) { this.rowsImported = rowsImported; }
+
+    public long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(long rowsRejected) { this.rowsRejected = rowsRejected; }
+
+    public List<TariffImportRowError> getErrors() { return errors; }
+    public void setErrors(List<TariffImportRowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,25 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class TariffImportRowError {
+
+    @JsonProperty("row")
+    private long row;
+
+    @JsonProperty("errors")
+    private List<String> errors;
+
+    public TariffImportRowError(long row, List<String> errors) {
+        this.row = row;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public long getRow() { return row; }
+    public void setRow(long row) { this.row = row; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
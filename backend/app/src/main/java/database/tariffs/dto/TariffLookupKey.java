@@ -0,0 +1,41 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TariffLookupKey {
+
+    @JsonProperty("reporter")
+    private String reporter;
+
+    @JsonProperty("partner")
+    private String partner;
+
+    @JsonProperty("product")
+    private Integer product;
+
+    @JsonProperty("year")
+    private String year;
+
+    public TariffLookupKey() {
+    }
+
+    public TariffLookupKey(String reporter, String partner, Integer product, String year) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.product = product;
+        this.year = year;
+    }
+
+    // Getters and Setters
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+}
@@ -0,0 +1,32 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class TariffLookupResponse {
+
+    @JsonProperty("requested")
+    private int requested;
+
+    @JsonProperty("found")
+    private int found;
+
+    @JsonProperty("results")
+    private List<TariffLookupResult> results;
+
+    public TariffLookupResponse(int requested, int found, List<TariffLookupResult> results) {
+        this.requested = requested;
+        this.found = found;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getFound() { return found; }
+    public void setFound(int found) { this.found = found; }
+
+    public List<TariffLookupResult> getResults() { return results; }
+    public void setResults(List<TariffLookupResult> results) { this.results = results; }
+}
@@ -0,0 +1,69 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffLookupResult {
+
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("found")
+    private boolean found;
+
+    @JsonProperty("reporter")
+    private String reporter;
+
+    @JsonProperty("partner")
+    private String partner;
+
+    @JsonProperty("product")
+    private Integer product;
+
+    @JsonProperty("year")
+    private String year;
+
+    @JsonProperty("rate")
+    private Double rate;
+
+    @JsonProperty("unit")
+    private String unit;
+
+    public TariffLookupResult(int index, boolean found, String reporter, String partner,
+                              Integer product, String year, Double rate, String unit) {
+        this.index = index;
+        this.found = found;
+        this.reporter = reporter;
+        this.partner = partner;
+        this.product = product;
+        this.year = year;
+        this.rate = rate;
+        this.unit = unit;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public Double getRate() { return rate; }
+    public void setRate(Double rate) { this.rate = rate; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+}
@@ -0,0 +1,70 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Dense reporter x partner tariff matrix for one product and year.
+ * rates[r * countries.size() + p] is the rate from countries[r] to countries[p]; pairs without a
+ * tariff are NaN (null in JSON). Instances are cached and shared, so they must not be modified.
+ */
+public class TariffMatrixResponse {
+
+    @JsonProperty("product")
+    private final Integer product;
+
+    @JsonProperty("year")
+    private final String year;
+
+    @JsonProperty("countries")
+    private final List<String> countries;
+
+    @JsonProperty("rates")
+    @JsonSerialize(using = NanAsNullSerializer.class)
+    private final float[] rates;
+
+    @JsonProperty("found")
+    private final int found;
+
+    public TariffMatrixResponse(Integer product, String year, List<String> countries, float[] rates, int found) {
+        this.product = product;
+        this.year = year;
+        this.countries = countries;
+        this.rates = rates;
+        this.found = found;
+    }
+
+    // Getters
+    public Integer getProduct() { return product; }
+
+    public String getYear() { return year; }
+
+    public List<String> getCountries() { return countries; }
+
+    public float[] getRates() { return rates; }
+
+    public int getFound() { return found; }
+
+    /**
+     * Writes NaN entries as JSON null (Jackson would otherwise emit the non-standard token NaN)
+     */
+    static final class NanAsNullSerializer extends JsonSerializer<float[]> {
+        @Override
+        public void serialize(float[] values, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartArray(values, values.length);
+            for (float value : values) {
+                if (Float.isNaN(value)) {
+                    gen.writeNull();
+                } else {
+                    gen.writeNumber(value);
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class TariffPageResponse {
+
+    @JsonProperty("items")
+    private List<TariffResponse> items;
+
+    @JsonProperty("limit")
+    private int limit;
+
+    @JsonProperty("next")
+    private String next;
+
+    public TariffPageResponse(List<TariffResponse> items, int limit, String next) {
+        this.items = items;
+        this.limit = limit;
+        this.next = next;
+    }
+
+    // Getters and Setters
+    public List<TariffResponse> getItems() { return items; }
+    public void setItems(List<TariffResponse> items) { this.items = items; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public String getNext() { return next; }
+    public void setNext(String next) { this.next = next; }
+}
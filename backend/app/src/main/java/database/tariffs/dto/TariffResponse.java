@@ -1,7 +1,6 @@
 package database.tariffs.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import java.time.LocalDateTime;
 
 public class TariffResponse {
     
@@ -23,9 +22,6 @@ public class TariffResponse {
     @JsonProperty("unit")
     private String unit;
     
-    @JsonProperty("timestamp")
-    private LocalDateTime timestamp;
-    
     public TariffResponse(String reporter, String partner, Integer product, 
                          String year, Double rate, String unit) {
         this.reporter = reporter;
@@ -34,7 +30,6 @@ public class TariffResponse {
         this.year = year;
         this.rate = rate;
         this.unit = unit;
-        this.timestamp = LocalDateTime.now();
     }
     
     // Getters and Setters
@@ -55,7 +50,4 @@ public class TariffResponse {
     
     public String getUnit() { return unit; }
     public void setUnit(String unit) { this.unit = unit; }
-    
-    public LocalDateTime getTimestamp() { return timestamp; }
-    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TariffRollup {
+
+    // Zero-padded HS chapter ("10") or heading ("1006")
+    @JsonProperty("hs")
+    private String hs;
+
+    @JsonProperty("count")
+    private int count;
+
+    @JsonProperty("min")
+    private double min;
+
+    @JsonProperty("max")
+    private double max;
+
+    @JsonProperty("mean")
+    private double mean;
+
+    public TariffRollup(String hs, int count, double min, double max, double mean) {
+        this.hs = hs;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    // Getters and Setters
+    public String getHs() { return hs; }
+    public void setHs(String hs) { this.hs = hs; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public double getMin() { return min; }
+    public void setMin(double min) { this.min = min; }
+
+    public double getMax() { return max; }
+    public void setMax(double max) { this.max = max; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+}
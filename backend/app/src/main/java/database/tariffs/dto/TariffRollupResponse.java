@@ -0,0 +1,56 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffRollupResponse {
+
+    @JsonProperty("reporter")
+    private String reporter;
+
+    @JsonProperty("partner")
+    private String partner;
+
+    @JsonProperty("year")
+    private String year;
+
+    @JsonProperty("level")
+    private int level;
+
+    @JsonProperty("chapter")
+    private String chapter;
+
+    @JsonProperty("rollups")
+    private List<TariffRollup> rollups;
+
+    public TariffRollupResponse(String reporter, String partner, String year, int level,
+                                String chapter, List<TariffRollup> rollups) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.year = year;
+        this.level = level;
+        this.chapter = chapter;
+        this.rollups = rollups;
+    }
+
+    // Getters and Setters
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public String getChapter() { return chapter; }
+    public void setChapter(String chapter) { this.chapter = chapter; }
+
+    public List<TariffRollup> getRollups() { return rollups; }
+    public void setRollups(List<TariffRollup> rollups) { this.rollups = rollups; }
+}
@@ -0,0 +1,64 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffScenarioLineDelta {
+
+    // Position of the line in the request basket
+    private int index;
+    private String reporter;
+    private String partner;
+    private Integer product;
+    private String year;
+    private double value;
+
+    // Null when the tariff table has no rate for the line; it then counts as 0
+    private Double baselineRate;
+    private double scenarioRate;
+    private double baselineTariff;
+    private double scenarioTariff;
+    private double delta;
+
+    // Index of the last rule that matched the line
+    private int rule;
+
+    public TariffScenarioLineDelta() {}
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+
+    public Double getBaselineRate() { return baselineRate; }
+    public void setBaselineRate(Double baselineRate) { this.baselineRate = baselineRate; }
+
+    public double getScenarioRate() { return scenarioRate; }
+    public void setScenarioRate(double scenarioRate) { this.scenarioRate = scenarioRate; }
+
+    public double getBaselineTariff() { return baselineTariff; }
+    public void setBaselineTariff(double baselineTariff) { this.baselineTariff = baselineTariff; }
+
+    public double getScenarioTariff() { return scenarioTariff; }
+    public void setScenarioTariff(double scenarioTariff) { this.scenarioTariff = scenarioTariff; }
+
+    public double getDelta() { return delta; }
+    public void setDelta(double delta) { this.delta = delta; }
+
+    public int getRule() { return rule; }
+    public void setRule(int rule) { this.rule = rule; }
+}
@@ -0,0 +1,42 @@
+package database.tariffs.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+
+public class TariffScenarioRequest {
+
+    // Free-text label echoed in the response
+    @Size(max = 200, message = "Name must not be longer than 200 characters")
+    private String name;
+
+    @NotEmpty(message = "At least one rule is required")
+    @Size(max = 100, message = "A scenario must not have more than 100 rules")
+    @Valid
+    private List<TariffScenarioRule> rules;
+
+    @NotEmpty(message = "At least one line is required")
+    @Size(max = 200000, message = "A basket must not have more than 200000 lines")
+    @Valid
+    private List<TariffScenarioLine> lines;
+
+    // Constructors
+    public TariffScenarioRequest() {}
+
+    public TariffScenarioRequest(String name, List<TariffScenarioRule> rules, List<TariffScenarioLine> lines) {
+        this.name = name;
+        this.rules = rules;
+        this.lines = lines;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<TariffScenarioRule> getRules() { return rules; }
+    public void setRules(List<TariffScenarioRule> rules) { this.rules = rules; }
+
+    public List<TariffScenarioLine> getLines() { return lines; }
+    public void setLines(List<TariffScenarioLine> lines) { this.lines = lines; }
+}
@@ -0,0 +1,59 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffScenarioResponse {
+
+    private String name;
+    private int lines;
+    private int linesWithoutRate;
+    private int affectedLines;
+    private double totalValue;
+    private double baselineTariff;
+    private double scenarioTariff;
+    private double tariffDelta;
+    private double baselineLandedCost;
+    private double scenarioLandedCost;
+
+    // Only lines whose rate was changed by a rule, in basket order
+    private List<TariffScenarioLineDelta> changes;
+
+    public TariffScenarioResponse() {}
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getLines() { return lines; }
+    public void setLines(int lines) { this.lines = lines; }
+
+    public int getLinesWithoutRate() { return linesWithoutRate; }
+    public void setLinesWithoutRate(int linesWithoutRate) { this.linesWithoutRate = linesWithoutRate; }
+
+    public int getAffectedLines() { return affectedLines; }
+    public void setAffectedLines(int affectedLines) { this.affectedLines = affectedLines; }
+
+    public double getTotalValue() { return totalValue; }
+    public void setTotalValue(double totalValue) { this.totalValue = totalValue; }
+
+    public double getBaselineTariff() { return baselineTariff; }
+    public void setBaselineTariff(double baselineTariff) { this.baselineTariff = baselineTariff; }
+
+    public double getScenarioTariff() { return scenarioTariff; }
+    public void setScenarioTariff(double scenarioTariff) { this.scenarioTariff = scenarioTariff; }
+
+    public double getTariffDelta() { return tariffDelta; }
+    public void setTariffDelta(double tariffDelta) { this.tariffDelta = tariffDelta; }
+
+    public double getBaselineLandedCost() { return baselineLandedCost; }
+    public void setBaselineLandedCost(double baselineLandedCost) { this.baselineLandedCost = baselineLandedCost; }
+
+    public double getScenarioLandedCost() { return scenarioLandedCost; }
+    public void setScenarioLandedCost(double scenarioLandedCost) { this.scenarioLandedCost = scenarioLandedCost; }
+
+    public List<TariffScenarioLineDelta> getChanges() { return changes; }
+    public void setChanges(List<TariffScenarioLineDelta> changes) { this.changes = changes; }
+}
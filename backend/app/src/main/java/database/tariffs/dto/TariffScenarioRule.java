@@ -0,0 +1,71 @@
+package database.tariffs.dto;
+
+import jakarta.validation.constraints.*;
+
+/**
+ * One overlay of a what-if scenario. Null filters match everything; matching rates are changed by
+ * ADD (percentage points), MULTIPLY (factor) or SET (new rate).
+ */
+public class TariffScenarioRule {
+
+    public static final String TYPE_ADD = "ADD";
+    public static final String TYPE_MULTIPLY = "MULTIPLY";
+    public static final String TYPE_SET = "SET";
+
+    @Size(min = 3, max = 3, message = "Reporter must be 3-character ISO code")
+    private String reporter;
+
+    @Size(min = 3, max = 3, message = "Partner must be 3-character ISO code")
+    private String partner;
+
+    // Leading digits of the HS code, e.g. "72" for 720000-729999
+    @Pattern(regexp = "\\d{1,6}", message = "hsPrefix must be 1-6 digits")
+    private String hsPrefix;
+
+    private Integer yearFrom;
+
+    private Integer yearTo;
+
+    @NotNull(message = "Rule type is required")
+    @Pattern(regexp = "ADD|MULTIPLY|SET", message = "Rule type must be ADD, MULTIPLY or SET")
+    private String type;
+
+    @NotNull(message = "Rule value is required")
+    private Double value;
+
+    // Constructors
+    public TariffScenarioRule() {}
+
+    public TariffScenarioRule(String reporter, String partner, String hsPrefix, Integer yearFrom, Integer yearTo,
+                              String type, Double value) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.hsPrefix = hsPrefix;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        this.type = type;
+        this.value = value;
+    }
+
+    // Getters and Setters
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public String getHsPrefix() { return hsPrefix; }
+    public void setHsPrefix(String hsPrefix) { this.hsPrefix = hsPrefix; }
+
+    public Integer getYearFrom() { return yearFrom; }
+    public void setYearFrom(Integer yearFrom) { this.yearFrom = yearFrom; }
+
+    public Integer getYearTo() { return yearTo; }
+    public void setYearTo(Integer yearTo) { this.yearTo = yearTo; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+}
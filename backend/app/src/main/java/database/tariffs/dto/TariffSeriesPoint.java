@@ -0,0 +1,39 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TariffSeriesPoint {
+
+    @JsonProperty("year")
+    private String year;
+
+    @JsonProperty("rate")
+    private Double rate;
+
+    @JsonProperty("unit")
+    private String unit;
+
+    // True when the year has no row of its own and the previous value was carried forward
+    @JsonProperty("carried")
+    private boolean carried;
+
+    public TariffSeriesPoint(String year, Double rate, String unit, boolean carried) {
+        this.year = year;
+        this.rate = rate;
+        this.unit = unit;
+        this.carried = carried;
+    }
+
+    // Getters and Setters
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public Double getRate() { return rate; }
+    public void setRate(Double rate) { this.rate = rate; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public boolean isCarried() { return carried; }
+    public void setCarried(boolean carried) { this.carried = carried; }
+}
@@ -0,0 +1,61 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class TariffSeriesResponse {
+
+    @JsonProperty("reporter")
+    private String reporter;
+
+    @JsonProperty("partner")
+    private String partner;
+
+    @JsonProperty("product")
+    private Integer product;
+
+    @JsonProperty("from")
+    private int from;
+
+    @JsonProperty("to")
+    private int to;
+
+    @JsonProperty("fill")
+    private boolean fill;
+
+    @JsonProperty("points")
+    private List<TariffSeriesPoint> points;
+
+    public TariffSeriesResponse(String reporter, String partner, Integer product,
+                                int from, int to, boolean fill, List<TariffSeriesPoint> points) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.product = product;
+        this.from = from;
+        this.to = to;
+        this.fill = fill;
+        this.points = points;
+    }
+
+    // Getters and Setters
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public int getFrom() { return from; }
+    public void setFrom(int from) { this.from = from; }
+
+    public int getTo() { return to; }
+    public void setTo(int to) { this.to = to; }
+
+    public boolean isFill() { return fill; }
+    public void setFill(boolean fill) { this.fill = fill; }
+
+    public List<TariffSeriesPoint> getPoints() { return points; }
+    public void setPoints(List<TariffSeriesPoint> points) { this.points = points; }
+}
@@ -0,0 +1,46 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class TariffStatsGroup {
+
+    // Reporter or partner code, year, or zero-padded HS chapter, depending on groupBy
+    @JsonProperty("key")
+    private String key;
+
+    @JsonProperty("count")
+    private int count;
+
+    @JsonProperty("min")
+    private double min;
+
+    @JsonProperty("max")
+    private double max;
+
+    @JsonProperty("mean")
+    private double mean;
+
+    public TariffStatsGroup(String key, int count, double min, double max, double mean) {
+        this.key = key;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public double getMin() { return min; }
+    public void setMin(double min) { this.min = min; }
+
+    public double getMax() { return max; }
+    public void setMax(double max) { this.max = max; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+}
@@ -0,0 +1,82 @@
+package database.tariffs.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TariffStatsResponse {
+
+    // Tariff table version the in-memory copy was built at
+    @JsonProperty("version")
+    private long version;
+
+    @JsonProperty("scanned")
+    private int scanned;
+
+    @JsonProperty("count")
+    private int count;
+
+    // min, max and mean are omitted when no row matched
+    @JsonProperty("min")
+    private Double min;
+
+    @JsonProperty("max")
+    private Double max;
+
+    @JsonProperty("mean")
+    private Double mean;
+
+    @JsonProperty("groupBy")
+    private String groupBy;
+
+    @JsonProperty("groups")
+    private List<TariffStatsGroup> groups;
+
+    @JsonProperty("bucketWidth")
+    private Double bucketWidth;
+
+    // histogram[i] counts matching rates in [i * bucketWidth, (i + 1) * bucketWidth)
+    @JsonProperty("histogram")
+    private int[] histogram;
+
+    public TariffStatsResponse(long version, int scanned, int count, Double min, Double max, Double mean) {
+        this.version = version;
+        this.scanned = scanned;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    // Getters and Setters
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public int getScanned() { return scanned; }
+    public void setScanned(int scanned) { this.scanned = scanned; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+
+    public String getGroupBy() { return groupBy; }
+    public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+
+    public List<TariffStatsGroup> getGroups() { return groups; }
+    public void setGroups(List<TariffStatsGroup> groups) { this.groups = groups; }
+
+    public Double getBucketWidth() { return bucketWidth; }
+    public void setBucketWidth(Double bucketWidth) { this.bucketWidth = bucketWidth; }
+
+    public int[] getHistogram() { return histogram; }
+    public void setHistogram(int[] histogram) { this.histogram = histogram; }
+}
@@ -0,0 +1,29 @@
+package database.tariffs.entity;
+
+/**
+ * A row of the tariff change feed: the current state of an inserted/updated key,
+ * or a tombstone (deleted = true, no rate/unit) for a deleted one
+ */
+public class TariffChangeEntity extends TariffRateEntity {
+
+    private long version;
+    private boolean deleted;
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    @Override
+    public String toString() {
+        return "TariffChangeEntity{" +
+                "countryIsoNumeric='" + getCountryIsoNumeric() + '\'' +
+                ", partnerIsoNumeric='" + getPartnerIsoNumeric() + '\'' +
+                ", productHsCode=" + getProductHsCode() +
+                ", year='" + getYear() + '\'' +
+                ", version=" + version +
+                ", deleted=" + deleted +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package database.tariffs.entity;
+
+/**
+ * Aggregate of the tariffs of one reporter/partner/year under an HS chapter (level 2) or
+ * heading (level 4); prefix is product_id / 10^(6 - level)
+ */
+public class TariffRollupEntity {
+
+    private String countryIsoNumeric;
+    private String partnerIsoNumeric;
+    private String year;
+    private int level;
+    private int prefix;
+    private int count;
+    private double rateSum;
+    private double minRate;
+    private double maxRate;
+
+    // Getters and setters
+
+    public String getCountryIsoNumeric() { return countryIsoNumeric; }
+    public void setCountryIsoNumeric(String countryIsoNumeric) { this.countryIsoNumeric = countryIsoNumeric; }
+
+    public String getPartnerIsoNumeric() { return partnerIsoNumeric; }
+    public void setPartnerIsoNumeric(String partnerIsoNumeric) { this.partnerIsoNumeric = partnerIsoNumeric; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public int getPrefix() { return prefix; }
+    public void setPrefix(int prefix) { this.prefix = prefix; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public double getRateSum() { return rateSum; }
+    public void setRateSum(double rateSum) { this.rateSum = rateSum; }
+
+    public double getMinRate() { return minRate; }
+    public void setMinRate(double minRate) { this.minRate = minRate; }
+
+    public double getMaxRate() { return maxRate; }
+    public void setMaxRate(double maxRate) { this.maxRate = maxRate; }
+}
@@ -0,0 +1,12 @@
+package database.tariffs.exception;
+
+public class InvalidTariffQueryException extends RuntimeException {
+
+    public InvalidTariffQueryException(String message) {
+        super(message);
+    }
+
+    public InvalidTariffQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package database.tariffs.exception;
+
+public class TariffImportJobNotFoundException extends RuntimeException {
+    private String jobId;
+
+    public TariffImportJobNotFoundException(String jobId) {
+        super("Tariff import job not found: " + jobId);
+        this.jobId = jobId;
+    }
+
+    public String getJobId() { return jobId; }
+}
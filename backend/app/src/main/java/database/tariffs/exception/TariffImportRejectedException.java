@@ -0,0 +1,8 @@
+package database.tariffs.exception;
+
+public class TariffImportRejectedException extends RuntimeException {
+
+    public TariffImportRejectedException(String message) {
+        super(message);
+    }
+}
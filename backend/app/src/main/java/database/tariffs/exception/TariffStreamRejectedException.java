@@ -0,0 +1,8 @@
+package database.tariffs.exception;
+
+public class TariffStreamRejectedException extends RuntimeException {
+
+    public TariffStreamRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package database.tariffs.exception;
+
+public class TariffWriteRejectedException extends RuntimeException {
+
+    public TariffWriteRejectedException(String message) {
+        super(message);
+    }
+}
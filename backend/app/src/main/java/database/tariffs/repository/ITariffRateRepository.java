@@ -1,7 +1,11 @@
 package database.tariffs.repository;
 
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.entity.TariffChangeEntity;
 import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.entity.TariffRollupEntity;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository interface for TariffRate operations.
@@ -9,6 +13,15 @@ import java.util.List;
  */
 public interface ITariffRateRepository {
 
+    /** Returned by currentVersion() when no version is available (callers must not cache on it) */
+    long NO_VERSION = -1L;
+
+    /** Rollup level of HS chapters (first two digits of the 6-digit HS code) */
+    int HS_CHAPTER = 2;
+
+    /** Rollup level of HS headings (first four digits of the 6-digit HS code) */
+    int HS_HEADING = 4;
+
     /**
      * Check if tariff exists by composite key
      */
@@ -25,6 +38,69 @@ public interface ITariffRateRepository {
      */
     List<TariffRateEntity> getAllTariffs();
 
+    /**
+     * Stream all tariffs through a forward-only cursor, handing each row to the consumer
+     * as it is read so memory use does not grow with the table
+     */
+    void streamAllTariffs(Consumer<TariffRateEntity> consumer);
+
+    /**
+     * Get one page of tariffs in primary-key order, strictly after the given key (keyset pagination)
+     * @param after key of the last row of the previous page, or null for the first page
+     */
+    List<TariffRateEntity> findPage(TariffFilter filter, TariffRateEntity after, int limit);
+
+    /**
+     * Get the tariffs for many composite keys at once (only the key fields of each entity are read).
+     * Rows come back in no particular order; keys with no tariff are simply absent.
+     */
+    List<TariffRateEntity> findByKeys(List<TariffRateEntity> keys);
+
+    /**
+     * Get the yearly series of one reporter/partner/product in ascending year order
+     * @param includePrevious also return the latest row before fromYear, if any (seed for gap filling)
+     */
+    List<TariffRateEntity> findSeries(String reporter, String partner, Integer product,
+                                      int fromYear, int toYear, boolean includePrevious);
+
+    /**
+     * Get every reporter/partner rate of one product and year in (reporter, partner) order.
+     * Only the key fields and rate are populated.
+     */
+    List<TariffRateEntity> findMatrix(Integer product, String year);
+
+    /**
+     * Get the precomputed HS rollups of one reporter/partner/year in prefix order
+     * @param level 2 for HS chapters, 4 for HS headings
+     * @param chapter only return headings under this HS chapter (level 4 only), or null for all
+     */
+    List<TariffRollupEntity> findRollups(String reporter, String partner, String year, int level, Integer chapter);
+
+    /**
+     * Monotonic version of the TariffRollups table, bumped by every rollup refresh. Separate from
+     * currentVersion(): rollups trail the tariff writes that feed them, and refreshing them does
+     * not change TariffRates.
+     * @return the current rollup version, or NO_VERSION if it cannot be determined
+     */
+    long rollupVersion();
+
+    /**
+     * Monotonic version of the TariffRates table. Every write that changes rows allocates a new
+     * version when it commits; the value returned only counts versions with no write still
+     * committing beneath them. Read it before reading tariff data: a value seen then never
+     * describes newer rows. Decorators serve it from TariffVersionTracker, which may trail the
+     * change log by one poll interval for writes made on other nodes.
+     * @return the current version, or NO_VERSION if it cannot be determined
+     */
+    long currentVersion();
+
+    /**
+     * Get inserted/updated rows and delete tombstones in (version, key) order, strictly after the
+     * given feed position and no newer than upToVersion
+     * @param afterKey key of the last change already returned within afterVersion, or null
+     */
+    List<TariffChangeEntity> findChanges(long afterVersion, TariffRateEntity afterKey, long upToVersion, int limit);
+
     /**
      * Create new tariff
      */
@@ -38,6 +114,13 @@ public interface ITariffRateRepository {
     int update(String reporter, String partner, Integer product, String year,
                Double rate, String unit);
 
+    /**
+     * Insert or update many tariffs using batched INSERT ... ON DUPLICATE KEY UPDATE statements
+     * @return per-row update counts in input order (1 inserted, 2 updated, 0 unchanged, or
+     *         Statement.SUCCESS_NO_INFO when the driver rewrites the batch into multi-row inserts)
+     */
+    int[] upsertAll(List<TariffRateEntity> tariffs);
+
     /**
      * Delete tariff by composite key
      * @return number of rows deleted
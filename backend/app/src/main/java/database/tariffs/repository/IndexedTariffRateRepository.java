@@ -0,0 +1,316 @@
+package database.tariffs.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.entity.TariffChangeEntity;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.entity.TariffRollupEntity;
+import database.tariffs.util.TariffDataTransformer;
+import database.tariffs.util.TariffKeyCodec;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through, write-through in-memory index in front of TariffRateRepository.
+ *
+ * Point reads are answered from a primitive TariffRateIndex keyed by the packed composite key;
+ * misses fall through to MySQL and the hit is cached. Writes go to MySQL first and are applied
+ * to the index after the surrounding transaction commits, so a rolled-back write never leaks
+ * into the index. Keys that cannot be packed bypass the index entirely.
+ *
+ * Index misses consult the memory-mapped TariffSnapshotStore before MySQL, so a freshly started
+ * node answers most reads without a cold database round trip. Every write marks its key dirty in
+ * the snapshot store so the snapshot never shadows newer data.
+ *
+ * Writes made on other nodes reach the index through TariffVersionTracker, which evicts every key
+ * in the change feed before the new table version is published. Entries also expire after
+ * ttlSeconds, which bounds how long a missed invalidation can be served.
+ */
+@Repository
+public class IndexedTariffRateRepository implements ITariffRateRepository, TariffChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(IndexedTariffRateRepository.class);
+
+    private final TariffRateRepository delegate;
+    private final TariffRateIndex index;
+    private final TariffSnapshotStore snapshots;
+    private final TariffVersionTracker versions;
+    private final boolean enabled;
+
+    public IndexedTariffRateRepository(
+            TariffRateRepository delegate,
+            TariffSnapshotStore snapshots,
+            TariffVersionTracker versions,
+            @Value("${app.tariffs.index.enabled:true}") boolean enabled,
+            @Value("${app.tariffs.index.maxEntries:2000000}") int maxEntries,
+            @Value("${app.tariffs.index.ttlSeconds:300}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.snapshots = snapshots;
+        this.versions = versions;
+        this.enabled = enabled;
+        this.index = new TariffRateIndex(maxEntries, ttlSeconds, TimeUnit.SECONDS);
+        logger.info("Tariff index {} (maxEntries={}, ttl={}s)",
+                enabled ? "enabled" : "disabled", maxEntries, ttlSeconds);
+    }
+
+    @PostConstruct
+    public void registerForChanges() {
+        if (enabled) {
+            versions.addListener(this);
+        }
+    }
+
+    @Override
+    public boolean exists(String reporter, String partner, Integer product, String year) {
+        long key = keyOf(reporter, partner, product, year);
+        if (key != TariffKeyCodec.NO_KEY
+                && (index.contains(key) || snapshots.find(reporter, partner, product, year, key) != null)) {
+            return true;
+        }
+        return delegate.exists(reporter, partner, product, year);
+    }
+
+    @Override
+    public TariffRateEntity getTariff(String reporter, String partner, Integer product, String year) {
+        long key = keyOf(reporter, partner, product, year);
+        if (key == TariffKeyCodec.NO_KEY) {
+            return delegate.getTariff(reporter, partner, product, year);
+        }
+
+        long value = index.get(key);
+        if (value != TariffRateIndex.NO_VALUE) {
+            return toEntity(reporter, partner, product, year, value);
+        }
+        TariffRateEntity fromSnapshot = snapshots.find(reporter, partner, product, year, key);
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+
+        long modifications = index.modifications();
+        TariffRateEntity entity = delegate.getTariff(reporter, partner, product, year);
+        if (entity != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Only cache committed state; inside a transaction we may be reading our own writes
+            index.putIfUnmodified(key, TariffKeyCodec.scaleRate(entity.getRate()), entity.getUnit(), modifications);
+        }
+        return entity;
+    }
+
+    @Override
+    public List<TariffRateEntity> getAllTariffs() {
+        return delegate.getAllTariffs();
+    }
+
+    @Override
+    public void streamAllTariffs(Consumer<TariffRateEntity> consumer) {
+        delegate.streamAllTariffs(consumer);
+    }
+
+    @Override
+    public List<TariffRateEntity> findPage(TariffFilter filter, TariffRateEntity after, int limit) {
+        return delegate.findPage(filter, after, limit);
+    }
+
+    @Override
+    public List<TariffRateEntity> findByKeys(List<TariffRateEntity> keys) {
+        if (!enabled) {
+            return delegate.findByKeys(keys);
+        }
+
+        List<TariffRateEntity> found = new ArrayList<>(keys.size());
+        List<TariffRateEntity> misses = new ArrayList<>();
+        for (TariffRateEntity key : keys) {
+            long packed = keyOf(key.getCountryIsoNumeric(), key.getPartnerIsoNumeric(),
+                    key.getProductHsCode(), key.getYear());
+            long value = packed == TariffKeyCodec.NO_KEY ? TariffRateIndex.NO_VALUE : index.get(packed);
+            if (value != TariffRateIndex.NO_VALUE) {
+                found.add(toEntity(key.getCountryIsoNumeric(), key.getPartnerIsoNumeric(),
+                        key.getProductHsCode(), key.getYear(), value));
+                continue;
+            }
+            TariffRateEntity fromSnapshot = snapshots.find(key.getCountryIsoNumeric(), key.getPartnerIsoNumeric(),
+                    key.getProductHsCode(), key.getYear(), packed);
+            if (fromSnapshot != null) {
+                found.add(fromSnapshot);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        long modifications = index.modifications();
+        List<TariffRateEntity> loaded = delegate.findByKeys(misses);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (TariffRateEntity entity : loaded) {
+                long packed = keyOf(entity.getCountryIsoNumeric(), entity.getPartnerIsoNumeric(),
+                        entity.getProductHsCode(), entity.getYear());
+                if (packed != TariffKeyCodec.NO_KEY) {
+                    // Skipped once any concurrent write has bumped the counter
+                    index.putIfUnmodified(packed, TariffKeyCodec.scaleRate(entity.getRate()),
+                            entity.getUnit(), modifications);
+                }
+            }
+        }
+        found.addAll(loaded);
+        return found;
+    }
+
+    @Override
+    public List<TariffRateEntity> findSeries(String reporter, String partner, Integer product,
+                                             int fromYear, int toYear, boolean includePrevious) {
+        return delegate.findSeries(reporter, partner, product, fromYear, toYear, includePrevious);
+    }
+
+    @Override
+    public List<TariffRateEntity> findMatrix(Integer product, String year) {
+        return delegate.findMatrix(product, year);
+    }
+
+    @Override
+    public List<TariffRollupEntity> findRollups(String reporter, String partner, String year,
+                                                int level, Integer chapter) {
+        return delegate.findRollups(reporter, partner, year, level, chapter);
+    }
+
+    @Override
+    public long rollupVersion() {
+        return delegate.rollupVersion();
+    }
+
+    @Override
+    public long currentVersion() {
+        // Served from memory; TariffVersionTracker keeps it in step with the change log
+        return versions.currentVersion();
+    }
+
+    @Override
+    public List<TariffChangeEntity> findChanges(long afterVersion, TariffRateEntity afterKey,
+                                                long upToVersion, int limit) {
+        return delegate.findChanges(afterVersion, afterKey, upToVersion, limit);
+    }
+
+    @Override
+    public void create(String reporter, String partner, Integer product, String year,
+                       Double rate, String unit) {
+        long key = keyOf(reporter, partner, product, year);
+        snapshots.markDirty(key);
+        delegate.create(reporter, partner, product, year, rate, unit);
+        afterCommit(key, () -> index.put(key, TariffKeyCodec.scaleRate(rate),
+                TariffDataTransformer.normalizeUnit(unit)));
+    }
+
+    @Override
+    public int update(String reporter, String partner, Integer product, String year,
+                      Double rate, String unit) {
+        long key = keyOf(reporter, partner, product, year);
+        snapshots.markDirty(key);
+        int rowsUpdated = delegate.update(reporter, partner, product, year, rate, unit);
+        if (rowsUpdated > 0) {
+            afterCommit(key, () -> index.put(key, TariffKeyCodec.scaleRate(rate),
+                    TariffDataTransformer.normalizeUnit(unit)));
+        } else {
+            afterCommit(key, () -> index.remove(key));
+        }
+        return rowsUpdated;
+    }
+
+    @Override
+    public int[] upsertAll(List<TariffRateEntity> tariffs) {
+        if (!enabled) {
+            return delegate.upsertAll(tariffs);
+        }
+
+        long[] keys = new long[tariffs.size()];
+        for (int i = 0; i < keys.length; i++) {
+            TariffRateEntity tariff = tariffs.get(i);
+            keys[i] = keyOf(tariff.getCountryIsoNumeric(), tariff.getPartnerIsoNumeric(),
+                    tariff.getProductHsCode(), tariff.getYear());
+            snapshots.markDirty(keys[i]);
+        }
+        int[] counts = delegate.upsertAll(tariffs);
+        for (long key : keys) {
+            index.remove(key);
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            for (int i = 0; i < keys.length; i++) {
+                snapshots.markDirty(keys[i]);
+                TariffRateEntity tariff = tariffs.get(i);
+                index.put(keys[i], TariffKeyCodec.scaleRate(tariff.getRate()),
+                        TariffDataTransformer.normalizeUnit(tariff.getUnit()));
+            }
+        });
+        return counts;
+    }
+
+    @Override
+    public int delete(String reporter, String partner, Integer product, String year) {
+        long key = keyOf(reporter, partner, product, year);
+        snapshots.markDirty(key);
+        int rowsDeleted = delegate.delete(reporter, partner, product, year);
+        afterCommit(key, () -> index.remove(key));
+        return rowsDeleted;
+    }
+
+    @Override
+    public void onTariffChanges(List<TariffChangeEntity> changes) {
+        for (TariffChangeEntity change : changes) {
+            // Bumps the modification counter, so a read-through that raced with the change is not cached
+            index.remove(keyOf(change.getCountryIsoNumeric(), change.getPartnerIsoNumeric(),
+                    change.getProductHsCode(), change.getYear()));
+        }
+    }
+
+    @Override
+    public void onTariffReset() {
+        index.clear();
+    }
+
+    /**
+     * Drop every cached entry (e.g. after out-of-band bulk changes to TariffRates)
+     */
+    public void invalidateAll() {
+        index.clear();
+        snapshots.discard();
+    }
+
+    private long keyOf(String reporter, String partner, Integer product, String year) {
+        return enabled ? TariffKeyCodec.pack(reporter, partner, product, year) : TariffKeyCodec.NO_KEY;
+    }
+
+    /**
+     * Evict now so nobody reads the pre-write value from the index, then apply the
+     * post-write state once the transaction (if any) commits.
+     */
+    private void afterCommit(long key, Runnable action) {
+        if (key == TariffKeyCodec.NO_KEY) {
+            return;
+        }
+        index.remove(key);
+        TransactionCallbacks.afterCommit(() -> {
+            // Re-mark so a snapshot started before this commit does not clear the key
+            snapshots.markDirty(key);
+            action.run();
+        });
+    }
+
+    private TariffRateEntity toEntity(String reporter, String partner, Integer product, String year, long value) {
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(reporter);
+        entity.setPartnerIsoNumeric(partner);
+        entity.setProductHsCode(product);
+        entity.setYear(year);
+        entity.setRate(TariffKeyCodec.unscaleRate(TariffRateIndex.rateOf(value)));
+        entity.setUnit(index.unitOf(value));
+        return entity;
+    }
+}
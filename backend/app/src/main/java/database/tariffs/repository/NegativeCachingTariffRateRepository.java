@@ -0,0 +1,390 @@
+package database.tariffs.repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Repository;
+
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.entity.TariffChangeEntity;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.entity.TariffRollupEntity;
+import database.tariffs.util.TariffKeyCodec;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Negative-lookup cache in front of IndexedTariffRateRepository.
+ *
+ * Answers "this key does not exist" without touching the database in two ways:
+ *   - a Bloom filter over every key in TariffRates, built by streaming the table in the
+ *     background at startup and rebuilt periodically
+ *   - a short-TTL set of keys the database recently reported missing (catches Bloom false positives)
+ *
+ * Writes on this node that can add a key mark it present before the statement runs and again
+ * after commit, so neither structure can hide a row committed here. Keys inserted on other nodes
+ * are marked present from the change feed by TariffVersionTracker, so a negative answer is only
+ * definitive up to the last version this node has seen (at most one poll interval behind).
+ * A generation counter stops a lookup that raced with such a write from recording a stale miss.
+ */
+@Repository
+@Primary
+public class NegativeCachingTariffRateRepository implements ITariffRateRepository, TariffChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(NegativeCachingTariffRateRepository.class);
+
+    private static final long REBUILD_RETRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final IndexedTariffRateRepository delegate;
+    private final TariffVersionTracker versions;
+    private final TaskExecutor executor;
+    private final boolean enabled;
+    private final long missTtlNanos;
+    private final int maxMisses;
+    private final long bloomExpectedKeys;
+    private final double bloomFalsePositiveRate;
+    private final long bloomRebuildNanos;
+
+    private final ConcurrentHashMap<Long, Long> misses = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Null until the first build completes; lookups only trust a fully built filter
+    private volatile TariffKeyBloomFilter bloom;
+    // Non-null while a rebuild is streaming the table, so concurrent writes land in both filters
+    private volatile TariffKeyBloomFilter building;
+    private volatile long nextRebuildAt;
+
+    public NegativeCachingTariffRateRepository(
+            IndexedTariffRateRepository delegate,
+            TariffVersionTracker versions,
+            @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+            @Value("${app.tariffs.negativeCache.enabled:true}") boolean enabled,
+            @Value("${app.tariffs.negativeCache.ttlSeconds:30}") long missTtlSeconds,
+            @Value("${app.tariffs.negativeCache.maxEntries:100000}") int maxMisses,
+            @Value("${app.tariffs.negativeCache.bloomExpectedKeys:2000000}") long bloomExpectedKeys,
+            @Value("${app.tariffs.negativeCache.bloomFalsePositiveRate:0.01}") double bloomFalsePositiveRate,
+            @Value("${app.tariffs.negativeCache.bloomRebuildMinutes:15}") long bloomRebuildMinutes) {
+        this.delegate = delegate;
+        this.versions = versions;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.missTtlNanos = TimeUnit.SECONDS.toNanos(missTtlSeconds);
+        this.maxMisses = maxMisses;
+        this.bloomExpectedKeys = bloomExpectedKeys;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.bloomRebuildNanos = TimeUnit.MINUTES.toNanos(bloomRebuildMinutes);
+        this.nextRebuildAt = System.nanoTime() + bloomRebuildNanos;
+        logger.info("Tariff negative cache {} (ttl={}s, maxEntries={})",
+                enabled ? "enabled" : "disabled", missTtlSeconds, maxMisses);
+    }
+
+    @PostConstruct
+    public void registerForChanges() {
+        if (enabled) {
+            versions.addListener(this);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            scheduleBloomRebuild();
+        }
+    }
+
+    @Override
+    public boolean exists(String reporter, String partner, Integer product, String year) {
+        long key = keyOf(reporter, partner, product, year);
+        if (key != TariffKeyCodec.NO_KEY && isKnownMissing(key)) {
+            return false;
+        }
+        return delegate.exists(reporter, partner, product, year);
+    }
+
+    @Override
+    public TariffRateEntity getTariff(String reporter, String partner, Integer product, String year) {
+        long key = keyOf(reporter, partner, product, year);
+        if (key == TariffKeyCodec.NO_KEY) {
+            return delegate.getTariff(reporter, partner, product, year);
+        }
+        if (isKnownMissing(key)) {
+            logger.debug("Negative cache hit: reporter={}, partner={}, product={}, year={}",
+                    reporter, partner, product, year);
+            return null;
+        }
+
+        long observed = generation.get();
+        TariffRateEntity entity = delegate.getTariff(reporter, partner, product, year);
+        if (entity == null) {
+            recordMiss(key, observed);
+        }
+        return entity;
+    }
+
+    @Override
+    public List<TariffRateEntity> getAllTariffs() {
+        return delegate.getAllTariffs();
+    }
+
+    @Override
+    public void streamAllTariffs(Consumer<TariffRateEntity> consumer) {
+        delegate.streamAllTariffs(consumer);
+    }
+
+    @Override
+    public List<TariffRateEntity> findPage(TariffFilter filter, TariffRateEntity after, int limit) {
+        return delegate.findPage(filter, after, limit);
+    }
+
+    @Override
+    public List<TariffRateEntity> findByKeys(List<TariffRateEntity> keys) {
+        if (!enabled) {
+            return delegate.findByKeys(keys);
+        }
+
+        List<TariffRateEntity> remaining = new ArrayList<>(keys.size());
+        List<Long> remainingKeys = new ArrayList<>(keys.size());
+        for (TariffRateEntity key : keys) {
+            long packed = keyOf(key);
+            if (packed == TariffKeyCodec.NO_KEY || !isKnownMissing(packed)) {
+                remaining.add(key);
+                remainingKeys.add(packed);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        long observed = generation.get();
+        List<TariffRateEntity> found = delegate.findByKeys(remaining);
+        Set<Long> hits = new HashSet<>();
+        for (TariffRateEntity entity : found) {
+            hits.add(keyOf(entity));
+        }
+        for (long packed : remainingKeys) {
+            if (packed != TariffKeyCodec.NO_KEY && !hits.contains(packed)) {
+                recordMiss(packed, observed);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<TariffRateEntity> findSeries(String reporter, String partner, Integer product,
+                                             int fromYear, int toYear, boolean includePrevious) {
+        return delegate.findSeries(reporter, partner, product, fromYear, toYear, includePrevious);
+    }
+
+    @Override
+    public List<TariffRateEntity> findMatrix(Integer product, String year) {
+        return delegate.findMatrix(product, year);
+    }
+
+    @Override
+    public List<TariffRollupEntity> findRollups(String reporter, String partner, String year,
+                                                int level, Integer chapter) {
+        return delegate.findRollups(reporter, partner, year, level, chapter);
+    }
+
+    @Override
+    public long rollupVersion() {
+        return delegate.rollupVersion();
+    }
+
+    @Override
+    public long currentVersion() {
+        return delegate.currentVersion();
+    }
+
+    @Override
+    public List<TariffChangeEntity> findChanges(long afterVersion, TariffRateEntity afterKey,
+                                                long upToVersion, int limit) {
+        return delegate.findChanges(afterVersion, afterKey, upToVersion, limit);
+    }
+
+    @Override
+    public void create(String reporter, String partner, Integer product, String year,
+                       Double rate, String unit) {
+        long key = keyOf(reporter, partner, product, year);
+        markPresent(key);
+        delegate.create(reporter, partner, product, year, rate, unit);
+        if (key != TariffKeyCodec.NO_KEY) {
+            TransactionCallbacks.afterCommit(() -> markPresent(key));
+        }
+    }
+
+    @Override
+    public int update(String reporter, String partner, Integer product, String year,
+                      Double rate, String unit) {
+        // Only touches existing rows, so it can never turn a miss into a hit
+        return delegate.update(reporter, partner, product, year, rate, unit);
+    }
+
+    @Override
+    public int[] upsertAll(List<TariffRateEntity> tariffs) {
+        if (!enabled) {
+            return delegate.upsertAll(tariffs);
+        }
+
+        long[] keys = new long[tariffs.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyOf(tariffs.get(i));
+            markPresent(keys[i]);
+        }
+        int[] counts = delegate.upsertAll(tariffs);
+        TransactionCallbacks.afterCommit(() -> {
+            for (long key : keys) {
+                markPresent(key);
+            }
+        });
+        return counts;
+    }
+
+    @Override
+    public int delete(String reporter, String partner, Integer product, String year) {
+        // Deleted keys stay in the Bloom filter until the next rebuild; that only costs a query
+        return delegate.delete(reporter, partner, product, year);
+    }
+
+    @Override
+    public void onTariffChanges(List<TariffChangeEntity> changes) {
+        for (TariffChangeEntity change : changes) {
+            if (!change.isDeleted()) {
+                markPresent(keyOf(change));
+            }
+        }
+    }
+
+    @Override
+    public void onTariffReset() {
+        invalidateAll();
+    }
+
+    /**
+     * Drop all recorded misses (e.g. after out-of-band inserts) and rebuild the Bloom filter
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        misses.clear();
+        bloom = null;
+        if (enabled) {
+            scheduleBloomRebuild();
+        }
+    }
+
+    boolean isKnownMissing(long key) {
+        Long expiresAt = misses.get(key);
+        if (expiresAt != null) {
+            if (expiresAt - System.nanoTime() > 0) {
+                return true;
+            }
+            misses.remove(key, expiresAt);
+        }
+
+        if (nextRebuildAt - System.nanoTime() <= 0) {
+            scheduleBloomRebuild();
+        }
+        TariffKeyBloomFilter current = bloom;
+        return current != null && !current.mightContain(key);
+    }
+
+    /**
+     * Remember a miss unless a write that could have created the key started since 'observed'
+     */
+    private void recordMiss(long key, long observed) {
+        if (generation.get() != observed) {
+            return;
+        }
+        if (misses.size() >= maxMisses) {
+            misses.clear();
+        }
+        misses.put(key, System.nanoTime() + missTtlNanos);
+        if (generation.get() != observed) {
+            misses.remove(key);
+        }
+    }
+
+    private void markPresent(long key) {
+        if (key == TariffKeyCodec.NO_KEY) {
+            return;
+        }
+        // Read 'building' before 'bloom': a rebuild publishes 'bloom' before clearing 'building',
+        // so this order can never skip the filter that ends up in use
+        TariffKeyBloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        TariffKeyBloomFilter current = bloom;
+        if (current != null) {
+            current.put(key);
+        }
+        generation.incrementAndGet();
+        misses.remove(key);
+    }
+
+    private void scheduleBloomRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::rebuildBloom);
+        } catch (TaskRejectedException e) {
+            logger.warn("Tariff Bloom filter rebuild rejected: {}", e.getMessage());
+            rebuilding.set(false);
+        }
+    }
+
+    void rebuildBloom() {
+        long start = System.nanoTime();
+        try {
+            TariffKeyBloomFilter next = TariffKeyBloomFilter.create(bloomExpectedKeys, bloomFalsePositiveRate);
+            building = next;
+            long[] count = new long[1];
+            delegate.streamAllTariffs(entity -> {
+                long key = keyOf(entity);
+                if (key != TariffKeyCodec.NO_KEY) {
+                    next.put(key);
+                    count[0]++;
+                }
+            });
+            bloom = next;
+            long end = System.nanoTime();
+            nextRebuildAt = end + bloomRebuildNanos;
+            logger.info("Built tariff Bloom filter over {} keys in {} ms",
+                    count[0], TimeUnit.NANOSECONDS.toMillis(end - start));
+        } catch (RuntimeException e) {
+            // A stale filter could hide rows written elsewhere, so stop trusting it until a rebuild succeeds
+            bloom = null;
+            nextRebuildAt = System.nanoTime() + REBUILD_RETRY_NANOS;
+            logger.error("Failed to build tariff Bloom filter: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    private long keyOf(String reporter, String partner, Integer product, String year) {
+        return enabled ? TariffKeyCodec.pack(reporter, partner, product, year) : TariffKeyCodec.NO_KEY;
+    }
+
+    private long keyOf(TariffRateEntity entity) {
+        return keyOf(entity.getCountryIsoNumeric(), entity.getPartnerIsoNumeric(),
+                entity.getProductHsCode(), entity.getYear());
+    }
+}
@@ -0,0 +1,23 @@
+package database.tariffs.repository;
+
+import java.util.List;
+
+import database.tariffs.entity.TariffChangeEntity;
+
+/**
+ * Receives the TariffRates changes picked up by TariffVersionTracker, from this node or any other.
+ * Called before the new version is published, so a cache that drops what it is told about never
+ * serves pre-change data under a post-change version.
+ */
+public interface TariffChangeListener {
+
+    /**
+     * Keys inserted, updated or deleted since the previous notification
+     */
+    void onTariffChanges(List<TariffChangeEntity> changes);
+
+    /**
+     * Too many changes to list one by one; drop everything derived from TariffRates
+     */
+    void onTariffReset();
+}
@@ -0,0 +1,128 @@
+package database.tariffs.repository;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocates TariffRates table versions from the AUTO_INCREMENT TariffChangeLog (V9).
+ *
+ * A write stamps the rows it touches with a random change id, then appends one log row as its
+ * last statement; the generated `version` of that row is the version of the write. No row is
+ * shared between writers, so versions are handed out without a table-wide lock held until commit.
+ *
+ * The price is that versions can commit out of order: a log row is invisible between its insert
+ * and its commit, which shows up to readers as a gap below newer versions. The stable version is
+ * the highest version with no such gap beneath it. A gap older than gapTimeoutSeconds belongs to
+ * a write that rolled back after appending (or a node that died mid-commit) and is skipped.
+ */
+@Component
+public class TariffChangeLog {
+
+    // Rows stamped before V9 carry their old table version as change id; new ids stay above them
+    private static final long FIRST_CHANGE_ID = 1L << 40;
+    private static final int SCAN_WINDOW = 100;
+
+    private static final String APPEND_SQL = """
+        INSERT INTO `wto_tariffs`.`TariffChangeLog` (`change_id`) VALUES (?)
+    """;
+
+    // Newest first; `young` is 1 for rows appended within the gap timeout, by the database clock
+    private static final String SCAN_SQL = """
+        SELECT `version`,
+               CASE WHEN `created_at` > TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)) THEN 1 ELSE 0 END AS `young`
+        FROM `wto_tariffs`.`TariffChangeLog`
+        WHERE `version` < ?
+        ORDER BY `version` DESC
+        LIMIT ?
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long gapTimeoutSeconds;
+    private final List<LongConsumer> commitListeners = new CopyOnWriteArrayList<>();
+
+    public TariffChangeLog(
+            @Qualifier("appJdbcTemplate") JdbcTemplate jdbcTemplate,
+            @Value("${app.tariffs.changeLog.gapTimeoutSeconds:10}") long gapTimeoutSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gapTimeoutSeconds = gapTimeoutSeconds;
+    }
+
+    /**
+     * Called with the version of every write appended through this node, once it has committed
+     */
+    void addCommitListener(LongConsumer listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * A fresh id to stamp on the rows of one write before its log row is appended
+     */
+    long newChangeId() {
+        return ThreadLocalRandom.current().nextLong(FIRST_CHANGE_ID, Long.MAX_VALUE);
+    }
+
+    /**
+     * Append the log row of a write; call as the last statement of its transaction
+     * @return the version allocated to the write
+     */
+    long append(long changeId) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPEND_SQL, new String[] {"version"});
+            ps.setLong(1, changeId);
+            return ps;
+        }, keys);
+        long version = keys.getKey().longValue();
+        if (!commitListeners.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                for (LongConsumer listener : commitListeners) {
+                    listener.accept(version);
+                }
+            });
+        }
+        return version;
+    }
+
+    /**
+     * Highest version V such that every write with a version <= V has committed or rolled back.
+     * Walks down from the newest version until it reaches a row older than the gap timeout;
+     * normally one short query.
+     */
+    long stableVersion() {
+        long stable = 0;
+        // Lowest version seen so far; every version seen so far was young
+        long previous = 0;
+        while (true) {
+            List<long[]> rows = jdbcTemplate.query(SCAN_SQL,
+                    (rs, rowNum) -> new long[] {rs.getLong("version"), rs.getInt("young")},
+                    -gapTimeoutSeconds, previous == 0 ? Long.MAX_VALUE : previous, SCAN_WINDOW);
+            for (long[] row : rows) {
+                long version = row[0];
+                if (previous == 0) {
+                    stable = version;
+                } else if (previous - version > 1) {
+                    // Missing versions below a young row may belong to writes still committing
+                    stable = version;
+                }
+                if (row[1] == 0) {
+                    return stable;
+                }
+                previous = version;
+            }
+            if (rows.size() < SCAN_WINDOW) {
+                // Reached the start of the log (versions start at 1)
+                return previous > 1 ? 0 : stable;
+            }
+        }
+    }
+}
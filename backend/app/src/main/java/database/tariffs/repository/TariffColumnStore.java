@@ -0,0 +1,85 @@
+package database.tariffs.repository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current TariffColumns copy of TariffRates.
+ *
+ * The copy is built on first use by streaming the table. Afterwards each call compares the table
+ * version with the copy's: on a mismatch one background rebuild is started and the previous copy
+ * keeps being served until it is swapped in, so queries never wait for a reload.
+ */
+@Component
+public class TariffColumnStore {
+    private static final Logger logger = LoggerFactory.getLogger(TariffColumnStore.class);
+
+    private final ITariffRateRepository repository;
+    private final TaskExecutor executor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile TariffColumns columns;
+
+    public TariffColumnStore(ITariffRateRepository repository,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor executor) {
+        this.repository = repository;
+        this.executor = executor;
+    }
+
+    /**
+     * The latest built copy; blocks only for the very first build
+     */
+    public TariffColumns current() {
+        TariffColumns current = columns;
+        if (current == null) {
+            synchronized (this) {
+                if (columns == null) {
+                    columns = build();
+                }
+                return columns;
+            }
+        }
+
+        long version = repository.currentVersion();
+        if (version != ITariffRateRepository.NO_VERSION && version != current.getVersion()
+                && rebuilding.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::rebuild);
+            } catch (TaskRejectedException e) {
+                rebuilding.set(false);
+                logger.warn("Tariff column rebuild rejected: {}", e.getMessage());
+            }
+        }
+        return current;
+    }
+
+    private void rebuild() {
+        try {
+            columns = build();
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild tariff columns: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private TariffColumns build() {
+        long start = System.nanoTime();
+        // Read the version first: the copy may be newer than it claims, never older
+        long version = repository.currentVersion();
+        TariffColumns.Builder builder = new TariffColumns.Builder();
+        repository.streamAllTariffs(builder::add);
+        TariffColumns built = builder.build(version);
+        logger.info("Built tariff columns of {} rows ({} countries) at version {} in {} ms",
+                built.size(), built.countryCount(), version,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return built;
+    }
+}
@@ -0,0 +1,107 @@
+package database.tariffs.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.util.TariffKeyCodec;
+
+/**
+ * Immutable in-memory columnar copy of TariffRates for scan-and-aggregate queries.
+ *
+ * Every column is a primitive int array indexed by row. Reporter and partner codes are
+ * dictionary-encoded into one shared country dictionary, and rates are scaled by
+ * TariffKeyCodec.RATE_SCALE, so a filter on any column is an integer range test.
+ * Units are not kept.
+ */
+public final class TariffColumns {
+
+    public static final int REPORTER = 0;
+    public static final int PARTNER = 1;
+    public static final int PRODUCT = 2;
+    public static final int YEAR = 3;
+    public static final int RATE = 4;
+    public static final int COLUMN_COUNT = 5;
+
+    private final long version;
+    private final int size;
+    private final int[][] columns;
+    private final int[] maxValues;
+    private final String[] countries;
+    private final Map<String, Integer> countryIds;
+
+    private TariffColumns(long version, int size, int[][] columns, int[] maxValues, String[] countries,
+                          Map<String, Integer> countryIds) {
+        this.version = version;
+        this.size = size;
+        this.columns = columns;
+        this.maxValues = maxValues;
+        this.countries = countries;
+        this.countryIds = countryIds;
+    }
+
+    /** Table version the copy was read at (ITariffRateRepository.NO_VERSION if unknown) */
+    public long getVersion() { return version; }
+
+    public int size() { return size; }
+
+    /** Column values; only the first size() entries are rows. Callers must not modify the array. */
+    public int[] column(int column) { return columns[column]; }
+
+    /** Largest value of a column, or 0 when there are no rows; sizes per-group accumulators */
+    public int max(int column) { return maxValues[column]; }
+
+    public int countryCount() { return countries.length; }
+
+    public String countryAt(int id) { return countries[id]; }
+
+    /** Dictionary id of a country code, or -1 if no row has it */
+    public int countryId(String code) {
+        Integer id = countryIds.get(code);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Accumulates streamed rows into growable columns
+     */
+    static final class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final int[][] columns = new int[COLUMN_COUNT][INITIAL_CAPACITY];
+        private final int[] maxValues = new int[COLUMN_COUNT];
+        private final Map<String, Integer> countryIds = new HashMap<>();
+        private int size;
+
+        void add(TariffRateEntity entity) {
+            if (size == columns[0].length) {
+                for (int c = 0; c < COLUMN_COUNT; c++) {
+                    columns[c] = Arrays.copyOf(columns[c], size * 2);
+                }
+            }
+            columns[REPORTER][size] = countryIdOf(entity.getCountryIsoNumeric());
+            columns[PARTNER][size] = countryIdOf(entity.getPartnerIsoNumeric());
+            columns[PRODUCT][size] = entity.getProductHsCode();
+            columns[YEAR][size] = Integer.parseInt(entity.getYear());
+            columns[RATE][size] = TariffKeyCodec.scaleRate(entity.getRate());
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                maxValues[c] = Math.max(maxValues[c], columns[c][size]);
+            }
+            size++;
+        }
+
+        TariffColumns build(long version) {
+            String[] countries = new String[countryIds.size()];
+            countryIds.forEach((code, id) -> countries[id] = code);
+            int[][] trimmed = new int[COLUMN_COUNT][];
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                trimmed[c] = Arrays.copyOf(columns[c], size);
+            }
+            return new TariffColumns(version, size, trimmed, maxValues.clone(), countries, Map.copyOf(countryIds));
+        }
+
+        private int countryIdOf(String code) {
+            return countryIds.computeIfAbsent(code, ignored -> countryIds.size());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package database.tariffs.repository;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over packed tariff keys (see TariffKeyCodec).
+ *
+ * mightContain() never returns false for a key that was put(), so a negative answer proves the
+ * key is absent. Bits live in an AtomicLongArray so concurrent put() calls never lose bits.
+ * Probe positions use double hashing (h1 + i * h2) from two fmix64 hashes of the key.
+ */
+public class TariffKeyBloomFilter {
+
+    private static final int MIN_BITS = 64;
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private TariffKeyBloomFilter(long bitCount, int hashCount) {
+        long words = (bitCount + Long.SIZE - 1) / Long.SIZE;
+        this.words = new AtomicLongArray(Math.toIntExact(words));
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Size a filter for the expected number of keys and target false-positive rate
+     */
+    public static TariffKeyBloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(1, expectedKeys);
+        double ln2 = Math.log(2);
+        long bits = Math.max(MIN_BITS, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * ln2));
+        return new TariffKeyBloomFilter(bits, hashes);
+    }
+
+    public void put(long key) {
+        long h1 = mix(key);
+        long h2 = mix(key ^ SECOND_HASH_SEED) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(long key) {
+        long h1 = mix(key);
+        long h2 = mix(key ^ SECOND_HASH_SEED) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private static long mix(long key) {
+        // Murmur3 fmix64 finalizer
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb53ba2e9bd1bL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,301 @@
+package database.tariffs.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+import database.tariffs.util.TariffKeyCodec;
+
+/**
+ * Primitive open-addressing hash map from packed tariff keys (see TariffKeyCodec) to
+ * scaled-int rates plus a small dictionary id for the unit.
+ *
+ * Keys, values and insertion times are interleaved in one long[] (key at 3i, value at 3i+1,
+ * System.nanoTime() of the put at 3i+2) so a reader always sees a matching entry. Uses linear
+ * probing with backward-shift deletion, so there are no tombstones.
+ *
+ * With a TTL, entries older than it read as absent, so a value that missed an invalidation is
+ * re-read from the database eventually; expired entries are purged when the index fills up.
+ * Reads are lock-free on the fast path (optimistic StampedLock read); writes are exclusive.
+ */
+public class TariffRateIndex {
+
+    /** Returned by get() when the key is not present */
+    public static final long NO_VALUE = -1L;
+
+    private static final long EMPTY = TariffKeyCodec.NO_KEY;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_UNITS = Short.MAX_VALUE;
+    private static final long RATE_MASK = 0xFFFFFFFFL;
+    private static final int UNIT_SHIFT = 32;
+    private static final int ENTRY = 3;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final StampedLock lock = new StampedLock();
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private volatile long modifications;
+
+    private final Map<String, Integer> unitIds = new HashMap<>();
+    private volatile String[] units = new String[0];
+
+    public TariffRateIndex(int maxEntries) {
+        this(maxEntries, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param ttl age after which an entry reads as absent; 0 keeps entries until evicted
+     */
+    public TariffRateIndex(int maxEntries, long ttl, TimeUnit unit) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        allocate(MIN_CAPACITY, 0);
+    }
+
+    /**
+     * Look up a packed key.
+     * @return packed value (see rateOf/unitOf) or NO_VALUE if absent
+     */
+    public long get(long key) {
+        long now = System.nanoTime();
+        long stamp = lock.tryOptimisticRead();
+        long value = probe(key, now);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return probe(key, now);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Counter bumped by every put/remove/clear. A read-through caller samples it before going to
+     * the database and passes it to putIfUnmodified, so a value read before a concurrent write
+     * can never overwrite that write.
+     */
+    public long modifications() {
+        return modifications;
+    }
+
+    /**
+     * Insert or replace an entry.
+     * @return false if the index is full (or the unit dictionary is exhausted) and the entry was not stored
+     */
+    public boolean put(long key, int scaledRate, String unit) {
+        return put(key, scaledRate, unit, -1L);
+    }
+
+    /**
+     * Insert only if no put/remove/clear happened since modifications() returned expected
+     */
+    public boolean putIfUnmodified(long key, int scaledRate, String unit, long expected) {
+        return put(key, scaledRate, unit, expected);
+    }
+
+    private boolean put(long key, int scaledRate, String unit, long expected) {
+        if (key == EMPTY) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (expected >= 0) {
+                if (modifications != expected) {
+                    return false;
+                }
+            } else {
+                modifications++;
+            }
+            int unitId = unitId(unit);
+            if (unitId < 0) {
+                return false;
+            }
+            long value = ((long) unitId << UNIT_SHIFT) | (scaledRate & RATE_MASK);
+            long now = System.nanoTime();
+
+            int slot = slotOf(key);
+            if (table[slot * ENTRY] == key) {
+                table[slot * ENTRY + 1] = value;
+                table[slot * ENTRY + 2] = now;
+                return true;
+            }
+            if (size >= maxEntries) {
+                if (ttlNanos <= 0) {
+                    return false;
+                }
+                allocate(capacity(), now);
+                if (size >= maxEntries) {
+                    return false;
+                }
+                slot = slotOf(key);
+            }
+            table[slot * ENTRY] = key;
+            table[slot * ENTRY + 1] = value;
+            table[slot * ENTRY + 2] = now;
+            size++;
+            if (size * 2 > capacity()) {
+                allocate(capacity() * 2, now);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long key) {
+        if (key == EMPTY) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            modifications++;
+            int slot = slotOf(key);
+            if (table[slot * ENTRY] != key) {
+                return;
+            }
+            // Backward-shift deletion: pull later members of the cluster into the gap
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (table[next * ENTRY] != EMPTY) {
+                int home = hash(table[next * ENTRY]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    System.arraycopy(table, next * ENTRY, table, gap * ENTRY, ENTRY);
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            table[gap * ENTRY] = EMPTY;
+            table[gap * ENTRY + 1] = 0L;
+            table[gap * ENTRY + 2] = 0L;
+            size--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            modifications++;
+            table = null;
+            allocate(MIN_CAPACITY, 0);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public static int rateOf(long value) {
+        return (int) (value & RATE_MASK);
+    }
+
+    public String unitOf(long value) {
+        String[] snapshot = units;
+        int id = (int) (value >>> UNIT_SHIFT);
+        return id < snapshot.length ? snapshot[id] : null;
+    }
+
+    private long probe(long key, long now) {
+        long[] t = table;
+        int m = t.length / ENTRY - 1;
+        int slot = hash(key) & m;
+        // Bounded so a torn optimistic read can never spin forever
+        for (int i = 0; i <= m; i++) {
+            long candidate = t[slot * ENTRY];
+            if (candidate == key) {
+                return isExpired(t[slot * ENTRY + 2], now) ? NO_VALUE : t[slot * ENTRY + 1];
+            }
+            if (candidate == EMPTY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & m;
+        }
+        return NO_VALUE;
+    }
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (table[slot * ENTRY] != EMPTY && table[slot * ENTRY] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int capacity() {
+        return table.length / ENTRY;
+    }
+
+    private boolean isExpired(long insertedAt, long now) {
+        return ttlNanos > 0 && now - insertedAt >= ttlNanos;
+    }
+
+    private int unitId(String unit) {
+        Integer id = unitIds.get(unit);
+        if (id != null) {
+            return id;
+        }
+        if (unitIds.size() >= MAX_UNITS) {
+            return -1;
+        }
+        String[] grown = Arrays.copyOf(units, units.length + 1);
+        grown[units.length] = unit;
+        unitIds.put(unit, units.length);
+        units = grown;
+        return grown.length - 1;
+    }
+
+    /**
+     * Rehash into a table of the given capacity, dropping entries expired at 'now'
+     */
+    private void allocate(int capacity, long now) {
+        long[] old = table;
+        long[] grown = new long[capacity * ENTRY];
+        int m = capacity - 1;
+        int kept = 0;
+        if (old != null) {
+            for (int i = 0; i < old.length; i += ENTRY) {
+                if (old[i] != EMPTY && !isExpired(old[i + 2], now)) {
+                    int slot = hash(old[i]) & m;
+                    while (grown[slot * ENTRY] != EMPTY) {
+                        slot = (slot + 1) & m;
+                    }
+                    System.arraycopy(old, i, grown, slot * ENTRY, ENTRY);
+                    kept++;
+                }
+            }
+        }
+        // Publish the fully built table in one assignment
+        table = grown;
+        mask = m;
+        size = kept;
+    }
+
+    private static int hash(long key) {
+        // Murmur3 fmix64 finalizer - packed keys are highly structured
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb53ba2e9bd1bL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
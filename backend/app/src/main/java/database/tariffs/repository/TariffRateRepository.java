@@ -1,15 +1,32 @@
 package database.tariffs.repository;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.entity.TariffChangeEntity;
 import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.entity.TariffRollupEntity;
 import database.tariffs.mapper.TariffRateRowMapper;
 import database.tariffs.util.TariffDataTransformer;
 
@@ -17,13 +34,33 @@ import database.tariffs.util.TariffDataTransformer;
 public class TariffRateRepository implements ITariffRateRepository {
     private static final Logger logger = LoggerFactory.getLogger(TariffRateRepository.class);
 
+    private static final String MYSQL_PRODUCT_NAME = "MySQL";
+    // Connector/J only streams row-by-row when the fetch size is Integer.MIN_VALUE
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final int UPSERT_BATCH_SIZE = 1000;
+    // Keys per row-constructor IN list; 4 bind parameters each, well under driver/packet limits
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    // One HS level (chapter -> heading -> subheading) is two decimal digits of product_id
+    private static final int HS_LEVEL_DIVISOR = 100;
+
     private final JdbcTemplate jdbcTemplate;
     private final TariffRateRowMapper rowMapper;
+    private final TariffChangeLog changeLog;
+    private final TariffRollupRefresher rollups;
+    private final int streamFetchSize;
 
     public TariffRateRepository(
-            @org.springframework.beans.factory.annotation.Qualifier("appJdbcTemplate") JdbcTemplate jdbcTemplate) {
+            @org.springframework.beans.factory.annotation.Qualifier("appJdbcTemplate") JdbcTemplate jdbcTemplate,
+            TariffChangeLog changeLog,
+            TariffRollupRefresher rollups,
+            @Value("${app.tariffs.stream.fetchSize:1000}") int streamFetchSize) {
         this.jdbcTemplate = jdbcTemplate;
         this.rowMapper = new TariffRateRowMapper();
+        this.changeLog = changeLog;
+        this.rollups = rollups;
+        this.streamFetchSize = streamFetchSize;
     }
 
     @Override
@@ -91,6 +128,366 @@ public class TariffRateRepository implements ITariffRateRepository {
     }
 
     @Override
+    public void streamAllTariffs(Consumer<TariffRateEntity> consumer) {
+        try {
+            logger.debug("Streaming all tariffs");
+
+            String sql = """
+                SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+                FROM `wto_tariffs`.`TariffRates`
+            """;
+
+            jdbcTemplate.query(
+                con -> forwardOnlyStatement(con, sql),
+                (RowCallbackHandler) rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow())));
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while streaming tariffs: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<TariffRateEntity> findPage(TariffFilter filter, TariffRateEntity after, int limit) {
+        try {
+            logger.debug("Querying tariff page: filter={}, after={}, limit={}", filter, after, limit);
+
+            List<String> conditions = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
+            appendFilter(filter, conditions, params);
+
+            if (after != null) {
+                // Row-value comparison keeps this an index range scan on the primary key,
+                // so page N costs the same as page 1
+                conditions.add("(`country_id`, `partner_country_id`, `product_id`, `year`) > (?, ?, ?, ?)");
+                params.add(after.getCountryIsoNumeric());
+                params.add(after.getPartnerIsoNumeric());
+                params.add(after.getProductHsCode());
+                params.add(TariffDataTransformer.parseYear(after.getYear()));
+            }
+
+            StringBuilder sql = new StringBuilder("""
+                SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+                FROM `wto_tariffs`.`TariffRates`
+            """);
+            if (!conditions.isEmpty()) {
+                sql.append(" WHERE ").append(String.join(" AND ", conditions));
+            }
+            sql.append(" ORDER BY `country_id`, `partner_country_id`, `product_id`, `year` LIMIT ?");
+            params.add(limit);
+
+            return jdbcTemplate.query(sql.toString(), rowMapper, params.toArray());
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while retrieving tariff page: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<TariffRateEntity> findByKeys(List<TariffRateEntity> keys) {
+        try {
+            logger.debug("Looking up {} tariffs in chunks of {}", keys.size(), LOOKUP_CHUNK_SIZE);
+
+            List<TariffRateEntity> found = new ArrayList<>(keys.size());
+            for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<TariffRateEntity> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, keys.size()));
+
+                StringBuilder sql = new StringBuilder("""
+                    SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+                    FROM `wto_tariffs`.`TariffRates`
+                    WHERE (`country_id`, `partner_country_id`, `product_id`, `year`) IN (
+                """);
+                List<Object> params = new ArrayList<>(chunk.size() * 4 + 1);
+                Set<Integer> years = new LinkedHashSet<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    TariffRateEntity key = chunk.get(i);
+                    Integer year = TariffDataTransformer.parseYear(key.getYear());
+                    sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                    params.add(key.getCountryIsoNumeric());
+                    params.add(key.getPartnerIsoNumeric());
+                    params.add(key.getProductHsCode());
+                    params.add(year);
+                    years.add(year);
+                }
+                // Partition pruning does not look inside row constructors; a plain IN list on
+                // `year` restricts the scan to the partitions of the chunk's years
+                sql.append(") AND `year` IN (").append(String.join(", ", Collections.nCopies(years.size(), "?")))
+                        .append(")");
+                params.addAll(years);
+
+                found.addAll(jdbcTemplate.query(sql.toString(), rowMapper, params.toArray()));
+            }
+            return found;
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while looking up tariffs: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<TariffRateEntity> findSeries(String reporter, String partner, Integer product,
+                                             int fromYear, int toYear, boolean includePrevious) {
+        try {
+            logger.debug("Querying tariff series: reporter={}, partner={}, product={}, from={}, to={}",
+                    reporter, partner, product, fromYear, toYear);
+
+            // Both branches are range scans on a primary-key prefix; the year bounds prune the
+            // partitions outside [fromYear, toYear] and, for the prior year, those from fromYear on
+            String rangeSql = """
+                SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+                FROM `wto_tariffs`.`TariffRates`
+                WHERE `country_id` = ? AND `partner_country_id` = ?
+                  AND `product_id` = ? AND `year` BETWEEN ? AND ?
+            """;
+
+            if (!includePrevious) {
+                return jdbcTemplate.query(rangeSql + " ORDER BY `year`", rowMapper,
+                    reporter, partner, product, fromYear, toYear);
+            }
+
+            String sql = """
+                SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+                FROM (
+                    SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+                    FROM `wto_tariffs`.`TariffRates`
+                    WHERE `country_id` = ? AND `partner_country_id` = ?
+                      AND `product_id` = ? AND `year` < ?
+                    ORDER BY `year` DESC
+                    LIMIT 1
+                ) AS `prior_year`
+                UNION ALL
+            """ + rangeSql + " ORDER BY `year`";
+
+            return jdbcTemplate.query(sql, rowMapper,
+                reporter, partner, product, fromYear,
+                reporter, partner, product, fromYear, toYear);
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while retrieving tariff series: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Translate a TariffFilter into sargable predicates on the primary-key columns
+     */
+    private void appendFilter(TariffFilter filter, List<String> conditions, List<Object> params) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getReporter() != null) {
+            conditions.add("`country_id` = ?");
+            params.add(filter.getReporter());
+        }
+        if (filter.getPartner() != null) {
+            conditions.add("`partner_country_id` = ?");
+            params.add(filter.getPartner());
+        }
+        if (filter.getProductFrom() != null) {
+            conditions.add("`product_id` BETWEEN ? AND ?");
+            params.add(filter.getProductFrom());
+            params.add(filter.getProductTo());
+        }
+        if (filter.getYearFrom() != null) {
+            conditions.add("`year` >= ?");
+            params.add(filter.getYearFrom());
+        }
+        if (filter.getYearTo() != null) {
+            conditions.add("`year` <= ?");
+            params.add(filter.getYearTo());
+        }
+    }
+
+    /**
+     * Prepare a read-only, forward-only statement that streams instead of buffering the result
+     */
+    private PreparedStatement forwardOnlyStatement(Connection con, String sql) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        boolean mysql = MYSQL_PRODUCT_NAME.equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+        ps.setFetchSize(mysql ? MYSQL_STREAMING_FETCH_SIZE : streamFetchSize);
+        return ps;
+    }
+
+    @Override
+    public List<TariffRateEntity> findMatrix(Integer product, String year) {
+        try {
+            logger.debug("Querying tariff matrix: product={}, year={}", product, year);
+
+            // Served entirely from idx_tariff_rates_product_year in a single year partition; the
+            // year is bound as an INT so the planner can prune on it
+            String sql = """
+                SELECT `country_id`, `partner_country_id`, `rate`
+                FROM `wto_tariffs`.`TariffRates`
+                WHERE `product_id` = ? AND `year` = ?
+                ORDER BY `country_id`, `partner_country_id`
+            """;
+
+            return jdbcTemplate.query(sql, (rs, rowNum) -> {
+                TariffRateEntity entity = new TariffRateEntity();
+                entity.setCountryIsoNumeric(rs.getString("country_id"));
+                entity.setPartnerIsoNumeric(rs.getString("partner_country_id"));
+                entity.setProductHsCode(product);
+                entity.setYear(year);
+                entity.setRate(rs.getDouble("rate"));
+                return entity;
+            }, product, TariffDataTransformer.parseYear(year));
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while retrieving tariff matrix: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<TariffRollupEntity> findRollups(String reporter, String partner, String year,
+                                                int level, Integer chapter) {
+        try {
+            logger.debug("Querying tariff rollups: reporter={}, partner={}, year={}, level={}, chapter={}",
+                    reporter, partner, year, level, chapter);
+
+            StringBuilder sql = new StringBuilder("""
+                SELECT `country_id`, `partner_country_id`, `year`, `level`, `prefix`,
+                       `row_count`, `rate_sum`, `min_rate`, `max_rate`
+                FROM `wto_tariffs`.`TariffRollups`
+                WHERE `country_id` = ? AND `partner_country_id` = ? AND `year` = ? AND `level` = ?
+            """);
+            List<Object> params = new ArrayList<>(List.of(reporter, partner, TariffDataTransformer.parseYear(year), level));
+            if (chapter != null) {
+                sql.append(" AND `prefix` BETWEEN ? AND ?");
+                params.add(chapter * HS_LEVEL_DIVISOR);
+                params.add(chapter * HS_LEVEL_DIVISOR + HS_LEVEL_DIVISOR - 1);
+            }
+            sql.append(" ORDER BY `prefix`");
+
+            return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+                TariffRollupEntity entity = new TariffRollupEntity();
+                entity.setCountryIsoNumeric(rs.getString("country_id"));
+                entity.setPartnerIsoNumeric(rs.getString("partner_country_id"));
+                entity.setYear(String.valueOf(rs.getInt("year")));
+                entity.setLevel(rs.getInt("level"));
+                entity.setPrefix(rs.getInt("prefix"));
+                entity.setCount(rs.getInt("row_count"));
+                entity.setRateSum(rs.getDouble("rate_sum"));
+                entity.setMinRate(rs.getDouble("min_rate"));
+                entity.setMaxRate(rs.getDouble("max_rate"));
+                return entity;
+            }, params.toArray());
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while retrieving tariff rollups: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public long rollupVersion() {
+        try {
+            Long version = jdbcTemplate.queryForObject(
+                    "SELECT `version` FROM `wto_tariffs`.`TariffRollupVersion` WHERE `id` = 1", Long.class);
+            return version != null ? version : NO_VERSION;
+        } catch (DataAccessException e) {
+            logger.warn("Could not read tariff rollup version: {}", e.getMessage());
+            return NO_VERSION;
+        }
+    }
+
+    @Override
+    public long currentVersion() {
+        try {
+            return changeLog.stableVersion();
+        } catch (DataAccessException e) {
+            logger.warn("Could not read tariff table version: {}", e.getMessage());
+            return NO_VERSION;
+        }
+    }
+
+    @Override
+    public List<TariffChangeEntity> findChanges(long afterVersion, TariffRateEntity afterKey,
+                                                long upToVersion, int limit) {
+        try {
+            logger.debug("Querying tariff changes: after={}/{}, upTo={}, limit={}",
+                    afterVersion, afterKey, upToVersion, limit);
+
+            // Both branches walk the change log by version and join the rows stamped with each
+            // change id; each is cut to the limit before the merge so a large backlog is never read in full
+            // Writes leave the tombstone of an earlier delete in place; a key that exists again
+            // supersedes it, so the delete branch skips tombstones whose row is back
+            String position = afterKey == null
+                    ? "`l`.`version` > ?"
+                    : "`l`.`version` >= ? AND (`l`.`version`, `r`.`country_id`, `r`.`partner_country_id`, "
+                            + "`r`.`product_id`, `r`.`year`) > (?, ?, ?, ?, ?)";
+            String branchOrder = " ORDER BY `l`.`version`, `r`.`country_id`, `r`.`partner_country_id`, "
+                    + "`r`.`product_id`, `r`.`year` LIMIT ?";
+            String order = " ORDER BY `version`, `country_id`, `partner_country_id`, `product_id`, `year` LIMIT ?";
+
+            String sql = """
+                SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`, `version`, `deleted`
+                FROM (
+                    SELECT `r`.`country_id`, `r`.`partner_country_id`, `r`.`product_id`, `r`.`year`,
+                           `r`.`rate`, `r`.`unit`, `l`.`version`, FALSE AS `deleted`
+                    FROM `wto_tariffs`.`TariffChangeLog` `l`
+                    JOIN `wto_tariffs`.`TariffRates` `r` ON `r`.`change_id` = `l`.`change_id`
+                    WHERE %1$s AND `l`.`version` <= ?
+                    %2$s
+                ) AS `upserts`
+                UNION ALL
+                SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`, `version`, `deleted`
+                FROM (
+                    SELECT `r`.`country_id`, `r`.`partner_country_id`, `r`.`product_id`, `r`.`year`,
+                           CAST(NULL AS DECIMAL(6,3)) AS `rate`, CAST(NULL AS CHAR(20)) AS `unit`, `l`.`version`,
+                           TRUE AS `deleted`
+                    FROM `wto_tariffs`.`TariffChangeLog` `l`
+                    JOIN `wto_tariffs`.`TariffTombstones` `r` ON `r`.`change_id` = `l`.`change_id`
+                    WHERE %1$s AND `l`.`version` <= ?
+                      AND NOT EXISTS (
+                          SELECT 1 FROM `wto_tariffs`.`TariffRates` `t`
+                          WHERE `t`.`country_id` = `r`.`country_id` AND `t`.`partner_country_id` = `r`.`partner_country_id`
+                            AND `t`.`product_id` = `r`.`product_id` AND `t`.`year` = `r`.`year`
+                      )
+                    %2$s
+                ) AS `deletes`
+            """.formatted(position, branchOrder) + order;
+
+            List<Object> branchParams = new ArrayList<>();
+            branchParams.add(afterVersion);
+            if (afterKey != null) {
+                branchParams.add(afterVersion);
+                branchParams.add(afterKey.getCountryIsoNumeric());
+                branchParams.add(afterKey.getPartnerIsoNumeric());
+                branchParams.add(afterKey.getProductHsCode());
+                branchParams.add(TariffDataTransformer.parseYear(afterKey.getYear()));
+            }
+            branchParams.add(upToVersion);
+            branchParams.add(limit);
+
+            List<Object> params = new ArrayList<>(branchParams);
+            params.addAll(branchParams);
+            params.add(limit);
+
+            return jdbcTemplate.query(sql, (rs, rowNum) -> {
+                TariffChangeEntity change = new TariffChangeEntity();
+                change.setCountryIsoNumeric(rs.getString("country_id"));
+                change.setPartnerIsoNumeric(rs.getString("partner_country_id"));
+                change.setProductHsCode(rs.getInt("product_id"));
+                change.setYear(String.valueOf(rs.getInt("year")));
+                BigDecimal rate = rs.getBigDecimal("rate");
+                change.setRate(rate != null ? rate.doubleValue() : null);
+                change.setUnit(rs.getString("unit"));
+                change.setVersion(rs.getLong("version"));
+                change.setDeleted(rs.getBoolean("deleted"));
+                return change;
+            }, params.toArray());
+
+        } catch (DataAccessException e) {
+            logger.error("Database error while retrieving tariff changes: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
     public void create(String reporter, String partner, Integer product, String year,
                       Double rate, String unit) {
         try {
@@ -103,15 +500,23 @@ public class TariffRateRepository implements ITariffRateRepository {
 
             String sql = """
                 INSERT INTO `wto_tariffs`.`TariffRates` (
-                    `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
-                ) VALUES (?, ?, ?, ?, ?, ?)
+                    `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`, `change_id`
+                ) VALUES (?, ?, ?, ?, ?, ?, ?)
             """;
 
+            long changeId = changeLog.newChangeId();
             int rowsInserted = jdbcTemplate.update(sql,
-                reporter, partner, product, yearInt, rateDecimal, unitValue);
+                reporter, partner, product, yearInt, rateDecimal, unitValue, changeId);
+            changeLog.append(changeId);
+            rollups.refreshAfterCommit(List.of(TariffRollupRefresher.headingOf(reporter, partner, product, yearInt)));
 
             logger.info("Successfully created tariff, rows inserted: {}", rowsInserted);
 
+        } catch (DuplicateKeyException e) {
+            // Expected outcome of a conflicting create; the service maps it to 409
+            logger.info("Tariff already exists: reporter={}, partner={}, product={}, year={}",
+                    reporter, partner, product, year);
+            throw e;
         } catch (DataAccessException e) {
             logger.error("Error creating tariff: {}", e.getMessage(), e);
             throw e;
@@ -119,6 +524,7 @@ public class TariffRateRepository implements ITariffRateRepository {
     }
 
     @Override
+    @Transactional
     public int update(String reporter, String partner, Integer product, String year,
                      Double rate, String unit) {
         try {
@@ -131,13 +537,19 @@ public class TariffRateRepository implements ITariffRateRepository {
 
             String sql = """
                 UPDATE `wto_tariffs`.`TariffRates`
-                SET `rate` = ?, `unit` = ?
+                SET `rate` = ?, `unit` = ?, `change_id` = ?
                 WHERE `country_id` = ? AND `partner_country_id` = ?
                   AND `product_id` = ? AND `year` = ?
             """;
 
+            long changeId = changeLog.newChangeId();
             int rowsUpdated = jdbcTemplate.update(sql,
-                rateDecimal, unitValue, reporter, partner, product, yearInt);
+                rateDecimal, unitValue, changeId, reporter, partner, product, yearInt);
+            // A miss changes nothing, so it allocates no version
+            if (rowsUpdated > 0) {
+                changeLog.append(changeId);
+                rollups.refreshAfterCommit(List.of(TariffRollupRefresher.headingOf(reporter, partner, product, yearInt)));
+            }
 
             logger.info("Updated {} rows", rowsUpdated);
             return rowsUpdated;
@@ -149,6 +561,63 @@ public class TariffRateRepository implements ITariffRateRepository {
     }
 
     @Override
+    @Transactional
+    public int[] upsertAll(List<TariffRateEntity> tariffs) {
+        if (tariffs.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            logger.info("Upserting {} tariffs in batches of {}", tariffs.size(), UPSERT_BATCH_SIZE);
+
+            // `change_id` is assigned first so it compares against the old rate/unit: rows that do
+            // not change keep their change id, and with it their version (and still report 0 = unchanged)
+            String sql = """
+                INSERT INTO `wto_tariffs`.`TariffRates` (
+                    `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`, `change_id`
+                ) VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    `change_id` = CASE WHEN `rate` = VALUES(`rate`) AND `unit` = VALUES(`unit`)
+                                       THEN `change_id` ELSE VALUES(`change_id`) END,
+                    `rate` = VALUES(`rate`),
+                    `unit` = VALUES(`unit`)
+            """;
+
+            long changeId = changeLog.newChangeId();
+            int[][] batches = jdbcTemplate.batchUpdate(sql, tariffs, UPSERT_BATCH_SIZE, (ps, tariff) -> {
+                ps.setString(1, tariff.getCountryIsoNumeric());
+                ps.setString(2, tariff.getPartnerIsoNumeric());
+                ps.setInt(3, tariff.getProductHsCode());
+                ps.setInt(4, TariffDataTransformer.parseYear(tariff.getYear()));
+                ps.setBigDecimal(5, TariffDataTransformer.roundRate(tariff.getRate()));
+                ps.setString(6, TariffDataTransformer.normalizeUnit(tariff.getUnit()));
+                ps.setLong(7, changeId);
+            });
+            changeLog.append(changeId);
+            Set<TariffRollupRefresher.RollupGroup> headings = new LinkedHashSet<>();
+            for (TariffRateEntity tariff : tariffs) {
+                headings.add(TariffRollupRefresher.headingOf(tariff.getCountryIsoNumeric(), tariff.getPartnerIsoNumeric(),
+                        tariff.getProductHsCode(), TariffDataTransformer.parseYear(tariff.getYear())));
+            }
+            rollups.refreshAfterCommit(headings);
+
+            int[] counts = new int[tariffs.size()];
+            int pos = 0;
+            for (int[] batch : batches) {
+                System.arraycopy(batch, 0, counts, pos, batch.length);
+                pos += batch.length;
+            }
+
+            logger.info("Upserted {} tariffs", tariffs.size());
+            return counts;
+
+        } catch (DataAccessException e) {
+            logger.error("Error upserting tariffs: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
     public int delete(String reporter, String partner, Integer product, String year) {
         try {
             logger.info("Deleting tariff: reporter={}, partner={}, product={}, year={}",
@@ -163,6 +632,18 @@ public class TariffRateRepository implements ITariffRateRepository {
             """;
 
             int rowsDeleted = jdbcTemplate.update(sql, reporter, partner, product, yearInt);
+            if (rowsDeleted > 0) {
+                String tombstone = """
+                    INSERT INTO `wto_tariffs`.`TariffTombstones` (
+                        `country_id`, `partner_country_id`, `product_id`, `year`, `change_id`
+                    ) VALUES (?, ?, ?, ?, ?)
+                    ON DUPLICATE KEY UPDATE `change_id` = VALUES(`change_id`)
+                """;
+                long changeId = changeLog.newChangeId();
+                jdbcTemplate.update(tombstone, reporter, partner, product, yearInt, changeId);
+                changeLog.append(changeId);
+                rollups.refreshAfterCommit(List.of(TariffRollupRefresher.headingOf(reporter, partner, product, yearInt)));
+            }
 
             logger.info("Deleted {} rows", rowsDeleted);
             return rowsDeleted;
@@ -172,4 +653,4 @@ public class TariffRateRepository implements ITariffRateRepository {
             throw e;
         }
     }
-}
\ No newline at end of file
+}
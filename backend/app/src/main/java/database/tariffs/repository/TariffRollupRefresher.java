@@ -0,0 +1,235 @@
+package database.tariffs.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps TariffRollups in step with TariffRates outside the write transactions.
+ *
+ * Writes hand over the HS headings they touched once they have committed; one background thread
+ * recomputes the pending headings and their chapters in batches, so a burst of writes to one
+ * heading costs one refresh. Every refresh bumps TariffRollupVersion (V10), which moves the ETag
+ * of /rollups past any response served while the refresh was still pending; the TariffRates
+ * version and the caches keyed on it are left alone. A failed refresh is retried after a delay;
+ * pending headings are refreshed on shutdown.
+ */
+@Component
+public class TariffRollupRefresher {
+    private static final Logger logger = LoggerFactory.getLogger(TariffRollupRefresher.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+    private static final long RETRY_DELAY_MS = 1_000;
+    private static final int MAX_HEADINGS_PER_REFRESH = 500;
+
+    // One HS level (chapter -> heading -> subheading) is two decimal digits of product_id
+    private static final int HS_LEVEL_DIVISOR = 100;
+
+    private static final String BUMP_VERSION_SQL = """
+        UPDATE `wto_tariffs`.`TariffRollupVersion` SET `version` = `version` + 1 WHERE `id` = 1
+    """;
+
+    private static final String DELETE_ROLLUP_SQL = """
+        DELETE FROM `wto_tariffs`.`TariffRollups`
+        WHERE `country_id` = ? AND `partner_country_id` = ? AND `year` = ?
+          AND `level` = ? AND `prefix` = ?
+    """;
+
+    // Range scan on idx_tariff_rates_lookup within one year partition; GROUP BY yields no row once a
+    // heading is empty
+    private static final String REFRESH_HEADING_SQL = """
+        INSERT INTO `wto_tariffs`.`TariffRollups` (
+            `country_id`, `partner_country_id`, `year`, `level`, `prefix`,
+            `row_count`, `rate_sum`, `min_rate`, `max_rate`
+        )
+        SELECT `country_id`, `partner_country_id`, `year`, 4, ?,
+               COUNT(*), SUM(`rate`), MIN(`rate`), MAX(`rate`)
+        FROM `wto_tariffs`.`TariffRates`
+        WHERE `country_id` = ? AND `partner_country_id` = ?
+          AND `product_id` BETWEEN ? AND ? AND `year` = ?
+        GROUP BY `country_id`, `partner_country_id`, `year`
+    """;
+
+    // Chapters are folded from their (at most 100) heading rollups rather than from TariffRates
+    private static final String REFRESH_CHAPTER_SQL = """
+        INSERT INTO `wto_tariffs`.`TariffRollups` (
+            `country_id`, `partner_country_id`, `year`, `level`, `prefix`,
+            `row_count`, `rate_sum`, `min_rate`, `max_rate`
+        )
+        SELECT `country_id`, `partner_country_id`, `year`, 2, ?,
+               SUM(`row_count`), SUM(`rate_sum`), MIN(`min_rate`), MAX(`max_rate`)
+        FROM `wto_tariffs`.`TariffRollups`
+        WHERE `country_id` = ? AND `partner_country_id` = ? AND `year` = ?
+          AND `level` = 4 AND `prefix` BETWEEN ? AND ?
+        GROUP BY `country_id`, `partner_country_id`, `year`
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object lock = new Object();
+    private final Set<RollupGroup> pending = new LinkedHashSet<>();
+    private boolean stopped;
+    private Thread refresher;
+
+    public TariffRollupRefresher(
+            @Qualifier("appJdbcTemplate") JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = new Thread(this::runRefresher, "tariff-rollups");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    /**
+     * Stop the background thread and refresh everything still pending
+     */
+    @PreDestroy
+    public void stop() {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+        if (refresher != null) {
+            try {
+                refresher.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<RollupGroup> batch;
+        while (!(batch = takeBatch()).isEmpty()) {
+            try {
+                refresh(batch);
+            } catch (DataAccessException e) {
+                logger.error("Dropping {} pending tariff rollup refreshes on shutdown: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue the headings of the given keys for a refresh once the surrounding transaction commits
+     */
+    void refreshAfterCommit(Collection<RollupGroup> headings) {
+        List<RollupGroup> copy = List.copyOf(headings);
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                pending.addAll(copy);
+                lock.notifyAll();
+            }
+        });
+    }
+
+    static RollupGroup headingOf(String reporter, String partner, Integer product, Integer year) {
+        return new RollupGroup(reporter, partner, year, product / HS_LEVEL_DIVISOR);
+    }
+
+    private void runRefresher() {
+        while (true) {
+            List<RollupGroup> batch;
+            synchronized (lock) {
+                while (pending.isEmpty() && !stopped) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (stopped) {
+                    return;
+                }
+            }
+            batch = takeBatch();
+            try {
+                refresh(batch);
+            } catch (DataAccessException e) {
+                // Concurrent refreshes of one heading on two nodes can collide; the retry recomputes it
+                logger.warn("Tariff rollup refresh of {} headings failed, retrying: {}", batch.size(), e.getMessage());
+                synchronized (lock) {
+                    pending.addAll(batch);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<RollupGroup> takeBatch() {
+        synchronized (lock) {
+            List<RollupGroup> batch = new ArrayList<>(Math.min(pending.size(), MAX_HEADINGS_PER_REFRESH));
+            Iterator<RollupGroup> it = pending.iterator();
+            while (it.hasNext() && batch.size() < MAX_HEADINGS_PER_REFRESH) {
+                batch.add(it.next());
+                it.remove();
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Recompute the HS4 rollups of the given headings from TariffRates, then the HS2 rollups of
+     * their chapters from those HS4 rows, in one transaction. Cost depends on the touched groups,
+     * not the table.
+     */
+    private void refresh(Collection<RollupGroup> headings) {
+        Set<RollupGroup> chapters = new LinkedHashSet<>();
+        List<Object[]> deleteHeadings = new ArrayList<>(headings.size());
+        List<Object[]> refreshHeadings = new ArrayList<>(headings.size());
+        for (RollupGroup heading : headings) {
+            int firstProduct = heading.prefix() * HS_LEVEL_DIVISOR;
+            deleteHeadings.add(new Object[] {heading.reporter(), heading.partner(), heading.year(),
+                    ITariffRateRepository.HS_HEADING, heading.prefix()});
+            refreshHeadings.add(new Object[] {heading.prefix(), heading.reporter(), heading.partner(),
+                    firstProduct, firstProduct + HS_LEVEL_DIVISOR - 1, heading.year()});
+            chapters.add(new RollupGroup(heading.reporter(), heading.partner(), heading.year(),
+                    heading.prefix() / HS_LEVEL_DIVISOR));
+        }
+        List<Object[]> deleteChapters = new ArrayList<>(chapters.size());
+        List<Object[]> refreshChapters = new ArrayList<>(chapters.size());
+        for (RollupGroup chapter : chapters) {
+            int firstHeading = chapter.prefix() * HS_LEVEL_DIVISOR;
+            deleteChapters.add(new Object[] {chapter.reporter(), chapter.partner(), chapter.year(),
+                    ITariffRateRepository.HS_CHAPTER, chapter.prefix()});
+            refreshChapters.add(new Object[] {chapter.prefix(), chapter.reporter(), chapter.partner(), chapter.year(),
+                    firstHeading, firstHeading + HS_LEVEL_DIVISOR - 1});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_ROLLUP_SQL, deleteHeadings);
+            jdbcTemplate.batchUpdate(REFRESH_HEADING_SQL, refreshHeadings);
+            jdbcTemplate.batchUpdate(DELETE_ROLLUP_SQL, deleteChapters);
+            jdbcTemplate.batchUpdate(REFRESH_CHAPTER_SQL, refreshChapters);
+            jdbcTemplate.update(BUMP_VERSION_SQL);
+        });
+        logger.debug("Refreshed tariff rollups of {} headings, {} chapters", headings.size(), chapters.size());
+    }
+
+    /** One reporter/partner/year under an HS heading or chapter prefix */
+    record RollupGroup(String reporter, String partner, int year, int prefix) {}
+}
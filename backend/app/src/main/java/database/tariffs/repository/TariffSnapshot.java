@@ -0,0 +1,264 @@
+package database.tariffs.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only, memory-mapped columnar snapshot of TariffRates.
+ *
+ * File layout (big-endian):
+ *   header   magic:int  formatVersion:int  version:long  createdAtMillis:long  rowCount:int  unitCount:int
+ *            crc32:long
+ *   units    unitCount x (length:short, UTF-8 bytes), padded to 8 bytes
+ *   keys     rowCount x long   packed keys (TariffKeyCodec), ascending
+ *   rates    rowCount x int    scaled rates (TariffKeyCodec.RATE_SCALE)
+ *   unitIds  rowCount x short  index into units
+ *
+ * version is the TariffRates table version read before the rows were streamed, so every change
+ * after it is in the change log. The CRC covers everything after the header. open() checks only
+ * the header and section lengths, so it costs one mmap regardless of row count; verify() runs the
+ * checksum pass, which reads every page and must be done before the rows are trusted. Lookups
+ * binary-search the key column in place.
+ */
+public final class TariffSnapshot {
+
+    static final int MAGIC = 0x54525331; // "TRS1"
+    static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_BYTES = 40;
+    private static final int CRC_OFFSET = 32;
+    private static final int ALIGNMENT = Long.BYTES;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final MappedByteBuffer buffer;
+    private final long version;
+    private final long createdAt;
+    private final int rowCount;
+    private final String[] units;
+    private final int keysOffset;
+    private final int ratesOffset;
+    private final int unitIdsOffset;
+
+    private TariffSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a tariff snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported tariff snapshot version " + buffer.getInt(4));
+        }
+        this.version = buffer.getLong(8);
+        this.createdAt = buffer.getLong(16);
+        this.rowCount = buffer.getInt(24);
+        int unitCount = buffer.getInt(28);
+        if (rowCount < 0 || unitCount < 0 || unitCount > Short.MAX_VALUE) {
+            throw new IOException("Corrupt tariff snapshot header");
+        }
+
+        this.units = new String[unitCount];
+        int pos = HEADER_BYTES;
+        for (int i = 0; i < unitCount; i++) {
+            int length = buffer.getShort(pos);
+            if (length < 0 || pos + Short.BYTES + length > buffer.capacity()) {
+                throw new IOException("Corrupt tariff snapshot units");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(pos + Short.BYTES, bytes);
+            units[i] = new String(bytes, StandardCharsets.UTF_8);
+            pos += Short.BYTES + length;
+        }
+        this.keysOffset = align(pos);
+        this.ratesOffset = keysOffset + rowCount * Long.BYTES;
+        this.unitIdsOffset = ratesOffset + rowCount * Integer.BYTES;
+        if (unitIdsOffset + rowCount * Short.BYTES != buffer.capacity()) {
+            throw new IOException("Tariff snapshot has unexpected length");
+        }
+    }
+
+    /**
+     * Map a snapshot file and check its header; call verify() before trusting the rows
+     */
+    public static TariffSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Tariff snapshot too large: " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            return new TariffSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Write a snapshot file. keys must be sorted ascending (see sortByKey) and unique.
+     */
+    public static void write(Path path, long version, long createdAtMillis, long[] keys, int[] rates, short[] unitIds,
+                             List<String> units, int rowCount) throws IOException {
+        byte[][] encodedUnits = new byte[units.size()][];
+        int unitBytes = 0;
+        for (int i = 0; i < encodedUnits.length; i++) {
+            encodedUnits[i] = units.get(i).getBytes(StandardCharsets.UTF_8);
+            unitBytes += Short.BYTES + encodedUnits[i].length;
+        }
+        int keysOffset = align(HEADER_BYTES + unitBytes);
+        long size = (long) keysOffset + (long) rowCount * (Long.BYTES + Integer.BYTES + Short.BYTES);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Tariff snapshot too large: " + size + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.position(HEADER_BYTES);
+            for (byte[] unit : encodedUnits) {
+                out.putShort((short) unit.length);
+                out.put(unit);
+            }
+            out.position(keysOffset);
+            for (int i = 0; i < rowCount; i++) {
+                out.putLong(keys[i]);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                out.putInt(rates[i]);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                out.putShort(unitIds[i]);
+            }
+
+            out.putInt(0, MAGIC);
+            out.putInt(4, FORMAT_VERSION);
+            out.putLong(8, version);
+            out.putLong(16, createdAtMillis);
+            out.putInt(24, rowCount);
+            out.putInt(28, encodedUnits.length);
+            out.putLong(CRC_OFFSET, checksum(out));
+            out.force();
+        }
+    }
+
+    /**
+     * Sort the three parallel columns by key (in-place quicksort, insertion sort for short ranges)
+     */
+    public static void sortByKey(long[] keys, int[] rates, short[] unitIds, int rowCount) {
+        sort(keys, rates, unitIds, 0, rowCount - 1);
+    }
+
+    /**
+     * Checksum the body against the header; reads the whole file
+     */
+    public void verify() throws IOException {
+        if (buffer.getLong(CRC_OFFSET) != checksum(buffer)) {
+            throw new IOException("Tariff snapshot checksum mismatch");
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * @return row index of the key, or -1 if absent
+     */
+    public int indexOf(long key) {
+        int lo = 0;
+        int hi = rowCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long candidate = keyAt(mid);
+            if (candidate < key) {
+                lo = mid + 1;
+            } else if (candidate > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long keyAt(int row) {
+        return buffer.getLong(keysOffset + row * Long.BYTES);
+    }
+
+    public int rateAt(int row) {
+        return buffer.getInt(ratesOffset + row * Integer.BYTES);
+    }
+
+    public String unitAt(int row) {
+        return units[buffer.getShort(unitIdsOffset + row * Short.BYTES)];
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_BYTES);
+        body.limit(buffer.capacity());
+        crc.update(body);
+        return crc.getValue();
+    }
+
+    private static int align(int offset) {
+        return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static void sort(long[] keys, int[] rates, short[] unitIds, int lo, int hi) {
+        while (hi - lo > INSERTION_SORT_THRESHOLD) {
+            int mid = (lo + hi) >>> 1;
+            // Median of three as pivot, so pre-sorted input stays O(n log n)
+            if (keys[mid] < keys[lo]) swap(keys, rates, unitIds, mid, lo);
+            if (keys[hi] < keys[lo]) swap(keys, rates, unitIds, hi, lo);
+            if (keys[hi] < keys[mid]) swap(keys, rates, unitIds, hi, mid);
+            long pivot = keys[mid];
+
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    swap(keys, rates, unitIds, i++, j--);
+                }
+            }
+            // Recurse into the smaller half, loop on the larger to bound stack depth
+            if (j - lo < hi - i) {
+                sort(keys, rates, unitIds, lo, j);
+                lo = i;
+            } else {
+                sort(keys, rates, unitIds, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && keys[j] < keys[j - 1]; j--) {
+                swap(keys, rates, unitIds, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(long[] keys, int[] rates, short[] unitIds, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int rate = rates[a];
+        rates[a] = rates[b];
+        rates[b] = rate;
+        short unit = unitIds[a];
+        unitIds[a] = unitIds[b];
+        unitIds[b] = unit;
+    }
+}
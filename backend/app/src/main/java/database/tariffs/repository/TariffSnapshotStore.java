@@ -0,0 +1,339 @@
+package database.tariffs.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import database.tariffs.entity.TariffChangeEntity;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.util.TariffKeyCodec;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps a memory-mapped TariffSnapshot of TariffRates on local disk for fast warm starts.
+ *
+ * On construction the last snapshot file is mapped, but nothing is served from it yet. Once the
+ * application is ready a background restore checksums it and reads the change log from the table
+ * version in its header, marking every key changed since as dirty; dirty keys are never answered
+ * from the snapshot. Only then is the snapshot served. A fresh snapshot is written periodically
+ * (and at startup when none exists or it cannot be caught up) to a temp file and atomically moved
+ * into place.
+ *
+ * Writers call markDirty() before the statement runs and again after commit; keys written on other
+ * nodes are marked dirty from the change feed by TariffVersionTracker. Dirty entries carry
+ * a sequence number, and only entries older than the start of a snapshot write are cleared when
+ * that snapshot is swapped in, since later writes may not be in it.
+ *
+ * The dirty set is capped: once a bulk write (e.g. a file import) marks more than maxDirtyKeys
+ * keys, the snapshot is dropped and the set cleared instead of growing with the write, and no
+ * snapshot begun before that point is installed.
+ */
+@Component
+public class TariffSnapshotStore implements TariffChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(TariffSnapshotStore.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CHANGES_PAGE_SIZE = 1000;
+
+    private final TariffRateRepository repository;
+    private final TariffVersionTracker versions;
+    private final TaskExecutor executor;
+    private final boolean enabled;
+    private final Path path;
+    private final int maxDirtyKeys;
+
+    private final ConcurrentHashMap<Long, Long> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean busy = new AtomicBoolean();
+    /** Sequence number of the last dirty-set overflow (0 if none) */
+    private final AtomicLong overflowSequence = new AtomicLong();
+
+    private volatile TariffSnapshot snapshot;
+    /** Snapshot mapped at startup, not served until restore() has verified and caught it up */
+    private volatile TariffSnapshot restored;
+
+    public TariffSnapshotStore(
+            TariffRateRepository repository,
+            TariffVersionTracker versions,
+            @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+            @Value("${app.tariffs.snapshot.enabled:true}") boolean enabled,
+            @Value("${app.tariffs.snapshot.path:${java.io.tmpdir}/tariffs/tariff-snapshot.bin}") Path path,
+            @Value("${app.tariffs.snapshot.maxDirtyKeys:100000}") int maxDirtyKeys) {
+        this.repository = repository;
+        this.versions = versions;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.path = path;
+        this.maxDirtyKeys = maxDirtyKeys;
+        if (enabled) {
+            this.restored = load(path);
+        }
+        logger.info("Tariff snapshot {} (path={})", enabled ? "enabled" : "disabled", path);
+    }
+
+    @PostConstruct
+    public void registerForChanges() {
+        if (enabled) {
+            versions.addListener(this);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Runnable task = restored != null ? this::restore : this::writeSnapshot;
+        try {
+            executor.execute(task);
+        } catch (TaskRejectedException e) {
+            // Without a restore the loaded snapshot cannot be trusted
+            restored = null;
+            logger.warn("Tariff snapshot startup task rejected: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot value for a packed key, or null if the caller must ask the database
+     * (no snapshot, key not in it, or key written since it was taken)
+     */
+    public TariffRateEntity find(String reporter, String partner, Integer product, String year, long key) {
+        TariffSnapshot current = snapshot;
+        if (current == null || key == TariffKeyCodec.NO_KEY || dirty.containsKey(key)) {
+            return null;
+        }
+        int row = current.indexOf(key);
+        if (row < 0) {
+            return null;
+        }
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(reporter);
+        entity.setPartnerIsoNumeric(partner);
+        entity.setProductHsCode(product);
+        entity.setYear(year);
+        entity.setRate(TariffKeyCodec.unscaleRate(current.rateAt(row)));
+        entity.setUnit(current.unitAt(row));
+        return entity;
+    }
+
+    public void markDirty(long key) {
+        if (enabled && key != TariffKeyCodec.NO_KEY) {
+            long markedAt = sequence.incrementAndGet();
+            dirty.put(key, markedAt);
+            if (dirty.size() > maxDirtyKeys) {
+                // Too many writes to track one by one: stop serving the snapshot instead
+                overflowSequence.accumulateAndGet(markedAt, Math::max);
+                snapshot = null;
+                dirty.clear();
+            }
+        }
+    }
+
+    @Override
+    public void onTariffChanges(List<TariffChangeEntity> changes) {
+        for (TariffChangeEntity change : changes) {
+            markDirty(keyOf(change));
+        }
+    }
+
+    @Override
+    public void onTariffReset() {
+        discard();
+    }
+
+    /**
+     * Stop serving the current snapshot (e.g. after out-of-band bulk changes); the next
+     * scheduled write replaces it
+     */
+    public void discard() {
+        snapshot = null;
+        restored = null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.tariffs.snapshot.intervalMinutes:60}",
+            initialDelayString = "${app.tariffs.snapshot.intervalMinutes:60}",
+            timeUnit = TimeUnit.MINUTES)
+    public void writeSnapshot() {
+        if (!enabled || !busy.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long startSequence = sequence.get();
+            // Read the version first: the rows may be newer than it claims, never older
+            long version = repository.currentVersion();
+            Columns columns = new Columns();
+            repository.streamAllTariffs(columns::add);
+            TariffSnapshot.sortByKey(columns.keys, columns.rates, columns.unitIds, columns.size);
+
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            TariffSnapshot.write(tmp, version, System.currentTimeMillis(), columns.keys, columns.rates,
+                    columns.unitIds, columns.units, columns.size);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            if (overflowSequence.get() > startSequence) {
+                logger.info("Tariff snapshot not installed: dirty set overflowed while it was written");
+                return;
+            }
+            snapshot = TariffSnapshot.open(path);
+            restored = null;
+            dirty.values().removeIf(markedAt -> markedAt <= startSequence);
+            logger.info("Wrote tariff snapshot of {} rows to {} in {} ms", columns.size, path,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write tariff snapshot: {}", e.getMessage(), e);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Verify the snapshot mapped at startup and mark every key changed after its version dirty,
+     * then serve it. Falls back to writing a fresh snapshot when it cannot be caught up.
+     */
+    void restore() {
+        TariffSnapshot loaded = restored;
+        if (loaded == null || !busy.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean rewrite = false;
+        try {
+            long startSequence = sequence.get();
+            loaded.verify();
+            // Changes after this version reach onTariffChanges from the tracker
+            long upTo = versions.currentVersion();
+            if (upTo == ITariffRateRepository.NO_VERSION || loaded.getVersion() == ITariffRateRepository.NO_VERSION
+                    || loaded.getVersion() > upTo) {
+                logger.info("Tariff snapshot at version {} cannot be caught up to version {}; rewriting it",
+                        loaded.getVersion(), upTo);
+                rewrite = true;
+                return;
+            }
+            int changed = markChangedSince(loaded.getVersion(), upTo);
+            if (overflowSequence.get() > startSequence || restored != loaded) {
+                logger.info("Tariff snapshot not restored: too many changes since version {}", loaded.getVersion());
+                rewrite = true;
+                return;
+            }
+            snapshot = loaded;
+            logger.info("Restored tariff snapshot of {} rows at version {} in {} ms ({} changed since)",
+                    loaded.size(), loaded.getVersion(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), changed);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to restore tariff snapshot, rewriting it: {}", e.getMessage());
+            rewrite = true;
+        } finally {
+            restored = null;
+            busy.set(false);
+        }
+        if (rewrite) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Mark the keys of all changes in (afterVersion, upToVersion] dirty, a page at a time
+     */
+    private int markChangedSince(long afterVersion, long upToVersion) {
+        int changed = 0;
+        long pageVersion = afterVersion;
+        TariffChangeEntity pageKey = null;
+        while (true) {
+            List<TariffChangeEntity> page = repository.findChanges(pageVersion, pageKey, upToVersion, CHANGES_PAGE_SIZE);
+            onTariffChanges(page);
+            changed += page.size();
+            if (page.size() < CHANGES_PAGE_SIZE) {
+                return changed;
+            }
+            pageKey = page.get(page.size() - 1);
+            pageVersion = pageKey.getVersion();
+        }
+    }
+
+    boolean isDirty(long key) {
+        return dirty.containsKey(key);
+    }
+
+    TariffSnapshot current() {
+        return snapshot;
+    }
+
+    private static TariffSnapshot load(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            TariffSnapshot loaded = TariffSnapshot.open(path);
+            logger.info("Mapped tariff snapshot of {} rows at version {} from {}", loaded.size(),
+                    loaded.getVersion(), path);
+            return loaded;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable tariff snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long keyOf(TariffRateEntity entity) {
+        return TariffKeyCodec.pack(entity.getCountryIsoNumeric(), entity.getPartnerIsoNumeric(),
+                entity.getProductHsCode(), entity.getYear());
+    }
+
+    /**
+     * Growable column buffers filled while streaming the table
+     */
+    private static final class Columns {
+        long[] keys = new long[INITIAL_CAPACITY];
+        int[] rates = new int[INITIAL_CAPACITY];
+        short[] unitIds = new short[INITIAL_CAPACITY];
+        final List<String> units = new ArrayList<>();
+        final Map<String, Short> unitIndex = new HashMap<>();
+        int size;
+
+        void add(TariffRateEntity entity) {
+            long key = keyOf(entity);
+            if (key == TariffKeyCodec.NO_KEY) {
+                return;
+            }
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                rates = Arrays.copyOf(rates, capacity);
+                unitIds = Arrays.copyOf(unitIds, capacity);
+            }
+            keys[size] = key;
+            rates[size] = TariffKeyCodec.scaleRate(entity.getRate());
+            unitIds[size] = unitIndex.computeIfAbsent(entity.getUnit(), unit -> {
+                if (units.size() >= Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct tariff units for a snapshot");
+                }
+                units.add(unit);
+                return (short) (units.size() - 1);
+            });
+            size++;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package database.tariffs.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import database.tariffs.entity.TariffChangeEntity;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory copy of the TariffRates table version, so ETag checks and version-keyed caches do not
+ * query the change log on every request.
+ *
+ * The version is refreshed by a short poll (writes made by other nodes) and, on the tracker's own
+ * thread, as soon as a local commit appends to the change log, so writers never wait on a refresh.
+ * A read that arrives before that refresh has finished waits for it (read-your-writes on this
+ * node). A refresh reads
+ * the change feed between the old and new stable version and hands the changed keys to the
+ * registered TariffChangeListeners before publishing the new version; past maxChanges keys the
+ * listeners are told to drop everything instead.
+ */
+@Component
+public class TariffVersionTracker {
+    private static final Logger logger = LoggerFactory.getLogger(TariffVersionTracker.class);
+
+    private static final int CHANGES_PAGE_SIZE = 1000;
+    // Upper bound on a read waiting for the refresh that follows a local commit
+    private static final long LOCAL_COMMIT_WAIT_MS = 1_000;
+
+    private final TariffRateRepository repository;
+    private final int maxChanges;
+    private final List<TariffChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService refreshThread;
+    // The refresh thread, unless a test swaps in another executor
+    private Executor executor;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    private final Object commitLock = new Object();
+    // Highest version committed here that no finished refresh has covered yet; 0 if none
+    private long pendingCommit;
+
+    private volatile long version = ITariffRateRepository.NO_VERSION;
+
+    public TariffVersionTracker(
+            TariffRateRepository repository,
+            TariffChangeLog changeLog,
+            @Value("${app.tariffs.version.maxChanges:10000}") int maxChanges) {
+        this.repository = repository;
+        this.maxChanges = maxChanges;
+        this.refreshThread = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "tariff-version");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = refreshThread;
+        changeLog.addCommitListener(this::onCommit);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshThread.shutdownNow();
+    }
+
+    public void addListener(TariffChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Last published stable version, or NO_VERSION if the database has not been reachable yet
+     */
+    public long currentVersion() {
+        awaitLocalCommits();
+        long current = version;
+        if (current == ITariffRateRepository.NO_VERSION) {
+            refresh();
+            current = version;
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${app.tariffs.version.pollMs:1000}")
+    public void poll() {
+        refresh();
+    }
+
+    /**
+     * Queue a refresh unless the given version (of a write that just committed here) is already
+     * published; commits arriving while one is queued share it. Runs on the writer's thread, so it
+     * never touches the database.
+     */
+    void onCommit(long committed) {
+        if (version >= committed) {
+            return;
+        }
+        synchronized (commitLock) {
+            pendingCommit = Math.max(pendingCommit, committed);
+        }
+        if (!refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::refreshAfterCommit);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; nothing will refresh, so nobody should wait for it
+            refreshQueued.set(false);
+            synchronized (commitLock) {
+                pendingCommit = 0;
+                commitLock.notifyAll();
+            }
+        }
+    }
+
+    private void refreshAfterCommit() {
+        refreshQueued.set(false);
+        long covered;
+        synchronized (commitLock) {
+            covered = pendingCommit;
+        }
+        try {
+            refresh();
+        } finally {
+            // Even if the version stays below the commit (an older write still committing, or the
+            // feed unavailable) the waiting reads go ahead with what was published
+            synchronized (commitLock) {
+                if (pendingCommit <= covered) {
+                    pendingCommit = 0;
+                }
+                commitLock.notifyAll();
+            }
+        }
+    }
+
+    private void awaitLocalCommits() {
+        synchronized (commitLock) {
+            long deadline = System.currentTimeMillis() + LOCAL_COMMIT_WAIT_MS;
+            while (pendingCommit > version) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    commitLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    synchronized void refresh() {
+        long stable = repository.currentVersion();
+        long previous = version;
+        if (stable == ITariffRateRepository.NO_VERSION || stable <= previous) {
+            return;
+        }
+        if (previous == ITariffRateRepository.NO_VERSION) {
+            // Nothing can have been cached against a version before the first one
+            version = stable;
+            return;
+        }
+        try {
+            List<TariffChangeEntity> changes = readChanges(previous, stable);
+            if (changes == null) {
+                logger.info("More than {} tariff changes between versions {} and {}; resetting caches",
+                        maxChanges, previous, stable);
+                for (TariffChangeListener listener : listeners) {
+                    listener.onTariffReset();
+                }
+            } else if (!changes.isEmpty()) {
+                for (TariffChangeListener listener : listeners) {
+                    listener.onTariffChanges(changes);
+                }
+            }
+            version = stable;
+        } catch (DataAccessException e) {
+            // Keep the old version; caches stay consistent with it and the next refresh retries
+            logger.warn("Could not read tariff changes after version {}: {}", previous, e.getMessage());
+        }
+    }
+
+    /**
+     * Changes in (afterVersion, upToVersion], or null if there are more than maxChanges
+     */
+    private List<TariffChangeEntity> readChanges(long afterVersion, long upToVersion) {
+        List<TariffChangeEntity> changes = new ArrayList<>();
+        long pageVersion = afterVersion;
+        TariffChangeEntity pageKey = null;
+        while (true) {
+            List<TariffChangeEntity> page = repository.findChanges(pageVersion, pageKey, upToVersion, CHANGES_PAGE_SIZE);
+            changes.addAll(page);
+            if (changes.size() > maxChanges) {
+                return null;
+            }
+            if (page.size() < CHANGES_PAGE_SIZE) {
+                return changes;
+            }
+            pageKey = page.get(page.size() - 1);
+            pageVersion = pageKey.getVersion();
+        }
+    }
+}
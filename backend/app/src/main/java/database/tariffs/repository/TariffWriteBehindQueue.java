@@ -0,0 +1,286 @@
+package database.tariffs.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import database.tariffs.entity.TariffRateEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for tariff upserts.
+ *
+ * Pending writes are keyed by (reporter, partner, product, year): a second write to a key that is
+ * still pending replaces the first, so the database sees at most one write per key per flush
+ * window. One flusher thread waits until flushIntervalMs has passed since the window opened or
+ * batchSize keys are pending, then writes the window with batched upsertAll calls.
+ *
+ * The buffer holds at most maxPending keys. When it is full, enqueue waits up to offerTimeoutMs
+ * for the flusher to make room and then rejects the write. Pending writes are flushed on shutdown.
+ *
+ * A batch whose upsertAll fails is queued again, except for keys that a newer pending write has
+ * replaced, and the flusher backs off before the next window. A write that has failed maxAttempts
+ * times, or that finds the buffer full on its way back, is dropped and counted as failed.
+ */
+@Component
+public class TariffWriteBehindQueue {
+    private static final Logger logger = LoggerFactory.getLogger(TariffWriteBehindQueue.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 1_000;
+
+    private final ITariffRateRepository repository;
+    private final int maxPending;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled when a window opens, fills to batchSize, or the queue stops
+    private final Condition ready = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    private boolean stopped;
+    private Thread flusher;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public TariffWriteBehindQueue(
+            ITariffRateRepository repository,
+            @Value("${app.tariffs.writeBehind.maxPending:10000}") int maxPending,
+            @Value("${app.tariffs.writeBehind.batchSize:500}") int batchSize,
+            @Value("${app.tariffs.writeBehind.flushIntervalMs:5}") long flushIntervalMs,
+            @Value("${app.tariffs.writeBehind.offerTimeoutMs:100}") long offerTimeoutMs) {
+        this.repository = repository;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = new Thread(this::runFlusher, "tariff-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stop accepting writes and flush everything still pending
+     */
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            ready.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (flusher != null) {
+            try {
+                flusher.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Covers a flusher that was never started or did not finish in time; retries are bounded
+        while (getPendingCount() > 0) {
+            flushPending();
+        }
+        logger.info("Tariff write-behind stopped: enqueued={}, coalesced={}, written={}, failed={}, rejected={}",
+                enqueued.get(), coalesced.get(), written.get(), failed.get(), rejected.get());
+    }
+
+    /**
+     * Queue an upsert of the entity's rate and unit.
+     *
+     * @return false if the buffer stayed full for offerTimeoutMs or the queue is stopped
+     */
+    public boolean enqueue(TariffRateEntity entity) {
+        // Years are compared numerically, as the INT column does
+        String key = entity.getCountryIsoNumeric() + '|' + entity.getPartnerIsoNumeric() + '|'
+                + entity.getProductHsCode() + '|' + Integer.parseInt(entity.getYear());
+
+        lock.lock();
+        try {
+            long nanos = offerTimeoutNanos;
+            while (!stopped && !pending.containsKey(key) && pending.size() >= maxPending) {
+                if (nanos <= 0) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            if (stopped) {
+                rejected.incrementAndGet();
+                return false;
+            }
+
+            if (pending.put(key, new Pending(entity, 0)) != null) {
+                coalesced.incrementAndGet();
+            }
+            enqueued.incrementAndGet();
+            if (pending.size() == 1 || pending.size() == batchSize) {
+                ready.signal();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCoalescedCount() { return coalesced.get(); }
+
+    public long getRejectedCount() { return rejected.get(); }
+
+    public long getWrittenCount() { return written.get(); }
+
+    public long getFailedCount() { return failed.get(); }
+
+    private void runFlusher() {
+        while (awaitWindow()) {
+            if (!flushPending()) {
+                backOff();
+            }
+        }
+    }
+
+    /**
+     * Wait RETRY_BACKOFF_MS after a failed write, or until stopped
+     */
+    private void backOff() {
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MS);
+            while (!stopped && nanos > 0) {
+                nanos = ready.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Block until there is a window to flush; false once stopped with nothing pending
+     */
+    private boolean awaitWindow() {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && !stopped) {
+                ready.await();
+            }
+            long nanos = flushIntervalNanos;
+            while (!stopped && pending.size() < batchSize && nanos > 0) {
+                nanos = ready.awaitNanos(nanos);
+            }
+            return !pending.isEmpty() || !stopped;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the current window and write it in batches; visible for tests
+     *
+     * @return false if a batch failed and was queued again or dropped
+     */
+    boolean flushPending() {
+        List<Map.Entry<String, Pending>> window;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return true;
+            }
+            window = new ArrayList<>(pending.entrySet());
+            pending = new LinkedHashMap<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean allWritten = true;
+        for (int from = 0; from < window.size(); from += batchSize) {
+            List<Map.Entry<String, Pending>> batch = window.subList(from, Math.min(from + batchSize, window.size()));
+            try {
+                repository.upsertAll(batch.stream().map(entry -> entry.getValue().entity()).toList());
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                allWritten = false;
+                int dropped = requeue(batch);
+                failed.addAndGet(dropped);
+                logger.error("Failed to write {} queued tariffs ({} dropped, the rest queued again): {}",
+                        batch.size(), dropped, e.getMessage(), e);
+            }
+        }
+        logger.debug("Flushed {} queued tariffs", window.size());
+        return allWritten;
+    }
+
+    /**
+     * Queue a failed batch again, skipping keys with a newer pending write
+     *
+     * @return how many writes were dropped, out of attempts or for lack of room
+     */
+    private int requeue(List<Map.Entry<String, Pending>> batch) {
+        int dropped = 0;
+        lock.lock();
+        try {
+            for (Map.Entry<String, Pending> entry : batch) {
+                Pending write = entry.getValue();
+                if (pending.containsKey(entry.getKey())) {
+                    continue;
+                }
+                if (write.attempts() + 1 >= MAX_ATTEMPTS || pending.size() >= maxPending) {
+                    dropped++;
+                } else {
+                    pending.put(entry.getKey(), new Pending(write.entity(), write.attempts() + 1));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return dropped;
+    }
+
+    /**
+     * A queued write and how many times writing it has failed
+     */
+    private record Pending(TariffRateEntity entity, int attempts) {}
+}
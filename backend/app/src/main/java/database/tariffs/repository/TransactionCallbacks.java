@@ -0,0 +1,27 @@
+package database.tariffs.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs cache maintenance once the surrounding transaction has committed, or immediately
+ * when there is no transaction.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
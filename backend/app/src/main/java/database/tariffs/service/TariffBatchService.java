@@ -0,0 +1,116 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.dto.TariffBatchResponse;
+import database.tariffs.dto.TariffBatchRowResult;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.util.TariffDataTransformer;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service layer for bulk tariff writes.
+ * Validates every row in one pass, then writes all valid rows with batched upserts.
+ */
+@Service
+public class TariffBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(TariffBatchService.class);
+
+    static final int MAX_BATCH_SIZE = 10000;
+
+    private final ITariffRateRepository repository;
+    private final Validator validator;
+
+    public TariffBatchService(ITariffRateRepository repository, Validator validator) {
+        this.repository = repository;
+        this.validator = validator;
+    }
+
+    /**
+     * Upsert a batch of tariffs. Invalid rows are reported and skipped; valid rows are
+     * written atomically in a single transaction.
+     */
+    @Transactional
+    public TariffBatchResponse upsertTariffs(List<CreateTariffRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidTariffQueryException("Batch must contain at least one tariff");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new InvalidTariffQueryException("Batch must not contain more than " + MAX_BATCH_SIZE + " tariffs");
+        }
+
+        logger.info("Upserting batch of {} tariffs", requests.size());
+
+        TariffBatchRowResult[] results = new TariffBatchRowResult[requests.size()];
+        List<TariffRateEntity> accepted = new ArrayList<>(requests.size());
+        int[] acceptedRows = new int[requests.size()];
+
+        for (int row = 0; row < requests.size(); row++) {
+            CreateTariffRequest request = requests.get(row);
+            List<String> errors = validate(request);
+            if (errors.isEmpty()) {
+                acceptedRows[accepted.size()] = row;
+                accepted.add(toEntity(request));
+            } else {
+                results[row] = new TariffBatchRowResult(row, TariffBatchRowResult.STATUS_REJECTED, errors);
+            }
+        }
+
+        // Per-row update counts are not reported: with rewriteBatchedStatements MySQL returns
+        // SUCCESS_NO_INFO for every row, so inserted/updated/unchanged would only be right on H2
+        if (!accepted.isEmpty()) {
+            repository.upsertAll(accepted);
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            int row = acceptedRows[i];
+            results[row] = new TariffBatchRowResult(row, TariffBatchRowResult.STATUS_UPSERTED, null);
+        }
+
+        int rejected = requests.size() - accepted.size();
+        logger.info("Batch complete: written={}, rejected={}", accepted.size(), rejected);
+
+        return new TariffBatchResponse(requests.size(), accepted.size(), rejected, Arrays.asList(results));
+    }
+
+    /**
+     * Collect bean-validation messages plus the column-range check the annotations cannot express
+     */
+    private List<String> validate(CreateTariffRequest request) {
+        List<String> errors = new ArrayList<>();
+        if (request == null) {
+            errors.add("Row must not be null");
+            return errors;
+        }
+        for (ConstraintViolation<CreateTariffRequest> violation : validator.validate(request)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (request.getRate() != null && request.getRate() > TariffDataTransformer.MAX_RATE) {
+            errors.add("rate: Rate must not exceed " + TariffDataTransformer.MAX_RATE);
+        }
+        errors.sort(null);
+        return errors;
+    }
+
+    private static TariffRateEntity toEntity(CreateTariffRequest request) {
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(request.getReporter());
+        entity.setPartnerIsoNumeric(request.getPartner());
+        entity.setProductHsCode(request.getProduct());
+        entity.setYear(request.getYear());
+        entity.setRate(request.getRate());
+        entity.setUnit(request.getUnit());
+        return entity;
+    }
+}
@@ -0,0 +1,424 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffImportJobResponse;
+import database.tariffs.dto.TariffImportRowError;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.exception.TariffImportJobNotFoundException;
+import database.tariffs.exception.TariffImportRejectedException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.util.TariffCsvReader;
+import database.tariffs.util.TariffDataTransformer;
+import database.tariffs.util.TariffRowHandler;
+import database.tariffs.util.TariffXlsxReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service layer for streaming CSV/XLSX tariff imports.
+ *
+ * An upload is copied to a temp file and imported by a background job. The job thread reads the
+ * file row by row (TariffCsvReader / TariffXlsxReader), validates each row with
+ * TariffDataTransformer and fills a batch; full batches are handed to a per-job writer thread that
+ * upserts them while the next batch is parsed. At most two batches are in memory at a time, and
+ * only the first maxErrorRows rejected rows are kept, so a file of millions of rows imports with
+ * bounded memory.
+ *
+ * Each batch is committed on its own. If a job fails part way, the batches already written stay
+ * written; re-importing the same file is safe because rows are upserted.
+ *
+ * Jobs run on a dedicated pool of maxConcurrentJobs threads rather than the shared
+ * applicationTaskExecutor, which a long import would otherwise hold for hours.
+ */
+@Service
+public class TariffImportService {
+    private static final Logger logger = LoggerFactory.getLogger(TariffImportService.class);
+
+    public static final String FORMAT_CSV = "CSV";
+    public static final String FORMAT_XLSX = "XLSX";
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    // Column positions in ImportRun.columns
+    private static final int REPORTER = 0;
+    private static final int PARTNER = 1;
+    private static final int PRODUCT = 2;
+    private static final int YEAR = 3;
+    private static final int RATE = 4;
+    private static final int UNIT = 5;
+    private static final String[] COLUMN_NAMES = {"reporter", "partner", "product", "year", "rate", "unit"};
+
+    /** Header names accepted for each column: API field names and TariffRates column names */
+    private static final Map<String, Integer> HEADER_ALIASES = Map.of(
+            "reporter", REPORTER, "country_id", REPORTER,
+            "partner", PARTNER, "partner_country_id", PARTNER,
+            "product", PRODUCT, "product_id", PRODUCT,
+            "year", YEAR,
+            "rate", RATE,
+            "unit", UNIT);
+
+    private final ITariffRateRepository repository;
+    private final ExecutorService jobThreads;
+    // The job threads, unless a test swaps in another executor
+    private Executor executor;
+    private final int batchSize;
+    private final int maxErrorRows;
+    private final int retainedJobs;
+    private final Path tempDir;
+    private final Semaphore slots;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public TariffImportService(
+            ITariffRateRepository repository,
+            @Value("${app.tariffs.import.batchSize:1000}") int batchSize,
+            @Value("${app.tariffs.import.maxConcurrentJobs:2}") int maxConcurrentJobs,
+            @Value("${app.tariffs.import.maxErrorRows:1000}") int maxErrorRows,
+            @Value("${app.tariffs.import.retainedJobs:50}") int retainedJobs,
+            @Value("${app.tariffs.import.tempDir:${java.io.tmpdir}/tariffs/imports}") Path tempDir) {
+        this.repository = repository;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.jobThreads = Executors.newFixedThreadPool(maxConcurrentJobs, task -> {
+            Thread thread = new Thread(task, "tariff-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = jobThreads;
+        this.batchSize = batchSize;
+        this.maxErrorRows = maxErrorRows;
+        this.retainedJobs = retainedJobs;
+        this.tempDir = tempDir;
+        this.slots = new Semaphore(maxConcurrentJobs);
+    }
+
+    /**
+     * Stop the job threads; running imports fail and keep the batches already written
+     */
+    @PreDestroy
+    public void shutdown() {
+        jobThreads.shutdownNow();
+    }
+
+    /**
+     * Store the upload and start importing it in the background
+     * @return the queued job; poll getJob() for progress
+     */
+    public TariffImportJobResponse startImport(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new InvalidTariffQueryException("Import file must not be empty");
+        }
+        String format = detectFormat(file);
+        if (!slots.tryAcquire()) {
+            throw new TariffImportRejectedException("Too many tariff imports in progress; retry later");
+        }
+
+        Path stored = null;
+        Job job = new Job(UUID.randomUUID().toString(), file.getOriginalFilename(), format);
+        try {
+            Files.createDirectories(tempDir);
+            stored = Files.createTempFile(tempDir, "tariff-import-", "." + format.toLowerCase(Locale.ROOT));
+            // The multipart temp file is deleted when the request ends, so keep our own copy
+            file.transferTo(stored);
+
+            jobs.put(job.id, job);
+            Path source = stored;
+            executor.execute(() -> run(job, source));
+        } catch (IOException | RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(stored);
+            slots.release();
+            if (e instanceof RejectedExecutionException) {
+                throw new TariffImportRejectedException("Tariff import could not be scheduled; retry later");
+            }
+            throw new IllegalStateException("Failed to store import file: " + e.getMessage(), e);
+        }
+
+        logger.info("Queued tariff import {} of {} ({} bytes, {})", job.id, job.fileName, file.getSize(), format);
+        return job.toResponse();
+    }
+
+    /**
+     * Current progress of an import job (finished jobs are kept until retainedJobs newer ones finish)
+     */
+    public TariffImportJobResponse getJob(String jobId) {
+        Job job = jobId == null ? null : jobs.get(jobId);
+        if (job == null) {
+            throw new TariffImportJobNotFoundException(jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void run(Job job, Path source) {
+        long start = System.nanoTime();
+        job.status = TariffImportJobResponse.STATUS_RUNNING;
+        ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "tariff-import-writer-" + job.id.substring(0, 8));
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ImportRun importRun = new ImportRun(job, writer);
+            if (FORMAT_XLSX.equals(job.format)) {
+                TariffXlsxReader.read(source, importRun);
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                    TariffCsvReader.read(reader, importRun);
+                }
+            }
+            importRun.finish();
+            job.finish(TariffImportJobResponse.STATUS_COMPLETED, null);
+            logger.info("Tariff import {} completed: {} rows read, {} imported, {} rejected in {} ms",
+                    job.id, job.rowsRead, job.rowsImported, job.rowsRejected,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            job.finish(TariffImportJobResponse.STATUS_FAILED, e.getMessage());
+            logger.error("Tariff import {} failed after {} rows: {}", job.id, job.rowsRead, e.getMessage(), e);
+        } finally {
+            writer.shutdownNow();
+            deleteQuietly(source);
+            slots.release();
+            evictFinishedJobs();
+        }
+    }
+
+    private String detectFormat(MultipartFile file) {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return FORMAT_CSV;
+        }
+        if (name.endsWith(".xlsx")) {
+            return FORMAT_XLSX;
+        }
+        String contentType = file.getContentType();
+        if ("text/csv".equals(contentType)) {
+            return FORMAT_CSV;
+        }
+        if (XLSX_CONTENT_TYPE.equals(contentType)) {
+            return FORMAT_XLSX;
+        }
+        throw new InvalidTariffQueryException("Unsupported import file type; upload a .csv or .xlsx file");
+    }
+
+    private void evictFinishedJobs() {
+        List<Job> finished = jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((Job job) -> job.finishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - retainedJobs; i++) {
+            jobs.remove(finished.get(i).id);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete import file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Parses, validates and batches the rows of one job on the job thread; writes run on the writer
+     */
+    private final class ImportRun implements TariffRowHandler {
+        private final Job job;
+        private final ExecutorService writer;
+        private int[] columns;
+        private List<TariffRateEntity> batch;
+        private Future<?> pending;
+
+        ImportRun(Job job, ExecutorService writer) {
+            this.job = job;
+            this.writer = writer;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void row(long rowNumber, List<String> cells) {
+            if (columns == null) {
+                columns = mapHeader(cells);
+                return;
+            }
+            if (isBlank(cells)) {
+                return;
+            }
+
+            job.rowsRead.incrementAndGet();
+            List<String> errors = new ArrayList<>();
+            TariffRateEntity entity = TariffDataTransformer.parseRow(
+                    cell(cells, REPORTER), cell(cells, PARTNER), cell(cells, PRODUCT),
+                    cell(cells, YEAR), cell(cells, RATE), cell(cells, UNIT), errors);
+            if (entity == null) {
+                job.reject(rowNumber, errors, maxErrorRows);
+                return;
+            }
+            batch.add(entity);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            if (columns == null) {
+                throw new InvalidTariffQueryException("Import file has no header row");
+            }
+            flush();
+            awaitPending();
+        }
+
+        /**
+         * Hand the current batch to the writer once it has finished the previous one, so parsing
+         * overlaps with at most one write
+         */
+        private void flush() {
+            awaitPending();
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<TariffRateEntity> toWrite = batch;
+            batch = new ArrayList<>(batchSize);
+            pending = writer.submit(() -> {
+                repository.upsertAll(toWrite);
+                job.rowsImported.addAndGet(toWrite.size());
+            });
+        }
+
+        private void awaitPending() {
+            if (pending == null) {
+                return;
+            }
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Tariff import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to write tariff batch: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pending = null;
+            }
+        }
+
+        private int[] mapHeader(List<String> header) {
+            int[] mapped = {-1, -1, -1, -1, -1, -1};
+            for (int i = 0; i < header.size(); i++) {
+                Integer column = HEADER_ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+                if (column != null && mapped[column] < 0) {
+                    mapped[column] = i;
+                }
+            }
+            List<String> missing = new ArrayList<>();
+            for (int column = REPORTER; column <= RATE; column++) {
+                if (mapped[column] < 0) {
+                    missing.add(COLUMN_NAMES[column]);
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new InvalidTariffQueryException("Import file is missing required column(s): "
+                        + String.join(", ", missing));
+            }
+            return mapped;
+        }
+
+        private String cell(List<String> cells, int column) {
+            int index = columns[column];
+            return index >= 0 && index < cells.size() ? cells.get(index) : null;
+        }
+
+        private boolean isBlank(List<String> cells) {
+            for (String cell : cells) {
+                if (!cell.isBlank()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Mutable state of one import job, shared between the job thread and status readers
+     */
+    private static final class Job {
+        final String id;
+        final String fileName;
+        final String format;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong rowsImported = new AtomicLong();
+        final AtomicLong rowsRejected = new AtomicLong();
+        private final List<TariffImportRowError> errors = new ArrayList<>();
+
+        volatile String status = TariffImportJobResponse.STATUS_QUEUED;
+        volatile String message;
+        volatile LocalDateTime finishedAt;
+
+        Job(String id, String fileName, String format) {
+            this.id = id;
+            this.fileName = fileName;
+            this.format = format;
+        }
+
+        synchronized void reject(long rowNumber, List<String> rowErrors, int maxErrorRows) {
+            rowsRejected.incrementAndGet();
+            if (errors.size() < maxErrorRows) {
+                errors.add(new TariffImportRowError(rowNumber, rowErrors));
+            }
+        }
+
+        void finish(String finalStatus, String finalMessage) {
+            message = finalMessage;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        synchronized TariffImportJobResponse toResponse() {
+            TariffImportJobResponse response = new TariffImportJobResponse();
+            response.setJobId(id);
+            response.setFileName(fileName);
+            response.setFormat(format);
+            response.setStatus(status);
+            response.setRowsRead(rowsRead.get());
+            response.setRowsImported(rowsImported.get());
+            response.setRowsRejected(rowsRejected.get());
+            response.setErrors(List.copyOf(errors));
+            response.setErrorsTruncated(rowsRejected.get() > errors.size());
+            response.setMessage(message);
+            response.setSubmittedAt(submittedAt);
+            response.setFinishedAt(finishedAt);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffMatrixResponse;
+import database.tariffs.entity.TariffChangeEntity;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.repository.TariffChangeListener;
+import database.tariffs.repository.TariffVersionTracker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Service layer for the reporter x partner tariff matrix (globe view).
+ *
+ * A matrix is built from one indexed query per (product, year) and cached until a change to that
+ * product and year shows up in the change feed; TariffVersionTracker reports changes from every
+ * node before it publishes their version, so a write elsewhere only evicts the matrices it touched.
+ * The cache is a small LRU bounded by maxEntries.
+ */
+@Service
+public class TariffMatrixService implements TariffChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(TariffMatrixService.class);
+
+    private static final String YEAR_PATTERN = "\\d{4}";
+
+    private final ITariffRateRepository repository;
+    private final TariffVersionTracker versions;
+    private final Map<String, TariffMatrixResponse> cache;
+    // Bumped by every eviction; a build that raced with one is not cached
+    private long evictions;
+
+    public TariffMatrixService(
+            ITariffRateRepository repository,
+            TariffVersionTracker versions,
+            @Value("${app.tariffs.matrix.maxEntries:256}") int maxEntries) {
+        this.repository = repository;
+        this.versions = versions;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TariffMatrixResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void registerForChanges() {
+        versions.addListener(this);
+    }
+
+    /**
+     * Get the dense matrix of one product and year; countries are every reporter or partner
+     * with a tariff, in code order
+     */
+    public TariffMatrixResponse getMatrix(Integer product, String year) {
+        if (product == null) {
+            throw new InvalidTariffQueryException("product is required");
+        }
+        if (year == null || !year.matches(YEAR_PATTERN)) {
+            throw new InvalidTariffQueryException("year must be 4 digits");
+        }
+
+        String key = keyOf(product, year);
+        long observed;
+        synchronized (cache) {
+            TariffMatrixResponse cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            observed = evictions;
+        }
+        // Without a table version no changes are being tracked, so nothing may be cached
+        boolean cacheable = repository.currentVersion() != ITariffRateRepository.NO_VERSION;
+
+        TariffMatrixResponse matrix = buildMatrix(product, year, repository.findMatrix(product, year));
+        logger.info("Built tariff matrix for product={}, year={}: {} countries, {} rates",
+                product, year, matrix.getCountries().size(), matrix.getFound());
+
+        if (cacheable) {
+            synchronized (cache) {
+                if (evictions == observed) {
+                    cache.put(key, matrix);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public void onTariffChanges(List<TariffChangeEntity> changes) {
+        synchronized (cache) {
+            evictions++;
+            for (TariffChangeEntity change : changes) {
+                cache.remove(keyOf(change.getProductHsCode(), change.getYear()));
+            }
+        }
+    }
+
+    @Override
+    public void onTariffReset() {
+        synchronized (cache) {
+            evictions++;
+            cache.clear();
+        }
+    }
+
+    static TariffMatrixResponse buildMatrix(Integer product, String year, List<TariffRateEntity> rows) {
+        TreeSet<String> codes = new TreeSet<>();
+        for (TariffRateEntity row : rows) {
+            codes.add(row.getCountryIsoNumeric());
+            codes.add(row.getPartnerIsoNumeric());
+        }
+        List<String> countries = List.copyOf(codes);
+        Map<String, Integer> positions = new HashMap<>(countries.size() * 2);
+        for (int i = 0; i < countries.size(); i++) {
+            positions.put(countries.get(i), i);
+        }
+
+        int size = countries.size();
+        float[] rates = new float[size * size];
+        Arrays.fill(rates, Float.NaN);
+        for (TariffRateEntity row : rows) {
+            int reporter = positions.get(row.getCountryIsoNumeric());
+            int partner = positions.get(row.getPartnerIsoNumeric());
+            rates[reporter * size + partner] = row.getRate().floatValue();
+        }
+        return new TariffMatrixResponse(product, year, countries, rates, rows.size());
+    }
+
+    private static String keyOf(Integer product, String year) {
+        return product + "|" + year;
+    }
+}
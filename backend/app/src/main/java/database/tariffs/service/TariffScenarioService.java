@@ -0,0 +1,279 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.dto.TariffScenarioLine;
+import database.tariffs.dto.TariffScenarioLineDelta;
+import database.tariffs.dto.TariffScenarioRequest;
+import database.tariffs.dto.TariffScenarioResponse;
+import database.tariffs.dto.TariffScenarioRule;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.util.TariffDataTransformer;
+import database.tariffs.util.TariffKeyCodec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What-if tariff scenarios over a basket of shipment lines.
+ *
+ * Baseline rates come from TariffService lookups in chunks of MAX_LOOKUP_KEYS; the tariff table is
+ * never written. Rules are then overlaid on every line in order (a later matching rule applies on
+ * top of an earlier one) by a fork/join task over primitive arrays, which also sums the baseline
+ * and scenario tariffs. Tariff amounts follow the calculator: value * rate / 100, lines without a
+ * rate count as rate 0.
+ */
+@Service
+public class TariffScenarioService {
+    private static final Logger logger = LoggerFactory.getLogger(TariffScenarioService.class);
+
+    private static final double PERCENT = 100.0;
+    // Lines per fork/join leaf; smaller ranges cost more in task overhead than they save
+    static final int LEAF_SIZE = 4096;
+    private static final int ADD = 0;
+    private static final int MULTIPLY = 1;
+    private static final int SET = 2;
+    private static final int NO_RULE = -1;
+
+    private final TariffService tariffService;
+
+    public TariffScenarioService(TariffService tariffService) {
+        this.tariffService = tariffService;
+    }
+
+    public TariffScenarioResponse simulate(TariffScenarioRequest request) {
+        List<TariffScenarioLine> lines = request.getLines();
+        int n = lines.size();
+        logger.info("Simulating tariff scenario '{}': {} rules over {} lines",
+                request.getName(), request.getRules().size(), n);
+        long start = System.nanoTime();
+
+        CompiledRules rules = compile(request.getRules());
+
+        String[] reporters = new String[n];
+        String[] partners = new String[n];
+        int[] products = new int[n];
+        int[] years = new int[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            TariffScenarioLine line = lines.get(i);
+            reporters[i] = line.getReporter();
+            partners[i] = line.getPartner();
+            products[i] = line.getProduct();
+            years[i] = Integer.parseInt(line.getYear());
+            values[i] = line.getValue();
+        }
+
+        boolean[] found = new boolean[n];
+        double[] baselineRates = new double[n];
+        lookupBaseline(lines, found, baselineRates);
+
+        double[] scenarioRates = new double[n];
+        int[] matchedRules = new int[n];
+        Totals totals = ForkJoinPool.commonPool().invoke(new OverlayTask(rules, reporters, partners, products,
+                years, values, baselineRates, scenarioRates, matchedRules, 0, n));
+
+        List<TariffScenarioLineDelta> changes = new ArrayList<>(totals.affected);
+        double totalValue = 0;
+        int withoutRate = 0;
+        for (int i = 0; i < n; i++) {
+            totalValue += values[i];
+            if (!found[i]) {
+                withoutRate++;
+            }
+            if (matchedRules[i] != NO_RULE) {
+                changes.add(toDelta(i, lines.get(i), found[i], baselineRates[i], scenarioRates[i], matchedRules[i]));
+            }
+        }
+
+        TariffScenarioResponse response = new TariffScenarioResponse();
+        response.setName(request.getName());
+        response.setLines(n);
+        response.setLinesWithoutRate(withoutRate);
+        response.setAffectedLines(totals.affected);
+        response.setTotalValue(totalValue);
+        response.setBaselineTariff(totals.baselineTariff);
+        response.setScenarioTariff(totals.scenarioTariff);
+        response.setTariffDelta(totals.scenarioTariff - totals.baselineTariff);
+        response.setBaselineLandedCost(totalValue + totals.baselineTariff);
+        response.setScenarioLandedCost(totalValue + totals.scenarioTariff);
+        response.setChanges(changes);
+
+        logger.info("Scenario complete in {} ms: affected={}, tariffDelta={}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), totals.affected, response.getTariffDelta());
+        return response;
+    }
+
+    /**
+     * Fill found[i] and rates[i] from the tariff table, MAX_LOOKUP_KEYS lines per lookup
+     */
+    private void lookupBaseline(List<TariffScenarioLine> lines, boolean[] found, double[] rates) {
+        for (int from = 0; from < lines.size(); from += TariffService.MAX_LOOKUP_KEYS) {
+            int to = Math.min(from + TariffService.MAX_LOOKUP_KEYS, lines.size());
+            List<TariffLookupKey> keys = new ArrayList<>(to - from);
+            for (TariffScenarioLine line : lines.subList(from, to)) {
+                keys.add(new TariffLookupKey(line.getReporter(), line.getPartner(), line.getProduct(), line.getYear()));
+            }
+            for (TariffLookupResult result : tariffService.lookupTariffs(keys).getResults()) {
+                if (result.isFound()) {
+                    found[from + result.getIndex()] = true;
+                    rates[from + result.getIndex()] = result.getRate();
+                }
+            }
+        }
+    }
+
+    private static CompiledRules compile(List<TariffScenarioRule> rules) {
+        int count = rules.size();
+        CompiledRules compiled = new CompiledRules(new String[count], new String[count], new int[count],
+                new int[count], new int[count], new int[count], new int[count], new double[count]);
+        for (int r = 0; r < count; r++) {
+            TariffScenarioRule rule = rules.get(r);
+            if (rule.getYearFrom() != null && rule.getYearTo() != null && rule.getYearFrom() > rule.getYearTo()) {
+                throw new InvalidTariffQueryException("Rule " + r + ": yearFrom must not be after yearTo");
+            }
+            double value = rule.getValue();
+            int type = switch (rule.getType()) {
+                case TariffScenarioRule.TYPE_ADD -> ADD;
+                case TariffScenarioRule.TYPE_MULTIPLY -> MULTIPLY;
+                default -> SET;
+            };
+            if (type == MULTIPLY && value < 0) {
+                throw new InvalidTariffQueryException("Rule " + r + ": MULTIPLY value must not be negative");
+            }
+            if (type == SET && (value < 0 || value > TariffDataTransformer.MAX_RATE)) {
+                throw new InvalidTariffQueryException("Rule " + r + ": SET value must be between 0 and "
+                        + TariffDataTransformer.MAX_RATE);
+            }
+
+            // Reuse the listing filter's HS prefix arithmetic for the product range
+            TariffFilter filter = new TariffFilter(null, null, rule.getHsPrefix(), null, null);
+            compiled.reporters[r] = rule.getReporter();
+            compiled.partners[r] = rule.getPartner();
+            compiled.productFrom[r] = filter.getProductFrom() != null ? filter.getProductFrom() : Integer.MIN_VALUE;
+            compiled.productTo[r] = filter.getProductTo() != null ? filter.getProductTo() : Integer.MAX_VALUE;
+            compiled.yearFrom[r] = rule.getYearFrom() != null ? rule.getYearFrom() : Integer.MIN_VALUE;
+            compiled.yearTo[r] = rule.getYearTo() != null ? rule.getYearTo() : Integer.MAX_VALUE;
+            compiled.types[r] = type;
+            compiled.values[r] = value;
+        }
+        return compiled;
+    }
+
+    private static TariffScenarioLineDelta toDelta(int index, TariffScenarioLine line, boolean found,
+                                                   double baselineRate, double scenarioRate, int rule) {
+        TariffScenarioLineDelta delta = new TariffScenarioLineDelta();
+        delta.setIndex(index);
+        delta.setReporter(line.getReporter());
+        delta.setPartner(line.getPartner());
+        delta.setProduct(line.getProduct());
+        delta.setYear(line.getYear());
+        delta.setValue(line.getValue());
+        delta.setBaselineRate(found ? baselineRate : null);
+        delta.setScenarioRate(scenarioRate);
+        delta.setBaselineTariff(line.getValue() * baselineRate / PERCENT);
+        delta.setScenarioTariff(line.getValue() * scenarioRate / PERCENT);
+        delta.setDelta(delta.getScenarioTariff() - delta.getBaselineTariff());
+        delta.setRule(rule);
+        return delta;
+    }
+
+    /**
+     * Rules as parallel arrays; null reporter/partner and MIN/MAX_VALUE ranges match any line
+     */
+    private record CompiledRules(String[] reporters, String[] partners, int[] productFrom, int[] productTo,
+                                 int[] yearFrom, int[] yearTo, int[] types, double[] values) {}
+
+    private record Totals(double baselineTariff, double scenarioTariff, int affected) {}
+
+    /**
+     * Overlays the rules on lines [from, to), splitting in halves down to LEAF_SIZE
+     */
+    private static final class OverlayTask extends RecursiveTask<Totals> {
+        private final CompiledRules rules;
+        private final String[] reporters;
+        private final String[] partners;
+        private final int[] products;
+        private final int[] years;
+        private final double[] values;
+        private final double[] baselineRates;
+        private final double[] scenarioRates;
+        private final int[] matchedRules;
+        private final int from;
+        private final int to;
+
+        OverlayTask(CompiledRules rules, String[] reporters, String[] partners, int[] products, int[] years,
+                    double[] values, double[] baselineRates, double[] scenarioRates, int[] matchedRules,
+                    int from, int to) {
+            this.rules = rules;
+            this.reporters = reporters;
+            this.partners = partners;
+            this.products = products;
+            this.years = years;
+            this.values = values;
+            this.baselineRates = baselineRates;
+            this.scenarioRates = scenarioRates;
+            this.matchedRules = matchedRules;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                OverlayTask left = new OverlayTask(rules, reporters, partners, products, years, values,
+                        baselineRates, scenarioRates, matchedRules, from, mid);
+                OverlayTask right = new OverlayTask(rules, reporters, partners, products, years, values,
+                        baselineRates, scenarioRates, matchedRules, mid, to);
+                left.fork();
+                Totals r = right.compute();
+                Totals l = left.join();
+                return new Totals(l.baselineTariff + r.baselineTariff, l.scenarioTariff + r.scenarioTariff,
+                        l.affected + r.affected);
+            }
+
+            double baselineTariff = 0;
+            double scenarioTariff = 0;
+            int affected = 0;
+            int ruleCount = rules.types.length;
+            for (int i = from; i < to; i++) {
+                double rate = baselineRates[i];
+                int matched = NO_RULE;
+                for (int r = 0; r < ruleCount; r++) {
+                    if ((rules.reporters[r] == null || rules.reporters[r].equals(reporters[i]))
+                            && (rules.partners[r] == null || rules.partners[r].equals(partners[i]))
+                            && products[i] >= rules.productFrom[r] && products[i] <= rules.productTo[r]
+                            && years[i] >= rules.yearFrom[r] && years[i] <= rules.yearTo[r]) {
+                        rate = switch (rules.types[r]) {
+                            case ADD -> rate + rules.values[r];
+                            case MULTIPLY -> rate * rules.values[r];
+                            default -> rules.values[r];
+                        };
+                        matched = r;
+                    }
+                }
+                if (matched != NO_RULE) {
+                    // Keep scenario rates within what the tariff table can store, at its precision
+                    rate = Math.min(Math.max(rate, 0), TariffDataTransformer.MAX_RATE);
+                    rate = (double) Math.round(rate * TariffKeyCodec.RATE_SCALE) / TariffKeyCodec.RATE_SCALE;
+                    affected++;
+                }
+
+                scenarioRates[i] = rate;
+                matchedRules[i] = matched;
+                baselineTariff += values[i] * baselineRates[i] / PERCENT;
+                scenarioTariff += values[i] * rate / PERCENT;
+            }
+            return new Totals(baselineTariff, scenarioTariff, affected);
+        }
+    }
+}
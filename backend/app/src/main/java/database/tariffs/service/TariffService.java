@@ -1,19 +1,44 @@
 package database.tariffs.service;
 
 import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.repository.TariffWriteBehindQueue;
+import database.tariffs.entity.TariffChangeEntity;
 import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.entity.TariffRollupEntity;
 import database.tariffs.dto.CreateTariffRequest;
 import database.tariffs.dto.UpdateTariffRequest;
 import database.tariffs.dto.TariffResponse;
+import database.tariffs.dto.TariffChange;
+import database.tariffs.dto.TariffChangesResponse;
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.dto.TariffPageResponse;
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.dto.TariffRollup;
+import database.tariffs.dto.TariffRollupResponse;
+import database.tariffs.dto.TariffSeriesPoint;
+import database.tariffs.dto.TariffSeriesResponse;
+import database.tariffs.exception.InvalidTariffQueryException;
 import database.tariffs.exception.TariffAlreadyExistsException;
 import database.tariffs.exception.TariffNotFoundException;
+import database.tariffs.exception.TariffWriteRejectedException;
+import database.tariffs.util.TariffChangeToken;
+import database.tariffs.util.TariffCursorCodec;
+import database.tariffs.util.TariffDataTransformer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,32 +49,48 @@ import java.util.stream.Collectors;
 public class TariffService {
     private static final Logger logger = LoggerFactory.getLogger(TariffService.class);
     private static final int NO_ROWS_AFFECTED = 0;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String HS_PREFIX_PATTERN = "\\d{1,6}";
+    private static final String YEAR_PATTERN = "\\d{4}";
+    static final int MAX_LOOKUP_KEYS = 1000;
+    private static final int MAX_SERIES_YEARS = 100;
+    private static final int MAX_HS_CHAPTER = 99;
 
     private final ITariffRateRepository repository;
+    private final TariffWriteBehindQueue writeBehindQueue;
 
-    public TariffService(ITariffRateRepository repository) {
+    public TariffService(ITariffRateRepository repository, TariffWriteBehindQueue writeBehindQueue) {
         this.repository = repository;
+        this.writeBehindQueue = writeBehindQueue;
     }
     
     /**
-     * Create new tariff - throws TariffAlreadyExistsException if exists
+     * Create new tariff - throws TariffAlreadyExistsException if exists.
+     * Relies on the primary key instead of a separate existence check: one round trip, no race.
      */
-    @Transactional
     public TariffResponse createTariff(CreateTariffRequest request) {
         logger.info("Creating tariff for: reporter={}, partner={}, product={}, year={}",
                 request.getReporter(), request.getPartner(), request.getProduct(), request.getYear());
         
-        // Check if already exists
-        if (repository.exists(request.getReporter(), request.getPartner(), 
-                             request.getProduct(), request.getYear())) {
+        try {
+            repository.create(
+                request.getReporter(),
+                request.getPartner(),
+                request.getProduct(),
+                request.getYear(),
+                request.getRate(),
+                request.getUnit()
+            );
+        } catch (DuplicateKeyException e) {
             throw new TariffAlreadyExistsException(
                 request.getReporter(), request.getPartner(), 
                 request.getProduct(), request.getYear()
             );
         }
         
-        // Create new tariff
-        repository.create(
+        logger.info("Successfully created tariff");
+        
+        return new TariffResponse(
             request.getReporter(),
             request.getPartner(),
             request.getProduct(),
@@ -57,9 +98,26 @@ public class TariffService {
             request.getRate(),
             request.getUnit()
         );
-        
-        logger.info("Successfully created tariff");
-        
+    }
+    
+    /**
+     * Queue an upsert on the write-behind path and return without waiting for the database.
+     * Repeated writes of one key within a flush window reach the database once, last write wins.
+     * Throws TariffWriteRejectedException when the queue stays full or is shutting down.
+     */
+    public TariffResponse queueTariff(CreateTariffRequest request) {
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(request.getReporter());
+        entity.setPartnerIsoNumeric(request.getPartner());
+        entity.setProductHsCode(request.getProduct());
+        entity.setYear(request.getYear());
+        entity.setRate(request.getRate());
+        entity.setUnit(request.getUnit());
+
+        if (!writeBehindQueue.enqueue(entity)) {
+            throw new TariffWriteRejectedException("Tariff write queue is full, retry later");
+        }
+
         return new TariffResponse(
             request.getReporter(),
             request.getPartner(),
@@ -69,23 +127,17 @@ public class TariffService {
             request.getUnit()
         );
     }
-    
+
     /**
-     * Update existing tariff - throws TariffNotFoundException if not exists
+     * Update existing tariff - throws TariffNotFoundException if not exists.
+     * Not-found is decided from the affected-row count of the single UPDATE.
      */
-    @Transactional
     public TariffResponse updateTariff(String reporter, String partner, 
                                       Integer product, String year,
                                       UpdateTariffRequest request) {
         logger.info("Updating tariff for: reporter={}, partner={}, product={}, year={}",
                 reporter, partner, product, year);
         
-        // Check if exists
-        if (!repository.exists(reporter, partner, product, year)) {
-            throw new TariffNotFoundException(reporter, partner, product, year);
-        }
-        
-        // Update tariff
         int rowsUpdated = repository.update(
             reporter, partner, product, year,
             request.getRate(), request.getUnit()
@@ -127,6 +179,24 @@ public class TariffService {
         );
     }
     
+    /**
+     * Current version of the tariff table, for conditional requests.
+     * Empty when the version cannot be read; callers then serve the data without an ETag.
+     */
+    public OptionalLong getTableVersion() {
+        long version = repository.currentVersion();
+        return version == ITariffRateRepository.NO_VERSION ? OptionalLong.empty() : OptionalLong.of(version);
+    }
+
+    /**
+     * Current version of the HS rollups, for conditional requests to /rollups.
+     * Empty when the version cannot be read.
+     */
+    public OptionalLong getRollupVersion() {
+        long version = repository.rollupVersion();
+        return version == ITariffRateRepository.NO_VERSION ? OptionalLong.empty() : OptionalLong.of(version);
+    }
+
     /**
      * Get all tariffs
      */
@@ -141,19 +211,231 @@ public class TariffService {
     }
     
     /**
-     * Delete tariff by composite key
+     * Stream all tariffs row by row without materializing the table
+     */
+    public void streamAllTariffs(Consumer<TariffResponse> consumer) {
+        logger.info("Streaming all tariffs");
+
+        repository.streamAllTariffs(entity -> consumer.accept(mapToResponse(entity)));
+    }
+    
+    /**
+     * Get one keyset-paginated page of tariffs matching the filter.
+     * The returned cursor is null when there are no further rows.
+     */
+    public TariffPageResponse getTariffPage(TariffFilter filter, String cursor, int limit) {
+        logger.info("Retrieving tariff page: filter={}, cursor={}, limit={}", filter, cursor, limit);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidTariffQueryException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (filter.getHsPrefix() != null && !filter.getHsPrefix().matches(HS_PREFIX_PATTERN)) {
+            throw new InvalidTariffQueryException("hsPrefix must be 1-6 digits");
+        }
+        if (filter.getYearFrom() != null && filter.getYearTo() != null
+                && filter.getYearFrom() > filter.getYearTo()) {
+            throw new InvalidTariffQueryException("yearFrom must not be after yearTo");
+        }
+
+        TariffRateEntity after = (cursor == null || cursor.isBlank()) ? null : TariffCursorCodec.decode(cursor);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT
+        List<TariffRateEntity> rows = repository.findPage(filter, after, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<TariffResponse> items = rows.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        String next = hasMore ? TariffCursorCodec.encode(rows.get(rows.size() - 1)) : null;
+
+        return new TariffPageResponse(items, limit, next);
+    }
+    
+    /**
+     * Get the inserts, updates and deletes after a change token, oldest first, plus the token to
+     * resume from. A missing token starts from the beginning (every row, then later changes).
+     * Changes are bounded by the table version read up front, so the returned token never skips
+     * a write that was still in flight.
+     */
+    public TariffChangesResponse getChanges(String since, int limit) {
+        logger.info("Retrieving tariff changes: since={}, limit={}", since, limit);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidTariffQueryException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        TariffChangeToken position = TariffChangeToken.decode(since);
+
+        long upTo = repository.currentVersion();
+        if (upTo == ITariffRateRepository.NO_VERSION) {
+            throw new IllegalStateException("Tariff table version is unavailable");
+        }
+        if (position.getVersion() > upTo) {
+            throw new InvalidTariffQueryException("Change token is ahead of the tariff table; resync without 'since'");
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT
+        List<TariffChangeEntity> rows = repository.findChanges(
+                position.getVersion(), position.getAfterKey(), upTo, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<TariffChange> changes = rows.stream()
+                .map(TariffService::mapToChange)
+                .collect(Collectors.toList());
+        TariffChangeToken next;
+        if (hasMore) {
+            TariffChangeEntity last = rows.get(rows.size() - 1);
+            next = TariffChangeToken.afterKey(last.getVersion(), last);
+        } else {
+            next = TariffChangeToken.atVersion(upTo);
+        }
+
+        return new TariffChangesResponse(changes, next.encode(), hasMore);
+    }
+
+    /**
+     * Resolve many composite keys with one chunked query.
+     * Results are returned in request order, one per key, with found=false for misses.
+     */
+    public TariffLookupResponse lookupTariffs(List<TariffLookupKey> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new InvalidTariffQueryException("Lookup must contain at least one key");
+        }
+        if (keys.size() > MAX_LOOKUP_KEYS) {
+            throw new InvalidTariffQueryException("Lookup must not contain more than " + MAX_LOOKUP_KEYS + " keys");
+        }
+
+        logger.info("Looking up {} tariffs", keys.size());
+
+        // Duplicate keys in the request are only queried once
+        Map<String, TariffRateEntity> unique = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            TariffLookupKey key = keys.get(i);
+            if (key == null || key.getReporter() == null || key.getPartner() == null
+                    || key.getProduct() == null || key.getYear() == null || !key.getYear().matches(YEAR_PATTERN)) {
+                throw new InvalidTariffQueryException(
+                        "Key " + i + " must have reporter, partner, product and a 4-digit year");
+            }
+            unique.computeIfAbsent(
+                    lookupKey(key.getReporter(), key.getPartner(), key.getProduct(), key.getYear()),
+                    k -> toKeyEntity(key));
+        }
+
+        Map<String, TariffRateEntity> hits = new HashMap<>();
+        for (TariffRateEntity entity : repository.findByKeys(new ArrayList<>(unique.values()))) {
+            hits.put(lookupKey(entity.getCountryIsoNumeric(), entity.getPartnerIsoNumeric(),
+                    entity.getProductHsCode(), entity.getYear()), entity);
+        }
+
+        List<TariffLookupResult> results = new ArrayList<>(keys.size());
+        int found = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            TariffLookupKey key = keys.get(i);
+            TariffRateEntity hit = hits.get(lookupKey(key.getReporter(), key.getPartner(), key.getProduct(), key.getYear()));
+            if (hit != null) {
+                found++;
+                results.add(new TariffLookupResult(i, true, key.getReporter(), key.getPartner(),
+                        key.getProduct(), key.getYear(), hit.getRate(), hit.getUnit()));
+            } else {
+                results.add(new TariffLookupResult(i, false, key.getReporter(), key.getPartner(),
+                        key.getProduct(), key.getYear(), null, null));
+            }
+        }
+
+        logger.info("Lookup complete: requested={}, found={}", keys.size(), found);
+        return new TariffLookupResponse(keys.size(), found, results);
+    }
+
+    /**
+     * Get the yearly tariff series of one reporter/partner/product between two years (inclusive).
+     * With fill=true, years without a row repeat the last known rate (carried=true); years before
+     * the first known rate are left out.
+     */
+    public TariffSeriesResponse getTariffSeries(String reporter, String partner, Integer product,
+                                                int from, int to, boolean fill) {
+        logger.info("Retrieving tariff series for: reporter={}, partner={}, product={}, from={}, to={}, fill={}",
+                reporter, partner, product, from, to, fill);
+
+        if (from > to) {
+            throw new InvalidTariffQueryException("from must not be after to");
+        }
+        if (to - from >= MAX_SERIES_YEARS) {
+            throw new InvalidTariffQueryException("Series must not span more than " + MAX_SERIES_YEARS + " years");
+        }
+
+        List<TariffRateEntity> rows = repository.findSeries(reporter, partner, product, from, to, fill);
+
+        List<TariffSeriesPoint> points = new ArrayList<>(fill ? to - from + 1 : rows.size());
+        if (!fill) {
+            for (TariffRateEntity row : rows) {
+                points.add(new TariffSeriesPoint(row.getYear(), row.getRate(), row.getUnit(), false));
+            }
+        } else {
+            // Rows are in year order, possibly led by the last row before 'from'
+            TariffRateEntity last = null;
+            int next = 0;
+            for (int year = from; year <= to; year++) {
+                boolean own = false;
+                while (next < rows.size() && Integer.parseInt(rows.get(next).getYear()) <= year) {
+                    last = rows.get(next++);
+                    own = Integer.parseInt(last.getYear()) == year;
+                }
+                if (last != null) {
+                    points.add(new TariffSeriesPoint(String.valueOf(year), last.getRate(), last.getUnit(), !own));
+                }
+            }
+        }
+
+        return new TariffSeriesResponse(reporter, partner, product, from, to, fill, points);
+    }
+
+    /**
+     * Get the precomputed HS chapter (level 2) or heading (level 4) aggregates of one
+     * reporter/partner/year. Reads only the rollup rows, never the underlying tariffs.
+     * @param chapter restrict headings to one HS chapter (level 4 only), or null
+     */
+    public TariffRollupResponse getRollups(String reporter, String partner, String year, int level, Integer chapter) {
+        logger.info("Retrieving tariff rollups for: reporter={}, partner={}, year={}, level={}, chapter={}",
+                reporter, partner, year, level, chapter);
+
+        if (level != ITariffRateRepository.HS_CHAPTER && level != ITariffRateRepository.HS_HEADING) {
+            throw new InvalidTariffQueryException("level must be " + ITariffRateRepository.HS_CHAPTER
+                    + " or " + ITariffRateRepository.HS_HEADING);
+        }
+        if (year == null || !year.matches(YEAR_PATTERN)) {
+            throw new InvalidTariffQueryException("year must be 4 digits");
+        }
+        if (chapter != null && (level != ITariffRateRepository.HS_HEADING || chapter < 0 || chapter > MAX_HS_CHAPTER)) {
+            throw new InvalidTariffQueryException("chapter must be 0-" + MAX_HS_CHAPTER + " and requires level "
+                    + ITariffRateRepository.HS_HEADING);
+        }
+
+        List<TariffRollupEntity> rows = repository.findRollups(reporter, partner, year, level, chapter);
+        List<TariffRollup> rollups = new ArrayList<>(rows.size());
+        for (TariffRollupEntity row : rows) {
+            double mean = TariffDataTransformer.roundRate(row.getRateSum() / row.getCount()).doubleValue();
+            rollups.add(new TariffRollup(hsCode(row.getPrefix(), level), row.getCount(),
+                    row.getMinRate(), row.getMaxRate(), mean));
+        }
+
+        String chapterCode = chapter == null ? null : hsCode(chapter, ITariffRateRepository.HS_CHAPTER);
+        return new TariffRollupResponse(reporter, partner, year, level, chapterCode, rollups);
+    }
+
+    /**
+     * Delete tariff by composite key.
+     * Not-found is decided from the affected-row count of the single DELETE.
      */
-    @Transactional
     public void deleteTariff(String reporter, String partner, 
                             Integer product, String year) {
         logger.info("Deleting tariff for: reporter={}, partner={}, product={}, year={}",
                 reporter, partner, product, year);
         
-        // Check if exists
-        if (!repository.exists(reporter, partner, product, year)) {
-            throw new TariffNotFoundException(reporter, partner, product, year);
-        }
-        
         int rowsDeleted = repository.delete(reporter, partner, product, year);
 
         if (rowsDeleted == NO_ROWS_AFFECTED) {
@@ -163,6 +445,25 @@ public class TariffService {
         logger.info("Successfully deleted tariff");
     }
 
+    /** Zero-padded HS code of the given number of digits, e.g. 1 at level 2 is "01" */
+    private static String hsCode(int prefix, int digits) {
+        return String.format("%0" + digits + "d", prefix);
+    }
+
+    private static String lookupKey(String reporter, String partner, Integer product, String year) {
+        // Years are compared numerically, as the INT column does
+        return reporter + '|' + partner + '|' + product + '|' + Integer.parseInt(year);
+    }
+
+    private static TariffRateEntity toKeyEntity(TariffLookupKey key) {
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(key.getReporter());
+        entity.setPartnerIsoNumeric(key.getPartner());
+        entity.setProductHsCode(key.getProduct());
+        entity.setYear(key.getYear());
+        return entity;
+    }
+
     /**
      * Map TariffRateEntity to TariffResponse
      */
@@ -176,4 +477,17 @@ public class TariffService {
             entity.getUnit()
         );
     }
-}
\ No newline at end of file
+
+    private static TariffChange mapToChange(TariffChangeEntity entity) {
+        return new TariffChange(
+            entity.isDeleted() ? TariffChange.OP_DELETE : TariffChange.OP_UPSERT,
+            entity.getCountryIsoNumeric(),
+            entity.getPartnerIsoNumeric(),
+            entity.getProductHsCode(),
+            entity.getYear(),
+            entity.getRate(),
+            entity.getUnit(),
+            entity.getVersion()
+        );
+    }
+}
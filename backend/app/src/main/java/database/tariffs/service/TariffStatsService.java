@@ -0,0 +1,281 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.dto.TariffStatsGroup;
+import database.tariffs.dto.TariffStatsResponse;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.TariffColumnStore;
+import database.tariffs.repository.TariffColumns;
+import database.tariffs.util.TariffDataTransformer;
+import database.tariffs.util.TariffKeyCodec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service layer for ad-hoc tariff statistics, answered by scanning the in-memory TariffColumns copy.
+ *
+ * Every filter becomes an inclusive int range on one column (absent filters span the whole int
+ * range), so a row matches when all five range tests pass. Ungrouped totals use a fused loop with
+ * no data-dependent branches that the JIT can unroll and vectorize; grouped totals and histograms
+ * accumulate into per-key primitive arrays. Results may trail the table by one rebuild.
+ */
+@Service
+public class TariffStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(TariffStatsService.class);
+
+    public static final String GROUP_REPORTER = "reporter";
+    public static final String GROUP_PARTNER = "partner";
+    public static final String GROUP_YEAR = "year";
+    public static final String GROUP_CHAPTER = "chapter";
+
+    static final int MAX_BUCKETS = 1000;
+    private static final String HS_PREFIX_PATTERN = "\\d{1,6}";
+    // 6-digit product ids divided by this give their 2-digit HS chapter
+    private static final int CHAPTER_DIVISOR = 10000;
+
+    private final TariffColumnStore columnStore;
+
+    public TariffStatsService(TariffColumnStore columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    /**
+     * Count, min, max and mean of the rates matching the filter and rate range, optionally grouped
+     * and with a rate histogram of the given bucket width
+     */
+    public TariffStatsResponse getStats(TariffFilter filter, Double minRate, Double maxRate,
+                                        String groupBy, Double bucketWidth) {
+        logger.info("Computing tariff stats: filter={}, minRate={}, maxRate={}, groupBy={}, bucketWidth={}",
+                filter, minRate, maxRate, groupBy, bucketWidth);
+
+        if (filter.getHsPrefix() != null && !filter.getHsPrefix().matches(HS_PREFIX_PATTERN)) {
+            throw new InvalidTariffQueryException("hsPrefix must be 1-6 digits");
+        }
+        if (filter.getYearFrom() != null && filter.getYearTo() != null
+                && filter.getYearFrom() > filter.getYearTo()) {
+            throw new InvalidTariffQueryException("yearFrom must not be after yearTo");
+        }
+        if (!isRate(minRate) || !isRate(maxRate)) {
+            throw new InvalidTariffQueryException("minRate and maxRate must be between 0 and "
+                    + TariffDataTransformer.MAX_RATE);
+        }
+        if (minRate != null && maxRate != null && minRate > maxRate) {
+            throw new InvalidTariffQueryException("minRate must not be greater than maxRate");
+        }
+        if (groupBy != null && !List.of(GROUP_REPORTER, GROUP_PARTNER, GROUP_YEAR, GROUP_CHAPTER).contains(groupBy)) {
+            throw new InvalidTariffQueryException("groupBy must be one of reporter, partner, year, chapter");
+        }
+        if (bucketWidth != null && (bucketWidth <= 0 || bucketWidth > TariffDataTransformer.MAX_RATE
+                || TariffKeyCodec.scaleRate(bucketWidth) == 0)) {
+            throw new InvalidTariffQueryException("bucketWidth must be between 0.001 and "
+                    + TariffDataTransformer.MAX_RATE);
+        }
+
+        TariffColumns columns = columnStore.current();
+        long start = System.nanoTime();
+
+        int[] lo = new int[TariffColumns.COLUMN_COUNT];
+        int[] hi = new int[TariffColumns.COLUMN_COUNT];
+        Arrays.fill(lo, Integer.MIN_VALUE);
+        Arrays.fill(hi, Integer.MAX_VALUE);
+        boolean satisfiable = restrictCountry(columns, filter.getReporter(), TariffColumns.REPORTER, lo, hi)
+                & restrictCountry(columns, filter.getPartner(), TariffColumns.PARTNER, lo, hi);
+        if (filter.getProductFrom() != null) {
+            lo[TariffColumns.PRODUCT] = filter.getProductFrom();
+            hi[TariffColumns.PRODUCT] = filter.getProductTo();
+        }
+        if (filter.getYearFrom() != null) {
+            lo[TariffColumns.YEAR] = filter.getYearFrom();
+        }
+        if (filter.getYearTo() != null) {
+            hi[TariffColumns.YEAR] = filter.getYearTo();
+        }
+        if (minRate != null) {
+            lo[TariffColumns.RATE] = TariffKeyCodec.scaleRate(minRate);
+        }
+        if (maxRate != null) {
+            hi[TariffColumns.RATE] = TariffKeyCodec.scaleRate(maxRate);
+        }
+        int size = satisfiable ? columns.size() : 0;
+
+        TariffStatsResponse response;
+        if (groupBy == null && bucketWidth == null) {
+            response = aggregate(columns, size, lo, hi);
+        } else {
+            response = aggregateGroups(columns, size, lo, hi, groupBy, bucketWidth);
+        }
+
+        logger.info("Scanned {} tariff rows at version {} in {} us: {} matched",
+                columns.size(), columns.getVersion(),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), response.getCount());
+        return response;
+    }
+
+    private static TariffStatsResponse aggregate(TariffColumns columns, int size, int[] lo, int[] hi) {
+        int[] reporters = columns.column(TariffColumns.REPORTER);
+        int[] partners = columns.column(TariffColumns.PARTNER);
+        int[] products = columns.column(TariffColumns.PRODUCT);
+        int[] years = columns.column(TariffColumns.YEAR);
+        int[] rates = columns.column(TariffColumns.RATE);
+        int reporterLo = lo[TariffColumns.REPORTER], reporterHi = hi[TariffColumns.REPORTER];
+        int partnerLo = lo[TariffColumns.PARTNER], partnerHi = hi[TariffColumns.PARTNER];
+        int productLo = lo[TariffColumns.PRODUCT], productHi = hi[TariffColumns.PRODUCT];
+        int yearLo = lo[TariffColumns.YEAR], yearHi = hi[TariffColumns.YEAR];
+        int rateLo = lo[TariffColumns.RATE], rateHi = hi[TariffColumns.RATE];
+
+        int count = 0;
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int rate = rates[i];
+            // Non-short-circuit & keeps the loop free of data-dependent branches
+            boolean match = reporters[i] >= reporterLo & reporters[i] <= reporterHi
+                    & partners[i] >= partnerLo & partners[i] <= partnerHi
+                    & products[i] >= productLo & products[i] <= productHi
+                    & years[i] >= yearLo & years[i] <= yearHi
+                    & rate >= rateLo & rate <= rateHi;
+            int selected = match ? 1 : 0;
+            count += selected;
+            sum += rate & -selected;
+            min = Math.min(min, match ? rate : Integer.MAX_VALUE);
+            max = Math.max(max, match ? rate : Integer.MIN_VALUE);
+        }
+        return summary(columns, count, sum, min, max);
+    }
+
+    private static TariffStatsResponse aggregateGroups(TariffColumns columns, int size, int[] lo, int[] hi,
+                                                       String groupBy, Double bucketWidth) {
+        int[] reporters = columns.column(TariffColumns.REPORTER);
+        int[] partners = columns.column(TariffColumns.PARTNER);
+        int[] products = columns.column(TariffColumns.PRODUCT);
+        int[] years = columns.column(TariffColumns.YEAR);
+        int[] rates = columns.column(TariffColumns.RATE);
+
+        // Group keys are small non-negative ints: dictionary ids, years or HS chapters
+        int[] keys = null;
+        int divisor = 1;
+        int keyCount = 1;
+        if (groupBy != null) {
+            switch (groupBy) {
+                case GROUP_REPORTER -> { keys = reporters; keyCount = columns.countryCount(); }
+                case GROUP_PARTNER -> { keys = partners; keyCount = columns.countryCount(); }
+                case GROUP_YEAR -> { keys = years; keyCount = columns.max(TariffColumns.YEAR) + 1; }
+                default -> {
+                    keys = products;
+                    divisor = CHAPTER_DIVISOR;
+                    keyCount = columns.max(TariffColumns.PRODUCT) / CHAPTER_DIVISOR + 1;
+                }
+            }
+        }
+        int[] counts = new int[keyCount];
+        long[] sums = new long[keyCount];
+        int[] mins = new int[keyCount];
+        int[] maxes = new int[keyCount];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+        Arrays.fill(maxes, Integer.MIN_VALUE);
+
+        int width = bucketWidth == null ? 0 : TariffKeyCodec.scaleRate(bucketWidth);
+        int[] histogram = new int[width == 0 ? 0
+                : (int) Math.min(MAX_BUCKETS, columns.max(TariffColumns.RATE) / width + 1L)];
+        int lastBucket = histogram.length - 1;
+
+        for (int i = 0; i < size; i++) {
+            int rate = rates[i];
+            if (reporters[i] >= lo[TariffColumns.REPORTER] & reporters[i] <= hi[TariffColumns.REPORTER]
+                    & partners[i] >= lo[TariffColumns.PARTNER] & partners[i] <= hi[TariffColumns.PARTNER]
+                    & products[i] >= lo[TariffColumns.PRODUCT] & products[i] <= hi[TariffColumns.PRODUCT]
+                    & years[i] >= lo[TariffColumns.YEAR] & years[i] <= hi[TariffColumns.YEAR]
+                    & rate >= lo[TariffColumns.RATE] & rate <= hi[TariffColumns.RATE]) {
+                int key = keys == null ? 0 : keys[i] / divisor;
+                counts[key]++;
+                sums[key] += rate;
+                mins[key] = Math.min(mins[key], rate);
+                maxes[key] = Math.max(maxes[key], rate);
+                if (width != 0) {
+                    // The last bucket is open-ended when MAX_BUCKETS caps the histogram
+                    histogram[Math.min(Math.max(rate, 0) / width, lastBucket)]++;
+                }
+            }
+        }
+
+        int count = 0;
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        List<TariffStatsGroup> groups = new ArrayList<>();
+        for (int key = 0; key < keyCount; key++) {
+            if (counts[key] == 0) {
+                continue;
+            }
+            count += counts[key];
+            sum += sums[key];
+            min = Math.min(min, mins[key]);
+            max = Math.max(max, maxes[key]);
+            if (groupBy != null) {
+                groups.add(new TariffStatsGroup(groupKey(columns, groupBy, key), counts[key],
+                        TariffKeyCodec.unscaleRate(mins[key]), TariffKeyCodec.unscaleRate(maxes[key]),
+                        mean(sums[key], counts[key])));
+            }
+        }
+
+        TariffStatsResponse response = summary(columns, count, sum, min, max);
+        if (groupBy != null) {
+            response.setGroupBy(groupBy);
+            response.setGroups(groups);
+        }
+        if (bucketWidth != null) {
+            int used = histogram.length;
+            while (used > 0 && histogram[used - 1] == 0) {
+                used--;
+            }
+            response.setBucketWidth(TariffKeyCodec.unscaleRate(width));
+            response.setHistogram(Arrays.copyOf(histogram, used));
+        }
+        return response;
+    }
+
+    private static TariffStatsResponse summary(TariffColumns columns, int count, long sum, int min, int max) {
+        if (count == 0) {
+            return new TariffStatsResponse(columns.getVersion(), columns.size(), 0, null, null, null);
+        }
+        return new TariffStatsResponse(columns.getVersion(), columns.size(), count,
+                TariffKeyCodec.unscaleRate(min), TariffKeyCodec.unscaleRate(max), mean(sum, count));
+    }
+
+    /**
+     * Narrow a country column to one dictionary id; false when no row has the code
+     */
+    private static boolean restrictCountry(TariffColumns columns, String code, int column, int[] lo, int[] hi) {
+        if (code == null) {
+            return true;
+        }
+        int id = columns.countryId(code);
+        lo[column] = id;
+        hi[column] = id;
+        return id >= 0;
+    }
+
+    private static String groupKey(TariffColumns columns, String groupBy, int key) {
+        return switch (groupBy) {
+            case GROUP_REPORTER, GROUP_PARTNER -> columns.countryAt(key);
+            case GROUP_YEAR -> String.valueOf(key);
+            default -> String.format("%02d", key);
+        };
+    }
+
+    private static double mean(long scaledSum, int count) {
+        return TariffDataTransformer.roundRate((double) scaledSum / count / TariffKeyCodec.RATE_SCALE).doubleValue();
+    }
+
+    private static boolean isRate(Double rate) {
+        return rate == null || (rate >= 0 && rate <= TariffDataTransformer.MAX_RATE);
+    }
+}
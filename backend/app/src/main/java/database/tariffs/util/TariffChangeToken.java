@@ -0,0 +1,98 @@
+package database.tariffs.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+
+/**
+ * Opaque position in the tariff change feed: a table version, plus the key of the last change
+ * returned when a page stopped part-way through that version. Encoded like TariffCursorCodec
+ * cursors (URL-safe Base64 of '|'-separated fields).
+ */
+public final class TariffChangeToken {
+
+    /** Version of a token that has seen nothing yet; every row has version >= 0 */
+    public static final long BEFORE_FIRST_VERSION = -1L;
+
+    private static final String SEPARATOR = "|";
+    private static final String SEPARATOR_REGEX = "\\|";
+    private static final int VERSION_PARTS = 1;
+    private static final int KEY_PARTS = 5;
+
+    private final long version;
+    private final TariffRateEntity afterKey;
+
+    private TariffChangeToken(long version, TariffRateEntity afterKey) {
+        this.version = version;
+        this.afterKey = afterKey;
+    }
+
+    /**
+     * Position after every change up to and including the given version
+     */
+    public static TariffChangeToken atVersion(long version) {
+        return new TariffChangeToken(version, null);
+    }
+
+    /**
+     * Position after the given key within the given version
+     */
+    public static TariffChangeToken afterKey(long version, TariffRateEntity key) {
+        return new TariffChangeToken(version, key);
+    }
+
+    /**
+     * @return the feed position the token stands for; a missing token means "from the beginning"
+     */
+    public static TariffChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return atVersion(BEFORE_FIRST_VERSION);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR_REGEX, -1);
+            if (parts.length != VERSION_PARTS && parts.length != KEY_PARTS) {
+                throw new InvalidTariffQueryException("Malformed change token");
+            }
+            long version = Long.parseLong(parts[0]);
+            if (version < BEFORE_FIRST_VERSION) {
+                throw new InvalidTariffQueryException("Malformed change token");
+            }
+            if (parts.length == VERSION_PARTS) {
+                return atVersion(version);
+            }
+            TariffRateEntity key = new TariffRateEntity();
+            key.setCountryIsoNumeric(parts[1]);
+            key.setPartnerIsoNumeric(parts[2]);
+            key.setProductHsCode(Integer.valueOf(parts[3]));
+            key.setYear(String.valueOf(Integer.parseInt(parts[4])));
+            return afterKey(version, key);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTariffQueryException("Malformed change token", e);
+        }
+    }
+
+    public String encode() {
+        String raw = afterKey == null
+                ? String.valueOf(version)
+                : version + SEPARATOR
+                        + afterKey.getCountryIsoNumeric() + SEPARATOR
+                        + afterKey.getPartnerIsoNumeric() + SEPARATOR
+                        + afterKey.getProductHsCode() + SEPARATOR
+                        + afterKey.getYear();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return key of the last change already returned within getVersion(), or null if none
+     */
+    public TariffRateEntity getAfterKey() {
+        return afterKey;
+    }
+}
@@ -0,0 +1,102 @@
+package database.tariffs.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader for tariff imports.
+ *
+ * Reads one character at a time and hands each record to the handler as soon as it ends, so
+ * memory use is bounded by the longest record rather than the file. Quoted fields may contain
+ * commas, doubled quotes and line breaks. A leading UTF-8 byte order mark is skipped.
+ */
+public final class TariffCsvReader {
+
+    /** Longest record accepted; guards against an unterminated quote swallowing the whole file */
+    public static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private static final char BOM = '\uFEFF';
+
+    private TariffCsvReader() {
+    }
+
+    /**
+     * Read every record of the input and pass it to the handler.
+     * Blank lines are skipped but still counted in row numbers.
+     * @throws IOException on read failure, an unterminated quote or an oversized record
+     */
+    public static void read(BufferedReader in, TariffRowHandler handler) throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        long rowNumber = 1;
+        int recordLength = 0;
+        boolean quoted = false;
+        boolean fieldStarted = false;
+
+        int c = in.read();
+        if (c == BOM) {
+            c = in.read();
+        }
+        for (; c != -1; c = in.read()) {
+            if (++recordLength > MAX_RECORD_LENGTH) {
+                throw new IOException("Row " + rowNumber + " exceeds " + MAX_RECORD_LENGTH + " characters");
+            }
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                int next = in.read();
+                if (next == '"') {
+                    field.append('"');
+                    continue;
+                }
+                quoted = false;
+                if (next == -1) {
+                    break;
+                }
+                c = next;
+            }
+
+            if (c == '"' && field.length() == 0 && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                cells.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                emit(handler, rowNumber, cells, field, fieldStarted);
+                rowNumber++;
+                recordLength = 0;
+                fieldStarted = false;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+        }
+
+        if (quoted) {
+            throw new IOException("Row " + rowNumber + " has an unterminated quoted field");
+        }
+        emit(handler, rowNumber, cells, field, fieldStarted);
+    }
+
+    private static void emit(TariffRowHandler handler, long rowNumber, List<String> cells,
+                             StringBuilder field, boolean fieldStarted) {
+        if (!cells.isEmpty() || field.length() > 0 || fieldStarted) {
+            cells.add(field.toString());
+            handler.row(rowNumber, cells);
+        }
+        cells.clear();
+        field.setLength(0);
+    }
+}
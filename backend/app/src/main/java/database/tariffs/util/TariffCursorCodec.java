@@ -0,0 +1,53 @@
+package database.tariffs.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+
+/**
+ * Encodes the composite key of the last row on a page into an opaque keyset cursor and back.
+ * Clients must treat the cursor as opaque; only the key columns are carried, filters are re-sent.
+ */
+public class TariffCursorCodec {
+
+    private static final String SEPARATOR = "|";
+    private static final String SEPARATOR_REGEX = "\\|";
+    private static final int KEY_PARTS = 4;
+
+    private TariffCursorCodec() {
+    }
+
+    /**
+     * Encode the key of the given row as a cursor
+     */
+    public static String encode(TariffRateEntity last) {
+        String raw = last.getCountryIsoNumeric() + SEPARATOR
+                + last.getPartnerIsoNumeric() + SEPARATOR
+                + last.getProductHsCode() + SEPARATOR
+                + last.getYear();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into an entity carrying only the key columns
+     */
+    public static TariffRateEntity decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR_REGEX, -1);
+            if (parts.length != KEY_PARTS) {
+                throw new InvalidTariffQueryException("Malformed cursor");
+            }
+            TariffRateEntity key = new TariffRateEntity();
+            key.setCountryIsoNumeric(parts[0]);
+            key.setPartnerIsoNumeric(parts[1]);
+            key.setProductHsCode(Integer.valueOf(parts[2]));
+            key.setYear(String.valueOf(Integer.parseInt(parts[3])));
+            return key;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTariffQueryException("Malformed cursor", e);
+        }
+    }
+}
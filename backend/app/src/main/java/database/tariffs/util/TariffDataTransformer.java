@@ -2,6 +2,9 @@ package database.tariffs.util;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
+
+import database.tariffs.entity.TariffRateEntity;
 
 /**
  * Utility class for transforming tariff data.
@@ -9,7 +12,12 @@ import java.math.RoundingMode;
  */
 public class TariffDataTransformer {
 
+    /** DECIMAL(6,3) upper bound for the rate column */
+    public static final double MAX_RATE = 999.999;
+
     private static final String DEFAULT_UNIT = "percent";
+    private static final int COUNTRY_CODE_LENGTH = 3;
+    private static final String YEAR_PATTERN = "\\d{4}";
     private static final int MAX_UNIT_LENGTH = 20;
     private static final int RATE_DECIMAL_PLACES = 3;
 
@@ -47,4 +55,70 @@ public class TariffDataTransformer {
         }
         return Integer.valueOf(year);
     }
+
+    /**
+     * Validate one row of raw text fields (e.g. from an imported file) against the same rules as
+     * CreateTariffRequest plus the rate column range.
+     * @param errors receives one message per invalid field
+     * @return the parsed entity, or null if any field is invalid
+     */
+    public static TariffRateEntity parseRow(String reporter, String partner, String product,
+                                            String year, String rate, String unit, List<String> errors) {
+        int before = errors.size();
+        String reporterValue = trimToNull(reporter);
+        String partnerValue = trimToNull(partner);
+        String yearValue = trimToNull(year);
+
+        if (reporterValue == null || reporterValue.length() != COUNTRY_CODE_LENGTH) {
+            errors.add("reporter: Reporter must be 3-character ISO code");
+        }
+        if (partnerValue == null || partnerValue.length() != COUNTRY_CODE_LENGTH) {
+            errors.add("partner: Partner must be 3-character ISO code");
+        }
+        Integer productValue = null;
+        try {
+            productValue = Integer.valueOf(trimToEmpty(product));
+            if (productValue < 0) {
+                errors.add("product: Product code must be non-negative");
+            }
+        } catch (NumberFormatException e) {
+            errors.add("product: Product code must be an integer");
+        }
+        if (yearValue == null || !yearValue.matches(YEAR_PATTERN)) {
+            errors.add("year: Year must be 4 digits");
+        }
+        Double rateValue = null;
+        try {
+            rateValue = Double.valueOf(trimToEmpty(rate));
+            if (rateValue.isNaN() || rateValue < 0 || rateValue > MAX_RATE) {
+                errors.add("rate: Rate must be between 0 and " + MAX_RATE);
+            }
+        } catch (NumberFormatException e) {
+            errors.add("rate: Rate must be a number");
+        }
+
+        if (errors.size() > before) {
+            return null;
+        }
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(reporterValue);
+        entity.setPartnerIsoNumeric(partnerValue);
+        entity.setProductHsCode(productValue);
+        entity.setYear(yearValue);
+        entity.setRate(rateValue);
+        entity.setUnit(normalizeUnit(trimToNull(unit)));
+        return entity;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String trimToEmpty(String value) {
+        return value == null ? "" : value.trim();
+    }
 }
@@ -0,0 +1,152 @@
+package database.tariffs.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Packs the TariffRates composite key (reporter, partner, product, year) into a single long
+ * and converts DECIMAL(6,3) rates to and from scaled ints.
+ *
+ * Layout (most significant first):
+ *   [reporter:16][partner:16][product:20][year:12]
+ *
+ * Country codes of 1-3 characters from [0-9A-Z] are base-37 encoded (0 is reserved for
+ * "no character"), so "840" and "0840"-style inputs never collide. Keys that do not fit the
+ * layout return NO_KEY and callers are expected to fall back to the database.
+ */
+public final class TariffKeyCodec {
+
+    /** Returned when a key cannot be packed. Never a valid key since reporter is never empty. */
+    public static final long NO_KEY = 0L;
+
+    public static final int RATE_SCALE = 1000;
+
+    private static final int COUNTRY_BITS = 16;
+    private static final int PRODUCT_BITS = 20;
+    private static final int YEAR_BITS = 12;
+
+    private static final int MAX_COUNTRY_LENGTH = 3;
+    private static final int COUNTRY_RADIX = 37;
+    private static final int MAX_PRODUCT = (1 << PRODUCT_BITS) - 1;
+    private static final int YEAR_LENGTH = 4;
+
+    private static final int YEAR_SHIFT = 0;
+    private static final int PRODUCT_SHIFT = YEAR_SHIFT + YEAR_BITS;
+    private static final int PARTNER_SHIFT = PRODUCT_SHIFT + PRODUCT_BITS;
+    private static final int REPORTER_SHIFT = PARTNER_SHIFT + COUNTRY_BITS;
+
+    private static final long COUNTRY_MASK = (1L << COUNTRY_BITS) - 1;
+    private static final long PRODUCT_MASK = (1L << PRODUCT_BITS) - 1;
+    private static final long YEAR_MASK = (1L << YEAR_BITS) - 1;
+
+    private TariffKeyCodec() {
+    }
+
+    /**
+     * Pack a composite key, or return NO_KEY if any component is out of range
+     */
+    public static long pack(String reporter, String partner, Integer product, String year) {
+        if (product == null) {
+            return NO_KEY;
+        }
+        int y = parseYear(year);
+        if (y < 0) {
+            return NO_KEY;
+        }
+        return pack(reporter, partner, product.intValue(), y);
+    }
+
+    /**
+     * Pack a composite key with an already-parsed year
+     */
+    public static long pack(String reporter, String partner, int product, int year) {
+        int r = encodeCountry(reporter);
+        int p = encodeCountry(partner);
+        if (r <= 0 || p <= 0 || product < 0 || product > MAX_PRODUCT || year < 0 || year > YEAR_MASK) {
+            return NO_KEY;
+        }
+        return ((long) r << REPORTER_SHIFT)
+                | ((long) p << PARTNER_SHIFT)
+                | ((long) product << PRODUCT_SHIFT)
+                | year;
+    }
+
+    public static String reporterOf(long key) {
+        return decodeCountry((int) ((key >>> REPORTER_SHIFT) & COUNTRY_MASK));
+    }
+
+    public static String partnerOf(long key) {
+        return decodeCountry((int) ((key >>> PARTNER_SHIFT) & COUNTRY_MASK));
+    }
+
+    public static int productOf(long key) {
+        return (int) ((key >>> PRODUCT_SHIFT) & PRODUCT_MASK);
+    }
+
+    public static int yearOf(long key) {
+        return (int) (key & YEAR_MASK);
+    }
+
+    /**
+     * Convert a rate to the DECIMAL(6,3) scaled representation stored in the database
+     */
+    public static int scaleRate(Double rate) {
+        BigDecimal rounded = TariffDataTransformer.roundRate(rate);
+        return rounded.movePointRight(3).intValueExact();
+    }
+
+    public static double unscaleRate(int scaledRate) {
+        return (double) scaledRate / RATE_SCALE;
+    }
+
+    /**
+     * Base-37 encode a 1-3 character code; returns -1 if it contains anything else
+     */
+    static int encodeCountry(String code) {
+        if (code == null || code.isEmpty() || code.length() > MAX_COUNTRY_LENGTH) {
+            return -1;
+        }
+        int encoded = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0' + 1;
+            } else if (c >= 'A' && c <= 'Z') {
+                digit = c - 'A' + 11;
+            } else {
+                return -1;
+            }
+            encoded = encoded * COUNTRY_RADIX + digit;
+        }
+        return encoded;
+    }
+
+    static String decodeCountry(int encoded) {
+        char[] buf = new char[MAX_COUNTRY_LENGTH];
+        int pos = MAX_COUNTRY_LENGTH;
+        while (encoded > 0 && pos > 0) {
+            int digit = encoded % COUNTRY_RADIX;
+            buf[--pos] = digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+            encoded /= COUNTRY_RADIX;
+        }
+        return new String(buf, pos, MAX_COUNTRY_LENGTH - pos);
+    }
+
+    /**
+     * Parse a 4-digit year without boxing; returns -1 if malformed
+     */
+    static int parseYear(String year) {
+        if (year == null || year.length() != YEAR_LENGTH) {
+            return -1;
+        }
+        int y = 0;
+        for (int i = 0; i < YEAR_LENGTH; i++) {
+            char c = year.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            y = y * 10 + (c - '0');
+        }
+        return y;
+    }
+}
@@ -0,0 +1,46 @@
+package database.tariffs.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import database.tariffs.dto.TariffMatrixResponse;
+
+/**
+ * Compact binary form of a TariffMatrixResponse (media type application/octet-stream), readable
+ * in a browser with a single DataView. All numbers are big-endian:
+ *
+ * <pre>
+ * int32    country count n
+ * n times  uint8 code length, ASCII code bytes
+ * 0-3      zero bytes, padding the header to a multiple of 4
+ * n*n      float32 rates, row-major (row = reporter, column = partner), NaN = no tariff
+ * </pre>
+ */
+public final class TariffMatrixCodec {
+
+    private TariffMatrixCodec() {
+    }
+
+    public static byte[] encode(TariffMatrixResponse matrix) {
+        List<String> countries = matrix.getCountries();
+        float[] rates = matrix.getRates();
+
+        int header = Integer.BYTES;
+        for (String country : countries) {
+            header += 1 + country.length();
+        }
+        header = (header + 3) & ~3;
+
+        ByteBuffer buffer = ByteBuffer.allocate(header + rates.length * Float.BYTES);
+        buffer.putInt(countries.size());
+        for (String country : countries) {
+            byte[] code = country.getBytes(StandardCharsets.US_ASCII);
+            buffer.put((byte) code.length);
+            buffer.put(code);
+        }
+        buffer.position(header);
+        buffer.asFloatBuffer().put(rates);
+        return buffer.array();
+    }
+}
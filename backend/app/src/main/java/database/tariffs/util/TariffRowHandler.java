@@ -0,0 +1,16 @@
+package database.tariffs.util;
+
+import java.util.List;
+
+/**
+ * Receives the rows of an imported tariff file one at a time
+ */
+@FunctionalInterface
+public interface TariffRowHandler {
+
+    /**
+     * @param rowNumber 1-based row number in the file, header included
+     * @param cells cell text in column order (blank cells are empty strings); only valid during the call
+     */
+    void row(long rowNumber, List<String> cells);
+}
@@ -0,0 +1,103 @@
+package database.tariffs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Streaming XLSX reader for tariff imports, built on the POI SAX event model.
+ *
+ * Only the first worksheet is read. Its XML is parsed as a stream of SAX events and each row is
+ * handed to the handler when it ends, so no workbook object model is built; memory use is bounded
+ * by the shared-strings table (country codes and units) rather than the number of rows. Cells are
+ * formatted as Excel displays them, with locale-independent number formatting.
+ */
+public final class TariffXlsxReader {
+
+    private TariffXlsxReader() {
+    }
+
+    /**
+     * Read every non-empty row of the first worksheet and pass it to the handler
+     * @throws IOException if the file is not a readable XLSX workbook
+     */
+    public static void read(Path file, TariffRowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Workbook has no worksheets");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                        new RowCollector(handler), new DataFormatter(Locale.ROOT), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Invalid XLSX file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Collects the cells of one row, filling skipped (empty) columns with empty strings
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final TariffRowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+
+        RowCollector(TariffRowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!cells.isEmpty()) {
+                handler.row(rowNum + 1L, cells);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            String value = formattedValue == null ? "" : formattedValue;
+            if (column < cells.size()) {
+                cells.set(column, value);
+            } else {
+                cells.add(value);
+            }
+        }
+    }
+}
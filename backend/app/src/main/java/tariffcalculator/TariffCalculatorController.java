@@ -0,0 +1,122 @@
+package tariffcalculator;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import tariffcalculator.dto.CalculationRequest;
+import tariffcalculator.dto.CalculationResponse;
+import tariffcalculator.dto.ResolvedTariffResponse;
+import tariffcalculator.service.TariffCalculatorService;
+import tariffcalculator.service.TariffResolutionService;
+
+@RestController
+@Validated
+@RequestMapping("/api/v1/calculations")
+@Tag(name = "Tariff Calculator", description = "Server-side landed-cost calculation")
+public class TariffCalculatorController {
+    private static final Logger logger = LoggerFactory.getLogger(TariffCalculatorController.class);
+
+    private final TariffCalculatorService calculatorService;
+    private final TariffResolutionService resolutionService;
+
+    public TariffCalculatorController(TariffCalculatorService calculatorService,
+                                      TariffResolutionService resolutionService) {
+        this.calculatorService = calculatorService;
+        this.resolutionService = resolutionService;
+    }
+
+    @Operation(
+        summary = "Calculate landed cost for a shipment",
+        description = "Looks up the tariff rate of every line, converts values to the display currency and returns " +
+                "per-line tariff amounts plus shipment totals. Lines without a known tariff rate add no tariff " +
+                "and are reported with rateFound=false."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Calculation completed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CalculationResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"displayCurrency\": \"USD\", \"lines\": [{\"index\": 0, \"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"currency\": \"USD\", \"value\": 1000.0, \"rateFound\": true, \"tariffRate\": 25.0, \"tariffAmount\": 250.0, \"exchangeRate\": 1.0, \"convertedValue\": 1000.0, \"convertedTariffAmount\": 250.0, \"landedCost\": 1250.0}], \"totalValue\": 1000.0, \"totalTariff\": 250.0, \"totalLandedCost\": 1250.0, \"linesWithoutRate\": 0}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request or unsupported currency",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping
+    public ResponseEntity<CalculationResponse> calculate(@Valid @RequestBody CalculationRequest request) {
+
+        logger.info("POST /api/v1/calculations - {} lines in {}", request.getLines().size(), request.getDisplayCurrency());
+
+        return ResponseEntity.ok(calculatorService.calculate(request));
+    }
+
+    @Operation(
+        summary = "Resolve a tariff rate from any source",
+        description = "Looks the rate up in the local database, then WITS, then WTO, and returns the first hit with " +
+                "its provenance. An upstream hit is saved to the database in the background so later lookups are local."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Rate resolved",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ResolvedTariffResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"reporter\": \"840\", \"partner\": \"356\", \"product\": 100630, \"year\": \"2020\", \"rate\": 2.7, \"unit\": \"percent\", \"provenance\": \"WITS\", \"writeBackScheduled\": true}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "No source has a rate for this key",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/rate")
+    public ResponseEntity<ResolvedTariffResponse> resolveRate(
+            @Parameter(description = "Reporter (importing) country ISO code", example = "840", required = true)
+            @RequestParam @NotNull String reporter,
+
+            @Parameter(description = "Partner (exporting) country ISO code", example = "356", required = true)
+            @RequestParam @NotNull String partner,
+
+            @Parameter(description = "Product HS code", example = "100630", required = true)
+            @RequestParam @NotNull Integer product,
+
+            @Parameter(description = "Year", example = "2020", required = true)
+            @RequestParam @NotNull @Pattern(regexp = "\\d{4}", message = "Year must be 4 digits") String year) {
+
+        logger.info("GET /api/v1/calculations/rate - reporter={}, partner={}, product={}, year={}",
+                reporter, partner, product, year);
+
+        return ResponseEntity.ok(resolutionService.resolve(reporter, partner, product, year));
+    }
+}
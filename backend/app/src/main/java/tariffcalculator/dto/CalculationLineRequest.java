@@ -0,0 +1,63 @@
+package tariffcalculator.dto;
+
+import jakarta.validation.constraints.*;
+
+public class CalculationLineRequest {
+
+    // Importing country (the country that levies the tariff)
+    @NotBlank(message = "Reporter country is required")
+    @Size(min = 3, max = 3, message = "Reporter must be 3-character ISO code")
+    private String reporter;
+
+    // Exporting country
+    @NotBlank(message = "Partner country is required")
+    @Size(min = 3, max = 3, message = "Partner must be 3-character ISO code")
+    private String partner;
+
+    @NotNull(message = "Product code is required")
+    private Integer product;
+
+    @NotBlank(message = "Year is required")
+    @Pattern(regexp = "\\d{4}", message = "Year must be 4 digits")
+    private String year;
+
+    @NotNull(message = "Value is required")
+    @DecimalMin(value = "0.0", message = "Value must be non-negative")
+    private Double value;
+
+    // Currency of value; defaults to the request's display currency
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
+    // Constructors
+    public CalculationLineRequest() {}
+
+    public CalculationLineRequest(String reporter, String partner, Integer product, String year,
+                                  Double value, String currency) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.product = product;
+        this.year = year;
+        this.value = value;
+        this.currency = currency;
+    }
+
+    // Getters and Setters
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
@@ -0,0 +1,71 @@
+package tariffcalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CalculationLineResult {
+
+    private int index;
+    private String reporter;
+    private String partner;
+    private Integer product;
+    private String year;
+    private String currency;
+    private double value;
+
+    // False when no tariff rate is known; tariff fields are then omitted and count as zero
+    private boolean rateFound;
+    private Double tariffRate;
+    private Double tariffAmount;
+
+    // Units of display currency per unit of the line currency
+    private double exchangeRate;
+    private double convertedValue;
+    private Double convertedTariffAmount;
+    private double landedCost;
+
+    public CalculationLineResult() {}
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+
+    public boolean isRateFound() { return rateFound; }
+    public void setRateFound(boolean rateFound) { this.rateFound = rateFound; }
+
+    public Double getTariffRate() { return tariffRate; }
+    public void setTariffRate(Double tariffRate) { this.tariffRate = tariffRate; }
+
+    public Double getTariffAmount() { return tariffAmount; }
+    public void setTariffAmount(Double tariffAmount) { this.tariffAmount = tariffAmount; }
+
+    public double getExchangeRate() { return exchangeRate; }
+    public void setExchangeRate(double exchangeRate) { this.exchangeRate = exchangeRate; }
+
+    public double getConvertedValue() { return convertedValue; }
+    public void setConvertedValue(double convertedValue) { this.convertedValue = convertedValue; }
+
+    public Double getConvertedTariffAmount() { return convertedTariffAmount; }
+    public void setConvertedTariffAmount(Double convertedTariffAmount) { this.convertedTariffAmount = convertedTariffAmount; }
+
+    public double getLandedCost() { return landedCost; }
+    public void setLandedCost(double landedCost) { this.landedCost = landedCost; }
+}
@@ -0,0 +1,33 @@
+package tariffcalculator.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+
+public class CalculationRequest {
+
+    @NotBlank(message = "Display currency is required")
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Display currency must be a 3-letter ISO code")
+    private String displayCurrency;
+
+    @NotEmpty(message = "At least one line is required")
+    @Size(max = 1000, message = "A shipment must not have more than 1000 lines")
+    @Valid
+    private List<CalculationLineRequest> lines;
+
+    // Constructors
+    public CalculationRequest() {}
+
+    public CalculationRequest(String displayCurrency, List<CalculationLineRequest> lines) {
+        this.displayCurrency = displayCurrency;
+        this.lines = lines;
+    }
+
+    // Getters and Setters
+    public String getDisplayCurrency() { return displayCurrency; }
+    public void setDisplayCurrency(String displayCurrency) { this.displayCurrency = displayCurrency; }
+
+    public List<CalculationLineRequest> getLines() { return lines; }
+    public void setLines(List<CalculationLineRequest> lines) { this.lines = lines; }
+}
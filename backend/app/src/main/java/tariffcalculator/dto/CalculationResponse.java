@@ -0,0 +1,45 @@
+package tariffcalculator.dto;
+
+import java.util.List;
+
+public class CalculationResponse {
+
+    private String displayCurrency;
+    private List<CalculationLineResult> lines;
+    private double totalValue;
+    private double totalTariff;
+    private double totalLandedCost;
+    private int linesWithoutRate;
+
+    public CalculationResponse() {}
+
+    public CalculationResponse(String displayCurrency, List<CalculationLineResult> lines,
+                               double totalValue, double totalTariff, double totalLandedCost,
+                               int linesWithoutRate) {
+        this.displayCurrency = displayCurrency;
+        this.lines = lines;
+        this.totalValue = totalValue;
+        this.totalTariff = totalTariff;
+        this.totalLandedCost = totalLandedCost;
+        this.linesWithoutRate = linesWithoutRate;
+    }
+
+    // Getters and Setters
+    public String getDisplayCurrency() { return displayCurrency; }
+    public void setDisplayCurrency(String displayCurrency) { this.displayCurrency = displayCurrency; }
+
+    public List<CalculationLineResult> getLines() { return lines; }
+    public void setLines(List<CalculationLineResult> lines) { this.lines = lines; }
+
+    public double getTotalValue() { return totalValue; }
+    public void setTotalValue(double totalValue) { this.totalValue = totalValue; }
+
+    public double getTotalTariff() { return totalTariff; }
+    public void setTotalTariff(double totalTariff) { this.totalTariff = totalTariff; }
+
+    public double getTotalLandedCost() { return totalLandedCost; }
+    public void setTotalLandedCost(double totalLandedCost) { this.totalLandedCost = totalLandedCost; }
+
+    public int getLinesWithoutRate() { return linesWithoutRate; }
+    public void setLinesWithoutRate(int linesWithoutRate) { this.linesWithoutRate = linesWithoutRate; }
+}
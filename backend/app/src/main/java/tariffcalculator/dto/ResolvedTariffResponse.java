@@ -0,0 +1,73 @@
+package tariffcalculator.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ResolvedTariffResponse {
+
+    public static final String PROVENANCE_DATABASE = "DATABASE";
+    public static final String PROVENANCE_WITS = "WITS";
+    public static final String PROVENANCE_WTO = "WTO";
+
+    @JsonProperty("reporter")
+    private String reporter;
+
+    @JsonProperty("partner")
+    private String partner;
+
+    @JsonProperty("product")
+    private Integer product;
+
+    @JsonProperty("year")
+    private String year;
+
+    @JsonProperty("rate")
+    private Double rate;
+
+    @JsonProperty("unit")
+    private String unit;
+
+    // Where the rate came from: DATABASE, WITS or WTO
+    @JsonProperty("provenance")
+    private String provenance;
+
+    // True when an upstream hit has been queued for saving to the database
+    @JsonProperty("writeBackScheduled")
+    private boolean writeBackScheduled;
+
+    public ResolvedTariffResponse(String reporter, String partner, Integer product, String year,
+                                  Double rate, String unit, String provenance, boolean writeBackScheduled) {
+        this.reporter = reporter;
+        this.partner = partner;
+        this.product = product;
+        this.year = year;
+        this.rate = rate;
+        this.unit = unit;
+        this.provenance = provenance;
+        this.writeBackScheduled = writeBackScheduled;
+    }
+
+    // Getters and Setters
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public Double getRate() { return rate; }
+    public void setRate(Double rate) { this.rate = rate; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public String getProvenance() { return provenance; }
+    public void setProvenance(String provenance) { this.provenance = provenance; }
+
+    public boolean isWriteBackScheduled() { return writeBackScheduled; }
+    public void setWriteBackScheduled(boolean writeBackScheduled) { this.writeBackScheduled = writeBackScheduled; }
+}
@@ -0,0 +1,32 @@
+package tariffcalculator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import common.exception.ApiErrorResponse;
+
+import java.time.LocalDateTime;
+
+@RestControllerAdvice
+public class TariffCalculatorExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(TariffCalculatorExceptionHandler.class);
+
+    @ExceptionHandler(UnsupportedCurrencyException.class)
+    public ResponseEntity<ApiErrorResponse> handleUnsupportedCurrency(
+            UnsupportedCurrencyException ex, WebRequest request) {
+        logger.warn("Unsupported currency: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+}
@@ -0,0 +1,13 @@
+package tariffcalculator.exception;
+
+public class UnsupportedCurrencyException extends RuntimeException {
+    private String currency;
+
+    public UnsupportedCurrencyException(String currency, String displayCurrency) {
+        super(String.format("No exchange rate from %s to %s", currency, displayCurrency));
+        this.currency = currency;
+    }
+
+    // Getters
+    public String getCurrency() { return currency; }
+}
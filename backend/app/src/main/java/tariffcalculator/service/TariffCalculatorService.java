@@ -0,0 +1,151 @@
+package tariffcalculator.service;
+
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.service.TariffService;
+import exchangerate.ExchangeRateResponse;
+import exchangerate.ExchangeRateService;
+import tariffcalculator.dto.CalculationLineRequest;
+import tariffcalculator.dto.CalculationLineResult;
+import tariffcalculator.dto.CalculationRequest;
+import tariffcalculator.dto.CalculationResponse;
+import tariffcalculator.exception.UnsupportedCurrencyException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Landed-cost calculator for multi-line shipments.
+ *
+ * Resolves every line's tariff rate with one batch lookup and every line's currency with one
+ * exchange-rate call, then computes all lines in a single pass over primitive arrays.
+ * Matches the browser calculator: tariff = value * rate / 100, lines without a rate add no tariff.
+ */
+@Service
+public class TariffCalculatorService {
+    private static final Logger logger = LoggerFactory.getLogger(TariffCalculatorService.class);
+
+    private static final double PERCENT = 100.0;
+
+    private final TariffService tariffService;
+    private final ExchangeRateService exchangeRateService;
+
+    public TariffCalculatorService(TariffService tariffService, ExchangeRateService exchangeRateService) {
+        this.tariffService = tariffService;
+        this.exchangeRateService = exchangeRateService;
+    }
+
+    public CalculationResponse calculate(CalculationRequest request) {
+        String displayCurrency = request.getDisplayCurrency().toUpperCase(Locale.ROOT);
+        List<CalculationLineRequest> lines = request.getLines();
+        int n = lines.size();
+
+        logger.info("Calculating landed cost for {} lines in {}", n, displayCurrency);
+
+        double[] values = new double[n];
+        double[] rates = new double[n];
+        double[] fx = new double[n];
+        boolean[] found = new boolean[n];
+        String[] currencies = new String[n];
+
+        List<TariffLookupKey> keys = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            CalculationLineRequest line = lines.get(i);
+            keys.add(new TariffLookupKey(line.getReporter(), line.getPartner(), line.getProduct(), line.getYear()));
+            values[i] = line.getValue();
+            currencies[i] = line.getCurrency() == null ? displayCurrency : line.getCurrency().toUpperCase(Locale.ROOT);
+        }
+
+        TariffLookupResponse lookup = tariffService.lookupTariffs(keys);
+        for (TariffLookupResult result : lookup.getResults()) {
+            if (result.isFound()) {
+                found[result.getIndex()] = true;
+                rates[result.getIndex()] = result.getRate();
+            }
+        }
+
+        resolveExchangeRates(currencies, displayCurrency, fx);
+
+        double[] tariffs = new double[n];
+        double[] convertedValues = new double[n];
+        double[] convertedTariffs = new double[n];
+        computeLines(values, rates, fx, tariffs, convertedValues, convertedTariffs);
+
+        List<CalculationLineResult> results = new ArrayList<>(n);
+        double totalValue = 0;
+        double totalTariff = 0;
+        int withoutRate = 0;
+        for (int i = 0; i < n; i++) {
+            CalculationLineRequest line = lines.get(i);
+            CalculationLineResult result = new CalculationLineResult();
+            result.setIndex(i);
+            result.setReporter(line.getReporter());
+            result.setPartner(line.getPartner());
+            result.setProduct(line.getProduct());
+            result.setYear(line.getYear());
+            result.setCurrency(currencies[i]);
+            result.setValue(values[i]);
+            result.setRateFound(found[i]);
+            result.setExchangeRate(fx[i]);
+            result.setConvertedValue(convertedValues[i]);
+            result.setLandedCost(convertedValues[i] + convertedTariffs[i]);
+            if (found[i]) {
+                result.setTariffRate(rates[i]);
+                result.setTariffAmount(tariffs[i]);
+                result.setConvertedTariffAmount(convertedTariffs[i]);
+            } else {
+                withoutRate++;
+            }
+            totalValue += convertedValues[i];
+            totalTariff += convertedTariffs[i];
+            results.add(result);
+        }
+
+        return new CalculationResponse(displayCurrency, results, totalValue, totalTariff,
+                totalValue + totalTariff, withoutRate);
+    }
+
+    /**
+     * Core arithmetic for all lines. Lines without a rate carry rate 0, so no branching is needed.
+     */
+    static void computeLines(double[] values, double[] rates, double[] fx,
+                             double[] tariffs, double[] convertedValues, double[] convertedTariffs) {
+        for (int i = 0; i < values.length; i++) {
+            double tariff = values[i] * rates[i] / PERCENT;
+            tariffs[i] = tariff;
+            convertedValues[i] = values[i] * fx[i];
+            convertedTariffs[i] = tariff * fx[i];
+        }
+    }
+
+    /**
+     * Fill fx[i] with display-currency units per unit of currencies[i].
+     * The exchange API is only called when some line is not already in the display currency.
+     */
+    private void resolveExchangeRates(String[] currencies, String displayCurrency, double[] fx) {
+        Map<String, Double> conversionRates = null;
+        for (int i = 0; i < currencies.length; i++) {
+            if (currencies[i].equals(displayCurrency)) {
+                fx[i] = 1.0;
+                continue;
+            }
+            if (conversionRates == null) {
+                ExchangeRateResponse response = exchangeRateService.getExchangeRates(displayCurrency);
+                conversionRates = response.getConversionRates();
+            }
+            // Rates are quoted as units of the line currency per one display-currency unit
+            Double quote = conversionRates.get(currencies[i]);
+            if (quote == null || quote <= 0) {
+                throw new UnsupportedCurrencyException(currencies[i], displayCurrency);
+            }
+            fx[i] = 1.0 / quote;
+        }
+    }
+}
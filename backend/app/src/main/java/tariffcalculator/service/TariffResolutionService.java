@@ -0,0 +1,163 @@
+package tariffcalculator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.TariffNotFoundException;
+import database.tariffs.exception.TariffWriteRejectedException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.service.TariffService;
+import tariffcalculator.dto.ResolvedTariffResponse;
+import wits.WitsApiService;
+import wits.WitsRates;
+import wits.dto.WitsTariffRateResponse;
+import wits.exception.WitsApiException;
+import wits.exception.WitsDataNotFoundException;
+import wto.WtoApiService;
+import wto.dto.WtoHSPRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves a single tariff rate server-side: local database first, then WITS, then WTO.
+ *
+ * The first upstream hit is queued on TariffService's write-behind path, so the caller does not
+ * wait for the insert, concurrent resolves of one key coalesce into one upsert, and the next
+ * lookup for the same key is served locally.
+ * Upstream failures are logged and treated as misses so one unavailable source does not
+ * block the next one.
+ */
+@Service
+public class TariffResolutionService {
+    private static final Logger logger = LoggerFactory.getLogger(TariffResolutionService.class);
+
+    static final String WTO_TARIFF_INDICATOR = "HS_P_0070";
+    private static final String WTO_FORMAT = "json";
+
+    private final ITariffRateRepository repository;
+    private final WitsApiService witsApiService;
+    private final WtoApiService wtoApiService;
+    private final TariffService tariffService;
+    private final ObjectMapper objectMapper;
+
+    public TariffResolutionService(ITariffRateRepository repository,
+                                   WitsApiService witsApiService,
+                                   WtoApiService wtoApiService,
+                                   TariffService tariffService,
+                                   ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.witsApiService = witsApiService;
+        this.wtoApiService = wtoApiService;
+        this.tariffService = tariffService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resolve a tariff rate, throwing TariffNotFoundException if no source has one
+     */
+    public ResolvedTariffResponse resolve(String reporter, String partner, Integer product, String year) {
+        logger.info("Resolving tariff: reporter={}, partner={}, product={}, year={}",
+                reporter, partner, product, year);
+
+        TariffRateEntity local = repository.getTariff(reporter, partner, product, year);
+        if (local != null) {
+            return new ResolvedTariffResponse(reporter, partner, product, year,
+                    local.getRate(), local.getUnit(), ResolvedTariffResponse.PROVENANCE_DATABASE, false);
+        }
+
+        String provenance = ResolvedTariffResponse.PROVENANCE_WITS;
+        Double rate = fromWits(reporter, partner, product, year);
+        if (rate == null) {
+            provenance = ResolvedTariffResponse.PROVENANCE_WTO;
+            rate = fromWto(reporter, partner, product, year);
+        }
+        if (rate == null) {
+            throw new TariffNotFoundException(reporter, partner, product, year);
+        }
+
+        boolean scheduled = scheduleWriteBack(reporter, partner, product, year, rate);
+        logger.info("Resolved tariff from {}: rate={}, writeBackScheduled={}", provenance, rate, scheduled);
+
+        return new ResolvedTariffResponse(reporter, partner, product, year,
+                rate, WitsRates.UNIT_PERCENT, provenance, scheduled);
+    }
+
+    /**
+     * The lookup's representative rate, as the backfill stores it (see WitsRates)
+     */
+    private Double fromWits(String reporter, String partner, Integer product, String year) {
+        try {
+            // The calculator is synchronous; the WITS call's own timeout bounds this wait
+            WitsTariffRateResponse wits = witsApiService.getTariffRate(reporter, partner, product, year).block();
+            return WitsRates.representativeRate(wits);
+        } catch (WitsDataNotFoundException e) {
+            logger.debug("No WITS data: {}", e.getMessage());
+            return null;
+        } catch (WitsApiException e) {
+            logger.warn("WITS unavailable, falling back to WTO: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Query the WTO HS_P_0070 indicator and take the latest observation's value
+     */
+    private Double fromWto(String reporter, String partner, Integer product, String year) {
+        WtoHSPRequest request = new WtoHSPRequest();
+        request.setIndicator(WTO_TARIFF_INDICATOR);
+        request.setReporter(reporter);
+        request.setPartner(partner);
+        request.setProductCode(String.valueOf(product));
+        request.setPeriod(year);
+        request.setFormat(WTO_FORMAT);
+
+        ResponseEntity<String> response = wtoApiService.callWtoApi(request.toQuery());
+        String body = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful() || body == null || body.isBlank()) {
+            logger.debug("No WTO data: status={}", response.getStatusCode().value());
+            return null;
+        }
+
+        try {
+            JsonNode dataset = objectMapper.readTree(body).path("Dataset");
+            JsonNode latest = null;
+            for (JsonNode record : dataset) {
+                if (latest == null || record.path("Year").asInt() > latest.path("Year").asInt()) {
+                    latest = record;
+                }
+            }
+            return latest == null ? null : WitsRates.parseRate(latest.path("Value").asText(null));
+        } catch (Exception e) {
+            logger.warn("Could not parse WTO response: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean scheduleWriteBack(String reporter, String partner, Integer product, String year, double rate) {
+        // Out-of-range rates are returned to the caller but not persisted
+        if (!WitsRates.isPersistable(rate)) {
+            logger.warn("Not persisting out-of-range rate {} for reporter={}, partner={}, product={}, year={}",
+                    rate, reporter, partner, product, year);
+            return false;
+        }
+        CreateTariffRequest request = new CreateTariffRequest();
+        request.setReporter(reporter);
+        request.setPartner(partner);
+        request.setProduct(product);
+        request.setYear(year);
+        request.setRate(rate);
+        request.setUnit(WitsRates.UNIT_PERCENT);
+        try {
+            tariffService.queueTariff(request);
+            return true;
+        } catch (TariffWriteRejectedException e) {
+            logger.warn("Tariff write-back rejected: {}", e.getMessage());
+            return false;
+        }
+    }
+}
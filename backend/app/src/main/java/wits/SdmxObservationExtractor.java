@@ -0,0 +1,297 @@
+package wits;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Single-pass reader for observation attributes in SDMX-JSON v2.1 responses.
+ *
+ * Streams the body once with a JsonParser and keeps only the two pieces the lookup needs: the
+ * attribute definitions under structure.attributes.observation and the first observation array of
+ * the first series. Everything else (headers, dimensions, the remaining series) is skipped without
+ * being materialised, and the two pieces may appear in either order in the document.
+ *
+ * Resolution matches a tree walk over the same document:
+ *  - the attribute is found by id (case-insensitive) in structure.attributes.observation
+ *  - the observation array is laid out as [value, attr0, attr1, ...]
+ *  - an integer cell is an index into the attribute's values, read as id, else name
+ *  - any other number or string cell is the value itself
+ */
+public final class SdmxObservationExtractor {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int ATTRIBUTE_OFFSET = 1;
+
+    private SdmxObservationExtractor() {}
+
+    /**
+     * Read the given observation attributes from one SDMX-JSON document.
+     *
+     * @return one value per requested id, in the same order; null where the attribute or its value is absent
+     * @throws IOException if the document is not well-formed JSON
+     */
+    public static String[] extract(String json, String... attributeIds) throws IOException {
+        String[] out = new String[attributeIds.length];
+        List<AttributeDef> definitions = null;
+        List<Object> observation = null;
+
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return out;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "structure" -> definitions = readObservationAttributes(parser);
+                    case "dataSets" -> observation = readFirstObservation(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (definitions == null || observation == null || observation.isEmpty()) {
+            return out;
+        }
+        for (int i = 0; i < attributeIds.length; i++) {
+            out[i] = resolve(definitions, observation, attributeIds[i]);
+        }
+        return out;
+    }
+
+    private static String resolve(List<AttributeDef> definitions, List<Object> observation, String attributeId) {
+        int attrIdx = -1;
+        for (int i = 0; i < definitions.size(); i++) {
+            if (attributeId.equalsIgnoreCase(definitions.get(i).id())) {
+                attrIdx = i;
+                break;
+            }
+        }
+        int obsPos = attrIdx + ATTRIBUTE_OFFSET;
+        if (attrIdx < 0 || obsPos >= observation.size()) {
+            return null;
+        }
+
+        Object cell = observation.get(obsPos);
+        if (cell instanceof Integer codeIdx) {
+            List<String> codes = definitions.get(attrIdx).codes();
+            if (codes != null && codeIdx >= 0 && codeIdx < codes.size()) {
+                return codes.get(codeIdx);
+            }
+            return codeIdx.toString();
+        }
+        return (String) cell;
+    }
+
+    /**
+     * At the value of "structure": collect structure.attributes.observation, or null if it is not an array
+     */
+    private static List<AttributeDef> readObservationAttributes(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        List<AttributeDef> definitions = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (!"attributes".equals(field) || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String level = parser.currentName();
+                parser.nextToken();
+                if ("observation".equals(level) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    definitions = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        definitions.add(readAttributeDef(parser));
+                    }
+                } else {
+                    if ("observation".equals(level)) {
+                        definitions = null;
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        return definitions;
+    }
+
+    private static AttributeDef readAttributeDef(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return new AttributeDef(null, null);
+        }
+        String id = null;
+        List<String> codes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                id = scalarText(parser);
+            } else if ("values".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                codes = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    codes.add(readCode(parser));
+                }
+            } else {
+                if ("values".equals(field)) {
+                    codes = null;
+                }
+                parser.skipChildren();
+            }
+        }
+        return new AttributeDef(id, codes);
+    }
+
+    /**
+     * One entry of an attribute's values: its id, or its name when the id is missing or blank
+     */
+    private static String readCode(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String id = null;
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                id = scalarText(parser);
+            } else if ("name".equals(field)) {
+                name = scalarText(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id == null || id.isBlank() ? name : id;
+    }
+
+    /**
+     * At the value of "dataSets": return the first observation array of the first series of the
+     * first data set, as Integer (coded index), String (direct value) or null cells
+     */
+    private static List<Object> readFirstObservation(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<Object> observation = null;
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("series".equals(field)) {
+                    observation = readFirstSeries(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        // Remaining data sets
+        while (parser.currentToken() != JsonToken.END_ARRAY && parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        return observation;
+    }
+
+    /**
+     * At the value of "series": take its first series, then the first entry of that series'
+     * "observations" object
+     */
+    private static List<Object> readFirstSeries(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        List<Object> observation = null;
+        if (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("observations".equals(field)) {
+                        observation = readFirstObservationCells(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            // Remaining series
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                parser.nextToken();
+                parser.skipChildren();
+            }
+        }
+        return observation;
+    }
+
+    /**
+     * At an "observations" object: read the cells of its first entry, or null if that is not an array
+     */
+    private static List<Object> readFirstObservationCells(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        List<Object> cells = null;
+        if (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                cells = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    cells.add(readCell(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                parser.nextToken();
+                parser.skipChildren();
+            }
+        }
+        return cells;
+    }
+
+    private static Object readCell(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getNumberType() == JsonParser.NumberType.INT
+                    ? Integer.valueOf(parser.getIntValue())
+                    : parser.getText();
+            case VALUE_NUMBER_FLOAT -> String.valueOf(parser.getDoubleValue());
+            case VALUE_STRING -> parser.getText();
+            default -> {
+                // null, booleans and nested values carry no rate
+                parser.skipChildren();
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Text of a scalar value as JsonNode.asText(null) gives it: null for JSON null, "" for containers
+     */
+    private static String scalarText(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case START_OBJECT, START_ARRAY -> {
+                parser.skipChildren();
+                yield "";
+            }
+            case VALUE_NUMBER_FLOAT -> String.valueOf(parser.getDoubleValue());
+            default -> parser.getText();
+        };
+    }
+
+    private record AttributeDef(String id, List<String> codes) {}
+}
@@ -1,16 +1,29 @@
 package wits;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import common.concurrent.SingleFlight;
 import wits.dto.WitsTariffRateResponse;
+import wits.entity.WitsResultEntity;
 import wits.exception.WitsApiException;
 import wits.exception.WitsDataNotFoundException;
 
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -18,11 +31,9 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 @Service
 public class WitsApiService {
     private static final Logger logger = LoggerFactory.getLogger(WitsApiService.class);
-    private static final String WITS_BASE_URL = "https://wits.worldbank.org/API/V1/SDMX/V21";
     private static final String PATH_FORMAT = "/datasource/TRN/reporter/%s/partner/%s/product/%s/year/%s/datatype/reported?format=JSON";
     private static final int HTTP_NO_CONTENT = 204;
-    private static final int OBSERVATION_VALUE_INDEX = 0;
-    private static final int ATTRIBUTE_OFFSET = 1;
+    private static final int HTTP_NOT_FOUND = 404;
 
     // Attribute IDs
     private static final String ATTR_MIN_RATE = "MIN_RATE";
@@ -30,187 +41,238 @@ public class WitsApiService {
     private static final String ATTR_AVG_RATE = "AVG_RATE";
 
     private final WebClient webClient;
-    private final ObjectMapper mapper = new ObjectMapper();
-
-    public WitsApiService() {
+    private final Duration timeout;
+    private final WitsResultCache resultCache;
+    private final SingleFlight<WitsKey, WitsTariffRateResponse> rateFlights = new SingleFlight<>("WITS rate");
+    private final SingleFlight<WitsKey, String> rawFlights = new SingleFlight<>("WITS raw");
+
+    public WitsApiService(
+            @Value("${app.wits.baseUrl:https://wits.worldbank.org/API/V1/SDMX/V21}") String baseUrl,
+            @Value("${app.wits.timeoutMs:10000}") long timeoutMs,
+            @Value("${app.wits.maxConnections:500}") int maxConnections,
+            WitsResultCache resultCache) {
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.resultCache = resultCache;
+        // Requests waiting for a pooled connection are bounded by the per-call timeout, not a queue size
+        ConnectionProvider connections = ConnectionProvider.builder("wits")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(timeout)
+                .build();
         this.webClient = WebClient.builder()
-                .baseUrl(WITS_BASE_URL)
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
                 .build();
     }
 
     /**
      * Get tariff rate data from WITS for specific parameters
      * Returns structured data with MIN_RATE, MAX_RATE, AVG_RATE
+     *
+     * Nothing blocks: the request runs on the WebClient's event loop and errors (including a
+     * timeout after app.wits.timeoutMs) arrive as WitsDataNotFoundException or WitsApiException.
+     * Identical lookups that overlap share one upstream request and its outcome.
+     *
+     * Results, including "no data" answers (204/404 only), are kept in WitsResultCache: a fresh
+     * entry in memory is answered without leaving the calling thread, one in the database without
+     * calling WITS. A stale entry is refetched, and served as-is if WITS then fails. The cache is
+     * best-effort: if it cannot be read or written the lookup carries on as if it were empty.
      */
-    public WitsTariffRateResponse getTariffRate(String reporter, String partner, 
-                                               Integer product, String year) {
-        try {
-            logger.info("Fetching WITS data: reporter={}, partner={}, product={}, year={}",
-                    reporter, partner, product, year);
-            
-            String path = String.format(PATH_FORMAT, reporter, partner, product, year);
-
-            // Fetch data with proper error handling
-            String body = webClient.get()
-                .uri(path)
-                .exchangeToMono(resp -> {
-                    if (resp.statusCode().is2xxSuccessful()) {
-                        return resp.bodyToMono(String.class).defaultIfEmpty("");
-                    }
-                    if (resp.statusCode().value() == HTTP_NO_CONTENT || resp.statusCode().is4xxClientError()) {
-                        // WITS uses 204/404 when there's no data
-                        return Mono.just("");
-                    }
-                    // For 5xx, bubble up as error
-                    return resp.bodyToMono(String.class)
-                               .flatMap(b -> Mono.error(new WitsApiException(
-                                   "WITS API returned " + resp.statusCode(), 
-                                   resp.statusCode().value()
-                               )));
-                })
-                .block();
-
-            // No data found
-            if (body == null || body.isBlank()) {
-                logger.warn("No data found in WITS");
-                throw new WitsDataNotFoundException(reporter, partner, product, year);
-            }
-
-            // Extract all rates
-            String minRate = extractObservationAttribute(body, ATTR_MIN_RATE);
-            String maxRate = extractObservationAttribute(body, ATTR_MAX_RATE);
-            String avgRate = extractObservationAttribute(body, ATTR_AVG_RATE);
-            
-            // If no rates extracted, data is not available
-            if (minRate == null && maxRate == null && avgRate == null) {
-                logger.warn("No tariff rates found in WITS response");
-                throw new WitsDataNotFoundException(reporter, partner, product, year);
-            }
-            
-            logger.info("Successfully retrieved WITS data: min={}, max={}, avg={}", 
-                    minRate, maxRate, avgRate);
-
-            return new WitsTariffRateResponse(
-                reporter, partner, product, year,
-                minRate, maxRate, avgRate
-            );
-
-        } catch (WitsDataNotFoundException e) {
-            throw e; // Re-throw to be handled by exception handler
-        } catch (WebClientResponseException e) {
-            logger.error("WITS API error: status={}, body={}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new WitsApiException("WITS API communication error", e.getStatusCode().value());
-        } catch (Exception e) {
-            logger.error("Unexpected error fetching WITS data", e);
-            throw new WitsApiException("Unexpected error: " + e.getMessage(), e);
+    public Mono<WitsTariffRateResponse> getTariffRate(String reporter, String partner,
+                                                      Integer product, String year) {
+        WitsResultEntity cached = resultCache.peek(reporter, partner, product, year);
+        if (cached != null && resultCache.isFresh(cached)) {
+            return fromCache(cached);
         }
+        return rateFlights.executeMono(new WitsKey(reporter, partner, product, year),
+                () -> loadOrFetchTariffRate(reporter, partner, product, year));
     }
 
     /**
-     * Get full raw JSON response from WITS (for advanced users)
+     * Get full raw JSON response from WITS (for advanced users); overlapping identical calls share one request
      */
-    public String getRawTariffData(String reporter, String partner, 
-                                  Integer product, String year) {
-        try {
-            logger.info("Fetching raw WITS data: reporter={}, partner={}, product={}, year={}",
-                    reporter, partner, product, year);
-            
-            String path = String.format(PATH_FORMAT, reporter, partner, product, year);
-
-            String body = webClient.get()
-                .uri(path)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-
-            if (body == null || body.isBlank()) {
-                throw new WitsDataNotFoundException(reporter, partner, product, year);
-            }
-
-            return body;
-
-        } catch (WitsDataNotFoundException e) {
-            throw e;
-        } catch (WebClientResponseException e) {
-            throw new WitsApiException("WITS API communication error", e.getStatusCode().value());
-        } catch (Exception e) {
-            throw new WitsApiException("Unexpected error: " + e.getMessage(), e);
-        }
+    public Mono<String> getRawTariffData(String reporter, String partner,
+                                         Integer product, String year) {
+        return rawFlights.executeMono(new WitsKey(reporter, partner, product, year),
+                () -> fetchRawTariffData(reporter, partner, product, year));
     }
 
-    /**
-     * Extract an observation attribute (e.g., MIN_RATE, MAX_RATE) from SDMX-JSON v2.1.
-     * Logic:
-     *  - Find position of the attribute in structure.attributes.observation (0-based)
-     *  - Observation array layout: [measure, attr0, attr1, ...] => attribute position is (attrIndex + 1)
-     *  - Read the attribute index from the observation array, then map it to the attribute's values[idx].id/name
-     */
-    private String extractObservationAttribute(String json, String attributeId) {
-        try {
-            JsonNode root = mapper.readTree(json);
-
-            // 1) Locate the observation attributes in the structure and find attribute index (0-based)
-            JsonNode obsAttrs = root.path("structure").path("attributes").path("observation");
-            if (!obsAttrs.isArray()) return null;
-
-            int attrIdx = -1; // 0-based within obsAttrs
-            for (int i = 0; i < obsAttrs.size(); i++) {
-                if (attributeId.equalsIgnoreCase(obsAttrs.get(i).path("id").asText())) {
-                    attrIdx = i;
-                    break;
+    private Mono<WitsTariffRateResponse> loadOrFetchTariffRate(String reporter, String partner,
+                                                               Integer product, String year) {
+        // The cache table is plain JDBC, so it is read and written off the event loop
+        return Mono.fromCallable(() -> Optional.ofNullable(resultCache.load(reporter, partner, product, year)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> {
+                logger.warn("Could not read WITS result cache, fetching from WITS: {}", e.getMessage());
+                return Mono.just(Optional.empty());
+            })
+            .flatMap(stored -> {
+                WitsResultEntity entity = stored.orElse(null);
+                if (entity != null && resultCache.isFresh(entity)) {
+                    return fromCache(entity);
                 }
-            }
-            if (attrIdx < 0) return null;
-
-            // 2) Get first series & first observation array
-            JsonNode dataSets = root.path("dataSets");
-            if (!dataSets.isArray() || dataSets.size() == 0) return null;
-
-            JsonNode seriesNode = dataSets.get(0).path("series");
-            if (!seriesNode.isObject()) return null;
-
-            String firstSeriesKey = seriesNode.fieldNames().hasNext() ? seriesNode.fieldNames().next() : null;
-            if (firstSeriesKey == null) return null;
+                return fetchTariffRate(reporter, partner, product, year)
+                    .flatMap(response -> save(toEntity(response)).thenReturn(response))
+                    .onErrorResume(WitsDataNotFoundException.class, e ->
+                        save(noData(reporter, partner, product, year)).then(Mono.error(e)))
+                    .onErrorResume(WitsApiException.class, e -> {
+                        if (entity == null) {
+                            return Mono.error(e);
+                        }
+                        logger.warn("WITS unavailable, serving result fetched at {}: {}",
+                                entity.getFetchedAt(), e.getMessage());
+                        return fromCache(entity);
+                    });
+            });
+    }
 
-            JsonNode observations = seriesNode.path(firstSeriesKey).path("observations");
-            if (!observations.isObject()) return null;
+    private Mono<Void> save(WitsResultEntity entity) {
+        return Mono.fromRunnable(() -> resultCache.save(entity))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> {
+                // The lookup itself succeeded; a cache that cannot take it must not fail it
+                logger.warn("Could not save WITS result to cache: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
 
-            String firstObsKey = observations.fieldNames().hasNext() ? observations.fieldNames().next() : null;
-            if (firstObsKey == null) return null;
+    private static Mono<WitsTariffRateResponse> fromCache(WitsResultEntity entity) {
+        if (!entity.isDataAvailable()) {
+            return Mono.error(new WitsDataNotFoundException(
+                entity.getReporter(), entity.getPartner(), entity.getProduct(), entity.getYear()));
+        }
+        WitsTariffRateResponse response = new WitsTariffRateResponse(
+            entity.getReporter(), entity.getPartner(), entity.getProduct(), entity.getYear(),
+            entity.getMinRate(), entity.getMaxRate(), entity.getAvgRate());
+        response.setSource(entity.getSource());
+        response.setTimestamp(LocalDateTime.ofInstant(entity.getFetchedAt(), ZoneId.systemDefault()));
+        return Mono.just(response);
+    }
 
-            JsonNode obsArray = observations.path(firstObsKey);
-            if (!obsArray.isArray() || obsArray.size() == 0) return null;
+    private static WitsResultEntity toEntity(WitsTariffRateResponse response) {
+        WitsResultEntity entity = noData(response.getReporter(), response.getPartner(),
+                response.getProduct(), response.getYear());
+        entity.setDataAvailable(true);
+        entity.setMinRate(response.getMinRate());
+        entity.setMaxRate(response.getMaxRate());
+        entity.setAvgRate(response.getAvgRate());
+        return entity;
+    }
 
-            // 3) Observation array layout: [value, attr0, attr1, ...]
-            int obsPos = attrIdx + ATTRIBUTE_OFFSET;
-            if (obsPos >= obsArray.size()) return null;
+    private static WitsResultEntity noData(String reporter, String partner, Integer product, String year) {
+        WitsResultEntity entity = new WitsResultEntity();
+        entity.setReporter(reporter);
+        entity.setPartner(partner);
+        entity.setProduct(product);
+        entity.setYear(year);
+        entity.setSource(WitsResultEntity.SOURCE_WITS);
+        entity.setFetchedAt(Instant.now());
+        return entity;
+    }
 
-            JsonNode attrIndexNode = obsArray.get(obsPos);
-            if (attrIndexNode == null || attrIndexNode.isNull()) return null;
+    private Mono<WitsTariffRateResponse> fetchTariffRate(String reporter, String partner,
+                                                         Integer product, String year) {
+        logger.info("Fetching WITS data: reporter={}, partner={}, product={}, year={}",
+                reporter, partner, product, year);
+
+        String path = String.format(PATH_FORMAT, reporter, partner, product, year);
+
+        return webClient.get()
+            .uri(path)
+            .exchangeToMono(resp -> {
+                int status = resp.statusCode().value();
+                if (status == HTTP_NO_CONTENT || status == HTTP_NOT_FOUND) {
+                    // WITS uses 204/404 when there's no data
+                    logger.warn("No data found in WITS");
+                    return resp.releaseBody().then(Mono.<String>error(
+                        new WitsDataNotFoundException(reporter, partner, product, year)));
+                }
+                if (resp.statusCode().is2xxSuccessful()) {
+                    return resp.bodyToMono(String.class).defaultIfEmpty("");
+                }
+                // Any other status (throttling, bad request, 5xx) says nothing about the data
+                return resp.releaseBody().then(Mono.error(new WitsApiException(
+                    "WITS API returned " + resp.statusCode(),
+                    status
+                )));
+            })
+            .timeout(timeout)
+            .flatMap(body -> {
+                // An empty 200 is an upstream fault, not an answer; it must not be cached as "no data"
+                if (body.isBlank()) {
+                    return Mono.error(new WitsApiException("WITS API returned an empty body",
+                        HttpStatus.BAD_GATEWAY.value()));
+                }
 
-            // If WITS uses coded indices into the attribute "values" array:
-            if (attrIndexNode.isInt()) {
-                int codeIdx = attrIndexNode.asInt();
-                JsonNode values = obsAttrs.get(attrIdx).path("values");
-                if (values.isArray() && codeIdx >= 0 && codeIdx < values.size()) {
-                    JsonNode v = values.get(codeIdx);
-                    // Prefer "id" (often numeric string), else "name"
-                    String out = v.path("id").asText(null);
-                    if (out == null || out.isBlank()) out = v.path("name").asText(null);
-                    return out;
+                // Extract all rates
+                String[] rates;
+                try {
+                    rates = SdmxObservationExtractor.extract(body, ATTR_MIN_RATE, ATTR_MAX_RATE, ATTR_AVG_RATE);
+                } catch (IOException e) {
+                    return Mono.error(new WitsApiException("WITS API returned malformed SDMX: " + e.getMessage(),
+                        HttpStatus.BAD_GATEWAY.value()));
+                }
+                String minRate = rates[0];
+                String maxRate = rates[1];
+                String avgRate = rates[2];
+
+                // If no rates extracted, data is not available
+                if (minRate == null && maxRate == null && avgRate == null) {
+                    logger.warn("No tariff rates found in WITS response");
+                    return Mono.error(new WitsDataNotFoundException(reporter, partner, product, year));
                 }
-            }
 
-            // Fallback: sometimes the value itself is put directly
-            if (attrIndexNode.isNumber() || attrIndexNode.isTextual()) {
-                return attrIndexNode.asText();
-            }
+                logger.info("Successfully retrieved WITS data: min={}, max={}, avg={}",
+                        minRate, maxRate, avgRate);
 
-            return null;
+                return Mono.just(new WitsTariffRateResponse(
+                    reporter, partner, product, year,
+                    minRate, maxRate, avgRate
+                ));
+            })
+            .onErrorMap(e -> !(e instanceof WitsDataNotFoundException), this::toWitsApiException);
+    }
 
-        } catch (Exception e) {
-            logger.error("Error extracting attribute {}: {}", attributeId, e.getMessage());
-            return null;
+    private Mono<String> fetchRawTariffData(String reporter, String partner,
+                                            Integer product, String year) {
+        logger.info("Fetching raw WITS data: reporter={}, partner={}, product={}, year={}",
+                reporter, partner, product, year);
+
+        String path = String.format(PATH_FORMAT, reporter, partner, product, year);
+
+        return webClient.get()
+            .uri(path)
+            .retrieve()
+            .bodyToMono(String.class)
+            .defaultIfEmpty("")
+            .timeout(timeout)
+            .flatMap(body -> body.isBlank()
+                ? Mono.<String>error(new WitsDataNotFoundException(reporter, partner, product, year))
+                : Mono.just(body))
+            .onErrorMap(e -> !(e instanceof WitsDataNotFoundException), this::toWitsApiException);
+    }
+
+    /**
+     * Map any upstream failure to WitsApiException, keeping the status where there is one
+     */
+    private WitsApiException toWitsApiException(Throwable e) {
+        if (e instanceof WitsApiException wits) {
+            logger.error("WITS API error: {}", wits.getMessage());
+            return wits;
         }
+        if (e instanceof TimeoutException) {
+            logger.error("WITS API did not answer within {} ms", timeout.toMillis());
+            return new WitsApiException("WITS API timed out after " + timeout.toMillis() + " ms",
+                    HttpStatus.GATEWAY_TIMEOUT.value());
+        }
+        if (e instanceof WebClientResponseException response) {
+            logger.error("WITS API error: status={}, body={}", response.getStatusCode(), response.getResponseBodyAsString());
+            return new WitsApiException("WITS API communication error", response.getStatusCode().value());
+        }
+        logger.error("Unexpected error fetching WITS data", e);
+        return new WitsApiException("Unexpected error: " + e.getMessage(), e);
     }
-}
\ No newline at end of file
+
+    private record WitsKey(String reporter, String partner, Integer product, String year) {}
+}
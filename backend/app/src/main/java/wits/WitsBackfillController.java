@@ -0,0 +1,155 @@
+package wits;
+
+import java.net.URI;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import wits.dto.WitsBackfillJobResponse;
+import wits.dto.WitsBackfillRequest;
+
+/**
+ * Admin backfills of TariffRates from WITS, run as background jobs
+ */
+@RestController
+@RequestMapping("/api/v1/wits/backfills")
+@Tag(name = "WITS Tariff Data", description = "Access tariff data from World Bank WITS (World Integrated Trade Solution)")
+public class WitsBackfillController {
+    private static final Logger logger = LoggerFactory.getLogger(WitsBackfillController.class);
+
+    private final WitsBackfillService witsBackfillService;
+
+    public WitsBackfillController(WitsBackfillService witsBackfillService) {
+        this.witsBackfillService = witsBackfillService;
+    }
+
+    @Operation(
+        summary = "Backfill tariff rates from WITS",
+        description = "Starts a background job that looks up every reporter x partner x product x year combination " +
+                "in WITS and upserts the average rate into the tariff database. Lookups are rate-limited and run in " +
+                "parallel; progress is checkpointed after every batch, so a failed or interrupted job can be resumed. " +
+                "Poll the returned Location for progress."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Backfill job queued",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = WitsBackfillJobResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"jobId\": \"9b2d7e40-1c3a-4f5e-8a6b-0d1c2e3f4a5b\", \"status\": \"QUEUED\", \"totalLookups\": 40000, \"lookupsCompleted\": 0, \"lookupsCheckpointed\": 0, \"percentComplete\": 0.0, \"rowsWritten\": 0, \"noRate\": 0, \"failed\": 0, \"createdAt\": \"2025-10-14T10:30:00\", \"updatedAt\": \"2025-10-14T10:30:00\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request or too many lookups for one job",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Another backfill is already running",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<WitsBackfillJobResponse> startBackfill(@Valid @RequestBody WitsBackfillRequest request) {
+
+        logger.info("POST /api/v1/wits/backfills - {} reporters, {} partners, {} products, {}-{}",
+                request.getReporters().size(), request.getPartners().size(), request.getProducts().size(),
+                request.getFromYear(), request.getToYear());
+
+        WitsBackfillJobResponse response = witsBackfillService.startBackfill(request);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/wits/backfills/" + response.getJobId()))
+                .body(response);
+    }
+
+    @Operation(
+        summary = "Get WITS backfill job progress",
+        description = "Returns lookup and row counts so far and the job status (QUEUED, RUNNING, COMPLETED, FAILED, " +
+                "or INTERRUPTED for a job cut short by a restart)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Job found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = WitsBackfillJobResponse.class),
+                examples = @ExampleObject(
+                    value = "{\"jobId\": \"9b2d7e40-1c3a-4f5e-8a6b-0d1c2e3f4a5b\", \"status\": \"RUNNING\", \"totalLookups\": 40000, \"lookupsCompleted\": 12530, \"lookupsCheckpointed\": 12500, \"percentComplete\": 31.3, \"rowsWritten\": 9810, \"noRate\": 2684, \"failed\": 6, \"createdAt\": \"2025-10-14T10:30:00\", \"updatedAt\": \"2025-10-14T10:51:02\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Unknown job",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/{jobId}")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<WitsBackfillJobResponse> getBackfill(@PathVariable String jobId) {
+
+        logger.info("GET /api/v1/wits/backfills/{}", jobId);
+
+        return ResponseEntity.ok(witsBackfillService.getJob(jobId));
+    }
+
+    @Operation(
+        summary = "Resume a WITS backfill job",
+        description = "Restarts a failed or interrupted job from its last checkpoint."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Backfill job queued again",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = WitsBackfillJobResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Unknown job",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "The job has completed, or a backfill is already running",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping("/{jobId}/resume")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<WitsBackfillJobResponse> resumeBackfill(@PathVariable String jobId) {
+
+        logger.info("POST /api/v1/wits/backfills/{}/resume", jobId);
+
+        WitsBackfillJobResponse response = witsBackfillService.resumeBackfill(jobId);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/wits/backfills/" + response.getJobId()))
+                .body(response);
+    }
+}
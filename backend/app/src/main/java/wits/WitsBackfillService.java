@@ -0,0 +1,433 @@
+package wits;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.ITariffRateRepository;
+import wits.dto.WitsBackfillJobResponse;
+import wits.dto.WitsBackfillRequest;
+import wits.dto.WitsTariffRateResponse;
+import wits.entity.WitsBackfillJobEntity;
+import wits.exception.WitsApiException;
+import wits.exception.WitsBackfillJobNotFoundException;
+import wits.exception.WitsBackfillRejectedException;
+import wits.exception.WitsDataNotFoundException;
+import wits.repository.WitsBackfillJobRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Admin-triggered backfill of wto_tariffs.TariffRates from WITS.
+ *
+ * A job looks up every reporter x partner x product x year of its request through
+ * WitsApiService.getTariffRate. Lookups start at most requestsPerSecond, at most concurrency are
+ * in flight, and upstream errors are retried with backoff. Results are kept in lookup order, so
+ * each batch of batchSize lookups covers a contiguous index range: its rates are upserted in one
+ * JDBC batch, then the job's checkpoint (the next lookup index) is stored in WitsBackfillJobs.
+ *
+ * A job that failed, or was cut short by a restart, is resumed from its checkpoint: at most one
+ * batch is looked up again, and rows are upserted, so repeating it is safe. Lookups that still
+ * fail after retries are counted and skipped while they stay at or below maxFailureRate of a
+ * batch; above it the job fails with its checkpoint before that batch, so resuming it once WITS
+ * has recovered looks the batch up again instead of leaving a hole behind the checkpoint.
+ *
+ * One job runs per instance at a time, on a dedicated thread rather than the shared
+ * applicationTaskExecutor, which a job would otherwise hold for hours.
+ */
+@Service
+public class WitsBackfillService {
+    private static final Logger logger = LoggerFactory.getLogger(WitsBackfillService.class);
+
+    private final WitsApiService witsApiService;
+    private final ITariffRateRepository tariffRepository;
+    private final WitsBackfillJobRepository jobRepository;
+    private final ExecutorService jobThread;
+    // The job thread, unless a test swaps in another executor
+    private Executor executor;
+    private final int concurrency;
+    private final Duration requestInterval;
+    private final int batchSize;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final double maxFailureRate;
+    private final long maxLookups;
+    private final Semaphore slots = new Semaphore(1);
+
+    private final Map<String, Run> active = new ConcurrentHashMap<>();
+
+    public WitsBackfillService(
+            WitsApiService witsApiService,
+            ITariffRateRepository tariffRepository,
+            WitsBackfillJobRepository jobRepository,
+            @Value("${app.wits.backfill.concurrency:8}") int concurrency,
+            @Value("${app.wits.backfill.requestsPerSecond:10}") double requestsPerSecond,
+            @Value("${app.wits.backfill.batchSize:500}") int batchSize,
+            @Value("${app.wits.backfill.maxRetries:3}") int maxRetries,
+            @Value("${app.wits.backfill.retryBackoffMs:1000}") long retryBackoffMs,
+            @Value("${app.wits.backfill.maxFailureRate:0.05}") double maxFailureRate,
+            @Value("${app.wits.backfill.maxLookups:5000000}") long maxLookups) {
+        this.witsApiService = witsApiService;
+        this.tariffRepository = tariffRepository;
+        this.jobRepository = jobRepository;
+        this.jobThread = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "wits-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = jobThread;
+        this.concurrency = concurrency;
+        // Zero or less disables the rate limit
+        this.requestInterval = requestsPerSecond > 0
+                ? Duration.ofNanos((long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond))
+                : Duration.ZERO;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.maxFailureRate = maxFailureRate;
+        this.maxLookups = maxLookups;
+    }
+
+    /**
+     * Stop the job thread; a running job keeps its last checkpoint and reads as interrupted
+     */
+    @PreDestroy
+    public void shutdown() {
+        jobThread.shutdownNow();
+    }
+
+    /**
+     * Record a new job and start it in the background
+     * @return the queued job; poll getJob() for progress
+     */
+    public WitsBackfillJobResponse startBackfill(WitsBackfillRequest request) {
+        List<String> reporters = distinct(request.getReporters());
+        List<String> partners = distinct(request.getPartners());
+        List<Integer> products = distinct(request.getProducts());
+        if (request.getFromYear() > request.getToYear()) {
+            throw new InvalidTariffQueryException("fromYear must not be after toYear");
+        }
+        long years = request.getToYear() - request.getFromYear() + 1;
+        long total = (long) reporters.size() * partners.size() * products.size() * years;
+        if (total > maxLookups) {
+            throw new InvalidTariffQueryException(String.format(
+                    "Backfill of %d lookups exceeds the limit of %d; split it into smaller jobs", total, maxLookups));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        WitsBackfillJobEntity job = new WitsBackfillJobEntity();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setReporters(reporters);
+        job.setPartners(partners);
+        job.setProducts(products);
+        job.setFromYear(request.getFromYear());
+        job.setToYear(request.getToYear());
+        job.setStatus(WitsBackfillJobEntity.STATUS_QUEUED);
+        job.setTotalLookups(total);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+
+        acquireSlot();
+        try {
+            jobRepository.insert(job);
+        } catch (DataAccessException e) {
+            slots.release();
+            throw e;
+        }
+        Run run = launch(job);
+
+        logger.info("Queued WITS backfill {}: {} reporters x {} partners x {} products x {} years = {} lookups",
+                job.getJobId(), reporters.size(), partners.size(), products.size(), years, total);
+        return run.toResponse();
+    }
+
+    /**
+     * Restart a failed or interrupted job from its last checkpoint
+     */
+    public WitsBackfillJobResponse resumeBackfill(String jobId) {
+        if (jobId != null && active.containsKey(jobId)) {
+            throw new WitsBackfillRejectedException("WITS backfill " + jobId + " is already running");
+        }
+        WitsBackfillJobEntity job = jobId == null ? null : jobRepository.find(jobId);
+        if (job == null) {
+            throw new WitsBackfillJobNotFoundException(jobId);
+        }
+        if (WitsBackfillJobEntity.STATUS_COMPLETED.equals(job.getStatus())) {
+            throw new WitsBackfillRejectedException("WITS backfill " + jobId + " has already completed");
+        }
+
+        acquireSlot();
+        job.setStatus(WitsBackfillJobEntity.STATUS_QUEUED);
+        job.setMessage(null);
+        job.setFinishedAt(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        try {
+            jobRepository.update(job);
+        } catch (DataAccessException e) {
+            slots.release();
+            throw e;
+        }
+        Run run = launch(job);
+
+        logger.info("Resuming WITS backfill {} at lookup {} of {}", jobId, job.getNextIndex(), job.getTotalLookups());
+        return run.toResponse();
+    }
+
+    /**
+     * Live progress of a job running here, else its last checkpoint. A job stored as queued or
+     * running that is not running here was interrupted, and is reported as INTERRUPTED.
+     */
+    public WitsBackfillJobResponse getJob(String jobId) {
+        Run run = jobId == null ? null : active.get(jobId);
+        if (run != null) {
+            return run.toResponse();
+        }
+        WitsBackfillJobEntity job = jobId == null ? null : jobRepository.find(jobId);
+        if (job == null) {
+            throw new WitsBackfillJobNotFoundException(jobId);
+        }
+        WitsBackfillJobResponse response = new Run(job).toResponse();
+        if (WitsBackfillJobEntity.STATUS_QUEUED.equals(job.getStatus())
+                || WitsBackfillJobEntity.STATUS_RUNNING.equals(job.getStatus())) {
+            response.setStatus(WitsBackfillJobEntity.STATUS_INTERRUPTED);
+        }
+        return response;
+    }
+
+    private void acquireSlot() {
+        if (!slots.tryAcquire()) {
+            throw new WitsBackfillRejectedException("A WITS backfill is already running; wait for it to finish");
+        }
+    }
+
+    /**
+     * Hand a stored job to the executor; the caller holds the slot, which the run releases
+     */
+    private Run launch(WitsBackfillJobEntity job) {
+        Run run = new Run(job);
+        active.put(job.getJobId(), run);
+        try {
+            executor.execute(() -> run(run));
+        } catch (RejectedExecutionException e) {
+            active.remove(job.getJobId());
+            slots.release();
+            throw new WitsBackfillRejectedException("WITS backfill could not be scheduled; resume it later");
+        }
+        return run;
+    }
+
+    private void run(Run run) {
+        WitsBackfillJobEntity job = run.job;
+        long start = System.nanoTime();
+        long firstIndex = job.getNextIndex();
+        try {
+            synchronized (job) {
+                job.setStatus(WitsBackfillJobEntity.STATUS_RUNNING);
+                job.setUpdatedAt(LocalDateTime.now());
+            }
+            jobRepository.update(job);
+
+            // Batches are written on this thread; closing the stream cancels outstanding lookups
+            try (Stream<List<Outcome>> batches = lookups(run).buffer(batchSize).toStream(1)) {
+                batches.forEach(batch -> write(run, batch));
+            }
+
+            finish(run, WitsBackfillJobEntity.STATUS_COMPLETED, null);
+            logger.info("WITS backfill {} completed: {} lookups, {} rows written, {} without a rate, {} failed in {} ms",
+                    job.getJobId(), job.getNextIndex() - firstIndex, job.getRowsWritten(), job.getNoRate(),
+                    job.getFailed(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            finish(run, WitsBackfillJobEntity.STATUS_FAILED, e.getMessage());
+            logger.error("WITS backfill {} failed at checkpoint {}: {}", job.getJobId(), job.getNextIndex(), e.getMessage(), e);
+        } finally {
+            active.remove(job.getJobId());
+            slots.release();
+        }
+    }
+
+    /**
+     * The job's remaining lookups, paced and fanned out, in index order
+     */
+    private Flux<Outcome> lookups(Run run) {
+        WitsBackfillJobEntity job = run.job;
+        Flux<Long> indexes = Flux.fromStream(() -> LongStream.range(job.getNextIndex(), job.getTotalLookups()).boxed());
+        if (!requestInterval.isZero()) {
+            indexes = indexes.delayElements(requestInterval);
+        }
+        return indexes.flatMapSequential(index -> lookup(job, index)
+                .doOnNext(outcome -> run.lookupsCompleted.incrementAndGet()), concurrency);
+    }
+
+    private Mono<Outcome> lookup(WitsBackfillJobEntity job, long index) {
+        // Year varies fastest, then product, partner and reporter
+        long rest = index;
+        int years = job.getToYear() - job.getFromYear() + 1;
+        String year = String.valueOf(job.getFromYear() + (int) (rest % years));
+        rest /= years;
+        Integer product = job.getProducts().get((int) (rest % job.getProducts().size()));
+        rest /= job.getProducts().size();
+        String partner = job.getPartners().get((int) (rest % job.getPartners().size()));
+        rest /= job.getPartners().size();
+        String reporter = job.getReporters().get((int) rest);
+
+        return witsApiService.getTariffRate(reporter, partner, product, year)
+            .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                .filter(WitsApiException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .map(response -> new Outcome(toRow(response), false))
+            .onErrorResume(WitsDataNotFoundException.class, e -> Mono.just(Outcome.NO_RATE))
+            .onErrorResume(e -> {
+                logger.warn("WITS backfill {}: lookup failed for reporter={}, partner={}, product={}, year={}: {}",
+                        job.getJobId(), reporter, partner, product, year, e.getMessage());
+                return Mono.just(Outcome.FAILED);
+            });
+    }
+
+    /**
+     * Upsert a batch's rates, then move the checkpoint past it; fail the job instead if too many
+     * of its lookups failed
+     */
+    private void write(Run run, List<Outcome> batch) {
+        WitsBackfillJobEntity job = run.job;
+        List<TariffRateEntity> rows = new ArrayList<>(batch.size());
+        long noRate = 0;
+        long failed = 0;
+        for (Outcome outcome : batch) {
+            if (outcome.row() != null) {
+                rows.add(outcome.row());
+            } else if (outcome.failed()) {
+                failed++;
+            } else {
+                noRate++;
+            }
+        }
+        if (failed > maxFailureRate * batch.size()) {
+            throw new WitsApiException(String.format(
+                    "%d of %d WITS lookups failed in the batch starting at lookup %d; resume the job once WITS recovers",
+                    failed, batch.size(), job.getNextIndex()), HttpStatus.BAD_GATEWAY.value());
+        }
+        if (!rows.isEmpty()) {
+            tariffRepository.upsertAll(rows);
+        }
+
+        synchronized (job) {
+            job.setNextIndex(job.getNextIndex() + batch.size());
+            job.setRowsWritten(job.getRowsWritten() + rows.size());
+            job.setNoRate(job.getNoRate() + noRate);
+            job.setFailed(job.getFailed() + failed);
+            job.setUpdatedAt(LocalDateTime.now());
+        }
+        jobRepository.update(job);
+    }
+
+    private void finish(Run run, String status, String message) {
+        WitsBackfillJobEntity job = run.job;
+        synchronized (job) {
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(status);
+            job.setMessage(message);
+            job.setUpdatedAt(now);
+            job.setFinishedAt(now);
+        }
+        try {
+            jobRepository.update(job);
+        } catch (DataAccessException e) {
+            // The stored row keeps its last checkpoint and reads as interrupted, so it can still be resumed
+            logger.error("Could not store final status of WITS backfill {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Row for a lookup's representative rate (see WitsRates). Null when there is no rate
+     * TariffRates can hold; such lookups are counted as noRate.
+     */
+    private static TariffRateEntity toRow(WitsTariffRateResponse response) {
+        Double rate = WitsRates.representativeRate(response);
+        if (rate == null || !WitsRates.isPersistable(rate)) {
+            return null;
+        }
+        TariffRateEntity row = new TariffRateEntity();
+        row.setCountryIsoNumeric(response.getReporter());
+        row.setPartnerIsoNumeric(response.getPartner());
+        row.setProductHsCode(response.getProduct());
+        row.setYear(response.getYear());
+        row.setRate(rate);
+        row.setUnit(WitsRates.UNIT_PERCENT);
+        return row;
+    }
+
+    private static <T> List<T> distinct(List<T> values) {
+        return List.copyOf(new LinkedHashSet<>(values));
+    }
+
+    /**
+     * Result of one lookup: the row to upsert, or none because WITS had no usable rate or the lookup failed
+     */
+    private record Outcome(TariffRateEntity row, boolean failed) {
+        static final Outcome NO_RATE = new Outcome(null, false);
+        static final Outcome FAILED = new Outcome(null, true);
+    }
+
+    /**
+     * A job being run here: its entity (mutated under its own lock) and lookups finished so far,
+     * which runs ahead of the checkpoint by up to one batch
+     */
+    private static final class Run {
+        final WitsBackfillJobEntity job;
+        final AtomicLong lookupsCompleted;
+
+        Run(WitsBackfillJobEntity job) {
+            this.job = job;
+            this.lookupsCompleted = new AtomicLong(job.getNextIndex());
+        }
+
+        WitsBackfillJobResponse toResponse() {
+            synchronized (job) {
+                long completed = Math.max(lookupsCompleted.get(), job.getNextIndex());
+                WitsBackfillJobResponse response = new WitsBackfillJobResponse();
+                response.setJobId(job.getJobId());
+                response.setStatus(job.getStatus());
+                response.setTotalLookups(job.getTotalLookups());
+                response.setLookupsCompleted(completed);
+                response.setLookupsCheckpointed(job.getNextIndex());
+                response.setPercentComplete(job.getTotalLookups() == 0
+                        ? 100.0 : Math.floor(completed * 1000.0 / job.getTotalLookups()) / 10.0);
+                response.setRowsWritten(job.getRowsWritten());
+                response.setNoRate(job.getNoRate());
+                response.setFailed(job.getFailed());
+                response.setMessage(job.getMessage());
+                response.setCreatedAt(job.getCreatedAt());
+                response.setUpdatedAt(job.getUpdatedAt());
+                response.setFinishedAt(job.getFinishedAt());
+                return response;
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import reactor.core.publisher.Mono;
+
 @RestController
 @RequestMapping("/api/v1/wits")
 @Tag(name = "WITS Tariff Data", description = "Access tariff data from World Bank WITS (World Integrated Trade Solution)")
@@ -83,12 +85,12 @@ public class WitsController {
         ),
         @ApiResponse(
             responseCode = "502",
-            description = "Error communicating with WITS API",
+            description = "Error communicating with WITS API, or WITS did not answer within app.wits.timeoutMs",
             content = @Content(mediaType = "application/json")
         )
     })
     @GetMapping("/tariff-rates/{reporter}/{partner}/{product}/{year}")
-    public ResponseEntity<WitsTariffRateResponse> getTariffRate(
+    public Mono<ResponseEntity<WitsTariffRateResponse>> getTariffRate(
             @Parameter(
                 description = "Reporting (importing) country - ISO 3-digit numeric code (e.g., '840' for USA, '356' for India)",
                 example = "840",
@@ -118,9 +120,10 @@ public class WitsController {
             @PathVariable String year
     ) {
         logger.info("GET /api/v1/wits/tariff-rates/{}/{}/{}/{}", reporter, partner, product, year);
-        
-        WitsTariffRateResponse response = witsService.getTariffRate(reporter, partner, product, year);
-        return ResponseEntity.ok(response);
+
+        // Returned unresolved: the servlet thread is released while WITS answers
+        return witsService.getTariffRate(reporter, partner, product, year)
+                .map(ResponseEntity::ok);
     }
 
     @Operation(
@@ -148,15 +151,15 @@ public class WitsController {
         )
     })
     @GetMapping("/tariff-rates/{reporter}/{partner}/{product}/{year}/raw")
-    public ResponseEntity<String> getRawTariffData(
+    public Mono<ResponseEntity<String>> getRawTariffData(
             @PathVariable String reporter,
             @PathVariable String partner,
             @PathVariable Integer product,
             @PathVariable String year
     ) {
         logger.info("GET /api/v1/wits/tariff-rates/{}/{}/{}/{}/raw", reporter, partner, product, year);
-        
-        String rawData = witsService.getRawTariffData(reporter, partner, product, year);
-        return ResponseEntity.ok(rawData);
+
+        return witsService.getRawTariffData(reporter, partner, product, year)
+                .map(ResponseEntity::ok);
     }
 }
\ No newline at end of file
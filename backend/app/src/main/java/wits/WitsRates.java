@@ -0,0 +1,54 @@
+package wits;
+
+import database.tariffs.util.TariffDataTransformer;
+import wits.dto.WitsTariffRateResponse;
+
+/**
+ * Conversion of WITS lookups to TariffRates rates, shared by the calculator's resolution and the
+ * backfill so both store the same value for the same response.
+ *
+ * WITS reports min/max/average ad-valorem rates as strings; the simple average is the
+ * representative rate, falling back to min and then max when it is missing or not a number.
+ */
+public final class WitsRates {
+    /** Unit of every WITS rate */
+    public static final String UNIT_PERCENT = "percent";
+
+    private WitsRates() {}
+
+    /**
+     * @return the representative rate of a lookup, or null if none of its rates parses
+     */
+    public static Double representativeRate(WitsTariffRateResponse response) {
+        Double rate = parseRate(response.getAvgRate());
+        if (rate == null) {
+            rate = parseRate(response.getMinRate());
+        }
+        if (rate == null) {
+            rate = parseRate(response.getMaxRate());
+        }
+        return rate;
+    }
+
+    /**
+     * Whether TariffRates.rate (DECIMAL(6,3), non-negative) can hold the rate
+     */
+    public static boolean isPersistable(double rate) {
+        return rate >= 0 && rate <= TariffDataTransformer.MAX_RATE;
+    }
+
+    /**
+     * @return the finite number in value, or null if it is blank or not one
+     */
+    public static Double parseRate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            double rate = Double.parseDouble(value.trim());
+            return Double.isFinite(rate) ? rate : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
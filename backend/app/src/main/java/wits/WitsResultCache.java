@@ -0,0 +1,123 @@
+package wits;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import wits.entity.WitsResultEntity;
+import wits.repository.WitsResultRepository;
+
+/**
+ * Two-level cache of WITS lookups: a bounded in-memory LRU in front of wto_tariffs.WitsResults.
+ *
+ * Tariffs for a past year never change, so those results are fresh forever. Results for the
+ * current or a future year are fresh for currentYearTtlMinutes after they were fetched. "No data"
+ * results of any year expire after noDataTtlMinutes, since WITS keeps adding reported data.
+ * Stale entries are still returned by peek/load so a caller can fall back to them when
+ * WITS is unavailable; use isFresh to decide whether to refetch.
+ *
+ * Database errors are logged and treated as a miss (on read) or skipped (on write), so the cache
+ * can never fail a lookup that WITS itself could answer.
+ */
+@Component
+public class WitsResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(WitsResultCache.class);
+
+    private final WitsResultRepository repository;
+    private final Duration currentYearTtl;
+    private final Duration noDataTtl;
+    private final Map<String, WitsResultEntity> memory;
+
+    public WitsResultCache(
+            WitsResultRepository repository,
+            @Value("${app.wits.cache.currentYearTtlMinutes:1440}") long currentYearTtlMinutes,
+            @Value("${app.wits.cache.noDataTtlMinutes:10080}") long noDataTtlMinutes,
+            @Value("${app.wits.cache.maxEntries:10000}") int maxEntries) {
+        this.repository = repository;
+        this.currentYearTtl = Duration.ofMinutes(currentYearTtlMinutes);
+        this.noDataTtl = Duration.ofMinutes(noDataTtlMinutes);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WitsResultEntity> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The in-memory entry for a lookup, fresh or not; never touches the database
+     */
+    public WitsResultEntity peek(String reporter, String partner, Integer product, String year) {
+        synchronized (memory) {
+            return memory.get(key(reporter, partner, product, year));
+        }
+    }
+
+    /**
+     * The stored entry for a lookup, fresh or not, or null; blocking, keeps it in memory
+     */
+    public WitsResultEntity load(String reporter, String partner, Integer product, String year) {
+        WitsResultEntity entity;
+        try {
+            entity = repository.find(reporter, partner, product, year);
+        } catch (DataAccessException e) {
+            logger.warn("WITS result cache unavailable, treating as miss: {}", e.getMessage());
+            return null;
+        }
+        if (entity != null) {
+            remember(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Store a result in memory and in the database; blocking
+     */
+    public void save(WitsResultEntity entity) {
+        remember(entity);
+        try {
+            repository.save(entity);
+        } catch (DataAccessException e) {
+            logger.warn("Could not persist WITS result, keeping it in memory only: {}", e.getMessage());
+        }
+    }
+
+    public boolean isFresh(WitsResultEntity entity) {
+        if (!entity.isDataAvailable() && !entity.getFetchedAt().plus(noDataTtl).isAfter(Instant.now())) {
+            return false;
+        }
+        if (isPastYear(entity.getYear())) {
+            return true;
+        }
+        return entity.getFetchedAt().plus(currentYearTtl).isAfter(Instant.now());
+    }
+
+    private void remember(WitsResultEntity entity) {
+        synchronized (memory) {
+            memory.put(key(entity.getReporter(), entity.getPartner(), entity.getProduct(), entity.getYear()), entity);
+        }
+    }
+
+    /**
+     * Only a well-formed year before the current one is settled; anything else follows the TTL
+     */
+    private static boolean isPastYear(String year) {
+        try {
+            return Integer.parseInt(year) < Year.now().getValue();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String key(String reporter, String partner, Integer product, String year) {
+        return reporter + '|' + partner + '|' + product + '|' + year;
+    }
+}
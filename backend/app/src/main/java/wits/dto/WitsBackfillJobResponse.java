@@ -0,0 +1,91 @@
+package wits.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WitsBackfillJobResponse {
+
+    @JsonProperty("jobId")
+    private String jobId;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("totalLookups")
+    private long totalLookups;
+
+    @JsonProperty("lookupsCompleted")
+    private long lookupsCompleted;
+
+    @JsonProperty("lookupsCheckpointed")
+    private long lookupsCheckpointed;
+
+    @JsonProperty("percentComplete")
+    private double percentComplete;
+
+    @JsonProperty("rowsWritten")
+    private long rowsWritten;
+
+    @JsonProperty("noRate")
+    private long noRate;
+
+    @JsonProperty("failed")
+    private long failed;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("createdAt")
+    private LocalDateTime createdAt;
+
+    @JsonProperty("updatedAt")
+    private LocalDateTime updatedAt;
+
+    @JsonProperty("finishedAt")
+    private LocalDateTime finishedAt;
+
+    public WitsBackfillJobResponse() {
+    }
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getTotalLookups() { return totalLookups; }
+    public void setTotalLookups(long totalLookups) { this.totalLookups = totalLookups; }
+
+    public long getLookupsCompleted() { return lookupsCompleted; }
+    public void setLookupsCompleted(long lookupsCompleted) { this.lookupsCompleted = lookupsCompleted; }
+
+    public long getLookupsCheckpointed() { return lookupsCheckpointed; }
+    public void setLookupsCheckpointed(long lookupsCheckpointed) { this.lookupsCheckpointed = lookupsCheckpointed; }
+
+    public double getPercentComplete() { return percentComplete; }
+    public void setPercentComplete(double percentComplete) { this.percentComplete = percentComplete; }
+
+    public long getRowsWritten() { return rowsWritten; }
+    public void setRowsWritten(long rowsWritten) { this.rowsWritten = rowsWritten; }
+
+    public long getNoRate() { return noRate; }
+    public void setNoRate(long noRate) { this.noRate = noRate; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,55 @@
+package wits.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.*;
+
+public class WitsBackfillRequest {
+
+    @NotEmpty(message = "At least one reporter is required")
+    private List<@NotBlank(message = "Reporter must not be blank") String> reporters;
+
+    @NotEmpty(message = "At least one partner is required")
+    private List<@NotBlank(message = "Partner must not be blank") String> partners;
+
+    @NotEmpty(message = "At least one product is required")
+    private List<@NotNull(message = "Product must not be null") Integer> products;
+
+    @NotNull(message = "fromYear is required")
+    @Min(value = 1000, message = "fromYear must be 4 digits")
+    @Max(value = 9999, message = "fromYear must be 4 digits")
+    private Integer fromYear;
+
+    @NotNull(message = "toYear is required")
+    @Min(value = 1000, message = "toYear must be 4 digits")
+    @Max(value = 9999, message = "toYear must be 4 digits")
+    private Integer toYear;
+
+    // Constructors
+    public WitsBackfillRequest() {}
+
+    public WitsBackfillRequest(List<String> reporters, List<String> partners, List<Integer> products,
+                               Integer fromYear, Integer toYear) {
+        this.reporters = reporters;
+        this.partners = partners;
+        this.products = products;
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+    }
+
+    // Getters and Setters
+    public List<String> getReporters() { return reporters; }
+    public void setReporters(List<String> reporters) { this.reporters = reporters; }
+
+    public List<String> getPartners() { return partners; }
+    public void setPartners(List<String> partners) { this.partners = partners; }
+
+    public List<Integer> getProducts() { return products; }
+    public void setProducts(List<Integer> products) { this.products = products; }
+
+    public Integer getFromYear() { return fromYear; }
+    public void setFromYear(Integer fromYear) { this.fromYear = fromYear; }
+
+    public Integer getToYear() { return toYear; }
+    public void setToYear(Integer toYear) { this.toYear = toYear; }
+}
@@ -0,0 +1,87 @@
+package wits.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One WITS backfill job: the lookup space it walks and its last checkpoint.
+ *
+ * Lookups are numbered 0..totalLookups-1 over reporters x partners x products x years, with the
+ * year varying fastest; nextIndex is the first lookup not yet committed.
+ */
+public class WitsBackfillJobEntity {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    // Never stored: a QUEUED or RUNNING job that is not running in this instance
+    public static final String STATUS_INTERRUPTED = "INTERRUPTED";
+
+    private String jobId;
+    private List<String> reporters;
+    private List<String> partners;
+    private List<Integer> products;
+    private int fromYear;
+    private int toYear;
+    private String status;
+    private long totalLookups;
+    private long nextIndex;
+    private long rowsWritten;
+    private long noRate;
+    private long failed;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    // Getters and setters
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public List<String> getReporters() { return reporters; }
+    public void setReporters(List<String> reporters) { this.reporters = reporters; }
+
+    public List<String> getPartners() { return partners; }
+    public void setPartners(List<String> partners) { this.partners = partners; }
+
+    public List<Integer> getProducts() { return products; }
+    public void setProducts(List<Integer> products) { this.products = products; }
+
+    public int getFromYear() { return fromYear; }
+    public void setFromYear(int fromYear) { this.fromYear = fromYear; }
+
+    public int getToYear() { return toYear; }
+    public void setToYear(int toYear) { this.toYear = toYear; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getTotalLookups() { return totalLookups; }
+    public void setTotalLookups(long totalLookups) { this.totalLookups = totalLookups; }
+
+    public long getNextIndex() { return nextIndex; }
+    public void setNextIndex(long nextIndex) { this.nextIndex = nextIndex; }
+
+    public long getRowsWritten() { return rowsWritten; }
+    public void setRowsWritten(long rowsWritten) { this.rowsWritten = rowsWritten; }
+
+    public long getNoRate() { return noRate; }
+    public void setNoRate(long noRate) { this.noRate = noRate; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
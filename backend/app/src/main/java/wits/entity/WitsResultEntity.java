@@ -0,0 +1,55 @@
+package wits.entity;
+
+import java.time.Instant;
+
+/**
+ * One cached WITS lookup: the rates as reported, or dataAvailable = false for a definitive
+ * "no data" answer, with where and when it was fetched
+ */
+public class WitsResultEntity {
+
+    public static final String SOURCE_WITS = "WITS";
+
+    private String reporter;
+    private String partner;
+    private Integer product;
+    private String year;
+    private boolean dataAvailable;
+    private String minRate;
+    private String maxRate;
+    private String avgRate;
+    private String source;
+    private Instant fetchedAt;
+
+    // Getters and setters
+
+    public String getReporter() { return reporter; }
+    public void setReporter(String reporter) { this.reporter = reporter; }
+
+    public String getPartner() { return partner; }
+    public void setPartner(String partner) { this.partner = partner; }
+
+    public Integer getProduct() { return product; }
+    public void setProduct(Integer product) { this.product = product; }
+
+    public String getYear() { return year; }
+    public void setYear(String year) { this.year = year; }
+
+    public boolean isDataAvailable() { return dataAvailable; }
+    public void setDataAvailable(boolean dataAvailable) { this.dataAvailable = dataAvailable; }
+
+    public String getMinRate() { return minRate; }
+    public void setMinRate(String minRate) { this.minRate = minRate; }
+
+    public String getMaxRate() { return maxRate; }
+    public void setMaxRate(String maxRate) { this.maxRate = maxRate; }
+
+    public String getAvgRate() { return avgRate; }
+    public void setAvgRate(String avgRate) { this.avgRate = avgRate; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+}
@@ -0,0 +1,12 @@
+package wits.exception;
+
+public class WitsBackfillJobNotFoundException extends RuntimeException {
+    private String jobId;
+
+    public WitsBackfillJobNotFoundException(String jobId) {
+        super("WITS backfill job not found: " + jobId);
+        this.jobId = jobId;
+    }
+
+    public String getJobId() { return jobId; }
+}
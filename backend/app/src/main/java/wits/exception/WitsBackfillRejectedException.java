@@ -0,0 +1,8 @@
+package wits.exception;
+
+public class WitsBackfillRejectedException extends RuntimeException {
+
+    public WitsBackfillRejectedException(String message) {
+        super(message);
+    }
+}
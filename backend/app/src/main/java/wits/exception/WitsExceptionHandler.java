@@ -44,4 +44,34 @@ public class WitsExceptionHandler {
         );
         return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(WitsBackfillJobNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleWitsBackfillJobNotFound(
+            WitsBackfillJobNotFoundException ex, WebRequest request) {
+        logger.warn("WITS backfill job not found: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.NOT_FOUND.value(),
+            "Not Found",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(WitsBackfillRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handleWitsBackfillRejected(
+            WitsBackfillRejectedException ex, WebRequest request) {
+        logger.warn("WITS backfill rejected: {}", ex.getMessage());
+
+        ApiErrorResponse error = new ApiErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+}
@@ -0,0 +1,135 @@
+package wits.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import wits.entity.WitsBackfillJobEntity;
+
+/**
+ * JDBC access to wto_tariffs.WitsBackfillJobs, where backfill jobs keep their checkpoints
+ */
+@Repository
+public class WitsBackfillJobRepository {
+    private static final Logger logger = LoggerFactory.getLogger(WitsBackfillJobRepository.class);
+
+    private static final String LIST_SEPARATOR = ",";
+
+    private static final String FIND_SQL = """
+        SELECT `job_id`, `reporters`, `partners`, `products`, `from_year`, `to_year`, `status`,
+               `total_lookups`, `next_index`, `rows_written`, `no_rate`, `failed`, `message`,
+               `created_at`, `updated_at`, `finished_at`
+        FROM `wto_tariffs`.`WitsBackfillJobs`
+        WHERE `job_id` = ?
+    """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO `wto_tariffs`.`WitsBackfillJobs` (
+            `job_id`, `reporters`, `partners`, `products`, `from_year`, `to_year`, `status`,
+            `total_lookups`, `next_index`, `rows_written`, `no_rate`, `failed`, `message`,
+            `created_at`, `updated_at`, `finished_at`
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String UPDATE_SQL = """
+        UPDATE `wto_tariffs`.`WitsBackfillJobs`
+        SET `status` = ?, `next_index` = ?, `rows_written` = ?, `no_rate` = ?, `failed` = ?,
+            `message` = ?, `updated_at` = ?, `finished_at` = ?
+        WHERE `job_id` = ?
+    """;
+
+    private static final RowMapper<WitsBackfillJobEntity> ROW_MAPPER = (rs, rowNum) -> {
+        WitsBackfillJobEntity job = new WitsBackfillJobEntity();
+        job.setJobId(rs.getString("job_id"));
+        job.setReporters(split(rs.getString("reporters")));
+        job.setPartners(split(rs.getString("partners")));
+        job.setProducts(split(rs.getString("products")).stream().map(Integer::valueOf).toList());
+        job.setFromYear(rs.getInt("from_year"));
+        job.setToYear(rs.getInt("to_year"));
+        job.setStatus(rs.getString("status"));
+        job.setTotalLookups(rs.getLong("total_lookups"));
+        job.setNextIndex(rs.getLong("next_index"));
+        job.setRowsWritten(rs.getLong("rows_written"));
+        job.setNoRate(rs.getLong("no_rate"));
+        job.setFailed(rs.getLong("failed"));
+        job.setMessage(rs.getString("message"));
+        job.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        job.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        job.setFinishedAt(toLocalDateTime(rs.getTimestamp("finished_at")));
+        return job;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WitsBackfillJobRepository(@Qualifier("appJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The stored job, or null if there is none
+     */
+    public WitsBackfillJobEntity find(String jobId) {
+        try {
+            List<WitsBackfillJobEntity> rows = jdbcTemplate.query(FIND_SQL, ROW_MAPPER, jobId);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (DataAccessException e) {
+            logger.error("Database error while reading WITS backfill job {}: {}", jobId, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public void insert(WitsBackfillJobEntity job) {
+        try {
+            jdbcTemplate.update(INSERT_SQL,
+                job.getJobId(), join(job.getReporters()), join(job.getPartners()), join(job.getProducts()),
+                job.getFromYear(), job.getToYear(), job.getStatus(),
+                job.getTotalLookups(), job.getNextIndex(), job.getRowsWritten(), job.getNoRate(), job.getFailed(),
+                job.getMessage(), toTimestamp(job.getCreatedAt()), toTimestamp(job.getUpdatedAt()),
+                toTimestamp(job.getFinishedAt()));
+        } catch (DataAccessException e) {
+            logger.error("Database error while creating WITS backfill job: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Store the job's status, checkpoint and counters
+     */
+    public void update(WitsBackfillJobEntity job) {
+        try {
+            jdbcTemplate.update(UPDATE_SQL,
+                job.getStatus(), job.getNextIndex(), job.getRowsWritten(), job.getNoRate(), job.getFailed(),
+                job.getMessage(), toTimestamp(job.getUpdatedAt()), toTimestamp(job.getFinishedAt()),
+                job.getJobId());
+        } catch (DataAccessException e) {
+            logger.error("Database error while checkpointing WITS backfill job {}: {}", job.getJobId(), e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private static String join(List<?> values) {
+        return values.stream().map(String::valueOf).collect(Collectors.joining(LIST_SEPARATOR));
+    }
+
+    private static List<String> split(String values) {
+        return Arrays.asList(values.split(LIST_SEPARATOR));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp value) {
+        return value == null ? null : value.toLocalDateTime();
+    }
+}
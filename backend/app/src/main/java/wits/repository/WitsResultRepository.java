@@ -0,0 +1,92 @@
+package wits.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import wits.entity.WitsResultEntity;
+
+/**
+ * JDBC access to wto_tariffs.WitsResults, the persistent cache of WITS lookups
+ */
+@Repository
+public class WitsResultRepository {
+    private static final Logger logger = LoggerFactory.getLogger(WitsResultRepository.class);
+
+    private static final String FIND_SQL = """
+        SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `data_available`,
+               `min_rate`, `max_rate`, `avg_rate`, `source`, `fetched_at`
+        FROM `wto_tariffs`.`WitsResults`
+        WHERE `country_id` = ? AND `partner_country_id` = ? AND `product_id` = ? AND `year` = ?
+    """;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO `wto_tariffs`.`WitsResults` (
+            `country_id`, `partner_country_id`, `product_id`, `year`, `data_available`,
+            `min_rate`, `max_rate`, `avg_rate`, `source`, `fetched_at`
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            `data_available` = VALUES(`data_available`),
+            `min_rate` = VALUES(`min_rate`),
+            `max_rate` = VALUES(`max_rate`),
+            `avg_rate` = VALUES(`avg_rate`),
+            `source` = VALUES(`source`),
+            `fetched_at` = VALUES(`fetched_at`)
+    """;
+
+    private static final RowMapper<WitsResultEntity> ROW_MAPPER = (rs, rowNum) -> {
+        WitsResultEntity entity = new WitsResultEntity();
+        entity.setReporter(rs.getString("country_id"));
+        entity.setPartner(rs.getString("partner_country_id"));
+        entity.setProduct(rs.getInt("product_id"));
+        entity.setYear(rs.getString("year"));
+        entity.setDataAvailable(rs.getBoolean("data_available"));
+        entity.setMinRate(rs.getString("min_rate"));
+        entity.setMaxRate(rs.getString("max_rate"));
+        entity.setAvgRate(rs.getString("avg_rate"));
+        entity.setSource(rs.getString("source"));
+        entity.setFetchedAt(rs.getTimestamp("fetched_at").toInstant());
+        return entity;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WitsResultRepository(@Qualifier("appJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The cached result for a lookup, or null if there is none
+     */
+    public WitsResultEntity find(String reporter, String partner, Integer product, String year) {
+        try {
+            List<WitsResultEntity> rows = jdbcTemplate.query(FIND_SQL, ROW_MAPPER, reporter, partner, product, year);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (DataAccessException e) {
+            logger.error("Database error while reading cached WITS result: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Insert or replace the cached result for the entity's key
+     */
+    public void save(WitsResultEntity entity) {
+        try {
+            jdbcTemplate.update(UPSERT_SQL,
+                entity.getReporter(), entity.getPartner(), entity.getProduct(), entity.getYear(),
+                entity.isDataAvailable(), entity.getMinRate(), entity.getMaxRate(), entity.getAvgRate(),
+                entity.getSource(), Timestamp.from(entity.getFetchedAt()));
+        } catch (DataAccessException e) {
+            logger.error("Database error while caching WITS result: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+}
@@ -14,6 +14,9 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+
+import common.concurrent.SingleFlight;
 
 @Service
 public class WtoApiService {
@@ -26,6 +29,7 @@ public class WtoApiService {
     private static final int READ_TIMEOUT_SECONDS = 45;
 
     private final RestTemplate rest;
+    private final SingleFlight<Map<String, String>, ResponseEntity<String>> flights = new SingleFlight<>("WTO");
 
     @Value("${wto.api.key:#{environment.WTO_API_KEY}}")
     private String apiKey;
@@ -37,7 +41,16 @@ public class WtoApiService {
                 .build();
     }
 
+    /**
+     * Call the WTO timeseries API. Overlapping calls with the same effective query (blank
+     * parameters are dropped from the URL, so they do not count) share one upstream request and
+     * its response.
+     */
     public ResponseEntity<String> callWtoApi(Map<String, String> params) {
+        return flights.execute(queryKey(params), () -> fetch(params));
+    }
+
+    private ResponseEntity<String> fetch(Map<String, String> params) {
         try {
             String url = buildUrl(params);
             String safeUrl = maskApiKey(url);
@@ -59,6 +72,19 @@ public class WtoApiService {
         }
     }
 
+    /**
+     * The parameters buildUrl sends, independent of the caller's map type and order
+     */
+    private static Map<String, String> queryKey(Map<String, String> params) {
+        Map<String, String> key = new TreeMap<>();
+        params.forEach((k, v) -> {
+            if (v != null && !v.isBlank()) {
+                key.put(k, v);
+            }
+        });
+        return key;
+    }
+
     /**
      * Build URL with query parameters and API key
      */
@@ -0,0 +1,11 @@
+-- Single-row version of wto_tariffs.TariffRollups (ETag of GET /api/v1/tariffs/rollups)
+-- Rollups are refreshed in the background after tariff writes commit (TariffRollupRefresher); each
+-- refresh bumps this row in its own transaction instead of appending to TariffChangeLog, so a
+-- refresh does not move the TariffRates version. Only the refresher threads write it.
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`TariffRollupVersion` (
+    `id` TINYINT NOT NULL PRIMARY KEY,
+    `version` BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO `wto_tariffs`.`TariffRollupVersion` (`id`, `version`) VALUES (1, 0);
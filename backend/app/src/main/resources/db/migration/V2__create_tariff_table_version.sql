@@ -0,0 +1,9 @@
+-- Single-row monotonic version of wto_tariffs.TariffRates
+-- Bumped by every tariff write after the data change; tariff GET endpoints derive their ETags from it
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`TariffTableVersion` (
+    `id` TINYINT NOT NULL PRIMARY KEY,
+    `version` BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO `wto_tariffs`.`TariffTableVersion` (`id`, `version`) VALUES (1, 0);
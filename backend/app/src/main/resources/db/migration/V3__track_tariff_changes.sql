@@ -0,0 +1,18 @@
+-- Change tracking for wto_tariffs.TariffRates (GET /api/v1/tariffs/changes)
+-- Every write stamps the rows it touches with the table version from TariffTableVersion (V2);
+-- deletes leave a tombstone carrying the version of the delete.
+-- Rows that exist before this migration keep version 0 and are only returned to a full sync.
+
+ALTER TABLE `wto_tariffs`.`TariffRates`
+    ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0,
+    ADD INDEX `idx_tariff_rates_version` (`version`);
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`TariffTombstones` (
+    `country_id` VARCHAR(10) NOT NULL,
+    `partner_country_id` VARCHAR(10) NOT NULL,
+    `product_id` INT NOT NULL,
+    `year` INT NOT NULL,
+    `version` BIGINT NOT NULL,
+    PRIMARY KEY (`country_id`, `partner_country_id`, `product_id`, `year`),
+    INDEX `idx_tariff_tombstones_version` (`version`)
+) ENGINE=InnoDB;
@@ -0,0 +1,6 @@
+-- Covering index for the reporter x partner matrix (GET /api/v1/tariffs/matrix).
+-- The primary key leads with country_id, so filtering on (product_id, year) alone would scan the
+-- whole table; this index answers the matrix query without touching the clustered rows.
+
+ALTER TABLE `wto_tariffs`.`TariffRates`
+    ADD INDEX `idx_tariff_rates_product_year` (`product_id`, `year`, `country_id`, `partner_country_id`, `rate`);
@@ -0,0 +1,35 @@
+-- HS-hierarchy rollups of wto_tariffs.TariffRates (GET /api/v1/tariffs/rollups)
+-- One row per reporter/partner/year and HS heading (level 4, prefix = product_id DIV 100) or
+-- HS chapter (level 2, prefix = product_id DIV 10000). The groups a tariff write touches are
+-- refreshed in the background after it commits (TariffRollupRefresher), so rollups can briefly
+-- trail TariffRates; this migration seeds the table from the existing rows.
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`TariffRollups` (
+    `country_id` VARCHAR(10) NOT NULL,
+    `partner_country_id` VARCHAR(10) NOT NULL,
+    `year` INT NOT NULL,
+    `level` TINYINT NOT NULL,
+    `prefix` INT NOT NULL,
+    `row_count` INT NOT NULL,
+    `rate_sum` DECIMAL(15,3) NOT NULL,
+    `min_rate` DECIMAL(6,3) NOT NULL,
+    `max_rate` DECIMAL(6,3) NOT NULL,
+    PRIMARY KEY (`country_id`, `partner_country_id`, `year`, `level`, `prefix`)
+) ENGINE=InnoDB;
+
+INSERT INTO `wto_tariffs`.`TariffRollups` (
+    `country_id`, `partner_country_id`, `year`, `level`, `prefix`, `row_count`, `rate_sum`, `min_rate`, `max_rate`
+)
+SELECT `country_id`, `partner_country_id`, `year`, 4, `product_id` DIV 100,
+       COUNT(*), SUM(`rate`), MIN(`rate`), MAX(`rate`)
+FROM `wto_tariffs`.`TariffRates`
+GROUP BY `country_id`, `partner_country_id`, `year`, `product_id` DIV 100;
+
+INSERT INTO `wto_tariffs`.`TariffRollups` (
+    `country_id`, `partner_country_id`, `year`, `level`, `prefix`, `row_count`, `rate_sum`, `min_rate`, `max_rate`
+)
+SELECT `country_id`, `partner_country_id`, `year`, 2, `prefix` DIV 100,
+       SUM(`row_count`), SUM(`rate_sum`), MIN(`min_rate`), MAX(`max_rate`)
+FROM `wto_tariffs`.`TariffRollups`
+WHERE `level` = 4
+GROUP BY `country_id`, `partner_country_id`, `year`, `prefix` DIV 100;
@@ -0,0 +1,49 @@
+-- Year partitioning for wto_tariffs.TariffRates
+-- Every query the service issues bounds `year` (point lookups, rollups, the matrix, listings with
+-- yearFrom/yearTo), so RANGE partitions on it let the planner prune to the partitions a query can
+-- touch. MySQL requires the partitioning column in every unique key; the primary key already ends
+-- with `year`. Years from 2031 on land in p_future until it is split with
+-- ALTER TABLE ... REORGANIZE PARTITION `p_future` INTO (...).
+
+ALTER TABLE `wto_tariffs`.`TariffRates`
+PARTITION BY RANGE (`year`) (
+    PARTITION `p_pre2000` VALUES LESS THAN (2000),
+    PARTITION `p2000` VALUES LESS THAN (2001),
+    PARTITION `p2001` VALUES LESS THAN (2002),
+    PARTITION `p2002` VALUES LESS THAN (2003),
+    PARTITION `p2003` VALUES LESS THAN (2004),
+    PARTITION `p2004` VALUES LESS THAN (2005),
+    PARTITION `p2005` VALUES LESS THAN (2006),
+    PARTITION `p2006` VALUES LESS THAN (2007),
+    PARTITION `p2007` VALUES LESS THAN (2008),
+    PARTITION `p2008` VALUES LESS THAN (2009),
+    PARTITION `p2009` VALUES LESS THAN (2010),
+    PARTITION `p2010` VALUES LESS THAN (2011),
+    PARTITION `p2011` VALUES LESS THAN (2012),
+    PARTITION `p2012` VALUES LESS THAN (2013),
+    PARTITION `p2013` VALUES LESS THAN (2014),
+    PARTITION `p2014` VALUES LESS THAN (2015),
+    PARTITION `p2015` VALUES LESS THAN (2016),
+    PARTITION `p2016` VALUES LESS THAN (2017),
+    PARTITION `p2017` VALUES LESS THAN (2018),
+    PARTITION `p2018` VALUES LESS THAN (2019),
+    PARTITION `p2019` VALUES LESS THAN (2020),
+    PARTITION `p2020` VALUES LESS THAN (2021),
+    PARTITION `p2021` VALUES LESS THAN (2022),
+    PARTITION `p2022` VALUES LESS THAN (2023),
+    PARTITION `p2023` VALUES LESS THAN (2024),
+    PARTITION `p2024` VALUES LESS THAN (2025),
+    PARTITION `p2025` VALUES LESS THAN (2026),
+    PARTITION `p2026` VALUES LESS THAN (2027),
+    PARTITION `p2027` VALUES LESS THAN (2028),
+    PARTITION `p2028` VALUES LESS THAN (2029),
+    PARTITION `p2029` VALUES LESS THAN (2030),
+    PARTITION `p2030` VALUES LESS THAN (2031),
+    PARTITION `p_future` VALUES LESS THAN MAXVALUE
+);
+
+-- Covering index for the reporter/partner/year lookups (rollup refresh, listing pages filtered by
+-- reporter and partner). The primary key orders product before year, so those queries read every
+-- year of a product range; this index answers them from one year's slice without the clustered rows.
+ALTER TABLE `wto_tariffs`.`TariffRates`
+    ADD INDEX `idx_tariff_rates_lookup` (`country_id`, `partner_country_id`, `year`, `product_id`, `rate`, `unit`);
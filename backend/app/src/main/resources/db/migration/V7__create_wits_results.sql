@@ -0,0 +1,19 @@
+-- Local cache of World Bank WITS tariff lookups (GET /api/v1/wits/tariff-rates/...)
+-- One row per reporter/partner/product/year with the rates exactly as WITS reported them, or
+-- data_available = FALSE for a definitive "no data" answer. Rows for past years are served
+-- indefinitely; rows for the current year are refetched once fetched_at is older than
+-- app.wits.cache.currentYearTtlMinutes.
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`WitsResults` (
+    `country_id` VARCHAR(10) NOT NULL,
+    `partner_country_id` VARCHAR(10) NOT NULL,
+    `product_id` INT NOT NULL,
+    `year` VARCHAR(10) NOT NULL,
+    `data_available` BOOLEAN NOT NULL,
+    `min_rate` VARCHAR(32) NULL,
+    `max_rate` VARCHAR(32) NULL,
+    `avg_rate` VARCHAR(32) NULL,
+    `source` VARCHAR(20) NOT NULL,
+    `fetched_at` DATETIME(3) NOT NULL,
+    PRIMARY KEY (`country_id`, `partner_country_id`, `product_id`, `year`)
+) ENGINE=InnoDB;
@@ -0,0 +1,23 @@
+-- Admin WITS backfill jobs (POST /api/v1/wits/backfills) and their checkpoints
+-- A job walks reporters x partners x products x years in a fixed order; next_index is the number
+-- of lookups whose results are already upserted into TariffRates, so a resumed job restarts there.
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`WitsBackfillJobs` (
+    `job_id` VARCHAR(36) NOT NULL,
+    `reporters` TEXT NOT NULL,
+    `partners` TEXT NOT NULL,
+    `products` TEXT NOT NULL,
+    `from_year` INT NOT NULL,
+    `to_year` INT NOT NULL,
+    `status` VARCHAR(16) NOT NULL,
+    `total_lookups` BIGINT NOT NULL,
+    `next_index` BIGINT NOT NULL DEFAULT 0,
+    `rows_written` BIGINT NOT NULL DEFAULT 0,
+    `no_rate` BIGINT NOT NULL DEFAULT 0,
+    `failed` BIGINT NOT NULL DEFAULT 0,
+    `message` VARCHAR(1000) NULL,
+    `created_at` DATETIME(3) NOT NULL,
+    `updated_at` DATETIME(3) NOT NULL,
+    `finished_at` DATETIME(3) NULL,
+    PRIMARY KEY (`job_id`)
+) ENGINE=InnoDB;
@@ -0,0 +1,37 @@
+-- Lock-free version allocation for wto_tariffs.TariffRates
+-- Every write used to bump the single TariffTableVersion row (V2) and hold its lock until commit,
+-- which serialized all tariff writes. Writes now stamp their rows with a random `change_id` and
+-- append one TariffChangeLog row as their last statement; its AUTO_INCREMENT `version` is the
+-- version of the write. The change feed joins rows to the log by change id.
+-- Existing stamps become change ids mapped to version stamp + 1, so rows that predate V3
+-- (stamp 0) get a version too and the numbering continues past the old table version. Change
+-- tokens issued before this migration stay valid and re-deliver at most one version.
+
+CREATE TABLE IF NOT EXISTS `wto_tariffs`.`TariffChangeLog` (
+    `version` BIGINT NOT NULL AUTO_INCREMENT,
+    `change_id` BIGINT NOT NULL,
+    `created_at` TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (`version`),
+    UNIQUE KEY `uk_tariff_change_log_change_id` (`change_id`)
+) ENGINE=InnoDB;
+
+ALTER TABLE `wto_tariffs`.`TariffRates`
+    RENAME COLUMN `version` TO `change_id`,
+    RENAME INDEX `idx_tariff_rates_version` TO `idx_tariff_rates_change_id`;
+
+ALTER TABLE `wto_tariffs`.`TariffTombstones`
+    RENAME COLUMN `version` TO `change_id`,
+    RENAME INDEX `idx_tariff_tombstones_version` TO `idx_tariff_tombstones_change_id`;
+
+-- Backdated so the seeded versions count as settled immediately
+INSERT INTO `wto_tariffs`.`TariffChangeLog` (`version`, `change_id`, `created_at`)
+SELECT `stamp` + 1, `stamp`, TIMESTAMP('2000-01-01')
+FROM (
+    SELECT `change_id` AS `stamp` FROM `wto_tariffs`.`TariffRates`
+    UNION
+    SELECT `change_id` FROM `wto_tariffs`.`TariffTombstones`
+    UNION
+    SELECT `version` FROM `wto_tariffs`.`TariffTableVersion`
+) AS `stamps`;
+
+DROP TABLE `wto_tariffs`.`TariffTableVersion`;
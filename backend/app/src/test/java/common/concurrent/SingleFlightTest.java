@@ -0,0 +1,127 @@
+package common.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>("test");
+
+    @Test
+    void execute_concurrentCallers_shareOneCall() throws Exception {
+        // Given - the leader's call stays in flight until every follower has joined
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        try {
+            // When
+            Future<String> leader = pool.submit(() -> flight.execute("k", () -> {
+                upstreamCalls.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "v";
+            }));
+            leaderStarted.await(5, TimeUnit.SECONDS);
+            Future<String> follower1 = pool.submit(() -> flight.execute("k", () -> "other"));
+            Future<String> follower2 = pool.submit(() -> flight.execute("k", () -> "other"));
+            while (flight.getSharedCount() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+            assertThat(follower1.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+            assertThat(follower2.get(5, TimeUnit.SECONDS)).isEqualTo("v");
+            assertThat(upstreamCalls.get()).isEqualTo(1);
+            assertThat(flight.getCallCount()).isEqualTo(1);
+            assertThat(flight.getInFlightCount()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_failure_isRethrownAndNotRemembered() {
+        // Given
+        assertThatThrownBy(() -> flight.execute("k", () -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // When - a later call with the same key
+        String value = flight.execute("k", () -> "recovered");
+
+        // Then
+        assertThat(value).isEqualTo("recovered");
+        assertThat(flight.getCallCount()).isEqualTo(2);
+        assertThat(flight.getSharedCount()).isZero();
+    }
+
+    @Test
+    void executeMono_overlappingSubscribers_shareOneCallAndStartFreshAfterward() {
+        // Given
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> first = flight.executeMono("k", () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.asMono();
+        });
+        Mono<String> second = flight.executeMono("k", () -> Mono.just("other"));
+
+        // When - both subscribe before the upstream answers
+        Mono<String> a = first.cache();
+        Mono<String> b = second.cache();
+        a.subscribe();
+        b.subscribe();
+        upstream.tryEmitValue("v");
+
+        // Then
+        assertThat(a.block(Duration.ofSeconds(5))).isEqualTo("v");
+        assertThat(b.block(Duration.ofSeconds(5))).isEqualTo("v");
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(flight.executeMono("k", () -> Mono.just("fresh")).block()).isEqualTo("fresh");
+    }
+
+    @Test
+    void executeMono_isLazy_andLeaderCancelDoesNotFailFollowers() {
+        // Given
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> leader = flight.executeMono("k", upstream::asMono);
+        assertThat(flight.getCallCount()).isZero();
+
+        // When - the leader's subscriber goes away while a follower waits
+        Disposable leaderSubscription = leader.subscribe();
+        Mono<String> follower = flight.executeMono("k", () -> Mono.just("other")).cache();
+        follower.subscribe();
+        leaderSubscription.dispose();
+        upstream.tryEmitValue("v");
+
+        // Then
+        assertThat(follower.block(Duration.ofSeconds(5))).isEqualTo("v");
+        assertThat(flight.getCallCount()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package database.tariffs;
+
+import database.tariffs.entity.TariffChangeEntity;
+import database.tariffs.entity.TariffRateEntity;
+
+/**
+ * TariffRates rows and change-feed entries for unit tests.
+ *
+ * Overloads that leave out the reporter, partner or product fill in one default key
+ * (REPORTER, PARTNER, PRODUCT); rates are in percent.
+ */
+public final class TariffFixtures {
+    public static final String REPORTER = "702";
+    public static final String PARTNER = "156";
+    public static final Integer PRODUCT = 1001;
+    public static final String YEAR = "2023";
+    public static final Double RATE = 5.0;
+    public static final String UNIT = "percent";
+
+    private TariffFixtures() {}
+
+    public static TariffRateEntity rate(String year, double rate) {
+        return rate(REPORTER, PARTNER, PRODUCT, year, rate);
+    }
+
+    public static TariffRateEntity rate(Integer product, String year, double rate) {
+        return rate(REPORTER, PARTNER, product, year, rate);
+    }
+
+    public static TariffRateEntity rate(String reporter, String partner, Integer product, String year, double rate) {
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(reporter);
+        entity.setPartnerIsoNumeric(partner);
+        entity.setProductHsCode(product);
+        entity.setYear(year);
+        entity.setRate(rate);
+        entity.setUnit(UNIT);
+        return entity;
+    }
+
+    /** An upsert of the default key to RATE */
+    public static TariffChangeEntity change(String year, long version) {
+        return change(PRODUCT, year, version);
+    }
+
+    /** An upsert to RATE */
+    public static TariffChangeEntity change(Integer product, String year, long version) {
+        TariffChangeEntity change = changeOf(product, year, version);
+        change.setRate(RATE);
+        change.setUnit(UNIT);
+        return change;
+    }
+
+    /** A deletion of the default key */
+    public static TariffChangeEntity deletion(String year, long version) {
+        TariffChangeEntity change = changeOf(PRODUCT, year, version);
+        change.setDeleted(true);
+        return change;
+    }
+
+    private static TariffChangeEntity changeOf(Integer product, String year, long version) {
+        TariffChangeEntity change = new TariffChangeEntity();
+        change.setCountryIsoNumeric(REPORTER);
+        change.setPartnerIsoNumeric(PARTNER);
+        change.setProductHsCode(product);
+        change.setYear(year);
+        change.setVersion(version);
+        return change;
+    }
+}
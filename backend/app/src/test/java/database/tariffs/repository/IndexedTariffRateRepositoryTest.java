@@ -0,0 +1,152 @@
+package database.tariffs.repository;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.util.TariffKeyCodec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexedTariffRateRepositoryTest {
+
+    @Mock
+    private TariffRateRepository delegate;
+
+    @Mock
+    private TariffSnapshotStore snapshots;
+
+    @Mock
+    private TariffVersionTracker versions;
+
+    private IndexedTariffRateRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new IndexedTariffRateRepository(delegate, snapshots, versions, true, 1000, 0);
+    }
+
+    @Test
+    void getTariff_secondLookup_servedFromIndex() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, 5.0));
+
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+        TariffRateEntity cached = repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        assertThat(cached.getRate()).isEqualTo(5.0);
+        assertThat(cached.getUnit()).isEqualTo("percent");
+        assertThat(cached.getYear()).isEqualTo(YEAR);
+        verify(delegate, times(1)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void getTariff_miss_isNotCached() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(null);
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNull();
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNull();
+
+        verify(delegate, times(2)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void create_writesThroughToIndex() {
+        repository.create(REPORTER, PARTNER, PRODUCT, YEAR, 7.5, "percent");
+
+        assertThat(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).isTrue();
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR).getRate()).isEqualTo(7.5);
+        verify(delegate).create(REPORTER, PARTNER, PRODUCT, YEAR, 7.5, "percent");
+        verify(delegate, never()).getTariff(any(), any(), any(), any());
+        verify(delegate, never()).exists(any(), any(), any(), any());
+    }
+
+    @Test
+    void update_replacesCachedRate() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, 5.0));
+        when(delegate.update(REPORTER, PARTNER, PRODUCT, YEAR, 9.0, "percent")).thenReturn(1);
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        repository.update(REPORTER, PARTNER, PRODUCT, YEAR, 9.0, "percent");
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR).getRate()).isEqualTo(9.0);
+        verify(delegate, times(1)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void delete_evictsCachedRate() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, 5.0), (TariffRateEntity) null);
+        when(delegate.delete(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(1);
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        repository.delete(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNull();
+        verify(delegate, times(2)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void findByKeys_onlyQueriesKeysMissingFromIndex() {
+        TariffRateEntity cachedKey = rate(YEAR, 5.0);
+        TariffRateEntity missingKey = rate(YEAR, 0.0);
+        missingKey.setYear("2022");
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, 5.0));
+        when(delegate.findByKeys(java.util.List.of(missingKey))).thenReturn(java.util.List.of());
+
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+        java.util.List<TariffRateEntity> found = repository.findByKeys(java.util.List.of(cachedKey, missingKey));
+
+        assertThat(found).extracting(TariffRateEntity::getYear).containsExactly(YEAR);
+        verify(delegate).findByKeys(java.util.List.of(missingKey));
+    }
+
+    @Test
+    void getTariff_indexMiss_servedFromSnapshot() {
+        long key = TariffKeyCodec.pack(REPORTER, PARTNER, PRODUCT, YEAR);
+        when(snapshots.find(REPORTER, PARTNER, PRODUCT, YEAR, key)).thenReturn(rate(YEAR, 4.0));
+
+        TariffRateEntity found = repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        assertThat(found.getRate()).isEqualTo(4.0);
+        verify(delegate, never()).getTariff(any(), any(), any(), any());
+    }
+
+    @Test
+    void update_marksKeyDirtyBeforeAndAfterWrite() {
+        long key = TariffKeyCodec.pack(REPORTER, PARTNER, PRODUCT, YEAR);
+        when(delegate.update(REPORTER, PARTNER, PRODUCT, YEAR, 9.0, "percent")).thenReturn(1);
+
+        repository.update(REPORTER, PARTNER, PRODUCT, YEAR, 9.0, "percent");
+
+        // Once before the statement, once after commit (no transaction here, so immediately)
+        verify(snapshots, times(2)).markDirty(key);
+    }
+
+    @Test
+    void disabled_alwaysDelegates() {
+        repository = new IndexedTariffRateRepository(delegate, snapshots, versions, false, 1000, 0);
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, 5.0));
+
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        verify(delegate, times(2)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void onTariffChanges_evictsChangedKeys() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, 5.0), rate(YEAR, 6.0));
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        // Written on another node, picked up by the version tracker
+        repository.onTariffChanges(java.util.List.of(change(YEAR, 1L)));
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR).getRate()).isEqualTo(6.0);
+        verify(delegate, times(2)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+}
@@ -0,0 +1,154 @@
+package database.tariffs.repository;
+
+import database.tariffs.entity.TariffRateEntity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NegativeCachingTariffRateRepositoryTest {
+
+    @Mock
+    private IndexedTariffRateRepository delegate;
+
+    @Mock
+    private TariffVersionTracker versions;
+
+    private NegativeCachingTariffRateRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = newRepository(true);
+    }
+
+    private NegativeCachingTariffRateRepository newRepository(boolean enabled) {
+        // Run background work inline so tests are deterministic
+        return new NegativeCachingTariffRateRepository(delegate, versions, Runnable::run, enabled,
+                30, 1000, 1000, 0.01, 15);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void tableContains(TariffRateEntity... rows) {
+        doAnswer(invocation -> {
+            Consumer<TariffRateEntity> consumer = invocation.getArgument(0);
+            for (TariffRateEntity row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(delegate).streamAllTariffs(any());
+    }
+
+    @Test
+    void getTariff_repeatedMiss_servedFromMissSet() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(null);
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNull();
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNull();
+
+        verify(delegate, times(1)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void create_invalidatesRecordedMiss() {
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(null, rate(YEAR, RATE));
+
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+        repository.create(REPORTER, PARTNER, PRODUCT, YEAR, 5.0, "percent");
+        TariffRateEntity found = repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        assertThat(found).isNotNull();
+        verify(delegate, times(2)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+
+    @Test
+    void bloomFilter_rejectsKeysNotInTable() {
+        tableContains(rate("2022", RATE));
+        repository.onApplicationReady();
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNull();
+        assertThat(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).isFalse();
+
+        verify(delegate, never()).getTariff(any(), any(), any(), any());
+        verify(delegate, never()).exists(any(), any(), any(), any());
+    }
+
+    @Test
+    void bloomFilter_keysInTableStillQueried() {
+        tableContains(rate(YEAR, RATE));
+        repository.onApplicationReady();
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, RATE));
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNotNull();
+    }
+
+    @Test
+    void bloomFilter_createdKeysBecomeVisible() {
+        tableContains();
+        repository.onApplicationReady();
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, RATE));
+
+        repository.create(REPORTER, PARTNER, PRODUCT, YEAR, 5.0, "percent");
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNotNull();
+    }
+
+    @Test
+    void bloomFilter_keysInsertedOnAnotherNodeBecomeVisible() {
+        tableContains();
+        repository.onApplicationReady();
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, RATE));
+
+        // Picked up from the change feed by the version tracker
+        repository.onTariffChanges(List.of(change(YEAR, 1L)));
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNotNull();
+    }
+
+    @Test
+    void onTariffReset_stopsTrustingBloomFilterUntilRebuilt() {
+        tableContains();
+        repository.onApplicationReady();
+        tableContains(rate(YEAR, RATE));
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(rate(YEAR, RATE));
+
+        repository.onTariffReset();
+
+        assertThat(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).isNotNull();
+    }
+
+    @Test
+    void findByKeys_skipsKnownMissesAndRecordsNewOnes() {
+        TariffRateEntity present = rate("2022", RATE);
+        TariffRateEntity missing = rate(YEAR, RATE);
+        when(delegate.findByKeys(List.of(present, missing))).thenReturn(List.of(present));
+        when(delegate.findByKeys(List.of(present))).thenReturn(List.of(present));
+
+        repository.findByKeys(List.of(present, missing));
+        List<TariffRateEntity> found = repository.findByKeys(List.of(present, missing));
+
+        assertThat(found).containsExactly(present);
+        verify(delegate).findByKeys(List.of(present));
+    }
+
+    @Test
+    void disabled_alwaysDelegates() {
+        repository = newRepository(false);
+        when(delegate.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(null);
+
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+        repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        verify(delegate, times(2)).getTariff(REPORTER, PARTNER, PRODUCT, YEAR);
+    }
+}
@@ -0,0 +1,90 @@
+package database.tariffs.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TariffChangeLogTest {
+
+    private static final String URL = "jdbc:h2:mem:tariffchangelog;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS WTO_TARIFFS";
+
+    private JdbcTemplate jdbcTemplate;
+    private TariffChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS wto_tariffs.TariffChangeLog");
+        jdbcTemplate.execute("""
+            CREATE TABLE wto_tariffs.TariffChangeLog (
+              version     BIGINT        AUTO_INCREMENT PRIMARY KEY,
+              change_id   BIGINT        NOT NULL UNIQUE,
+              created_at  TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+            )
+        """);
+        changeLog = new TariffChangeLog(jdbcTemplate, 10);
+    }
+
+    private void logged(long version, int secondsAgo) {
+        jdbcTemplate.update("INSERT INTO wto_tariffs.TariffChangeLog (version, change_id, created_at) "
+                + "VALUES (?, ?, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)))", version, version, -secondsAgo);
+    }
+
+    @Test
+    void append_allocatesIncreasingVersions() {
+        long first = changeLog.append(changeLog.newChangeId());
+        long second = changeLog.append(changeLog.newChangeId());
+
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(changeLog.stableVersion()).isEqualTo(second);
+    }
+
+    @Test
+    void stableVersion_emptyLog_isZero() {
+        assertThat(changeLog.stableVersion()).isZero();
+    }
+
+    @Test
+    void stableVersion_youngGap_stopsBelowIt() {
+        // Given version 3 is still committing while 4 and 5 already have
+        logged(1, 60);
+        logged(2, 1);
+        logged(4, 1);
+        logged(5, 0);
+
+        // Then readers only trust versions up to 2
+        assertThat(changeLog.stableVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void stableVersion_oldGap_isTreatedAsRolledBack() {
+        // Given version 2 went missing long ago
+        logged(1, 120);
+        logged(3, 60);
+        logged(4, 1);
+
+        assertThat(changeLog.stableVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void stableVersion_youngGapAtStartOfLog_isZero() {
+        logged(2, 1);
+
+        assertThat(changeLog.stableVersion()).isZero();
+    }
+
+    @Test
+    void stableVersion_youngGapBeyondOneScanWindow_isFound() {
+        // Given more young versions than one scan reads, with a gap at the bottom
+        logged(1, 60);
+        for (long version = 3; version <= 250; version++) {
+            logged(version, 1);
+        }
+
+        assertThat(changeLog.stableVersion()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,47 @@
+package database.tariffs.repository;
+
+import database.tariffs.util.TariffKeyCodec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TariffKeyBloomFilterTest {
+
+    @Test
+    void create_sizesFilterForTargetFalsePositiveRate() {
+        TariffKeyBloomFilter filter = TariffKeyBloomFilter.create(1000, 0.01);
+
+        // ~9.6 bits and 7 hashes per key for 1%
+        assertThat(filter.bitCount()).isBetween(9000L, 10100L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void mightContain_neverMissesAddedKeys() {
+        TariffKeyBloomFilter filter = TariffKeyBloomFilter.create(10000, 0.01);
+        for (int product = 0; product < 10000; product++) {
+            filter.put(TariffKeyCodec.pack("840", "356", product, 2020));
+        }
+
+        for (int product = 0; product < 10000; product++) {
+            assertThat(filter.mightContain(TariffKeyCodec.pack("840", "356", product, 2020))).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_falsePositiveRateNearTarget() {
+        TariffKeyBloomFilter filter = TariffKeyBloomFilter.create(10000, 0.01);
+        for (int product = 0; product < 10000; product++) {
+            filter.put(TariffKeyCodec.pack("840", "356", product, 2020));
+        }
+
+        int falsePositives = 0;
+        for (int product = 0; product < 10000; product++) {
+            if (filter.mightContain(TariffKeyCodec.pack("840", "356", product, 2021))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,240 @@
+package database.tariffs.repository;
+
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.mapper.TariffRateRowMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookup and range-scan latency of TariffRates before and after V6 (year partitions plus
+ * idx_tariff_rates_lookup).
+ *
+ * Opt-in, since seeding takes minutes and needs a few GB of heap at the default size:
+ *
+ *   mvn test -Dtest=TariffPartitionBenchmark -Dtariffs.benchmark.rows=10000000
+ *
+ * Runs against in-memory H2 in MySQL mode unless tariffs.benchmark.url points elsewhere. H2 has
+ * no table partitioning, so there the "after" numbers cover the covering index and the year-bounded
+ * SQL only; against MySQL the V6 migration itself is applied between the two runs.
+ */
+@EnabledIfSystemProperty(named = "tariffs.benchmark.rows", matches = "\\d+")
+class TariffPartitionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TariffPartitionBenchmark.class);
+
+    private static final String DEFAULT_URL = "jdbc:h2:mem:tariffbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS WTO_TARIFFS";
+    private static final int REPORTERS = 20;
+    private static final int PARTNERS = 20;
+    private static final int FIRST_YEAR = 2000;
+    private static final int YEARS = 25;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int LOOKUP_KEYS = 500;
+    private static final int PAGE_SIZE = 1000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    // The row-constructor lookup as it was before V6, without the year IN list
+    private static final String LEGACY_LOOKUP_SQL = """
+        SELECT `country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`
+        FROM `wto_tariffs`.`TariffRates`
+        WHERE (`country_id`, `partner_country_id`, `product_id`, `year`) IN (%s)
+    """;
+
+    @Test
+    void lookupAndRangeScan_beforeAndAfterPartitioning() {
+        int rows = Integer.parseInt(System.getProperty("tariffs.benchmark.rows"));
+        int products = Math.max(1, rows / (REPORTERS * PARTNERS * YEARS));
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("tariffs.benchmark.url", DEFAULT_URL),
+                System.getProperty("tariffs.benchmark.user", "sa"),
+                System.getProperty("tariffs.benchmark.password", ""));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // Read-only: no change log or rollup refresher needed
+        TariffRateRepository repository = new TariffRateRepository(jdbcTemplate, null, null, 1000);
+
+        createLegacyTable(jdbcTemplate);
+        seed(jdbcTemplate, products);
+
+        List<List<TariffRateEntity>> keySets = randomKeySets(products, new Random(42));
+        List<TariffFilter> pageFilters = randomPageFilters(new Random(7));
+
+        // Given the pre-V6 table and lookup SQL
+        double[] lookupBefore = time(keySets, keys -> legacyLookup(jdbcTemplate, keys).size());
+        double[] scanBefore = time(pageFilters, filter -> repository.findPage(filter, null, PAGE_SIZE).size());
+        int lookupRowsBefore = legacyLookup(jdbcTemplate, keySets.get(0)).size();
+
+        // When V6 is applied
+        applyV6(jdbcTemplate);
+
+        // Then the repository returns the same rows
+        double[] lookupAfter = time(keySets, keys -> repository.findByKeys(keys).size());
+        double[] scanAfter = time(pageFilters, filter -> repository.findPage(filter, null, PAGE_SIZE).size());
+        assertThat(repository.findByKeys(keySets.get(0))).hasSize(lookupRowsBefore);
+
+        logger.info("TariffRates benchmark, {} rows ({} keys per lookup, {} rows per page)",
+                (long) REPORTERS * PARTNERS * YEARS * products, LOOKUP_KEYS, PAGE_SIZE);
+        report("lookup    before", lookupBefore);
+        report("lookup    after ", lookupAfter);
+        report("rangeScan before", scanBefore);
+        report("rangeScan after ", scanAfter);
+    }
+
+    private static void createLegacyTable(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS `wto_tariffs`.`TariffRates`");
+        jdbcTemplate.execute("""
+            CREATE TABLE `wto_tariffs`.`TariffRates` (
+                `country_id` VARCHAR(10) NOT NULL,
+                `partner_country_id` VARCHAR(10) NOT NULL,
+                `product_id` INT NOT NULL,
+                `year` INT NOT NULL,
+                `rate` DECIMAL(6,3) NOT NULL,
+                `unit` VARCHAR(20) NOT NULL,
+                `version` BIGINT NOT NULL DEFAULT 0,
+                PRIMARY KEY (`country_id`, `partner_country_id`, `product_id`, `year`)
+            )
+        """);
+        jdbcTemplate.execute("CREATE INDEX `idx_tariff_rates_version` ON `wto_tariffs`.`TariffRates` (`version`)");
+        jdbcTemplate.execute("""
+            CREATE INDEX `idx_tariff_rates_product_year`
+            ON `wto_tariffs`.`TariffRates` (`product_id`, `year`, `country_id`, `partner_country_id`, `rate`)
+        """);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int products) {
+        String sql = """
+            INSERT INTO `wto_tariffs`.`TariffRates`
+                (`country_id`, `partner_country_id`, `product_id`, `year`, `rate`, `unit`)
+            VALUES (?, ?, ?, ?, ?, 'percent')
+        """;
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int r = 0; r < REPORTERS; r++) {
+            for (int p = 0; p < PARTNERS; p++) {
+                for (int product = 0; product < products; product++) {
+                    for (int y = 0; y < YEARS; y++) {
+                        batch.add(new Object[] {reporter(r), partner(p), product(product), FIRST_YEAR + y,
+                                (product * 31 + y) % 50 / 2.0});
+                        if (batch.size() == INSERT_BATCH) {
+                            jdbcTemplate.batchUpdate(sql, batch);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private static void applyV6(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if ("MySQL".equalsIgnoreCase(product)) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/migration/V6__partition_tariff_rates_by_year.sql"))
+                    .execute(jdbcTemplate.getDataSource());
+            return;
+        }
+        jdbcTemplate.execute("""
+            CREATE INDEX `idx_tariff_rates_lookup` ON `wto_tariffs`.`TariffRates`
+                (`country_id`, `partner_country_id`, `year`, `product_id`, `rate`, `unit`)
+        """);
+    }
+
+    /** Lookups as the calculator issues them: one reporter/partner pair, a year or two */
+    private static List<List<TariffRateEntity>> randomKeySets(int products, Random random) {
+        List<List<TariffRateEntity>> sets = new ArrayList<>();
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            String reporter = reporter(random.nextInt(REPORTERS));
+            String partner = partner(random.nextInt(PARTNERS));
+            int year = FIRST_YEAR + random.nextInt(YEARS - 1);
+            List<TariffRateEntity> keys = new ArrayList<>(LOOKUP_KEYS);
+            for (int k = 0; k < LOOKUP_KEYS; k++) {
+                TariffRateEntity key = new TariffRateEntity();
+                key.setCountryIsoNumeric(reporter);
+                key.setPartnerIsoNumeric(partner);
+                key.setProductHsCode(product(random.nextInt(products)));
+                key.setYear(String.valueOf(year + random.nextInt(2)));
+                keys.add(key);
+            }
+            sets.add(keys);
+        }
+        return sets;
+    }
+
+    /** Listing pages for one reporter/partner pair over a three-year window */
+    private static List<TariffFilter> randomPageFilters(Random random) {
+        List<TariffFilter> filters = new ArrayList<>();
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            int yearFrom = FIRST_YEAR + random.nextInt(YEARS - 2);
+            filters.add(new TariffFilter(reporter(random.nextInt(REPORTERS)), partner(random.nextInt(PARTNERS)),
+                    null, yearFrom, yearFrom + 2));
+        }
+        return filters;
+    }
+
+    private static List<TariffRateEntity> legacyLookup(JdbcTemplate jdbcTemplate, List<TariffRateEntity> keys) {
+        List<Object> params = new ArrayList<>(keys.size() * 4);
+        for (TariffRateEntity key : keys) {
+            params.add(key.getCountryIsoNumeric());
+            params.add(key.getPartnerIsoNumeric());
+            params.add(key.getProductHsCode());
+            params.add(Integer.parseInt(key.getYear()));
+        }
+        String tuples = String.join(", ", Collections.nCopies(keys.size(), "(?, ?, ?, ?)"));
+        return jdbcTemplate.query(LEGACY_LOOKUP_SQL.formatted(tuples),
+                new TariffRateRowMapper(), params.toArray());
+    }
+
+    /** Run each input once, discarding the first WARMUP timings; returns sorted microseconds */
+    private static <T> double[] time(List<T> inputs, ToIntFunction<T> query) {
+        double[] micros = new double[ITERATIONS];
+        long sink = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            long start = System.nanoTime();
+            sink += query.applyAsInt(inputs.get(i));
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP) {
+                micros[i - WARMUP] = elapsed / 1_000.0;
+            }
+        }
+        assertThat(sink).isPositive();
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    private static void report(String label, double[] sortedMicros) {
+        logger.info("{}: p50={} us, p95={} us", label,
+                Math.round(sortedMicros[sortedMicros.length / 2]),
+                Math.round(sortedMicros[(int) (sortedMicros.length * 0.95)]));
+    }
+
+    private static String reporter(int i) {
+        return String.valueOf(100 + i);
+    }
+
+    private static String partner(int i) {
+        return String.valueOf(500 + i);
+    }
+
+    private static int product(int i) {
+        return 10_000 + i * 7;
+    }
+}
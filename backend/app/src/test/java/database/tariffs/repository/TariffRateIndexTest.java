@@ -0,0 +1,133 @@
+package database.tariffs.repository;
+
+import database.tariffs.util.TariffKeyCodec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TariffRateIndexTest {
+
+    @Test
+    void pack_roundTripsAllComponents() {
+        long key = TariffKeyCodec.pack("840", "356", 100630, "2020");
+
+        assertThat(key).isNotEqualTo(TariffKeyCodec.NO_KEY);
+        assertThat(TariffKeyCodec.reporterOf(key)).isEqualTo("840");
+        assertThat(TariffKeyCodec.partnerOf(key)).isEqualTo("356");
+        assertThat(TariffKeyCodec.productOf(key)).isEqualTo(100630);
+        assertThat(TariffKeyCodec.yearOf(key)).isEqualTo(2020);
+    }
+
+    @Test
+    void pack_distinguishesLeadingZeros() {
+        assertThat(TariffKeyCodec.pack("040", "000", 1, "2020"))
+                .isNotEqualTo(TariffKeyCodec.pack("40", "000", 1, "2020"));
+        assertThat(TariffKeyCodec.reporterOf(TariffKeyCodec.pack("040", "000", 1, "2020"))).isEqualTo("040");
+    }
+
+    @Test
+    void pack_outOfRangeComponents_returnsNoKey() {
+        assertThat(TariffKeyCodec.pack("usa", "356", 100630, "2020")).isEqualTo(TariffKeyCodec.NO_KEY);
+        assertThat(TariffKeyCodec.pack("8400", "356", 100630, "2020")).isEqualTo(TariffKeyCodec.NO_KEY);
+        assertThat(TariffKeyCodec.pack("840", "356", 2_000_000, "2020")).isEqualTo(TariffKeyCodec.NO_KEY);
+        assertThat(TariffKeyCodec.pack("840", "356", 100630, "20x0")).isEqualTo(TariffKeyCodec.NO_KEY);
+        assertThat(TariffKeyCodec.pack("840", "356", null, "2020")).isEqualTo(TariffKeyCodec.NO_KEY);
+    }
+
+    @Test
+    void scaleRate_matchesDecimalColumn() {
+        assertThat(TariffKeyCodec.scaleRate(24.0)).isEqualTo(24000);
+        assertThat(TariffKeyCodec.scaleRate(0.1235)).isEqualTo(124);
+        assertThat(TariffKeyCodec.unscaleRate(15500)).isEqualTo(15.5);
+    }
+
+    @Test
+    void putAndGet_returnsRateAndUnit() {
+        TariffRateIndex index = new TariffRateIndex(100);
+        long key = TariffKeyCodec.pack("840", "356", 100630, "2020");
+
+        assertThat(index.put(key, 24000, "percent")).isTrue();
+
+        long value = index.get(key);
+        assertThat(value).isNotEqualTo(TariffRateIndex.NO_VALUE);
+        assertThat(TariffRateIndex.rateOf(value)).isEqualTo(24000);
+        assertThat(index.unitOf(value)).isEqualTo("percent");
+        assertThat(index.get(TariffKeyCodec.pack("840", "356", 100630, "2021"))).isEqualTo(TariffRateIndex.NO_VALUE);
+    }
+
+    @Test
+    void manyEntries_surviveResizeAndRemoval() {
+        TariffRateIndex index = new TariffRateIndex(100_000);
+        for (int product = 0; product < 10_000; product++) {
+            index.put(TariffKeyCodec.pack("702", "156", product, 2020), product, "percent");
+        }
+        for (int product = 0; product < 10_000; product += 2) {
+            index.remove(TariffKeyCodec.pack("702", "156", product, 2020));
+        }
+
+        assertThat(index.size()).isEqualTo(5_000);
+        for (int product = 0; product < 10_000; product++) {
+            long value = index.get(TariffKeyCodec.pack("702", "156", product, 2020));
+            if (product % 2 == 0) {
+                assertThat(value).isEqualTo(TariffRateIndex.NO_VALUE);
+            } else {
+                assertThat(TariffRateIndex.rateOf(value)).isEqualTo(product);
+            }
+        }
+    }
+
+    @Test
+    void put_whenFull_rejectsNewKeysButUpdatesExisting() {
+        TariffRateIndex index = new TariffRateIndex(1);
+        long first = TariffKeyCodec.pack("840", "356", 1, 2020);
+        long second = TariffKeyCodec.pack("840", "356", 2, 2020);
+
+        assertThat(index.put(first, 1000, "percent")).isTrue();
+        assertThat(index.put(second, 2000, "percent")).isFalse();
+        assertThat(index.put(first, 3000, "percent")).isTrue();
+        assertThat(TariffRateIndex.rateOf(index.get(first))).isEqualTo(3000);
+    }
+
+    @Test
+    void putIfUnmodified_afterConcurrentWrite_isRejected() {
+        TariffRateIndex index = new TariffRateIndex(100);
+        long key = TariffKeyCodec.pack("840", "356", 100630, "2020");
+
+        long observed = index.modifications();
+        index.remove(key);
+
+        assertThat(index.putIfUnmodified(key, 24000, "percent", observed)).isFalse();
+        assertThat(index.contains(key)).isFalse();
+        assertThat(index.putIfUnmodified(key, 24000, "percent", index.modifications())).isTrue();
+    }
+
+    @Test
+    void get_afterTtl_readsAsAbsent() throws InterruptedException {
+        TariffRateIndex index = new TariffRateIndex(100, 20, TimeUnit.MILLISECONDS);
+        long key = TariffKeyCodec.pack("840", "356", 100630, "2020");
+        index.put(key, 24000, "percent");
+
+        Thread.sleep(50);
+
+        assertThat(index.get(key)).isEqualTo(TariffRateIndex.NO_VALUE);
+        assertThat(index.put(key, 25000, "percent")).isTrue();
+        assertThat(TariffRateIndex.rateOf(index.get(key))).isEqualTo(25000);
+    }
+
+    @Test
+    void put_whenFull_purgesExpiredEntries() throws InterruptedException {
+        TariffRateIndex index = new TariffRateIndex(1, 20, TimeUnit.MILLISECONDS);
+        long first = TariffKeyCodec.pack("840", "356", 1, 2020);
+        long second = TariffKeyCodec.pack("840", "356", 2, 2020);
+        index.put(first, 1000, "percent");
+
+        Thread.sleep(50);
+
+        assertThat(index.put(second, 2000, "percent")).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(TariffRateIndex.rateOf(index.get(second))).isEqualTo(2000);
+    }
+}
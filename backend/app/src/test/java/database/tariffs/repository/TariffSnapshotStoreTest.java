@@ -0,0 +1,227 @@
+package database.tariffs.repository;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.util.TariffKeyCodec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffSnapshotStoreTest {
+
+    @Mock
+    private TariffRateRepository repository;
+
+    @Mock
+    private TariffVersionTracker versions;
+
+    @TempDir
+    Path dir;
+
+    private TariffSnapshotStore newStore() {
+        return newStore(100_000);
+    }
+
+    private TariffSnapshotStore newStore(int maxDirtyKeys) {
+        // Run background work inline so tests are deterministic
+        return new TariffSnapshotStore(repository, versions, Runnable::run, true, dir.resolve("tariffs/snapshot.bin"),
+                maxDirtyKeys);
+    }
+
+    private static long key(String year) {
+        return TariffKeyCodec.pack(REPORTER, PARTNER, PRODUCT, year);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void tableContains(TariffRateEntity... rows) {
+        doAnswer(invocation -> {
+            Consumer<TariffRateEntity> consumer = invocation.getArgument(0);
+            for (TariffRateEntity row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(repository).streamAllTariffs(any());
+    }
+
+    @Test
+    void startupWithoutSnapshot_writesOneAndServesIt() {
+        // Given
+        tableContains(rate("2023", 5.0));
+        TariffSnapshotStore store = newStore();
+        assertThat(store.current()).isNull();
+
+        // When
+        store.onApplicationReady();
+
+        // Then
+        TariffRateEntity found = store.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023"));
+        assertThat(found.getRate()).isEqualTo(5.0);
+        assertThat(found.getUnit()).isEqualTo("percent");
+        assertThat(store.find(REPORTER, PARTNER, PRODUCT, "2022", key("2022"))).isNull();
+    }
+
+    @Test
+    void restart_servesExistingSnapshotOnceRestored() {
+        // Given: a snapshot written at version 3 by a previous process, and no changes since
+        tableContains(rate("2023", 5.0));
+        when(repository.currentVersion()).thenReturn(3L);
+        newStore().writeSnapshot();
+        when(versions.currentVersion()).thenReturn(3L);
+        when(repository.findChanges(eq(3L), isNull(), eq(3L), anyInt())).thenReturn(List.of());
+
+        // When
+        TariffSnapshotStore restarted = newStore();
+        assertThat(restarted.current()).isNull();
+        restarted.onApplicationReady();
+
+        // Then: served from the mapped file without streaming the table again
+        assertThat(restarted.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023")).getRate()).isEqualTo(5.0);
+        verify(repository, times(1)).streamAllTariffs(any());
+    }
+
+    @Test
+    void restore_marksKeysChangedSinceSnapshotVersionDirty() {
+        // Given: snapshot at version 3 holds 2022 and 2023; 2023 changed and 2022 was deleted since
+        tableContains(rate("2022", 1.0), rate("2023", 5.0), rate("2021", 4.0));
+        when(repository.currentVersion()).thenReturn(3L);
+        newStore().writeSnapshot();
+        TariffSnapshotStore restarted = newStore();
+        when(versions.currentVersion()).thenReturn(5L);
+        when(repository.findChanges(eq(3L), isNull(), eq(5L), anyInt()))
+                .thenReturn(List.of(change("2023", 4L), deletion("2022", 5L)));
+
+        // When
+        restarted.onApplicationReady();
+
+        // Then
+        assertThat(restarted.isDirty(key("2022"))).isTrue();
+        assertThat(restarted.isDirty(key("2023"))).isTrue();
+        assertThat(restarted.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023"))).isNull();
+        assertThat(restarted.find(REPORTER, PARTNER, PRODUCT, "2022", key("2022"))).isNull();
+        assertThat(restarted.find(REPORTER, PARTNER, PRODUCT, "2021", key("2021")).getRate()).isEqualTo(4.0);
+        verify(repository, times(1)).streamAllTariffs(any());
+    }
+
+    @Test
+    void restore_corruptedSnapshot_writesAFreshOne() throws IOException {
+        // Given: a snapshot whose body no longer matches its checksum
+        tableContains(rate("2023", 5.0));
+        newStore().writeSnapshot();
+        Path file = dir.resolve("tariffs/snapshot.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), channel.size() - 6);
+        }
+        TariffSnapshotStore restarted = newStore();
+        tableContains(rate("2023", 6.0));
+
+        // When
+        restarted.onApplicationReady();
+
+        // Then: the table was read again instead of the corrupt rows being served
+        assertThat(restarted.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023")).getRate()).isEqualTo(6.0);
+        verify(repository, never()).findChanges(anyLong(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void markDirty_bypassesSnapshotUntilNextWrite() {
+        // Given
+        tableContains(rate("2023", 5.0));
+        TariffSnapshotStore store = newStore();
+        store.writeSnapshot();
+
+        // When
+        store.markDirty(key("2023"));
+
+        // Then
+        assertThat(store.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023"))).isNull();
+
+        // And: the next snapshot captures the write and clears the mark
+        tableContains(rate("2023", 8.0));
+        store.writeSnapshot();
+        assertThat(store.isDirty(key("2023"))).isFalse();
+        assertThat(store.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023")).getRate()).isEqualTo(8.0);
+    }
+
+    @Test
+    void markDirty_overflowDropsSnapshotInsteadOfGrowing() {
+        // Given
+        TariffSnapshotStore store = newStore(2);
+        tableContains(rate("2020", 5.0), rate("2021", 6.0), rate("2022", 7.0));
+        store.onApplicationReady();
+
+        // When
+        store.markDirty(key("2020"));
+        store.markDirty(key("2021"));
+        store.markDirty(key("2022"));
+
+        // Then
+        assertThat(store.current()).isNull();
+        assertThat(store.isDirty(key("2020"))).isFalse();
+        assertThat(store.find(REPORTER, PARTNER, PRODUCT, "2022", key("2022"))).isNull();
+
+        // And the next write serves again
+        store.writeSnapshot();
+        assertThat(store.find(REPORTER, PARTNER, PRODUCT, "2022", key("2022")).getRate()).isEqualTo(7.0);
+    }
+
+    @Test
+    void onTariffChanges_marksKeysWrittenOnOtherNodesDirty() {
+        // Given
+        tableContains(rate("2023", 5.0));
+        TariffSnapshotStore store = newStore();
+        store.onApplicationReady();
+
+        // When: the version tracker reports a write made elsewhere
+        store.onTariffChanges(List.of(change("2023", 1L)));
+
+        // Then
+        assertThat(store.isDirty(key("2023"))).isTrue();
+        assertThat(store.find(REPORTER, PARTNER, PRODUCT, "2023", key("2023"))).isNull();
+    }
+
+    @Test
+    void onTariffReset_stopsServingSnapshot() {
+        // Given
+        tableContains(rate("2023", 5.0));
+        TariffSnapshotStore store = newStore();
+        store.onApplicationReady();
+
+        // When
+        store.onTariffReset();
+
+        // Then
+        assertThat(store.current()).isNull();
+    }
+
+    @Test
+    void disabled_neverServesOrWrites() {
+        TariffSnapshotStore store = new TariffSnapshotStore(repository, versions, Runnable::run, false,
+                dir.resolve("snapshot.bin"), 100_000);
+
+        store.onApplicationReady();
+        store.writeSnapshot();
+
+        assertThat(store.current()).isNull();
+        assertThat(dir.resolve("snapshot.bin")).doesNotExist();
+    }
+}
@@ -0,0 +1,121 @@
+package database.tariffs.repository;
+
+import database.tariffs.util.TariffKeyCodec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TariffSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeThenOpen_roundTripsEveryRow() throws IOException {
+        // Given: three rows written out of key order
+        long a = TariffKeyCodec.pack("840", "156", 1001, 2023);
+        long b = TariffKeyCodec.pack("702", "156", 1001, 2023);
+        long c = TariffKeyCodec.pack("702", "156", 1001, 2020);
+        long[] keys = {a, b, c};
+        int[] rates = {5000, 7500, 0};
+        short[] unitIds = {0, 1, 0};
+        TariffSnapshot.sortByKey(keys, rates, unitIds, 3);
+        Path file = dir.resolve("snapshot.bin");
+
+        // When
+        TariffSnapshot.write(file, 7L, 42L, keys, rates, unitIds, List.of("percent", "specific"), 3);
+        TariffSnapshot snapshot = TariffSnapshot.open(file);
+
+        // Then
+        snapshot.verify();
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.getVersion()).isEqualTo(7L);
+        assertThat(snapshot.getCreatedAt()).isEqualTo(42L);
+        assertThat(snapshot.rateAt(snapshot.indexOf(a))).isEqualTo(5000);
+        assertThat(snapshot.unitAt(snapshot.indexOf(b))).isEqualTo("specific");
+        assertThat(snapshot.rateAt(snapshot.indexOf(c))).isZero();
+        assertThat(snapshot.indexOf(TariffKeyCodec.pack("702", "156", 1001, 2021))).isEqualTo(-1);
+    }
+
+    @Test
+    void emptySnapshot_opensWithNoRows() throws IOException {
+        Path file = dir.resolve("empty.bin");
+
+        TariffSnapshot.write(file, 0L, 0L, new long[0], new int[0], new short[0], List.of(), 0);
+
+        TariffSnapshot snapshot = TariffSnapshot.open(file);
+        assertThat(snapshot.size()).isZero();
+        assertThat(snapshot.indexOf(1L)).isEqualTo(-1);
+    }
+
+    @Test
+    void verify_corruptedBody_isRejected() throws IOException {
+        // Given: a valid snapshot with one byte of the rate column flipped
+        Path file = dir.resolve("snapshot.bin");
+        TariffSnapshot.write(file, 0L, 0L, new long[]{1L, 2L}, new int[]{1, 2}, new short[]{0, 0},
+                List.of("percent"), 2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), channel.size() - 6);
+        }
+
+        // When: opening only reads the header
+        TariffSnapshot snapshot = TariffSnapshot.open(file);
+
+        // Then
+        assertThatThrownBy(snapshot::verify)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void open_notASnapshot_isRejected() throws IOException {
+        Path file = dir.resolve("garbage.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[64]));
+        }
+
+        assertThatThrownBy(() -> TariffSnapshot.open(file)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void sortByKey_keepsColumnsAligned() {
+        // Given: a shuffled set of keys whose rate equals the key's rank
+        int n = 1000;
+        long[] keys = new long[n];
+        int[] rates = new int[n];
+        short[] unitIds = new short[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (i + 1) * 7L;
+            rates[i] = i;
+            unitIds[i] = (short) (i % 3);
+        }
+        Random random = new Random(7);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long key = keys[i]; keys[i] = keys[j]; keys[j] = key;
+            int rate = rates[i]; rates[i] = rates[j]; rates[j] = rate;
+            short unit = unitIds[i]; unitIds[i] = unitIds[j]; unitIds[j] = unit;
+        }
+
+        // When
+        TariffSnapshot.sortByKey(keys, rates, unitIds, n);
+
+        // Then
+        for (int i = 0; i < n; i++) {
+            assertThat(keys[i]).isEqualTo((i + 1) * 7L);
+            assertThat(rates[i]).isEqualTo(i);
+            assertThat(unitIds[i]).isEqualTo((short) (i % 3));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package database.tariffs.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import database.tariffs.entity.TariffChangeEntity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffVersionTrackerTest {
+
+    @Mock
+    private TariffRateRepository repository;
+
+    @Mock
+    private TariffChangeLog changeLog;
+
+    @Mock
+    private TariffChangeListener listener;
+
+    private TariffVersionTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new TariffVersionTracker(repository, changeLog, 2);
+        tracker.addListener(listener);
+    }
+
+    @Test
+    void currentVersion_servedFromMemoryAfterFirstRefresh() {
+        // Given
+        when(repository.currentVersion()).thenReturn(5L);
+        tracker.start();
+
+        // When
+        long first = tracker.currentVersion();
+        long second = tracker.currentVersion();
+
+        // Then
+        assertThat(first).isEqualTo(5L);
+        assertThat(second).isEqualTo(5L);
+        verify(repository, times(1)).currentVersion();
+        verifyNoInteractions(listener);
+    }
+
+    @Test
+    void currentVersion_databaseUnavailable_isNoVersion() {
+        // Given
+        when(repository.currentVersion()).thenReturn(ITariffRateRepository.NO_VERSION);
+
+        // When / Then
+        assertThat(tracker.currentVersion()).isEqualTo(ITariffRateRepository.NO_VERSION);
+    }
+
+    @Test
+    void refresh_notifiesListenersBeforePublishingVersion() {
+        // Given
+        when(repository.currentVersion()).thenReturn(5L, 7L);
+        tracker.start();
+        List<TariffChangeEntity> changes = List.of(change(1001, YEAR, 6), change(1002, YEAR, 7));
+        when(repository.findChanges(eq(5L), isNull(), eq(7L), anyInt())).thenReturn(changes);
+        doAnswer(invocation -> {
+            assertThat(tracker.currentVersion()).isEqualTo(5L);
+            return null;
+        }).when(listener).onTariffChanges(any());
+
+        // When
+        tracker.poll();
+
+        // Then
+        verify(listener).onTariffChanges(changes);
+        assertThat(tracker.currentVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    void refresh_tooManyChanges_resetsListeners() {
+        // Given
+        when(repository.currentVersion()).thenReturn(5L, 8L);
+        tracker.start();
+        when(repository.findChanges(anyLong(), any(), eq(8L), anyInt()))
+                .thenReturn(List.of(change(1001, YEAR, 6), change(1002, YEAR, 7), change(1003, YEAR, 8)));
+
+        // When
+        tracker.poll();
+
+        // Then
+        verify(listener).onTariffReset();
+        verify(listener, never()).onTariffChanges(any());
+        assertThat(tracker.currentVersion()).isEqualTo(8L);
+    }
+
+    @Test
+    void refresh_feedUnavailable_keepsOldVersion() {
+        // Given
+        when(repository.currentVersion()).thenReturn(5L, 6L);
+        tracker.start();
+        when(repository.findChanges(anyLong(), any(), anyLong(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When
+        tracker.poll();
+
+        // Then
+        verifyNoInteractions(listener);
+        assertThat(tracker.currentVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void onCommit_refreshesOnTrackerThreadOnce() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(tracker, "executor", (Executor) queued::add);
+        when(repository.currentVersion()).thenReturn(5L, 7L);
+        tracker.start();
+        when(repository.findChanges(anyLong(), any(), anyLong(), anyInt())).thenReturn(Collections.emptyList());
+
+        // When: two local writes commit before the tracker thread runs
+        tracker.onCommit(6L);
+        tracker.onCommit(7L);
+
+        // Then: the writers read nothing and share one refresh
+        verify(repository, times(1)).currentVersion();
+        assertThat(queued).hasSize(1);
+        queued.get(0).run();
+        assertThat(tracker.currentVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    void currentVersion_afterLocalCommit_waitsForItsRefresh() throws InterruptedException {
+        // Given a local commit whose refresh has not run yet
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(tracker, "executor", (Executor) queued::add);
+        when(repository.currentVersion()).thenReturn(5L, 6L);
+        tracker.start();
+        when(repository.findChanges(anyLong(), any(), anyLong(), anyInt())).thenReturn(Collections.emptyList());
+        tracker.onCommit(6L);
+        Thread refresher = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queued.get(0).run();
+        });
+
+        // When
+        refresher.start();
+        long current = tracker.currentVersion();
+
+        // Then the read sees its own write
+        assertThat(current).isEqualTo(6L);
+        refresher.join();
+    }
+
+    @Test
+    void onCommit_alreadyPublished_skipsRefresh() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(tracker, "executor", (Executor) queued::add);
+        when(repository.currentVersion()).thenReturn(6L);
+        tracker.start();
+
+        // When
+        tracker.onCommit(6L);
+
+        // Then
+        assertThat(queued).isEmpty();
+        verifyNoInteractions(listener);
+    }
+}
@@ -0,0 +1,159 @@
+package database.tariffs.repository;
+
+import database.tariffs.entity.TariffRateEntity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffWriteBehindQueueTest {
+
+    @Mock
+    private ITariffRateRepository repository;
+
+    // The flusher thread is only started where a test needs it; others flush explicitly
+    private TariffWriteBehindQueue newQueue(int maxPending, int batchSize, long offerTimeoutMs) {
+        return new TariffWriteBehindQueue(repository, maxPending, batchSize, 5, offerTimeoutMs);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flushPending_coalescesWritesToSameKey() {
+        // Given
+        TariffWriteBehindQueue queue = newQueue(100, 100, 0);
+        queue.enqueue(rate(100630, "2020", 1.0));
+        queue.enqueue(rate(100630, "2021", 2.0));
+        queue.enqueue(rate(100630, "2020", 3.0));
+
+        // When
+        queue.flushPending();
+
+        // Then - one write per key, last rate wins, first-seen order kept
+        ArgumentCaptor<List<TariffRateEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertAll(batch.capture());
+        assertThat(batch.getValue()).extracting(TariffRateEntity::getYear, TariffRateEntity::getRate)
+                .containsExactly(tuple("2020", 3.0),
+                        tuple("2021", 2.0));
+        assertThat(queue.getCoalescedCount()).isEqualTo(1);
+        assertThat(queue.getWrittenCount()).isEqualTo(2);
+        assertThat(queue.getPendingCount()).isZero();
+    }
+
+    @Test
+    void flushPending_writesInBatches() {
+        // Given
+        TariffWriteBehindQueue queue = newQueue(100, 2, 0);
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(rate(100630 + i, "2020", 1.0));
+        }
+
+        // When
+        queue.flushPending();
+
+        // Then
+        verify(repository, times(3)).upsertAll(anyList());
+    }
+
+    @Test
+    void enqueue_fullQueue_rejectsNewKeysButCoalescesPendingOnes() {
+        // Given
+        TariffWriteBehindQueue queue = newQueue(1, 100, 10);
+        assertThat(queue.enqueue(rate(100630, "2020", 1.0))).isTrue();
+
+        // When
+        boolean newKey = queue.enqueue(rate(100630, "2021", 1.0));
+        boolean pendingKey = queue.enqueue(rate(100630, "2020", 2.0));
+
+        // Then
+        assertThat(newKey).isFalse();
+        assertThat(pendingKey).isTrue();
+        assertThat(queue.getRejectedCount()).isEqualTo(1);
+        assertThat(queue.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void flushPending_writeFailure_isRetriedThenDropped() {
+        // Given
+        TariffWriteBehindQueue queue = newQueue(100, 100, 0);
+        when(repository.upsertAll(anyList())).thenThrow(new IllegalStateException("connection lost"));
+        queue.enqueue(rate(100630, "2020", 1.0));
+
+        // When / Then: queued again after each of the first two failures, dropped after the third
+        assertThat(queue.flushPending()).isFalse();
+        assertThat(queue.getPendingCount()).isEqualTo(1);
+        queue.flushPending();
+        queue.flushPending();
+
+        verify(repository, times(3)).upsertAll(anyList());
+        assertThat(queue.getWrittenCount()).isZero();
+        assertThat(queue.getFailedCount()).isEqualTo(1);
+        assertThat(queue.getPendingCount()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flushPending_writeFailure_keepsNewerWriteToSameKey() {
+        // Given: the first flush fails while a newer write to the same key arrives
+        TariffWriteBehindQueue queue = newQueue(100, 100, 0);
+        queue.enqueue(rate(100630, "2020", 1.0));
+        queue.enqueue(rate(100630, "2021", 1.0));
+        doAnswer(invocation -> {
+            queue.enqueue(rate(100630, "2020", 2.0));
+            throw new IllegalStateException("connection lost");
+        }).doReturn(new int[] {1, 1}).when(repository).upsertAll(anyList());
+
+        // When
+        queue.flushPending();
+        queue.flushPending();
+
+        // Then: the retry carries the newer rate and the other failed key
+        ArgumentCaptor<List<TariffRateEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).upsertAll(batch.capture());
+        assertThat(batch.getAllValues().get(1)).extracting(TariffRateEntity::getYear, TariffRateEntity::getRate)
+                .containsExactly(tuple("2020", 2.0),
+                        tuple("2021", 1.0));
+        assertThat(queue.getFailedCount()).isZero();
+    }
+
+    @Test
+    void flusher_writesWithinFlushWindow() {
+        // Given
+        TariffWriteBehindQueue queue = newQueue(100, 100, 0);
+        queue.start();
+
+        try {
+            // When
+            queue.enqueue(rate(100630, "2020", 1.0));
+
+            // Then
+            verify(repository, timeout(2000)).upsertAll(anyList());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void stop_flushesPendingAndRejectsLaterWrites() {
+        // Given
+        TariffWriteBehindQueue queue = newQueue(100, 100, 0);
+        queue.enqueue(rate(100630, "2020", 1.0));
+
+        // When
+        queue.stop();
+
+        // Then
+        verify(repository).upsertAll(anyList());
+        assertThat(queue.enqueue(rate(100630, "2021", 1.0))).isFalse();
+    }
+}
@@ -0,0 +1,116 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.dto.TariffBatchResponse;
+import database.tariffs.dto.TariffBatchRowResult;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.TariffRateRepository;
+
+import jakarta.validation.Validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffBatchServiceTest {
+
+    @Mock
+    private TariffRateRepository repository;
+
+    private TariffBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TariffBatchService(repository, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private static CreateTariffRequest request(String year, Double rate) {
+        CreateTariffRequest request = new CreateTariffRequest();
+        request.setReporter("840");
+        request.setPartner("356");
+        request.setProduct(100630);
+        request.setYear(year);
+        request.setRate(rate);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void upsertTariffs_mixedRows_writesValidRowsAndReportsRejected() {
+        // Given
+        List<CreateTariffRequest> requests = Arrays.asList(
+                request("2020", 24.0),
+                request("20", 24.0),
+                request("2021", 1500.0),
+                request("2022", 5.0));
+        when(repository.upsertAll(anyList())).thenReturn(new int[] {1, 2});
+
+        // When
+        TariffBatchResponse response = service.upsertTariffs(requests);
+
+        // Then
+        assertThat(response.getReceived()).isEqualTo(4);
+        assertThat(response.getWritten()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(TariffBatchRowResult::getStatus).containsExactly(
+                TariffBatchRowResult.STATUS_UPSERTED,
+                TariffBatchRowResult.STATUS_REJECTED,
+                TariffBatchRowResult.STATUS_REJECTED,
+                TariffBatchRowResult.STATUS_UPSERTED);
+        assertThat(response.getResults().get(1).getErrors()).containsExactly("year: Year must be 4 digits");
+        assertThat(response.getResults().get(2).getErrors()).containsExactly("rate: Rate must not exceed 999.999");
+
+        ArgumentCaptor<List<TariffRateEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertAll(captor.capture());
+        assertThat(captor.getValue()).extracting(TariffRateEntity::getYear).containsExactly("2020", "2022");
+    }
+
+    @Test
+    void upsertTariffs_rewrittenBatch_reportsUpsertedForEveryAcceptedRow() {
+        // MySQL with rewriteBatchedStatements reports SUCCESS_NO_INFO instead of per-row counts
+        when(repository.upsertAll(anyList()))
+                .thenReturn(new int[] {Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+
+        TariffBatchResponse response = service.upsertTariffs(List.of(request("2020", 24.0), request("2021", 24.0)));
+
+        assertThat(response.getWritten()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(TariffBatchRowResult::getStatus)
+                .containsOnly(TariffBatchRowResult.STATUS_UPSERTED);
+    }
+
+    @Test
+    void upsertTariffs_allRejected_skipsDatabase() {
+        TariffBatchResponse response = service.upsertTariffs(Collections.singletonList(null));
+
+        assertThat(response.getRejected()).isEqualTo(1);
+        verify(repository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void upsertTariffs_emptyOrOversized_throwsException() {
+        assertThatThrownBy(() -> service.upsertTariffs(List.of()))
+                .isInstanceOf(InvalidTariffQueryException.class);
+
+        List<CreateTariffRequest> oversized = new ArrayList<>();
+        for (int i = 0; i <= TariffBatchService.MAX_BATCH_SIZE; i++) {
+            oversized.add(request("2020", 1.0));
+        }
+        assertThatThrownBy(() -> service.upsertTariffs(oversized))
+                .isInstanceOf(InvalidTariffQueryException.class);
+    }
+}
@@ -0,0 +1,240 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffImportJobResponse;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.exception.TariffImportJobNotFoundException;
+import database.tariffs.exception.TariffImportRejectedException;
+import database.tariffs.repository.ITariffRateRepository;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffImportServiceTest {
+
+    @Mock
+    private ITariffRateRepository repository;
+
+    @TempDir
+    Path dir;
+
+    private TariffImportService newService(Executor executor, int batchSize, int maxConcurrentJobs) {
+        TariffImportService service = new TariffImportService(repository, batchSize, maxConcurrentJobs, 1000, 50, dir);
+        ReflectionTestUtils.setField(service, "executor", executor);
+        return service;
+    }
+
+    private TariffImportService newService(int batchSize) {
+        // Run the job inline so it has finished when startImport returns
+        return newService(Runnable::run, batchSize, 2);
+    }
+
+    private static MultipartFile csv(String content) {
+        return new MockMultipartFile("file", "tariffs.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void startImport_csv_validatesRowsAndUpsertsInBatches() {
+        // Given
+        TariffImportService service = newService(2);
+        MultipartFile file = csv("year,reporter,partner,product,rate,unit\n"
+                + "2020,840,356,100630,24.5,\"per cent\"\n"
+                + "20,840,356,100630,1.0,\n"
+                + "\n"
+                + "2021,840,356,100630,12,\r\n"
+                + "2022,840,356,100630,7.25,percent\n");
+
+        // When
+        TariffImportJobResponse job = service.startImport(file);
+
+        // Then
+        ArgumentCaptor<List<TariffRateEntity>> batches = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).upsertAll(batches.capture());
+        assertThat(batches.getAllValues().get(0)).extracting(TariffRateEntity::getYear).containsExactly("2020", "2021");
+        assertThat(batches.getAllValues().get(1)).extracting(TariffRateEntity::getYear).containsExactly("2022");
+        TariffRateEntity first = batches.getAllValues().get(0).get(0);
+        assertThat(first.getCountryIsoNumeric()).isEqualTo("840");
+        assertThat(first.getProductHsCode()).isEqualTo(100630);
+        assertThat(first.getRate()).isEqualTo(24.5);
+        assertThat(first.getUnit()).isEqualTo("per cent");
+        assertThat(batches.getAllValues().get(0).get(1).getUnit()).isEqualTo("percent");
+
+        assertThat(job.getStatus()).isEqualTo(TariffImportJobResponse.STATUS_COMPLETED);
+        assertThat(job.getFormat()).isEqualTo(TariffImportService.FORMAT_CSV);
+        assertThat(job.getRowsRead()).isEqualTo(4);
+        assertThat(job.getRowsImported()).isEqualTo(3);
+        assertThat(job.getRowsRejected()).isEqualTo(1);
+        assertThat(job.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(3);
+            assertThat(error.getErrors()).containsExactly("year: Year must be 4 digits");
+        });
+        assertThat(job.isErrorsTruncated()).isFalse();
+        assertThat(service.getJob(job.getJobId()).getStatus()).isEqualTo(TariffImportJobResponse.STATUS_COMPLETED);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void startImport_xlsx_streamsFirstSheet() throws IOException {
+        // Given
+        TariffImportService service = newService(1000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("rates");
+            Row header = sheet.createRow(0);
+            String[] columns = {"country_id", "partner_country_id", "product_id", "year", "rate"};
+            for (int i = 0; i < columns.length; i++) {
+                header.createCell(i).setCellValue(columns[i]);
+            }
+            Row row = sheet.createRow(2);
+            row.createCell(0).setCellValue("702");
+            row.createCell(1).setCellValue("156");
+            row.createCell(2).setCellValue(1001);
+            row.createCell(3).setCellValue(2023);
+            row.createCell(4).setCellValue(8.5);
+            Row invalid = sheet.createRow(3);
+            invalid.createCell(0).setCellValue("702");
+            invalid.createCell(2).setCellValue(1001);
+            invalid.createCell(3).setCellValue(2023);
+            invalid.createCell(4).setCellValue(-1);
+            workbook.write(bytes);
+        }
+        MultipartFile file = new MockMultipartFile("file", "tariffs.xlsx", null, bytes.toByteArray());
+
+        // When
+        TariffImportJobResponse job = service.startImport(file);
+
+        // Then
+        ArgumentCaptor<List<TariffRateEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertAll(batch.capture());
+        assertThat(batch.getValue()).singleElement().satisfies(entity -> {
+            assertThat(entity.getCountryIsoNumeric()).isEqualTo("702");
+            assertThat(entity.getPartnerIsoNumeric()).isEqualTo("156");
+            assertThat(entity.getProductHsCode()).isEqualTo(1001);
+            assertThat(entity.getYear()).isEqualTo("2023");
+            assertThat(entity.getRate()).isEqualTo(8.5);
+        });
+        assertThat(job.getStatus()).isEqualTo(TariffImportJobResponse.STATUS_COMPLETED);
+        assertThat(job.getFormat()).isEqualTo(TariffImportService.FORMAT_XLSX);
+        assertThat(job.getRowsImported()).isEqualTo(1);
+        assertThat(job.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(4);
+            assertThat(error.getErrors()).containsExactly(
+                    "partner: Partner must be 3-character ISO code",
+                    "rate: Rate must be between 0 and 999.999");
+        });
+    }
+
+    @Test
+    void startImport_missingRequiredColumn_failsJob() {
+        // Given
+        TariffImportService service = newService(1000);
+
+        // When
+        TariffImportJobResponse job = service.startImport(csv("reporter,partner,year,rate\n840,356,2020,1.0\n"));
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(TariffImportJobResponse.STATUS_FAILED);
+        assertThat(job.getMessage()).isEqualTo("Import file is missing required column(s): product");
+        verify(repository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void startImport_writeFailure_failsJobAndKeepsWrittenCount() {
+        // Given
+        TariffImportService service = newService(1);
+        when(repository.upsertAll(anyList()))
+                .thenReturn(new int[]{1})
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        // When
+        TariffImportJobResponse job = service.startImport(csv("reporter,partner,product,year,rate\n"
+                + "840,356,100630,2020,1.0\n"
+                + "840,356,100630,2021,2.0\n"
+                + "840,356,100630,2022,3.0\n"));
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(TariffImportJobResponse.STATUS_FAILED);
+        assertThat(job.getMessage()).isEqualTo("Failed to write tariff batch: connection lost");
+        assertThat(job.getRowsImported()).isEqualTo(1);
+        assertThat(job.getFinishedAt()).isNotNull();
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    void startImport_unsupportedType_throwsInvalidTariffQueryException() {
+        // Given
+        TariffImportService service = newService(1000);
+        MultipartFile file = new MockMultipartFile("file", "tariffs.pdf", "application/pdf", new byte[]{1});
+
+        // When / Then
+        assertThatThrownBy(() -> service.startImport(file))
+                .isInstanceOf(InvalidTariffQueryException.class)
+                .hasMessageContaining(".csv or .xlsx");
+    }
+
+    @Test
+    void startImport_tooManyRunningJobs_throwsTariffImportRejectedException() {
+        // Given: a queue that never runs jobs, so the only slot stays taken
+        TariffImportService service = newService(task -> { }, 1000, 1);
+        TariffImportJobResponse queued = service.startImport(csv("reporter,partner,product,year,rate\n"));
+
+        // When / Then
+        assertThat(queued.getStatus()).isEqualTo(TariffImportJobResponse.STATUS_QUEUED);
+        assertThatThrownBy(() -> service.startImport(csv("reporter,partner,product,year,rate\n")))
+                .isInstanceOf(TariffImportRejectedException.class);
+        verify(repository, never()).upsertAll(any());
+    }
+
+    @Test
+    void startImport_afterShutdown_throwsTariffImportRejectedException() {
+        // Given: the service's own job threads, stopped
+        TariffImportService service = new TariffImportService(repository, 1000, 1, 1000, 50, dir);
+        service.shutdown();
+
+        // When / Then
+        assertThatThrownBy(() -> service.startImport(csv("reporter,partner,product,year,rate\n")))
+                .isInstanceOf(TariffImportRejectedException.class)
+                .hasMessageContaining("could not be scheduled");
+        verify(repository, never()).upsertAll(any());
+    }
+
+    @Test
+    void getJob_unknownId_throwsTariffImportJobNotFoundException() {
+        // Given
+        TariffImportService service = newService(1000);
+
+        // When / Then
+        assertThatThrownBy(() -> service.getJob("missing"))
+                .isInstanceOf(TariffImportJobNotFoundException.class);
+    }
+}
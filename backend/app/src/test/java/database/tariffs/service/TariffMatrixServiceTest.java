@@ -0,0 +1,137 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffMatrixResponse;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.repository.TariffVersionTracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffMatrixServiceTest {
+
+    @Mock
+    private ITariffRateRepository repository;
+
+    @Mock
+    private TariffVersionTracker versions;
+
+    private TariffMatrixService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TariffMatrixService(repository, versions, 2);
+    }
+
+    @Test
+    void getMatrix_buildsDenseMatrixOverAllCountries() {
+        // Given
+        when(repository.currentVersion()).thenReturn(7L);
+        when(repository.findMatrix(100630, "2020")).thenReturn(List.of(
+                rate("356", "840", 100630, "2020", 3.0),
+                rate("840", "156", 100630, "2020", 24.0),
+                rate("840", "356", 100630, "2020", 5.5)));
+
+        // When
+        TariffMatrixResponse matrix = service.getMatrix(100630, "2020");
+
+        // Then
+        assertThat(matrix.getCountries()).containsExactly("156", "356", "840");
+        assertThat(matrix.getFound()).isEqualTo(3);
+        float[] rates = matrix.getRates();
+        assertThat(rates).hasSize(9);
+        assertThat(rates[1 * 3 + 2]).isEqualTo(3.0f);
+        assertThat(rates[2 * 3 + 0]).isEqualTo(24.0f);
+        assertThat(rates[2 * 3 + 1]).isEqualTo(5.5f);
+        assertThat(rates[0]).isNaN();
+        assertThat(rates[1 * 3 + 1]).isNaN();
+    }
+
+    @Test
+    void getMatrix_unchanged_servedFromCache() {
+        // Given
+        when(repository.currentVersion()).thenReturn(7L);
+        when(repository.findMatrix(100630, "2020")).thenReturn(List.of(rate("840", "356", 100630, "2020", 5.0)));
+
+        // When
+        TariffMatrixResponse first = service.getMatrix(100630, "2020");
+        TariffMatrixResponse second = service.getMatrix(100630, "2020");
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(repository, times(1)).findMatrix(100630, "2020");
+    }
+
+    @Test
+    void onTariffChanges_evictsOnlyTouchedProductAndYear() {
+        // Given
+        when(repository.currentVersion()).thenReturn(7L);
+        when(repository.findMatrix(100630, "2020"))
+                .thenReturn(List.of(rate("840", "356", 100630, "2020", 5.0)))
+                .thenReturn(List.of(rate("840", "356", 100630, "2020", 6.0)));
+        when(repository.findMatrix(100630, "2021")).thenReturn(List.of(rate("840", "356", 100630, "2020", 4.0)));
+        service.getMatrix(100630, "2020");
+        TariffMatrixResponse untouched = service.getMatrix(100630, "2021");
+
+        // When
+        service.onTariffChanges(List.of(change(100630, "2020", 8L)));
+        TariffMatrixResponse rebuilt = service.getMatrix(100630, "2020");
+
+        // Then
+        // countries are [356, 840]; the 840 -> 356 cell is row 1, column 0
+        assertThat(rebuilt.getRates()[2]).isEqualTo(6.0f);
+        assertThat(service.getMatrix(100630, "2021")).isSameAs(untouched);
+        verify(repository, times(2)).findMatrix(100630, "2020");
+        verify(repository, times(1)).findMatrix(100630, "2021");
+    }
+
+    @Test
+    void onTariffReset_evictsEverything() {
+        // Given
+        when(repository.currentVersion()).thenReturn(7L);
+        when(repository.findMatrix(100630, "2020")).thenReturn(List.of(rate("840", "356", 100630, "2020", 5.0)));
+        service.getMatrix(100630, "2020");
+
+        // When
+        service.onTariffReset();
+        service.getMatrix(100630, "2020");
+
+        // Then
+        verify(repository, times(2)).findMatrix(100630, "2020");
+    }
+
+    @Test
+    void getMatrix_unknownVersion_neverCaches() {
+        // Given
+        when(repository.currentVersion()).thenReturn(ITariffRateRepository.NO_VERSION);
+        when(repository.findMatrix(100630, "2020")).thenReturn(List.of());
+
+        // When
+        TariffMatrixResponse first = service.getMatrix(100630, "2020");
+        service.getMatrix(100630, "2020");
+
+        // Then
+        assertThat(first.getCountries()).isEmpty();
+        assertThat(first.getRates()).isEmpty();
+        verify(repository, times(2)).findMatrix(100630, "2020");
+    }
+
+    @Test
+    void getMatrix_invalidYear_throwsInvalidTariffQueryException() {
+        assertThatThrownBy(() -> service.getMatrix(100630, "20"))
+                .isInstanceOf(InvalidTariffQueryException.class)
+                .hasMessage("year must be 4 digits");
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,150 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.dto.TariffScenarioLine;
+import database.tariffs.dto.TariffScenarioLineDelta;
+import database.tariffs.dto.TariffScenarioRequest;
+import database.tariffs.dto.TariffScenarioResponse;
+import database.tariffs.dto.TariffScenarioRule;
+import database.tariffs.exception.InvalidTariffQueryException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffScenarioServiceTest {
+
+    @Mock
+    private TariffService tariffService;
+
+    private TariffScenarioService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TariffScenarioService(tariffService);
+    }
+
+    /** Every key is found with rate 5.0, except product 999999 which has no rate */
+    private void givenRatesOfFive() {
+        when(tariffService.lookupTariffs(anyList())).thenAnswer(invocation -> {
+            List<TariffLookupKey> keys = invocation.getArgument(0);
+            List<TariffLookupResult> results = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                TariffLookupKey key = keys.get(i);
+                boolean found = key.getProduct() != 999999;
+                results.add(new TariffLookupResult(i, found, key.getReporter(), key.getPartner(), key.getProduct(),
+                        key.getYear(), found ? 5.0 : null, found ? "percent" : null));
+            }
+            return new TariffLookupResponse(keys.size(), keys.size(), results);
+        });
+    }
+
+    private static TariffScenarioLine line(String reporter, String partner, int product, double value) {
+        return new TariffScenarioLine(reporter, partner, product, "2020", value);
+    }
+
+    @Test
+    void simulate_appliesRulesInOrderAndReportsDeltas() {
+        // Given
+        givenRatesOfFive();
+        TariffScenarioRequest request = new TariffScenarioRequest("steel", List.of(
+                new TariffScenarioRule("356", null, "72", null, null, TariffScenarioRule.TYPE_ADD, 10.0),
+                new TariffScenarioRule(null, "840", "7208", 2020, 2020, TariffScenarioRule.TYPE_MULTIPLY, 2.0),
+                new TariffScenarioRule(null, null, "999999", null, null, TariffScenarioRule.TYPE_SET, 1.0)),
+                List.of(line("356", "840", 720890, 2000.0),
+                        line("356", "840", 100630, 1000.0),
+                        line("356", "156", 721000, 100.0),
+                        line("840", "356", 999999, 500.0)));
+
+        // When
+        TariffScenarioResponse response = service.simulate(request);
+
+        // Then
+        assertThat(response.getName()).isEqualTo("steel");
+        assertThat(response.getLines()).isEqualTo(4);
+        assertThat(response.getLinesWithoutRate()).isEqualTo(1);
+        assertThat(response.getAffectedLines()).isEqualTo(3);
+        assertThat(response.getTotalValue()).isEqualTo(3600.0);
+        assertThat(response.getBaselineTariff()).isCloseTo(155.0, within(1e-9));
+        // (5 + 10) * 2 on line 0, 5 + 10 on line 2, 1 on line 3
+        assertThat(response.getScenarioTariff()).isCloseTo(600.0 + 50.0 + 15.0 + 5.0, within(1e-9));
+        assertThat(response.getTariffDelta()).isCloseTo(515.0, within(1e-9));
+        assertThat(response.getChanges())
+                .extracting(TariffScenarioLineDelta::getIndex, TariffScenarioLineDelta::getBaselineRate,
+                        TariffScenarioLineDelta::getScenarioRate, TariffScenarioLineDelta::getRule)
+                .containsExactly(tuple(0, 5.0, 30.0, 1), tuple(2, 5.0, 15.0, 0), tuple(3, null, 1.0, 2));
+        assertThat(response.getChanges().get(0).getDelta()).isCloseTo(500.0, within(1e-9));
+    }
+
+    @Test
+    void simulate_largeBasket_looksUpInChunksAndSplitsWork() {
+        // Given
+        givenRatesOfFive();
+        int n = 3 * TariffScenarioService.LEAF_SIZE + 7;
+        List<TariffScenarioLine> lines = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            lines.add(line("840", "356", 100000 + i % 10000, 100.0));
+        }
+        TariffScenarioRequest request = new TariffScenarioRequest(null, List.of(
+                new TariffScenarioRule(null, null, "10", null, null, TariffScenarioRule.TYPE_ADD, -10.0)), lines);
+
+        // When
+        TariffScenarioResponse response = service.simulate(request);
+
+        // Then: rates are clamped at 0, so every line loses its 5.0 of tariff
+        int chunks = (n + TariffService.MAX_LOOKUP_KEYS - 1) / TariffService.MAX_LOOKUP_KEYS;
+        verify(tariffService, times(chunks)).lookupTariffs(anyList());
+        assertThat(response.getAffectedLines()).isEqualTo(n);
+        assertThat(response.getScenarioTariff()).isZero();
+        assertThat(response.getTariffDelta()).isCloseTo(-5.0 * n, within(1e-6));
+        assertThat(response.getChanges()).hasSize(n);
+        assertThat(response.getChanges().get(n - 1).getIndex()).isEqualTo(n - 1);
+    }
+
+    @Test
+    void simulate_unmatchedLines_areNotReported() {
+        // Given
+        givenRatesOfFive();
+        TariffScenarioRequest request = new TariffScenarioRequest(null, List.of(
+                new TariffScenarioRule("702", null, null, null, null, TariffScenarioRule.TYPE_SET, 0.0)),
+                List.of(line("840", "356", 100630, 1000.0)));
+
+        // When
+        TariffScenarioResponse response = service.simulate(request);
+
+        // Then
+        assertThat(response.getAffectedLines()).isZero();
+        assertThat(response.getChanges()).isEmpty();
+        assertThat(response.getTariffDelta()).isZero();
+        assertThat(response.getScenarioLandedCost()).isEqualTo(1050.0);
+    }
+
+    @Test
+    void simulate_setAboveMaxRate_throwsInvalidTariffQueryException() {
+        // Given
+        TariffScenarioRequest request = new TariffScenarioRequest(null, List.of(
+                new TariffScenarioRule(null, null, null, null, null, TariffScenarioRule.TYPE_SET, 1000.0)),
+                List.of(line("840", "356", 100630, 1000.0)));
+
+        // When / Then
+        assertThatThrownBy(() -> service.simulate(request))
+                .isInstanceOf(InvalidTariffQueryException.class)
+                .hasMessage("Rule 0: SET value must be between 0 and 999.999");
+        verifyNoInteractions(tariffService);
+    }
+}
@@ -1,22 +1,41 @@
 package database.tariffs.service;
 
 import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.dto.TariffChange;
+import database.tariffs.dto.TariffChangesResponse;
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.dto.TariffPageResponse;
 import database.tariffs.dto.TariffResponse;
+import database.tariffs.dto.TariffRollupResponse;
+import database.tariffs.dto.TariffSeriesPoint;
+import database.tariffs.dto.TariffSeriesResponse;
 import database.tariffs.dto.UpdateTariffRequest;
 import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.entity.TariffRollupEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
 import database.tariffs.exception.TariffAlreadyExistsException;
 import database.tariffs.exception.TariffNotFoundException;
+import database.tariffs.exception.TariffWriteRejectedException;
 import database.tariffs.repository.TariffRateRepository;
+import database.tariffs.repository.TariffWriteBehindQueue;
+import database.tariffs.util.TariffChangeToken;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static database.tariffs.TariffFixtures.change;
+import static database.tariffs.TariffFixtures.deletion;
+import static database.tariffs.TariffFixtures.rate;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
@@ -27,6 +46,9 @@ class TariffServiceTest {
     @Mock
     private TariffRateRepository repository;
 
+    @Mock
+    private TariffWriteBehindQueue writeBehindQueue;
+
     @InjectMocks
     private TariffService service;
 
@@ -49,8 +71,6 @@ class TariffServiceTest {
         request.setRate(RATE);
         request.setUnit(UNIT);
 
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(false);
-
         // When
         TariffResponse response = service.createTariff(request);
 
@@ -63,8 +83,8 @@ class TariffServiceTest {
         assertThat(response.getRate()).isEqualTo(RATE);
         assertThat(response.getUnit()).isEqualTo(UNIT);
 
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
         verify(repository).create(REPORTER, PARTNER, PRODUCT, YEAR, RATE, UNIT);
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
@@ -78,14 +98,53 @@ class TariffServiceTest {
         request.setRate(RATE);
         request.setUnit(UNIT);
 
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(true);
+        doThrow(new DuplicateKeyException("Duplicate entry"))
+                .when(repository).create(REPORTER, PARTNER, PRODUCT, YEAR, RATE, UNIT);
 
         // When/Then
         assertThatThrownBy(() -> service.createTariff(request))
                 .isInstanceOf(TariffAlreadyExistsException.class);
 
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
-        verify(repository, never()).create(any(), any(), any(), any(), any(), any());
+        verify(repository).create(REPORTER, PARTNER, PRODUCT, YEAR, RATE, UNIT);
+    }
+
+    @Test
+    void queueTariff_enqueuesWithoutWriting() {
+        // Given
+        CreateTariffRequest request = new CreateTariffRequest();
+        request.setReporter(REPORTER);
+        request.setPartner(PARTNER);
+        request.setProduct(PRODUCT);
+        request.setYear(YEAR);
+        request.setRate(RATE);
+        request.setUnit(UNIT);
+        when(writeBehindQueue.enqueue(any())).thenReturn(true);
+
+        // When
+        TariffResponse response = service.queueTariff(request);
+
+        // Then
+        assertThat(response.getRate()).isEqualTo(RATE);
+        verify(writeBehindQueue).enqueue(argThat(entity -> REPORTER.equals(entity.getCountryIsoNumeric())
+                && PARTNER.equals(entity.getPartnerIsoNumeric()) && PRODUCT.equals(entity.getProductHsCode())
+                && YEAR.equals(entity.getYear()) && RATE.equals(entity.getRate()) && UNIT.equals(entity.getUnit())));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void queueTariff_queueFull_throwsTariffWriteRejectedException() {
+        // Given
+        CreateTariffRequest request = new CreateTariffRequest();
+        request.setReporter(REPORTER);
+        request.setPartner(PARTNER);
+        request.setProduct(PRODUCT);
+        request.setYear(YEAR);
+        request.setRate(RATE);
+        when(writeBehindQueue.enqueue(any())).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> service.queueTariff(request))
+                .isInstanceOf(TariffWriteRejectedException.class);
     }
 
     @Test
@@ -135,7 +194,6 @@ class TariffServiceTest {
         request.setRate(7.5);
         request.setUnit("ad valorem");
 
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(true);
         when(repository.update(REPORTER, PARTNER, PRODUCT, YEAR, 7.5, "ad valorem")).thenReturn(1);
 
         // When
@@ -146,25 +204,8 @@ class TariffServiceTest {
         assertThat(response.getRate()).isEqualTo(7.5);
         assertThat(response.getUnit()).isEqualTo("ad valorem");
 
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
         verify(repository).update(REPORTER, PARTNER, PRODUCT, YEAR, 7.5, "ad valorem");
-    }
-
-    @Test
-    void updateTariff_notFoundOnCheck_throwsException() {
-        // Given
-        UpdateTariffRequest request = new UpdateTariffRequest();
-        request.setRate(7.5);
-        request.setUnit("ad valorem");
-
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(false);
-
-        // When/Then
-        assertThatThrownBy(() -> service.updateTariff(REPORTER, PARTNER, PRODUCT, YEAR, request))
-                .isInstanceOf(TariffNotFoundException.class);
-
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
-        verify(repository, never()).update(any(), any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
@@ -174,55 +215,37 @@ class TariffServiceTest {
         request.setRate(7.5);
         request.setUnit("ad valorem");
 
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(true);
         when(repository.update(REPORTER, PARTNER, PRODUCT, YEAR, 7.5, "ad valorem")).thenReturn(0);
 
         // When/Then
         assertThatThrownBy(() -> service.updateTariff(REPORTER, PARTNER, PRODUCT, YEAR, request))
                 .isInstanceOf(TariffNotFoundException.class);
 
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
         verify(repository).update(REPORTER, PARTNER, PRODUCT, YEAR, 7.5, "ad valorem");
     }
 
     @Test
     void deleteTariff_success() {
         // Given
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(true);
         when(repository.delete(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(1);
 
         // When
         service.deleteTariff(REPORTER, PARTNER, PRODUCT, YEAR);
 
         // Then
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
         verify(repository).delete(REPORTER, PARTNER, PRODUCT, YEAR);
-    }
-
-    @Test
-    void deleteTariff_notFoundOnCheck_throwsException() {
-        // Given
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(false);
-
-        // When/Then
-        assertThatThrownBy(() -> service.deleteTariff(REPORTER, PARTNER, PRODUCT, YEAR))
-                .isInstanceOf(TariffNotFoundException.class);
-
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
-        verify(repository, never()).delete(any(), any(), any(), any());
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
     void deleteTariff_notFoundOnDelete_throwsException() {
         // Given
-        when(repository.exists(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(true);
         when(repository.delete(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(0);
 
         // When/Then
         assertThatThrownBy(() -> service.deleteTariff(REPORTER, PARTNER, PRODUCT, YEAR))
                 .isInstanceOf(TariffNotFoundException.class);
 
-        verify(repository).exists(REPORTER, PARTNER, PRODUCT, YEAR);
         verify(repository).delete(REPORTER, PARTNER, PRODUCT, YEAR);
     }
 
@@ -257,4 +280,288 @@ class TariffServiceTest {
 
         verify(repository).getAllTariffs();
     }
+
+    @Test
+    void getChanges_lastPage_returnsTokenAtCurrentVersion() {
+        // Given
+        when(repository.currentVersion()).thenReturn(9L);
+        when(repository.findChanges(3L, null, 9L, 3))
+                .thenReturn(List.of(change("2021", 4L), deletion("2022", 7L)));
+
+        // When
+        TariffChangesResponse response = service.getChanges(TariffChangeToken.atVersion(3L).encode(), 2);
+
+        // Then
+        assertThat(response.isHasMore()).isFalse();
+        assertThat(response.getChanges()).extracting(TariffChange::getOp)
+                .containsExactly(TariffChange.OP_UPSERT, TariffChange.OP_DELETE);
+        assertThat(response.getChanges().get(1).getRate()).isNull();
+        TariffChangeToken next = TariffChangeToken.decode(response.getNext());
+        assertThat(next.getVersion()).isEqualTo(9L);
+        assertThat(next.getAfterKey()).isNull();
+    }
+
+    @Test
+    void getChanges_fullPage_resumesAfterLastKey() {
+        // Given: no token (full sync) and more rows than the limit
+        when(repository.currentVersion()).thenReturn(9L);
+        when(repository.findChanges(TariffChangeToken.BEFORE_FIRST_VERSION, null, 9L, 2))
+                .thenReturn(List.of(change("2021", 0L), change("2022", 0L)));
+
+        // When
+        TariffChangesResponse response = service.getChanges(null, 1);
+
+        // Then
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(response.getChanges()).hasSize(1);
+        TariffChangeToken next = TariffChangeToken.decode(response.getNext());
+        assertThat(next.getVersion()).isZero();
+        assertThat(next.getAfterKey().getYear()).isEqualTo("2021");
+    }
+
+    @Test
+    void getChanges_tokenAheadOfTable_throwsException() {
+        // Given
+        when(repository.currentVersion()).thenReturn(2L);
+
+        // When / Then
+        assertThatThrownBy(() -> service.getChanges(TariffChangeToken.atVersion(5L).encode(), 10))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        verify(repository, never()).findChanges(anyLong(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getChanges_malformedToken_throwsException() {
+        assertThatThrownBy(() -> service.getChanges("not a token!", 10))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getTableVersion_returnsRepositoryVersion() {
+        // Given
+        when(repository.currentVersion()).thenReturn(42L);
+
+        // When / Then
+        assertThat(service.getTableVersion()).hasValue(42L);
+    }
+
+    @Test
+    void getTableVersion_unknown_returnsEmpty() {
+        // Given
+        when(repository.currentVersion()).thenReturn(TariffRateRepository.NO_VERSION);
+
+        // When / Then
+        assertThat(service.getTableVersion()).isEmpty();
+    }
+
+    @Test
+    void streamAllTariffs_mapsEachRowToResponse() {
+        // Given
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(REPORTER);
+        entity.setPartnerIsoNumeric(PARTNER);
+        entity.setProductHsCode(PRODUCT);
+        entity.setYear(YEAR);
+        entity.setRate(RATE);
+        entity.setUnit(UNIT);
+
+        doAnswer(invocation -> {
+            java.util.function.Consumer<TariffRateEntity> consumer = invocation.getArgument(0);
+            consumer.accept(entity);
+            consumer.accept(entity);
+            return null;
+        }).when(repository).streamAllTariffs(any());
+
+        // When
+        List<TariffResponse> streamed = new java.util.ArrayList<>();
+        service.streamAllTariffs(streamed::add);
+
+        // Then
+        assertThat(streamed).hasSize(2);
+        assertThat(streamed.get(0).getReporter()).isEqualTo(REPORTER);
+        assertThat(streamed.get(0).getRate()).isEqualTo(RATE);
+        verify(repository, never()).getAllTariffs();
+    }
+
+    @Test
+    void getTariffPage_moreRowsThanLimit_returnsCursorForLastRow() {
+        // Given
+        TariffFilter filter = TariffFilter.none();
+        when(repository.findPage(filter, null, 3)).thenReturn(Arrays.asList(
+                rate(REPORTER, PARTNER, 1001, "2020", RATE),
+                rate(REPORTER, PARTNER, 1002, "2020", RATE),
+                rate(REPORTER, PARTNER, 1003, "2020", RATE)));
+
+        // When
+        TariffPageResponse page = service.getTariffPage(filter, null, 2);
+
+        // Then
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNext()).isNotNull();
+
+        when(repository.findPage(eq(filter), any(TariffRateEntity.class), eq(3)))
+                .thenReturn(Arrays.asList(rate(REPORTER, PARTNER, 1003, "2020", RATE)));
+        TariffPageResponse second = service.getTariffPage(filter, page.getNext(), 2);
+
+        assertThat(second.getItems()).hasSize(1);
+        assertThat(second.getNext()).isNull();
+        verify(repository).findPage(eq(filter), argThat(after ->
+                after != null && after.getProductHsCode() == 1002 && "2020".equals(after.getYear())), eq(3));
+    }
+
+    @Test
+    void getTariffPage_invalidArguments_throwException() {
+        assertThatThrownBy(() -> service.getTariffPage(TariffFilter.none(), null, 0))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.getTariffPage(TariffFilter.none(), "not-a-cursor!", 10))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.getTariffPage(new TariffFilter(null, null, "7x", null, null), null, 10))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.getTariffPage(new TariffFilter(null, null, null, 2021, 2020), null, 10))
+                .isInstanceOf(InvalidTariffQueryException.class);
+
+        verify(repository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void lookupTariffs_returnsResultsInRequestOrderAndQueriesDuplicatesOnce() {
+        // Given
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(REPORTER);
+        entity.setPartnerIsoNumeric(PARTNER);
+        entity.setProductHsCode(PRODUCT);
+        entity.setYear(YEAR);
+        entity.setRate(RATE);
+        entity.setUnit(UNIT);
+
+        when(repository.findByKeys(anyList())).thenReturn(List.of(entity));
+
+        List<TariffLookupKey> keys = List.of(
+                new TariffLookupKey(REPORTER, PARTNER, PRODUCT, YEAR),
+                new TariffLookupKey(REPORTER, PARTNER, PRODUCT, "2024"),
+                new TariffLookupKey(REPORTER, PARTNER, PRODUCT, YEAR));
+
+        // When
+        TariffLookupResponse response = service.lookupTariffs(keys);
+
+        // Then
+        assertThat(response.getRequested()).isEqualTo(3);
+        assertThat(response.getFound()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(TariffLookupResult::getIndex).containsExactly(0, 1, 2);
+        assertThat(response.getResults()).extracting(TariffLookupResult::isFound).containsExactly(true, false, true);
+        assertThat(response.getResults().get(0).getRate()).isEqualTo(RATE);
+        assertThat(response.getResults().get(1).getRate()).isNull();
+
+        verify(repository).findByKeys(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    void lookupTariffs_invalidKeys_throwException() {
+        assertThatThrownBy(() -> service.lookupTariffs(List.of()))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.lookupTariffs(List.of(new TariffLookupKey(REPORTER, PARTNER, PRODUCT, "23"))))
+                .isInstanceOf(InvalidTariffQueryException.class);
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getTariffSeries_fill_carriesLastRateIntoGaps() {
+        // Given - a seed row before the range, then a gap in 2021
+        when(repository.findSeries(REPORTER, PARTNER, PRODUCT, 2020, 2023, true)).thenReturn(List.of(
+                seriesRow("2018", 4.0), seriesRow("2020", 5.0), seriesRow("2022", 6.0)));
+
+        // When
+        TariffSeriesResponse response = service.getTariffSeries(REPORTER, PARTNER, PRODUCT, 2020, 2023, true);
+
+        // Then
+        assertThat(response.getPoints()).extracting(TariffSeriesPoint::getYear)
+                .containsExactly("2020", "2021", "2022", "2023");
+        assertThat(response.getPoints()).extracting(TariffSeriesPoint::getRate)
+                .containsExactly(5.0, 5.0, 6.0, 6.0);
+        assertThat(response.getPoints()).extracting(TariffSeriesPoint::isCarried)
+                .containsExactly(false, true, false, true);
+    }
+
+    @Test
+    void getTariffSeries_fill_skipsYearsBeforeFirstRate() {
+        // Given
+        when(repository.findSeries(REPORTER, PARTNER, PRODUCT, 2020, 2022, true)).thenReturn(List.of(
+                seriesRow("2021", 5.0)));
+
+        // When
+        TariffSeriesResponse response = service.getTariffSeries(REPORTER, PARTNER, PRODUCT, 2020, 2022, true);
+
+        // Then
+        assertThat(response.getPoints()).extracting(TariffSeriesPoint::getYear).containsExactly("2021", "2022");
+    }
+
+    @Test
+    void getTariffSeries_invalidRange_throwsException() {
+        assertThatThrownBy(() -> service.getTariffSeries(REPORTER, PARTNER, PRODUCT, 2023, 2020, false))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.getTariffSeries(REPORTER, PARTNER, PRODUCT, 1900, 2023, false))
+                .isInstanceOf(InvalidTariffQueryException.class);
+
+        verifyNoInteractions(repository);
+    }
+
+    private static TariffRateEntity seriesRow(String year, double rate) {
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setCountryIsoNumeric(REPORTER);
+        entity.setPartnerIsoNumeric(PARTNER);
+        entity.setProductHsCode(PRODUCT);
+        entity.setYear(year);
+        entity.setRate(rate);
+        entity.setUnit(UNIT);
+        return entity;
+    }
+
+    @Test
+    void tariffFilter_hsPrefix_coversSixDigitRange() {
+        TariffFilter filter = new TariffFilter(null, null, "72", null, null);
+
+        assertThat(filter.getProductFrom()).isEqualTo(720000);
+        assertThat(filter.getProductTo()).isEqualTo(729999);
+        assertThat(new TariffFilter(null, null, "01", null, null).getProductFrom()).isEqualTo(10000);
+    }
+
+    @Test
+    void getRollups_mapsRowsToZeroPaddedHsCodesWithMean() {
+        // Given
+        TariffRollupEntity row = new TariffRollupEntity();
+        row.setLevel(4);
+        row.setPrefix(101);
+        row.setCount(3);
+        row.setRateSum(10.0);
+        row.setMinRate(1.0);
+        row.setMaxRate(6.0);
+        when(repository.findRollups(REPORTER, PARTNER, YEAR, 4, 1)).thenReturn(List.of(row));
+
+        // When
+        TariffRollupResponse response = service.getRollups(REPORTER, PARTNER, YEAR, 4, 1);
+
+        // Then
+        assertThat(response.getChapter()).isEqualTo("01");
+        assertThat(response.getRollups()).singleElement().satisfies(rollup -> {
+            assertThat(rollup.getHs()).isEqualTo("0101");
+            assertThat(rollup.getCount()).isEqualTo(3);
+            assertThat(rollup.getMin()).isEqualTo(1.0);
+            assertThat(rollup.getMax()).isEqualTo(6.0);
+            assertThat(rollup.getMean()).isEqualTo(3.333);
+        });
+    }
+
+    @Test
+    void getRollups_invalidLevelOrChapter_throwsException() {
+        assertThatThrownBy(() -> service.getRollups(REPORTER, PARTNER, YEAR, 6, null))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.getRollups(REPORTER, PARTNER, YEAR, 2, 10))
+                .isInstanceOf(InvalidTariffQueryException.class);
+        assertThatThrownBy(() -> service.getRollups(REPORTER, PARTNER, YEAR, 4, 100))
+                .isInstanceOf(InvalidTariffQueryException.class);
+
+        verifyNoInteractions(repository);
+    }
 }
@@ -0,0 +1,165 @@
+package database.tariffs.service;
+
+import database.tariffs.dto.TariffFilter;
+import database.tariffs.dto.TariffStatsGroup;
+import database.tariffs.dto.TariffStatsResponse;
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.repository.TariffColumnStore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static database.tariffs.TariffFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffStatsServiceTest {
+
+    @Mock
+    private ITariffRateRepository repository;
+
+    private TariffStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        // Run rebuilds inline so a newer copy is installed before the next call
+        service = new TariffStatsService(new TariffColumnStore(repository, Runnable::run));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTable(List<TariffRateEntity> rows) {
+        doAnswer(invocation -> {
+            rows.forEach(invocation.getArgument(0, Consumer.class));
+            return null;
+        }).when(repository).streamAllTariffs(any());
+    }
+
+    private static final List<TariffRateEntity> ROWS = List.of(
+            rate("840", "356", 100630, "2020", 24.0),
+            rate("840", "356", 100199, "2021", 2.5),
+            rate("840", "156", 100630, "2020", 5.0),
+            rate("840", "356", 270900, "2020", 0.0),
+            rate("356", "840", 100630, "2020", 11.0));
+
+    @Test
+    void getStats_filtersEveryColumn() {
+        // Given
+        when(repository.currentVersion()).thenReturn(3L);
+        givenTable(ROWS);
+
+        // When
+        TariffStatsResponse stats = service.getStats(
+                new TariffFilter("840", null, "10", 2020, 2021), 1.0, 30.0, null, null);
+
+        // Then
+        assertThat(stats.getVersion()).isEqualTo(3L);
+        assertThat(stats.getScanned()).isEqualTo(5);
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getMin()).isEqualTo(2.5);
+        assertThat(stats.getMax()).isEqualTo(24.0);
+        assertThat(stats.getMean()).isEqualTo(10.5);
+        assertThat(stats.getGroups()).isNull();
+        assertThat(stats.getHistogram()).isNull();
+    }
+
+    @Test
+    void getStats_groupedWithHistogram() {
+        // Given
+        when(repository.currentVersion()).thenReturn(3L);
+        givenTable(ROWS);
+
+        // When
+        TariffStatsResponse stats = service.getStats(TariffFilter.none(), null, null,
+                TariffStatsService.GROUP_CHAPTER, 10.0);
+
+        // Then
+        assertThat(stats.getCount()).isEqualTo(5);
+        assertThat(stats.getGroups())
+                .extracting(TariffStatsGroup::getKey, TariffStatsGroup::getCount,
+                        TariffStatsGroup::getMin, TariffStatsGroup::getMax, TariffStatsGroup::getMean)
+                .containsExactly(tuple("10", 4, 2.5, 24.0, 10.625), tuple("27", 1, 0.0, 0.0, 0.0));
+        assertThat(stats.getBucketWidth()).isEqualTo(10.0);
+        assertThat(stats.getHistogram()).containsExactly(3, 1, 1);
+    }
+
+    @Test
+    void getStats_groupByReporter_decodesCountryCodes() {
+        // Given
+        when(repository.currentVersion()).thenReturn(3L);
+        givenTable(ROWS);
+
+        // When
+        TariffStatsResponse stats = service.getStats(new TariffFilter(null, null, null, 2020, 2020),
+                null, null, TariffStatsService.GROUP_REPORTER, null);
+
+        // Then
+        assertThat(stats.getGroups())
+                .extracting(TariffStatsGroup::getKey, TariffStatsGroup::getCount)
+                .containsExactlyInAnyOrder(tuple("840", 3), tuple("356", 1));
+    }
+
+    @Test
+    void getStats_unknownCountry_matchesNothing() {
+        // Given
+        when(repository.currentVersion()).thenReturn(3L);
+        givenTable(ROWS);
+
+        // When
+        TariffStatsResponse stats = service.getStats(
+                new TariffFilter("999", null, null, null, null), null, null, null, null);
+
+        // Then
+        assertThat(stats.getScanned()).isEqualTo(5);
+        assertThat(stats.getCount()).isZero();
+        assertThat(stats.getMin()).isNull();
+        assertThat(stats.getMean()).isNull();
+    }
+
+    @Test
+    void getStats_newerVersion_rebuildsInBackground() {
+        // Given
+        when(repository.currentVersion()).thenReturn(3L, 4L);
+        givenTable(List.of(rate("840", "356", 100630, "2020", 24.0)));
+        service.getStats(TariffFilter.none(), null, null, null, null);
+        givenTable(ROWS);
+
+        // When: the call that notices the new version still answers from the old copy
+        TariffStatsResponse stale = service.getStats(TariffFilter.none(), null, null, null, null);
+        TariffStatsResponse fresh = service.getStats(TariffFilter.none(), null, null, null, null);
+
+        // Then
+        assertThat(stale.getVersion()).isEqualTo(3L);
+        assertThat(stale.getCount()).isEqualTo(1);
+        assertThat(fresh.getVersion()).isEqualTo(4L);
+        assertThat(fresh.getCount()).isEqualTo(5);
+        verify(repository, times(2)).streamAllTariffs(any());
+    }
+
+    @Test
+    void getStats_invalidGroupBy_throwsInvalidTariffQueryException() {
+        assertThatThrownBy(() -> service.getStats(TariffFilter.none(), null, null, "product", null))
+                .isInstanceOf(InvalidTariffQueryException.class)
+                .hasMessage("groupBy must be one of reporter, partner, year, chapter");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getStats_invertedRateRange_throwsInvalidTariffQueryException() {
+        assertThatThrownBy(() -> service.getStats(TariffFilter.none(), 5.0, 1.0, null, null))
+                .isInstanceOf(InvalidTariffQueryException.class)
+                .hasMessage("minRate must not be greater than maxRate");
+        verifyNoInteractions(repository);
+    }
+}
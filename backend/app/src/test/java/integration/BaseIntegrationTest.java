@@ -98,6 +98,10 @@ public abstract class BaseIntegrationTest {
             jdbcTemplate.execute("TRUNCATE TABLE UserHiddenSources");
             jdbcTemplate.execute("TRUNCATE TABLE NewsTariffRates"); 
             jdbcTemplate.execute("TRUNCATE TABLE wto_tariffs.TariffRates");
+            jdbcTemplate.execute("TRUNCATE TABLE wto_tariffs.TariffTombstones");
+            jdbcTemplate.execute("TRUNCATE TABLE wto_tariffs.TariffRollups");
+            jdbcTemplate.execute("TRUNCATE TABLE wto_tariffs.WitsResults");
+            jdbcTemplate.execute("TRUNCATE TABLE wto_tariffs.WitsBackfillJobs");
             jdbcTemplate.execute("TRUNCATE TABLE News");
 
             // Clean up auth tables in correct order
@@ -0,0 +1,65 @@
+package integration;
+
+import database.tariffs.dto.TariffResponse;
+import database.tariffs.repository.IndexedTariffRateRepository;
+import database.tariffs.repository.TariffVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the TariffController integration suite with the in-memory tariff index in front of the database.
+ */
+@TestPropertySource(properties = "app.tariffs.index.enabled=true")
+class IndexedTariffControllerIntegrationTest extends TariffControllerIntegrationTest {
+
+    @Autowired
+    private IndexedTariffRateRepository indexedRepository;
+
+    @Autowired
+    private TariffVersionTracker versionTracker;
+
+    @Override
+    protected void cleanDatabase() {
+        super.cleanDatabase();
+        // Truncating behind the index's back is not in the change feed
+        indexedRepository.invalidateAll();
+    }
+
+    @Test
+    void getTariff_afterWriteOnAnotherNode_servesNewRate() {
+        // Arrange - cache the tariff in the index
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "702", "156", 271019, 2020, 5.0, "percent"
+        );
+        assertThat(getTariff().getBody().getRate()).isEqualTo(5.0);
+
+        // Act - another node updates it and appends to the change log; this node polls
+        jdbcTemplate.update(
+                "UPDATE wto_tariffs.TariffRates SET rate = ?, change_id = ? WHERE country_id = ? AND partner_country_id = ? AND product_id = ? AND `year` = ?",
+                7.5, 42L, "702", "156", 271019, 2020
+        );
+        jdbcTemplate.update("INSERT INTO wto_tariffs.TariffChangeLog (change_id) VALUES (?)", 42L);
+        versionTracker.poll();
+
+        // Assert
+        assertThat(getTariff().getBody().getRate()).isEqualTo(7.5);
+    }
+
+    private ResponseEntity<TariffResponse> getTariff() {
+        ResponseEntity<TariffResponse> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs?reporter=702&partner=156&product=271019&year=2020",
+                HttpMethod.GET,
+                createAuthenticatedEntity(),
+                TariffResponse.class
+        );
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response;
+    }
+}
@@ -1,13 +1,35 @@
 package integration;
 
 import database.tariffs.dto.CreateTariffRequest;
+import database.tariffs.dto.TariffBatchResponse;
+import database.tariffs.dto.TariffChange;
+import database.tariffs.dto.TariffChangesResponse;
+import database.tariffs.dto.TariffImportJobResponse;
+import database.tariffs.dto.TariffLookupKey;
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.dto.TariffPageResponse;
+import database.tariffs.dto.TariffRollup;
+import database.tariffs.dto.TariffRollupResponse;
+import database.tariffs.dto.TariffScenarioLine;
+import database.tariffs.dto.TariffScenarioRequest;
+import database.tariffs.dto.TariffScenarioResponse;
+import database.tariffs.dto.TariffScenarioRule;
+import database.tariffs.dto.TariffSeriesPoint;
+import database.tariffs.dto.TariffSeriesResponse;
+import database.tariffs.dto.TariffStatsGroup;
+import database.tariffs.dto.TariffStatsResponse;
 import database.tariffs.dto.UpdateTariffRequest;
 import database.tariffs.dto.TariffResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * Integration tests for TariffController.
@@ -119,6 +141,666 @@ class TariffControllerIntegrationTest extends BaseIntegrationTest {
         assertThat(response.getBody()).hasSize(3);
     }
 
+    @Test
+    void getAllTariffs_withStreamFlag_returnsNdjsonLines() {
+        // Arrange
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "840", "356", 100630, 2020, 24.0, "percent"
+        );
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "702", "156", 271019, 2021, 5.0, "percent"
+        );
+
+        // Act
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/current?stream=true",
+                HttpMethod.GET,
+                createAuthenticatedEntity(),
+                String.class
+        );
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        String[] lines = response.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"reporter\":");
+        assertThat(lines[1]).startsWith("{\"reporter\":");
+    }
+
+    @Test
+    void getAllTariffs_withNdjsonAccept_streamsTariffs() {
+        // Arrange
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "840", "356", 100630, 2020, 24.0, "percent"
+        );
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setAccept(java.util.List.of(MediaType.parseMediaType("application/x-ndjson")));
+
+        // Act
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/current",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("\"product\":100630").endsWith("\n");
+    }
+
+    @Test
+    void getAllTariffs_withMatchingETag_returnsNotModifiedUntilWrite() {
+        // Arrange - write through the API so the table version advances
+        postTariff("840", "356", 100630, "2020", 24.0);
+        ResponseEntity<String> first = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/current", HttpMethod.GET, createAuthenticatedEntity(), String.class);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotBlank();
+
+        // Act - conditional poll with nothing changed
+        ResponseEntity<String> unchanged = conditionalGet("/api/v1/tariffs/current", etag);
+
+        // Assert
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+        assertThat(unchanged.getHeaders().getETag()).isEqualTo(etag);
+
+        // Act - a write invalidates the ETag
+        postTariff("702", "156", 271019, "2021", 5.0);
+        ResponseEntity<String> changed = conditionalGet("/api/v1/tariffs/current", etag);
+
+        // Assert
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(changed.getBody()).contains("271019");
+    }
+
+    @Test
+    void getAllTariffs_sameETag_sameBytes() throws InterruptedException {
+        // Arrange
+        postTariff("840", "356", 100630, "2020", 24.0);
+
+        // Act - two full responses, far enough apart for a clock to tick
+        ResponseEntity<String> first = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/current", HttpMethod.GET, createAuthenticatedEntity(), String.class);
+        Thread.sleep(20);
+        ResponseEntity<String> second = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/current", HttpMethod.GET, createAuthenticatedEntity(), String.class);
+
+        // Assert - a strong ETag promises byte-identical bodies
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+    }
+
+    @Test
+    void getTariff_withMatchingETag_returnsNotModified() {
+        // Arrange
+        postTariff("840", "356", 100630, "2020", 24.0);
+        String url = "/api/v1/tariffs?reporter=840&partner=356&product=100630&year=2020";
+        String etag = restTemplate.exchange(baseUrl + url, HttpMethod.GET, createAuthenticatedEntity(), String.class)
+                .getHeaders().getETag();
+
+        // Act
+        ResponseEntity<String> response = conditionalGet(url, etag);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void getTariffChanges_returnsOnlyChangesAfterToken() {
+        // Arrange - initial state and a full sync
+        postTariff("840", "356", 100630, "2020", 24.0);
+        postTariff("702", "156", 271019, "2020", 5.0);
+        TariffChangesResponse initial = getChanges(null, 500);
+        assertThat(initial.getChanges()).hasSize(2);
+        assertThat(initial.isHasMore()).isFalse();
+
+        // Act - one update, one delete, one insert after the token
+        UpdateTariffRequest update = new UpdateTariffRequest();
+        update.setReporter("840");
+        update.setPartner("356");
+        update.setProduct(100630);
+        update.setYear("2020");
+        update.setRate(26.0);
+        update.setUnit("percent");
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.exchange(baseUrl + "/api/v1/tariffs", HttpMethod.PUT, new HttpEntity<>(update, headers), String.class);
+        restTemplate.exchange(baseUrl + "/api/v1/tariffs?reporter=702&partner=156&product=271019&year=2020",
+                HttpMethod.DELETE, new HttpEntity<>(createTestAuthHeaders()), Void.class);
+        postTariff("276", "392", 854590, "2019", 15.5);
+        TariffChangesResponse delta = getChanges(initial.getNext(), 500);
+
+        // Assert
+        assertThat(delta.getChanges())
+                .extracting(TariffChange::getOp, TariffChange::getReporter, TariffChange::getRate)
+                .containsExactly(
+                        tuple(TariffChange.OP_UPSERT, "840", 26.0),
+                        tuple(TariffChange.OP_DELETE, "702", null),
+                        tuple(TariffChange.OP_UPSERT, "276", 15.5));
+
+        // And - nothing left after the new token
+        assertThat(getChanges(delta.getNext(), 500).getChanges()).isEmpty();
+    }
+
+    @Test
+    void getTariffChanges_keyCreatedAgainAfterDelete_returnsOnlyTheUpsert() {
+        // Arrange
+        postTariff("702", "156", 271019, "2020", 5.0);
+        TariffChangesResponse initial = getChanges(null, 500);
+
+        // Act - delete the key, then create it again
+        restTemplate.exchange(baseUrl + "/api/v1/tariffs?reporter=702&partner=156&product=271019&year=2020",
+                HttpMethod.DELETE, new HttpEntity<>(createTestAuthHeaders()), Void.class);
+        postTariff("702", "156", 271019, "2020", 6.0);
+
+        // Assert - the old tombstone is superseded for syncs from before and after the delete
+        assertThat(getChanges(initial.getNext(), 500).getChanges())
+                .extracting(TariffChange::getOp, TariffChange::getRate)
+                .containsExactly(tuple(TariffChange.OP_UPSERT, 6.0));
+        assertThat(getChanges(null, 500).getChanges())
+                .extracting(TariffChange::getOp, TariffChange::getRate)
+                .containsExactly(tuple(TariffChange.OP_UPSERT, 6.0));
+    }
+
+    @Test
+    void getTariffChanges_pagesThroughWithLimit() {
+        // Arrange
+        postTariff("840", "356", 100630, "2020", 24.0);
+        postTariff("840", "356", 100630, "2021", 25.0);
+        postTariff("840", "356", 100630, "2022", 26.0);
+
+        // Act
+        java.util.List<String> years = new java.util.ArrayList<>();
+        String token = null;
+        TariffChangesResponse page;
+        do {
+            page = getChanges(token, 2);
+            page.getChanges().forEach(change -> years.add(change.getYear()));
+            token = page.getNext();
+        } while (page.isHasMore());
+
+        // Assert
+        assertThat(years).containsExactly("2020", "2021", "2022");
+    }
+
+    @Test
+    void getTariffChanges_withMalformedToken_returnsBadRequest() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/changes?since=%%%", HttpMethod.GET, createAuthenticatedEntity(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void importTariffs_csvUpload_importsValidRowsInBackground() throws InterruptedException {
+        // Arrange
+        byte[] csv = ("reporter,partner,product,year,rate,unit\n"
+                + "840,356,100630,2020,24.0,percent\n"
+                + "840,356,100630,2021,x,percent\n"
+                + "840,156,100630,2020,12.5,\n").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(csv) {
+            @Override
+            public String getFilename() {
+                return "tariffs.csv";
+            }
+        });
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        // Act
+        ResponseEntity<TariffImportJobResponse> accepted = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/imports", HttpMethod.POST, new HttpEntity<>(body, headers),
+                TariffImportJobResponse.class);
+
+        // Assert
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(accepted.getHeaders().getLocation()).hasToString(
+                "/api/v1/tariffs/imports/" + accepted.getBody().getJobId());
+
+        TariffImportJobResponse job = accepted.getBody();
+        for (int attempt = 0; attempt < 100 && job.getFinishedAt() == null; attempt++) {
+            Thread.sleep(50);
+            job = restTemplate.exchange(baseUrl + accepted.getHeaders().getLocation(), HttpMethod.GET,
+                    createAuthenticatedEntity(), TariffImportJobResponse.class).getBody();
+        }
+        assertThat(job.getStatus()).isEqualTo(TariffImportJobResponse.STATUS_COMPLETED);
+        assertThat(job.getRowsImported()).isEqualTo(2);
+        assertThat(job.getRowsRejected()).isEqualTo(1);
+        assertThat(job.getErrors().get(0).getRow()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wto_tariffs.TariffRates", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void getImport_withUnknownJob_returnsNotFound() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/imports/missing", HttpMethod.GET, createAuthenticatedEntity(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void getTariffMatrix_returnsDenseMatrixAsJsonAndBinary() {
+        // Arrange
+        postTariff("840", "356", 100630, "2020", 24.0);
+        postTariff("356", "156", 100630, "2020", 5.5);
+        postTariff("840", "156", 100630, "2021", 9.0);
+
+        // Act
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<java.util.Map> json = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/matrix?product=100630&year=2020", HttpMethod.GET,
+                createAuthenticatedEntity(), java.util.Map.class);
+
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setAccept(java.util.List.of(MediaType.APPLICATION_OCTET_STREAM));
+        ResponseEntity<byte[]> binary = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/matrix?product=100630&year=2020", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+
+        // Assert
+        assertThat(json.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(json.getBody().get("countries")).isEqualTo(java.util.List.of("156", "356", "840"));
+        // Missing pairs are null in JSON
+        assertThat(json.getBody().get("rates")).isEqualTo(java.util.Arrays.asList(
+                null, null, null,
+                5.5, null, null,
+                null, 24.0, null));
+
+        assertThat(binary.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(binary.getHeaders().getETag()).isNotEqualTo(json.getHeaders().getETag());
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(binary.getBody());
+        assertThat(buffer.getInt()).isEqualTo(3);
+        // three 3-byte codes, each with a length byte: 4 + 12 = 16 bytes of header, already aligned
+        assertThat(buffer.getFloat(16 + (2 * 3 + 1) * Float.BYTES)).isEqualTo(24.0f);
+        assertThat(buffer.getFloat(16 + (2 * 3 + 0) * Float.BYTES)).isNaN();
+        assertThat(binary.getBody()).hasSize(16 + 9 * Float.BYTES);
+    }
+
+    @Test
+    void getTariffRollups_followWritesAtChapterAndHeadingLevel() throws InterruptedException {
+        // Arrange - two headings of chapter 10, one of chapter 27, and a row in another year
+        postTariff("840", "356", 100630, "2020", 24.0);
+        postTariff("840", "356", 100640, "2020", 10.0);
+        postTariff("840", "356", 100190, "2020", 2.0);
+        postTariff("840", "356", 271019, "2020", 5.0);
+        postTariff("840", "356", 100630, "2021", 99.0);
+
+        UpdateTariffRequest update = new UpdateTariffRequest();
+        update.setReporter("840");
+        update.setPartner("356");
+        update.setProduct(100640);
+        update.setYear("2020");
+        update.setRate(12.0);
+        update.setUnit("percent");
+        restTemplate.exchange(baseUrl + "/api/v1/tariffs", HttpMethod.PUT, createAuthenticatedEntity(update), String.class);
+        restTemplate.exchange(baseUrl + "/api/v1/tariffs?reporter=840&partner=356&product=271019&year=2020",
+                HttpMethod.DELETE, createAuthenticatedEntity(), Void.class);
+
+        // Act - rollups are refreshed in the background after each write commits
+        TariffRollupResponse chapters = getRollups("level=2");
+        for (int attempt = 0; attempt < 100 && !(chapters.getRollups().size() == 1
+                && chapters.getRollups().get(0).getMean() == 12.667); attempt++) {
+            Thread.sleep(20);
+            chapters = getRollups("level=2");
+        }
+        TariffRollupResponse headings = getRollups("level=4&chapter=10");
+
+        // Assert - chapter 27 disappeared with its only row
+        assertThat(chapters.getRollups())
+                .extracting(TariffRollup::getHs, TariffRollup::getCount, TariffRollup::getMin,
+                        TariffRollup::getMax, TariffRollup::getMean)
+                .containsExactly(tuple("10", 3, 2.0, 24.0, 12.667));
+        assertThat(headings.getRollups())
+                .extracting(TariffRollup::getHs, TariffRollup::getCount, TariffRollup::getMean)
+                .containsExactly(tuple("1001", 1, 2.0), tuple("1006", 2, 18.0));
+    }
+
+    @Test
+    void getTariffRollups_refreshMovesRollupETagButNotTableETag() throws InterruptedException {
+        // Arrange
+        postTariff("840", "356", 100630, "2020", 24.0);
+        String tableETag = restTemplate.exchange(baseUrl + "/api/v1/tariffs/current", HttpMethod.GET,
+                createAuthenticatedEntity(), String.class).getHeaders().getETag();
+        String rollupsPath = "/api/v1/tariffs/rollups?reporter=840&partner=356&year=2020&level=2";
+        awaitRollupCount(1);
+        String rollupETag = restTemplate.exchange(baseUrl + rollupsPath, HttpMethod.GET,
+                createAuthenticatedEntity(), String.class).getHeaders().getETag();
+
+        // Act - a second write to the same chapter, and its background refresh
+        postTariff("840", "356", 100640, "2020", 10.0);
+        String afterWrite = restTemplate.exchange(baseUrl + "/api/v1/tariffs/current", HttpMethod.GET,
+                createAuthenticatedEntity(), String.class).getHeaders().getETag();
+        awaitRollupCount(2);
+
+        // Assert - the refresh moved the rollup ETag and left the table ETag at the write's version
+        assertThat(afterWrite).isNotEqualTo(tableETag);
+        assertThat(conditionalGet("/api/v1/tariffs/current", afterWrite).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(conditionalGet(rollupsPath, rollupETag).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void getStats_aggregatesCurrentTariffs() throws InterruptedException {
+        // Arrange
+        postTariff("840", "356", 100630, "2020", 24.0);
+        postTariff("840", "356", 100199, "2021", 2.5);
+        postTariff("156", "356", 270900, "2020", 8.0);
+        String query = "/api/v1/tariffs/stats?partner=356&hsPrefix=10&groupBy=year";
+
+        // Act - the in-memory copy is rebuilt in the background after writes
+        TariffStatsResponse stats = getStats(query);
+        for (int attempt = 0; attempt < 100 && stats.getCount() != 2; attempt++) {
+            Thread.sleep(50);
+            stats = getStats(query);
+        }
+
+        // Assert
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(stats.getScanned()).isEqualTo(3);
+        assertThat(stats.getMean()).isEqualTo(13.25);
+        assertThat(stats.getGroups())
+                .extracting(TariffStatsGroup::getKey, TariffStatsGroup::getCount, TariffStatsGroup::getMax)
+                .containsExactly(tuple("2020", 1, 24.0), tuple("2021", 1, 2.5));
+    }
+
+    @Test
+    void getStats_withInvalidGroupBy_returnsBadRequest() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/stats?groupBy=product", HttpMethod.GET,
+                createAuthenticatedEntity(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void simulateScenario_returnsDeltasWithoutChangingTariffs() {
+        // Arrange
+        postTariff("356", "840", 720890, "2020", 5.0);
+        postTariff("356", "840", 100630, "2020", 2.0);
+        TariffScenarioRequest scenario = new TariffScenarioRequest("steel", java.util.List.of(
+                new TariffScenarioRule("356", null, "72", null, null, TariffScenarioRule.TYPE_ADD, 10.0)),
+                java.util.List.of(new TariffScenarioLine("356", "840", 720890, "2020", 2000.0),
+                        new TariffScenarioLine("356", "840", 100630, "2020", 1000.0)));
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // Act
+        ResponseEntity<TariffScenarioResponse> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/scenarios", HttpMethod.POST, new HttpEntity<>(scenario, headers),
+                TariffScenarioResponse.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getBaselineTariff()).isEqualTo(120.0);
+        assertThat(response.getBody().getScenarioTariff()).isEqualTo(320.0);
+        assertThat(response.getBody().getChanges()).singleElement().satisfies(change -> {
+            assertThat(change.getIndex()).isZero();
+            assertThat(change.getScenarioRate()).isEqualTo(15.0);
+        });
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT rate FROM wto_tariffs.TariffRates WHERE product_id = 720890", Double.class)).isEqualTo(5.0);
+    }
+
+    @Test
+    void queueTariff_coalescesAndWritesBehind() throws InterruptedException {
+        // Arrange
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // Act
+        for (double rate : new double[]{1.0, 2.0}) {
+            CreateTariffRequest request = new CreateTariffRequest();
+            request.setReporter("840");
+            request.setPartner("356");
+            request.setProduct(100630);
+            request.setYear("2020");
+            request.setRate(rate);
+            request.setUnit("percent");
+            ResponseEntity<String> response = restTemplate.exchange(
+                    baseUrl + "/api/v1/tariffs/async", HttpMethod.POST, new HttpEntity<>(request, headers), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        }
+
+        // Assert - the last write wins and a repeated key never conflicts
+        Double stored = null;
+        for (int attempt = 0; attempt < 100 && !Double.valueOf(2.0).equals(stored); attempt++) {
+            Thread.sleep(20);
+            stored = jdbcTemplate.query("SELECT rate FROM wto_tariffs.TariffRates WHERE product_id = 100630",
+                    rs -> rs.next() ? rs.getDouble(1) : null);
+        }
+        assertThat(stored).isEqualTo(2.0);
+    }
+
+    private TariffStatsResponse getStats(String path) {
+        ResponseEntity<TariffStatsResponse> response = restTemplate.exchange(
+                baseUrl + path, HttpMethod.GET, createAuthenticatedEntity(), TariffStatsResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private TariffRollupResponse getRollups(String query) {
+        ResponseEntity<TariffRollupResponse> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/rollups?reporter=840&partner=356&year=2020&" + query,
+                HttpMethod.GET, createAuthenticatedEntity(), TariffRollupResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private TariffChangesResponse getChanges(String since, int limit) {
+        String url = baseUrl + "/api/v1/tariffs/changes?limit=" + limit + (since != null ? "&since=" + since : "");
+        ResponseEntity<TariffChangesResponse> response = restTemplate.exchange(
+                url, HttpMethod.GET, createAuthenticatedEntity(), TariffChangesResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private void postTariff(String reporter, String partner, int product, String year, double rate) {
+        CreateTariffRequest request = new CreateTariffRequest();
+        request.setReporter(reporter);
+        request.setPartner(partner);
+        request.setProduct(product);
+        request.setYear(year);
+        request.setRate(rate);
+        request.setUnit("percent");
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs", HttpMethod.POST, new HttpEntity<>(request, headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    /**
+     * Wait for the background rollup refresh to count the given number of 840/356/2020 rates in chapter 10
+     */
+    private void awaitRollupCount(int count) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !Integer.valueOf(count).equals(jdbcTemplate.queryForObject(
+                "SELECT MAX(row_count) FROM wto_tariffs.TariffRollups WHERE country_id = '840' AND `level` = 2 AND prefix = 10",
+                Integer.class)); attempt++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private ResponseEntity<String> conditionalGet(String path, String etag) {
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setIfNoneMatch(etag);
+        return restTemplate.exchange(baseUrl + path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    @Test
+    void getTariffPage_walksAllRowsWithCursor() {
+        // Arrange - four rows for one reporter, one row outside the HS prefix
+        for (int product : new int[] {100610, 100620, 100630, 100640, 271019}) {
+            jdbcTemplate.update(
+                    "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                    "840", "356", product, 2020, 10.0, "percent"
+            );
+        }
+
+        // Act - first page
+        ResponseEntity<TariffPageResponse> first = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/page?reporter=840&hsPrefix=1006&limit=3",
+                HttpMethod.GET,
+                createAuthenticatedEntity(),
+                TariffPageResponse.class
+        );
+
+        // Assert
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody().getItems()).extracting(TariffResponse::getProduct)
+                .containsExactly(100610, 100620, 100630);
+        assertThat(first.getBody().getNext()).isNotNull();
+
+        // Act - second page
+        ResponseEntity<TariffPageResponse> second = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/page?reporter=840&hsPrefix=1006&limit=3&cursor=" + first.getBody().getNext(),
+                HttpMethod.GET,
+                createAuthenticatedEntity(),
+                TariffPageResponse.class
+        );
+
+        // Assert
+        assertThat(second.getBody().getItems()).extracting(TariffResponse::getProduct)
+                .containsExactly(100640);
+        assertThat(second.getBody().getNext()).isNull();
+    }
+
+    @Test
+    void getTariffPage_withMalformedCursor_returnsBadRequest() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs/page?cursor=%%%",
+                HttpMethod.GET,
+                createAuthenticatedEntity(),
+                String.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void batchUpsert_insertsNewAndUpdatesExistingRows() {
+        // Arrange - one row already present
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "840", "356", 100630, 2020, 24.0, "percent"
+        );
+
+        java.util.List<CreateTariffRequest> batch = new java.util.ArrayList<>();
+        for (int year = 2018; year <= 2020; year++) {
+            CreateTariffRequest request = new CreateTariffRequest();
+            request.setReporter("840");
+            request.setPartner("356");
+            request.setProduct(100630);
+            request.setYear(String.valueOf(year));
+            request.setRate(30.0);
+            batch.add(request);
+        }
+        CreateTariffRequest invalid = new CreateTariffRequest();
+        invalid.setReporter("840");
+        batch.add(invalid);
+
+        HttpHeaders headers = createTestAuthHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // Act
+        ResponseEntity<TariffBatchResponse> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs:batch",
+                HttpMethod.POST,
+                new HttpEntity<>(batch, headers),
+                TariffBatchResponse.class
+        );
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getWritten()).isEqualTo(3);
+        assertThat(response.getBody().getRejected()).isEqualTo(1);
+
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wto_tariffs.TariffRates WHERE country_id = ? AND rate = 30.0",
+                Integer.class, "840");
+        assertThat(count).isEqualTo(3);
+    }
+
+    @Test
+    void lookupTariffs_returnsHitsAndMissesInRequestOrder() {
+        // Arrange
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "840", "356", 100630, 2020, 24.0, "percent"
+        );
+        jdbcTemplate.update(
+                "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                "840", "356", 100630, 2021, 26.0, "percent"
+        );
+
+        java.util.List<TariffLookupKey> keys = java.util.List.of(
+                new TariffLookupKey("840", "356", 100630, "2021"),
+                new TariffLookupKey("840", "156", 100630, "2020"),
+                new TariffLookupKey("840", "356", 100630, "2020"),
+                new TariffLookupKey("840", "356", 100630, "2021")
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // Act
+        ResponseEntity<TariffLookupResponse> response = restTemplate.exchange(
+                baseUrl + "/api/v1/tariffs:lookup",
+                HttpMethod.POST,
+                new HttpEntity<>(keys, headers),
+                TariffLookupResponse.class
+        );
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getRequested()).isEqualTo(4);
+        assertThat(response.getBody().getFound()).isEqualTo(3);
+        assertThat(response.getBody().getResults())
+                .extracting(TariffLookupResult::isFound)
+                .containsExactly(true, false, true, true);
+        assertThat(response.getBody().getResults())
+                .extracting(TariffLookupResult::getRate)
+                .containsExactly(26.0, null, 24.0, 26.0);
+    }
+
+    @Test
+    void getTariffSeries_withFill_returnsEveryYearInOrder() {
+        // Arrange - 2017 seeds the range, 2019 and 2021 are gaps
+        for (int[] row : new int[][] {{2017, 20}, {2018, 22}, {2020, 24}}) {
+            jdbcTemplate.update(
+                    "INSERT INTO wto_tariffs.TariffRates (country_id, partner_country_id, product_id, `year`, rate, unit) VALUES (?, ?, ?, ?, ?, ?)",
+                    "840", "356", 100630, row[0], row[1], "percent"
+            );
+        }
+
+        // Act
+        ResponseEntity<TariffSeriesResponse> filled = restTemplate.getForEntity(
+                baseUrl + "/api/v1/tariffs/series?reporter=840&partner=356&product=100630&from=2018&to=2021&fill=true",
+                TariffSeriesResponse.class);
+        ResponseEntity<TariffSeriesResponse> sparse = restTemplate.getForEntity(
+                baseUrl + "/api/v1/tariffs/series?reporter=840&partner=356&product=100630&from=2018&to=2021",
+                TariffSeriesResponse.class);
+
+        // Assert
+        assertThat(filled.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(filled.getBody().getPoints()).extracting(TariffSeriesPoint::getYear)
+                .containsExactly("2018", "2019", "2020", "2021");
+        assertThat(filled.getBody().getPoints()).extracting(TariffSeriesPoint::getRate)
+                .containsExactly(22.0, 22.0, 24.0, 24.0);
+
+        assertThat(sparse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sparse.getBody().getPoints()).extracting(TariffSeriesPoint::getYear)
+                .containsExactly("2018", "2020");
+    }
+
     @Test
     void updateTariff_withValidData_updatesTariffSuccessfully() {
         // Arrange - Insert initial tariff
@@ -245,8 +927,8 @@ class TariffControllerIntegrationTest extends BaseIntegrationTest {
                 String.class
         );
 
-        // Assert - Should handle duplicate key error
-        assertThat(response.getStatusCode()).isIn(HttpStatus.CONFLICT, HttpStatus.INTERNAL_SERVER_ERROR);
+        // Assert - Primary-key violation is reported as a conflict
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
     }
 
     @Test
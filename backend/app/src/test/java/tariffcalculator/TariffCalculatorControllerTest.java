@@ -0,0 +1,60 @@
+package tariffcalculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import tariffcalculator.dto.CalculationLineRequest;
+import tariffcalculator.dto.CalculationRequest;
+import tariffcalculator.dto.CalculationResponse;
+import tariffcalculator.dto.ResolvedTariffResponse;
+import tariffcalculator.service.TariffCalculatorService;
+import tariffcalculator.service.TariffResolutionService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffCalculatorControllerTest {
+
+    @Mock
+    private TariffCalculatorService calculatorService;
+
+    @Mock
+    private TariffResolutionService resolutionService;
+
+    @InjectMocks
+    private TariffCalculatorController controller;
+
+    @Test
+    void calculate_returnsServiceResult() {
+        CalculationRequest request = new CalculationRequest("USD", List.of(
+                new CalculationLineRequest("840", "356", 100630, "2020", 1000.0, null)));
+        CalculationResponse expected = new CalculationResponse("USD", List.of(), 1000.0, 250.0, 1250.0, 0);
+        when(calculatorService.calculate(request)).thenReturn(expected);
+
+        ResponseEntity<CalculationResponse> response = controller.calculate(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(expected);
+        verify(calculatorService).calculate(request);
+    }
+
+    @Test
+    void resolveRate_returnsResolvedTariff() {
+        ResolvedTariffResponse expected = new ResolvedTariffResponse("840", "356", 100630, "2020",
+                2.7, "percent", ResolvedTariffResponse.PROVENANCE_WITS, true);
+        when(resolutionService.resolve("840", "356", 100630, "2020")).thenReturn(expected);
+
+        ResponseEntity<ResolvedTariffResponse> response = controller.resolveRate("840", "356", 100630, "2020");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(expected);
+    }
+}
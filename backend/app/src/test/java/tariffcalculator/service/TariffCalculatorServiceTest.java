@@ -0,0 +1,132 @@
+package tariffcalculator.service;
+
+import database.tariffs.dto.TariffLookupResponse;
+import database.tariffs.dto.TariffLookupResult;
+import database.tariffs.service.TariffService;
+import exchangerate.ExchangeRateResponse;
+import exchangerate.ExchangeRateService;
+import tariffcalculator.dto.CalculationLineRequest;
+import tariffcalculator.dto.CalculationLineResult;
+import tariffcalculator.dto.CalculationRequest;
+import tariffcalculator.dto.CalculationResponse;
+import tariffcalculator.exception.UnsupportedCurrencyException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffCalculatorServiceTest {
+
+    @Mock
+    private TariffService tariffService;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private TariffCalculatorService service;
+
+    private static TariffLookupResult hit(int index, double rate) {
+        return new TariffLookupResult(index, true, "840", "356", 100630, "2020", rate, "percent");
+    }
+
+    private static TariffLookupResult miss(int index) {
+        return new TariffLookupResult(index, false, "840", "156", 100630, "2020", null, null);
+    }
+
+    @Test
+    void calculate_multiLineShipment_convertsAndTotals() {
+        // Given - one USD line with a rate, one EUR line with a rate, one line without a rate
+        CalculationRequest request = new CalculationRequest("usd", List.of(
+                new CalculationLineRequest("840", "356", 100630, "2020", 1000.0, null),
+                new CalculationLineRequest("840", "356", 100630, "2020", 500.0, "EUR"),
+                new CalculationLineRequest("840", "156", 100630, "2020", 200.0, "USD")));
+
+        when(tariffService.lookupTariffs(anyList()))
+                .thenReturn(new TariffLookupResponse(3, 2, List.of(hit(0, 25.0), hit(1, 10.0), miss(2))));
+        when(exchangeRateService.getExchangeRates("USD"))
+                .thenReturn(new ExchangeRateResponse("USD", Map.of("EUR", 0.5)));
+
+        // When
+        CalculationResponse response = service.calculate(request);
+
+        // Then
+        List<CalculationLineResult> lines = response.getLines();
+        assertThat(response.getDisplayCurrency()).isEqualTo("USD");
+        assertThat(lines.get(0).getTariffAmount()).isEqualTo(250.0);
+        assertThat(lines.get(0).getLandedCost()).isEqualTo(1250.0);
+        assertThat(lines.get(1).getExchangeRate()).isEqualTo(2.0);
+        assertThat(lines.get(1).getTariffAmount()).isEqualTo(50.0);
+        assertThat(lines.get(1).getConvertedTariffAmount()).isEqualTo(100.0);
+        assertThat(lines.get(2).isRateFound()).isFalse();
+        assertThat(lines.get(2).getTariffAmount()).isNull();
+        assertThat(lines.get(2).getLandedCost()).isEqualTo(200.0);
+
+        assertThat(response.getTotalValue()).isCloseTo(2200.0, within(1e-9));
+        assertThat(response.getTotalTariff()).isCloseTo(350.0, within(1e-9));
+        assertThat(response.getTotalLandedCost()).isCloseTo(2550.0, within(1e-9));
+        assertThat(response.getLinesWithoutRate()).isEqualTo(1);
+
+        verify(tariffService, times(1)).lookupTariffs(anyList());
+        verify(exchangeRateService, times(1)).getExchangeRates("USD");
+    }
+
+    @Test
+    void calculate_allLinesInDisplayCurrency_skipsExchangeApi() {
+        // Given
+        CalculationRequest request = new CalculationRequest("SGD", List.of(
+                new CalculationLineRequest("702", "156", 1001, "2023", 100.0, "sgd")));
+        when(tariffService.lookupTariffs(anyList()))
+                .thenReturn(new TariffLookupResponse(1, 1, List.of(hit(0, 5.0))));
+
+        // When
+        CalculationResponse response = service.calculate(request);
+
+        // Then
+        assertThat(response.getTotalLandedCost()).isEqualTo(105.0);
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void calculate_unknownCurrency_throwsException() {
+        // Given
+        CalculationRequest request = new CalculationRequest("USD", List.of(
+                new CalculationLineRequest("840", "356", 100630, "2020", 100.0, "XYZ")));
+        when(tariffService.lookupTariffs(anyList()))
+                .thenReturn(new TariffLookupResponse(1, 0, List.of(miss(0))));
+        when(exchangeRateService.getExchangeRates("USD"))
+                .thenReturn(new ExchangeRateResponse("USD", Map.of("EUR", 0.9)));
+
+        // When/Then
+        assertThatThrownBy(() -> service.calculate(request))
+                .isInstanceOf(UnsupportedCurrencyException.class)
+                .hasMessageContaining("XYZ");
+    }
+
+    @Test
+    void computeLines_appliesRateAndExchangeRatePerLine() {
+        double[] tariffs = new double[2];
+        double[] convertedValues = new double[2];
+        double[] convertedTariffs = new double[2];
+
+        TariffCalculatorService.computeLines(
+                new double[] {100.0, 40.0}, new double[] {10.0, 0.0}, new double[] {1.0, 0.5},
+                tariffs, convertedValues, convertedTariffs);
+
+        assertThat(tariffs).containsExactly(10.0, 0.0);
+        assertThat(convertedValues).containsExactly(100.0, 20.0);
+        assertThat(convertedTariffs).containsExactly(10.0, 0.0);
+    }
+}
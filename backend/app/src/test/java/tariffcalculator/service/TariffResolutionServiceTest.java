@@ -0,0 +1,145 @@
+package tariffcalculator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.TariffNotFoundException;
+import database.tariffs.exception.TariffWriteRejectedException;
+import database.tariffs.repository.ITariffRateRepository;
+import database.tariffs.service.TariffService;
+import tariffcalculator.dto.ResolvedTariffResponse;
+import wits.WitsApiService;
+import wits.dto.WitsTariffRateResponse;
+import wits.exception.WitsApiException;
+import wits.exception.WitsDataNotFoundException;
+import wto.WtoApiService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffResolutionServiceTest {
+
+    @Mock
+    private ITariffRateRepository repository;
+
+    @Mock
+    private WitsApiService witsApiService;
+
+    @Mock
+    private WtoApiService wtoApiService;
+
+    @Mock
+    private TariffService tariffService;
+
+    private TariffResolutionService service;
+
+    private static final String REPORTER = "840";
+    private static final String PARTNER = "356";
+    private static final Integer PRODUCT = 100630;
+    private static final String YEAR = "2020";
+
+    @BeforeEach
+    void setUp() {
+        service = new TariffResolutionService(repository, witsApiService, wtoApiService,
+                tariffService, new ObjectMapper());
+    }
+
+    @Test
+    void resolve_databaseHit_skipsUpstreams() {
+        // Given
+        TariffRateEntity entity = new TariffRateEntity();
+        entity.setRate(24.0);
+        entity.setUnit("percent");
+        when(repository.getTariff(REPORTER, PARTNER, PRODUCT, YEAR)).thenReturn(entity);
+
+        // When
+        ResolvedTariffResponse response = service.resolve(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        // Then
+        assertThat(response.getProvenance()).isEqualTo(ResolvedTariffResponse.PROVENANCE_DATABASE);
+        assertThat(response.getRate()).isEqualTo(24.0);
+        assertThat(response.isWriteBackScheduled()).isFalse();
+        verifyNoInteractions(witsApiService, wtoApiService, tariffService);
+    }
+
+    @Test
+    void resolve_witsHit_returnsAverageAndQueuesWriteBack() {
+        // Given
+        when(witsApiService.getTariffRate(REPORTER, PARTNER, PRODUCT, YEAR))
+                .thenReturn(Mono.just(new WitsTariffRateResponse(REPORTER, PARTNER, PRODUCT, YEAR, "1.5", "4.5", "2.7")));
+
+        // When
+        ResolvedTariffResponse response = service.resolve(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        // Then - the write goes through the write-behind queue, never straight to the repository
+        assertThat(response.getProvenance()).isEqualTo(ResolvedTariffResponse.PROVENANCE_WITS);
+        assertThat(response.getRate()).isEqualTo(2.7);
+        assertThat(response.isWriteBackScheduled()).isTrue();
+        verify(tariffService).queueTariff(argThat(request ->
+                REPORTER.equals(request.getReporter()) && PARTNER.equals(request.getPartner())
+                        && PRODUCT.equals(request.getProduct()) && YEAR.equals(request.getYear())
+                        && request.getRate() == 2.7 && "percent".equals(request.getUnit())));
+        verify(repository, never()).create(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(wtoApiService);
+    }
+
+    @Test
+    void resolve_witsMissOrFailure_fallsBackToWto() {
+        // Given
+        when(witsApiService.getTariffRate(REPORTER, PARTNER, PRODUCT, YEAR))
+                .thenReturn(Mono.error(new WitsApiException("WITS API returned 503", 503)));
+        when(wtoApiService.callWtoApi(anyMap())).thenReturn(ResponseEntity.ok(
+                "{\"Dataset\": [{\"Year\": 2019, \"Value\": 3.0}, {\"Year\": 2020, \"Value\": \"5.5\"}]}"));
+
+        // When
+        ResolvedTariffResponse response = service.resolve(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        // Then
+        assertThat(response.getProvenance()).isEqualTo(ResolvedTariffResponse.PROVENANCE_WTO);
+        assertThat(response.getRate()).isEqualTo(5.5);
+        verify(wtoApiService).callWtoApi(argThat(q ->
+                TariffResolutionService.WTO_TARIFF_INDICATOR.equals(q.get("i"))
+                        && REPORTER.equals(q.get("r")) && "100630".equals(q.get("pc")) && YEAR.equals(q.get("ps"))));
+    }
+
+    @Test
+    void resolve_noSourceHasRate_throwsNotFound() {
+        // Given
+        when(witsApiService.getTariffRate(REPORTER, PARTNER, PRODUCT, YEAR))
+                .thenReturn(Mono.error(new WitsDataNotFoundException(REPORTER, PARTNER, PRODUCT, YEAR)));
+        when(wtoApiService.callWtoApi(anyMap())).thenReturn(ResponseEntity.noContent().build());
+
+        // When/Then
+        assertThatThrownBy(() -> service.resolve(REPORTER, PARTNER, PRODUCT, YEAR))
+                .isInstanceOf(TariffNotFoundException.class);
+        verifyNoInteractions(tariffService);
+    }
+
+    @Test
+    void writeBack_queueFull_isReportedNotScheduled() {
+        // Given
+        when(witsApiService.getTariffRate(REPORTER, PARTNER, PRODUCT, YEAR))
+                .thenReturn(Mono.just(new WitsTariffRateResponse(REPORTER, PARTNER, PRODUCT, YEAR, null, null, "2.7")));
+        when(tariffService.queueTariff(any()))
+                .thenThrow(new TariffWriteRejectedException("Tariff write queue is full, retry later"));
+
+        // When
+        ResolvedTariffResponse response = service.resolve(REPORTER, PARTNER, PRODUCT, YEAR);
+
+        // Then - the rate is still returned
+        assertThat(response.getRate()).isEqualTo(2.7);
+        assertThat(response.isWriteBackScheduled()).isFalse();
+    }
+}
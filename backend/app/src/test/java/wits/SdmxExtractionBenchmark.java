@@ -0,0 +1,221 @@
+package wits;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Rate extraction cost per WITS response: three readTree passes (the extractor WitsApiService used
+ * before) against one SdmxObservationExtractor pass.
+ *
+ * JMH benchmark, compiled and run only under the jmh profile:
+ *
+ *   mvn -Pjmh test -Dtest=SdmxExtractionBenchmark -Djmh.run=true
+ *
+ * Every response under src/test/resources/wits is measured as is and with its first series
+ * repeated to the size of an all-partners response. To add a captured response, save the body of
+ *
+ *   curl "https://wits.worldbank.org/API/V1/SDMX/V21/datasource/TRN/reporter/{r}/partner/{p}/product/{hs6}/year/{y}/datatype/reported?format=JSON"
+ *
+ * into that directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SdmxExtractionBenchmark {
+
+    private static final String FIXTURE_DIR = "wits";
+    private static final String[] RATES = {"MIN_RATE", "MAX_RATE", "AVG_RATE"};
+    private static final String SERIES_MARKER = "\"0:0:0:0:0\":";
+
+    // Overridden with the fixtures found on the classpath when run through run()
+    @Param({"trn-reported-840-356-100630-2020.json"})
+    public String payload;
+
+    // 2000 is about the series count of an all-partners response for one reporter and product
+    @Param({"1", "2000"})
+    public int series;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String json;
+
+    @Test
+    @EnabledIfSystemProperty(named = "jmh.run", matches = "true")
+    void run() throws RunnerException, IOException, URISyntaxException {
+        new Runner(new OptionsBuilder()
+                .include(SdmxExtractionBenchmark.class.getName())
+                .param("payload", fixtures())
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        json = SdmxObservationExtractorTest.fixture(payload);
+        if (series > 1) {
+            json = repeatSeries(json, series);
+        }
+        // Both paths must agree before either is worth timing
+        if (!Arrays.equals(treeRates(json), SdmxObservationExtractor.extract(json, RATES))) {
+            throw new IllegalStateException("Extractors disagree on " + payload);
+        }
+    }
+
+    @Benchmark
+    public String[] threeTreeParses() throws IOException {
+        return treeRates(json);
+    }
+
+    @Benchmark
+    public String[] streaming() throws IOException {
+        return SdmxObservationExtractor.extract(json, RATES);
+    }
+
+    /** JSON responses under FIXTURE_DIR in every classpath root that has one */
+    private static String[] fixtures() throws IOException, URISyntaxException {
+        Set<String> names = new TreeSet<>();
+        Enumeration<URL> dirs = SdmxExtractionBenchmark.class.getClassLoader().getResources(FIXTURE_DIR);
+        while (dirs.hasMoreElements()) {
+            URL dir = dirs.nextElement();
+            if (!"file".equals(dir.getProtocol())) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(Path.of(dir.toURI()))) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(".json"))
+                        .forEach(names::add);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        if (names.isEmpty()) {
+            throw new IllegalStateException("No WITS responses under " + FIXTURE_DIR + " on the classpath");
+        }
+        return names.toArray(String[]::new);
+    }
+
+    private static String repeatSeries(String json, int count) {
+        int at = json.indexOf(SERIES_MARKER);
+        int open = json.indexOf('{', at);
+        int close = matchingBrace(json, open);
+        String series = json.substring(open, close + 1);
+
+        StringBuilder out = new StringBuilder(json.length() + count * (series.length() + 16));
+        out.append(json, 0, close + 1);
+        for (int i = 1; i < count; i++) {
+            out.append(",\"0:0:").append(i).append(":0:0\":").append(series);
+        }
+        return out.append(json, close + 1, json.length()).toString();
+    }
+
+    private static int matchingBrace(String json, int open) {
+        int depth = 0;
+        for (int i = open; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unbalanced fixture");
+    }
+
+    private String[] treeRates(String json) throws IOException {
+        String[] out = new String[RATES.length];
+        for (int i = 0; i < RATES.length; i++) {
+            out[i] = treeAttribute(json, RATES[i]);
+        }
+        return out;
+    }
+
+    /**
+     * The readTree-based extractor WitsApiService used before the streaming one, kept as the baseline
+     */
+    private String treeAttribute(String json, String attributeId) throws IOException {
+        JsonNode root = mapper.readTree(json);
+
+        JsonNode obsAttrs = root.path("structure").path("attributes").path("observation");
+        if (!obsAttrs.isArray()) return null;
+
+        int attrIdx = -1;
+        for (int i = 0; i < obsAttrs.size(); i++) {
+            if (attributeId.equalsIgnoreCase(obsAttrs.get(i).path("id").asText())) {
+                attrIdx = i;
+                break;
+            }
+        }
+        if (attrIdx < 0) return null;
+
+        JsonNode dataSets = root.path("dataSets");
+        if (!dataSets.isArray() || dataSets.size() == 0) return null;
+
+        JsonNode seriesNode = dataSets.get(0).path("series");
+        if (!seriesNode.isObject()) return null;
+
+        String firstSeriesKey = seriesNode.fieldNames().hasNext() ? seriesNode.fieldNames().next() : null;
+        if (firstSeriesKey == null) return null;
+
+        JsonNode observations = seriesNode.path(firstSeriesKey).path("observations");
+        if (!observations.isObject()) return null;
+
+        String firstObsKey = observations.fieldNames().hasNext() ? observations.fieldNames().next() : null;
+        if (firstObsKey == null) return null;
+
+        JsonNode obsArray = observations.path(firstObsKey);
+        if (!obsArray.isArray() || obsArray.size() == 0) return null;
+
+        int obsPos = attrIdx + 1;
+        if (obsPos >= obsArray.size()) return null;
+
+        JsonNode attrIndexNode = obsArray.get(obsPos);
+        if (attrIndexNode == null || attrIndexNode.isNull()) return null;
+
+        if (attrIndexNode.isInt()) {
+            int codeIdx = attrIndexNode.asInt();
+            JsonNode values = obsAttrs.get(attrIdx).path("values");
+            if (values.isArray() && codeIdx >= 0 && codeIdx < values.size()) {
+                JsonNode v = values.get(codeIdx);
+                String out = v.path("id").asText(null);
+                if (out == null || out.isBlank()) out = v.path("name").asText(null);
+                return out;
+            }
+        }
+
+        if (attrIndexNode.isNumber() || attrIndexNode.isTextual()) {
+            return attrIndexNode.asText();
+        }
+        return null;
+    }
+}
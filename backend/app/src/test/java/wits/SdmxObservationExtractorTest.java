@@ -0,0 +1,73 @@
+package wits;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class SdmxObservationExtractorTest {
+
+    static String fixture(String name) throws IOException {
+        try (InputStream in = SdmxObservationExtractorTest.class.getResourceAsStream("/wits/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void extract_witsPayload_readsAllRatesInOnePass() throws IOException {
+        String json = fixture("trn-reported-840-356-100630-2020.json");
+
+        String[] rates = SdmxObservationExtractor.extract(json, "MIN_RATE", "MAX_RATE", "AVG_RATE");
+
+        assertArrayEquals(new String[] {"1.4", "11.2", "3.7"}, rates);
+    }
+
+    @Test
+    void extract_structureBeforeDataSets_resolvesTheSame() throws IOException {
+        String json = "{"
+                + "\"structure\":{\"attributes\":{\"observation\":["
+                + "{\"id\":\"min_rate\",\"values\":[{\"id\":\"\",\"name\":\"2.5\"},{\"id\":\"5.0\"}]},"
+                + "{\"id\":\"MAX_RATE\",\"values\":[]}"
+                + "]}},"
+                + "\"dataSets\":[{\"series\":{\"0:0\":{\"observations\":{\"0\":[1,0,7]}},"
+                + "\"0:1\":{\"observations\":{\"0\":[1,1,1]}}}}]"
+                + "}";
+
+        String[] rates = SdmxObservationExtractor.extract(json, "MIN_RATE", "MAX_RATE");
+
+        // Blank id falls back to name; an index outside values is returned as-is
+        assertArrayEquals(new String[] {"2.5", "7"}, rates);
+    }
+
+    @Test
+    void extract_directValues_areReturnedAsText() throws IOException {
+        String json = "{"
+                + "\"dataSets\":[{\"series\":{\"0\":{\"observations\":{\"0\":[1,5.50,\"7.5\",null]}}}}],"
+                + "\"structure\":{\"attributes\":{\"observation\":["
+                + "{\"id\":\"MIN_RATE\"},{\"id\":\"MAX_RATE\"},{\"id\":\"AVG_RATE\"}]}}"
+                + "}";
+
+        String[] rates = SdmxObservationExtractor.extract(json, "MIN_RATE", "MAX_RATE", "AVG_RATE");
+
+        assertArrayEquals(new String[] {"5.5", "7.5", null}, rates);
+    }
+
+    @Test
+    void extract_missingAttributeOrObservation_returnsNulls() throws IOException {
+        String noObservations = "{\"structure\":{\"attributes\":{\"observation\":[{\"id\":\"MIN_RATE\"}]}},"
+                + "\"dataSets\":[{\"series\":{}}]}";
+
+        assertArrayEquals(new String[] {null, null},
+                SdmxObservationExtractor.extract(noObservations, "MIN_RATE", "MAX_RATE"));
+        assertArrayEquals(new String[] {null}, SdmxObservationExtractor.extract("[]", "MIN_RATE"));
+    }
+
+    @Test
+    void extract_malformedJson_throwsIOException() {
+        assertThrows(IOException.class,
+                () -> SdmxObservationExtractor.extract("{\"dataSets\":[{\"series\":", "MIN_RATE"));
+    }
+}
@@ -4,8 +4,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.ClientRequest;
@@ -15,20 +20,26 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import reactor.core.publisher.Mono;
 import wits.dto.WitsTariffRateResponse;
+import wits.entity.WitsResultEntity;
 import wits.exception.WitsApiException;
 import wits.exception.WitsDataNotFoundException;
 
 class WitsApiServiceTest {
 
+        private static final long TIMEOUT_MS = 200;
+
         private WitsApiService service;
         private ExchangeFunction exchange;
+        private WitsResultCache resultCache;
 
         @BeforeEach
         void setup() {
                 exchange = mock(ExchangeFunction.class);
                 WebClient client = WebClient.builder().exchangeFunction(exchange).build();
 
-                service = new WitsApiService();
+                // Unstubbed, the cache misses and accepts every save
+                resultCache = mock(WitsResultCache.class);
+                service = new WitsApiService("http://wits.test", TIMEOUT_MS, 16, resultCache);
                 ReflectionTestUtils.setField(service, "webClient", client);
         }
 
@@ -39,6 +50,23 @@ class WitsApiServiceTest {
                                 .build();
         }
 
+        private static WitsResultEntity cached(boolean dataAvailable) {
+                WitsResultEntity entity = new WitsResultEntity();
+                entity.setReporter("840");
+                entity.setPartner("000");
+                entity.setProduct(100630);
+                entity.setYear("2020");
+                entity.setDataAvailable(dataAvailable);
+                if (dataAvailable) {
+                        entity.setMinRate("1.0");
+                        entity.setMaxRate("2.0");
+                        entity.setAvgRate("1.5");
+                }
+                entity.setSource(WitsResultEntity.SOURCE_WITS);
+                entity.setFetchedAt(Instant.parse("2024-01-01T00:00:00Z"));
+                return entity;
+        }
+
         private String sampleSdmx() {
                 return "{"
                                 + "\"structure\":{\"attributes\":{\"observation\":["
@@ -55,7 +83,7 @@ class WitsApiServiceTest {
                 when(exchange.exchange(any(ClientRequest.class)))
                                 .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, sampleSdmx())));
 
-                WitsTariffRateResponse out = service.getTariffRate("840", "000", 100630, "2020");
+                WitsTariffRateResponse out = service.getTariffRate("840", "000", 100630, "2020").block();
 
                 assertNotNull(out);
                 assertEquals("5.0", out.getMinRate());
@@ -70,7 +98,7 @@ class WitsApiServiceTest {
                                 .thenReturn(Mono.just(jsonResponse(HttpStatus.NO_CONTENT, "")));
 
                 assertThrows(WitsDataNotFoundException.class,
-                                () -> service.getTariffRate("702", "156", 100630, "2018"));
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
         }
 
         @Test
@@ -80,7 +108,7 @@ class WitsApiServiceTest {
                                                 jsonResponse(HttpStatus.INTERNAL_SERVER_ERROR, "{\"err\":\"x\"}")));
 
                 WitsApiException ex = assertThrows(WitsApiException.class,
-                                () -> service.getTariffRate("702", "156", 100630, "2018"));
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
 
                 // Align with your implementation: message-based check, do not assume specific
                 // status mapping
@@ -90,12 +118,194 @@ class WitsApiServiceTest {
                 assertTrue(ex.getStatusCode() >= 0);
         }
 
+        @Test
+        void getTariffRate_serverError_keepsUpstreamStatus() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.SERVICE_UNAVAILABLE, "")));
+
+                WitsApiException ex = assertThrows(WitsApiException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+
+                assertEquals(503, ex.getStatusCode());
+        }
+
+        @Test
+        void getTariffRate_slowUpstream_timesOutAsGatewayTimeout() {
+                when(exchange.exchange(any(ClientRequest.class))).thenReturn(Mono.never());
+
+                WitsApiException ex = assertThrows(WitsApiException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+
+                assertEquals(504, ex.getStatusCode());
+                assertTrue(ex.getMessage().contains("timed out"));
+        }
+
+        @Test
+        void getTariffRate_isLazy_untilSubscribed() {
+                service.getTariffRate("840", "000", 100630, "2020");
+
+                verifyNoInteractions(exchange);
+        }
+
+        @Test
+        void getTariffRate_overlappingIdenticalLookups_shareOneUpstreamRequest() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.delay(Duration.ofMillis(50))
+                                                .map(tick -> jsonResponse(HttpStatus.OK, sampleSdmx())));
+
+                WitsTariffRateResponse[] out = Mono.zip(
+                                service.getTariffRate("840", "000", 100630, "2020"),
+                                service.getTariffRate("840", "000", 100630, "2020"),
+                                (a, b) -> new WitsTariffRateResponse[] {a, b}).block();
+
+                assertSame(out[0], out[1]);
+                verify(exchange, times(1)).exchange(any(ClientRequest.class));
+        }
+
+        @Test
+        void getTariffRate_freshCachedResult_skipsUpstream() {
+                WitsResultEntity entity = cached(true);
+                when(resultCache.peek("840", "000", 100630, "2020")).thenReturn(entity);
+                when(resultCache.isFresh(entity)).thenReturn(true);
+
+                WitsTariffRateResponse out = service.getTariffRate("840", "000", 100630, "2020").block();
+
+                assertEquals("1.0", out.getMinRate());
+                assertEquals("1.5", out.getAvgRate());
+                assertEquals("WITS", out.getSource());
+                verifyNoInteractions(exchange);
+                verify(resultCache, never()).load(any(), any(), any(), any());
+        }
+
+        @Test
+        void getTariffRate_freshCachedNoData_throwsNotFoundWithoutUpstream() {
+                WitsResultEntity entity = cached(false);
+                when(resultCache.load("840", "000", 100630, "2020")).thenReturn(entity);
+                when(resultCache.isFresh(entity)).thenReturn(true);
+
+                assertThrows(WitsDataNotFoundException.class,
+                                () -> service.getTariffRate("840", "000", 100630, "2020").block());
+                verifyNoInteractions(exchange);
+        }
+
+        @Test
+        void getTariffRate_fetched_isSavedToCache() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, sampleSdmx())));
+
+                service.getTariffRate("840", "000", 100630, "2020").block();
+
+                ArgumentCaptor<WitsResultEntity> saved = ArgumentCaptor.forClass(WitsResultEntity.class);
+                verify(resultCache).save(saved.capture());
+                assertTrue(saved.getValue().isDataAvailable());
+                assertEquals("5.0", saved.getValue().getMinRate());
+                assertEquals("7.5", saved.getValue().getAvgRate());
+                assertEquals("2020", saved.getValue().getYear());
+        }
+
+        @Test
+        void getTariffRate_noData_isSavedAsDefinitive() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.NOT_FOUND, "")));
+
+                assertThrows(WitsDataNotFoundException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+
+                ArgumentCaptor<WitsResultEntity> saved = ArgumentCaptor.forClass(WitsResultEntity.class);
+                verify(resultCache).save(saved.capture());
+                assertFalse(saved.getValue().isDataAvailable());
+                assertNull(saved.getValue().getAvgRate());
+        }
+
+        @Test
+        void getTariffRate_throttled_isNotCachedAsNoData() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.TOO_MANY_REQUESTS, "")));
+
+                WitsApiException ex = assertThrows(WitsApiException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+
+                assertEquals(429, ex.getStatusCode());
+                verify(resultCache, never()).save(any());
+        }
+
+        @Test
+        void getTariffRate_otherClientError_isNotCachedAsNoData() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.BAD_REQUEST, "")));
+
+                WitsApiException ex = assertThrows(WitsApiException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+
+                assertEquals(400, ex.getStatusCode());
+                verify(resultCache, never()).save(any());
+        }
+
+        @Test
+        void getTariffRate_emptyOkBody_isNotCachedAsNoData() {
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, "")));
+
+                WitsApiException ex = assertThrows(WitsApiException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+
+                assertEquals(502, ex.getStatusCode());
+                verify(resultCache, never()).save(any());
+        }
+
+        @Test
+        void getTariffRate_cacheReadFails_fetchesFromWits() {
+                when(resultCache.load(any(), any(), any(), any()))
+                                .thenThrow(new DataAccessResourceFailureException("down"));
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, sampleSdmx())));
+
+                WitsTariffRateResponse out = service.getTariffRate("840", "000", 100630, "2020").block();
+
+                assertEquals("7.5", out.getAvgRate());
+        }
+
+        @Test
+        void getTariffRate_cacheWriteFails_stillReturnsResult() {
+                doThrow(new DataAccessResourceFailureException("down")).when(resultCache).save(any());
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, sampleSdmx())));
+
+                WitsTariffRateResponse out = service.getTariffRate("840", "000", 100630, "2020").block();
+
+                assertEquals("7.5", out.getAvgRate());
+        }
+
+        @Test
+        void getTariffRate_cacheWriteFailsOnNoData_stillThrowsNotFound() {
+                doThrow(new DataAccessResourceFailureException("down")).when(resultCache).save(any());
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.NOT_FOUND, "")));
+
+                assertThrows(WitsDataNotFoundException.class,
+                                () -> service.getTariffRate("702", "156", 100630, "2018").block());
+        }
+
+        @Test
+        void getTariffRate_upstreamDown_servesStaleResult() {
+                WitsResultEntity entity = cached(true);
+                when(resultCache.load("840", "000", 100630, "2020")).thenReturn(entity);
+                when(exchange.exchange(any(ClientRequest.class)))
+                                .thenReturn(Mono.just(jsonResponse(HttpStatus.SERVICE_UNAVAILABLE, "")));
+
+                WitsTariffRateResponse out = service.getTariffRate("840", "000", 100630, "2020").block();
+
+                assertEquals("1.5", out.getAvgRate());
+                verify(exchange, times(1)).exchange(any(ClientRequest.class));
+                verify(resultCache, never()).save(any());
+        }
+
         @Test
         void getRawTariffData_success_returnsBody() {
                 when(exchange.exchange(any(ClientRequest.class)))
                                 .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, "{\"ok\":true}")));
 
-                String body = service.getRawTariffData("840", "000", 100630, "2020");
+                String body = service.getRawTariffData("840", "000", 100630, "2020").block();
                 assertEquals("{\"ok\":true}", body);
         }
 
@@ -105,7 +315,7 @@ class WitsApiServiceTest {
                                 .thenReturn(Mono.just(jsonResponse(HttpStatus.OK, "")));
 
                 assertThrows(WitsDataNotFoundException.class,
-                                () -> service.getRawTariffData("840", "000", 100630, "2020"));
+                                () -> service.getRawTariffData("840", "000", 100630, "2020").block());
         }
 
         @Test
@@ -114,7 +324,7 @@ class WitsApiServiceTest {
                                 .thenReturn(Mono.error(new RuntimeException("boom")));
 
                 WitsApiException ex = assertThrows(WitsApiException.class,
-                                () -> service.getRawTariffData("840", "000", 100630, "2020"));
+                                () -> service.getRawTariffData("840", "000", 100630, "2020").block());
 
                 // We only enforce:
                 // 1) Correct exception type
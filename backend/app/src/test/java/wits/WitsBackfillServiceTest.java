@@ -0,0 +1,292 @@
+package wits;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import database.tariffs.entity.TariffRateEntity;
+import database.tariffs.exception.InvalidTariffQueryException;
+import database.tariffs.repository.ITariffRateRepository;
+import reactor.core.publisher.Mono;
+import wits.dto.WitsBackfillJobResponse;
+import wits.dto.WitsBackfillRequest;
+import wits.dto.WitsTariffRateResponse;
+import wits.entity.WitsBackfillJobEntity;
+import wits.exception.WitsApiException;
+import wits.exception.WitsBackfillJobNotFoundException;
+import wits.exception.WitsBackfillRejectedException;
+import wits.exception.WitsDataNotFoundException;
+import wits.repository.WitsBackfillJobRepository;
+
+class WitsBackfillServiceTest {
+
+    private ITariffRateRepository tariffs;
+    private WitsBackfillJobRepository jobs;
+
+    @BeforeEach
+    void setup() {
+        tariffs = mock(ITariffRateRepository.class);
+        jobs = mock(WitsBackfillJobRepository.class);
+    }
+
+    private WitsBackfillService newService(WitsApiService wits, Executor executor,
+                                           int concurrency, double requestsPerSecond, int batchSize) {
+        WitsBackfillService service = new WitsBackfillService(wits, tariffs, jobs,
+                concurrency, requestsPerSecond, batchSize, 2, 1, 0.25, 1000);
+        ReflectionTestUtils.setField(service, "executor", executor);
+        return service;
+    }
+
+    private WitsBackfillService newService(WitsApiService wits, int concurrency, double requestsPerSecond, int batchSize) {
+        // Run the job inline so it has finished when start/resume returns
+        return newService(wits, Runnable::run, concurrency, requestsPerSecond, batchSize);
+    }
+
+    private static WitsBackfillRequest request(List<Integer> products, int fromYear, int toYear) {
+        return new WitsBackfillRequest(List.of("840"), List.of("356"), products, fromYear, toYear);
+    }
+
+    private static WitsTariffRateResponse rate(String reporter, String partner, Integer product, String year, String avg) {
+        return new WitsTariffRateResponse(reporter, partner, product, year, null, null, avg);
+    }
+
+    private WitsBackfillJobEntity insertedJob() {
+        ArgumentCaptor<WitsBackfillJobEntity> job = ArgumentCaptor.forClass(WitsBackfillJobEntity.class);
+        verify(jobs).insert(job.capture());
+        return job.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void startBackfill_againstLocalWitsStub_upsertsRatesAndCheckpointsEachBatch() throws IOException {
+        String body = SdmxObservationExtractorTest.fixture("trn-reported-840-356-100630-2020.json");
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            // Only product 100630 has data; WITS answers 404 for the rest
+            if (exchange.getRequestURI().getPath().contains("/product/100630/")) {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        stub.start();
+        try {
+            WitsApiService wits = new WitsApiService("http://127.0.0.1:" + stub.getAddress().getPort(),
+                    2000, 4, mock(WitsResultCache.class));
+            List<Long> checkpoints = new ArrayList<>();
+            doAnswer(invocation -> checkpoints.add(invocation.<WitsBackfillJobEntity>getArgument(0).getNextIndex()))
+                    .when(jobs).update(any());
+            WitsBackfillService service = newService(wits, 4, 0, 3);
+
+            WitsBackfillJobResponse queued = service.startBackfill(request(List.of(100630, 999999), 2019, 2020));
+
+            assertEquals(4, queued.getTotalLookups());
+            assertEquals(4, requests.get());
+            ArgumentCaptor<List<TariffRateEntity>> batches = ArgumentCaptor.forClass(List.class);
+            verify(tariffs, times(1)).upsertAll(batches.capture());
+            List<TariffRateEntity> rows = batches.getValue();
+            assertEquals(List.of("2019", "2020"), rows.stream().map(TariffRateEntity::getYear).toList());
+            assertEquals("840", rows.get(0).getCountryIsoNumeric());
+            assertEquals(100630, rows.get(0).getProductHsCode());
+            assertEquals(3.7, rows.get(0).getRate());
+            assertEquals("percent", rows.get(0).getUnit());
+
+            // RUNNING, then one checkpoint per batch of 3, then COMPLETED
+            assertEquals(List.of(0L, 3L, 4L, 4L), checkpoints);
+            WitsBackfillJobEntity job = insertedJob();
+            assertEquals(WitsBackfillJobEntity.STATUS_COMPLETED, job.getStatus());
+            assertEquals(2, job.getRowsWritten());
+            assertEquals(2, job.getNoRate());
+            assertEquals(0, job.getFailed());
+            assertNotNull(job.getFinishedAt());
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    @Test
+    void resumeBackfill_interruptedJob_continuesFromCheckpoint() {
+        WitsBackfillJobEntity stored = new WitsBackfillJobEntity();
+        stored.setJobId("job-1");
+        stored.setReporters(List.of("840"));
+        stored.setPartners(List.of("356"));
+        stored.setProducts(List.of(100630, 100640));
+        stored.setFromYear(2019);
+        stored.setToYear(2020);
+        stored.setStatus(WitsBackfillJobEntity.STATUS_RUNNING);
+        stored.setTotalLookups(4);
+        stored.setNextIndex(2);
+        stored.setRowsWritten(2);
+        when(jobs.find("job-1")).thenReturn(stored);
+        WitsApiService wits = mock(WitsApiService.class);
+        when(wits.getTariffRate(any(), any(), any(), any())).thenAnswer(invocation -> Mono.just(rate(
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3), "5")));
+
+        assertEquals(WitsBackfillJobEntity.STATUS_INTERRUPTED,
+                newService(wits, 2, 0, 10).getJob("job-1").getStatus());
+        newService(wits, 2, 0, 10).resumeBackfill("job-1");
+
+        verify(wits, never()).getTariffRate(any(), any(), eq(100630), any());
+        verify(wits).getTariffRate("840", "356", 100640, "2019");
+        verify(wits).getTariffRate("840", "356", 100640, "2020");
+        verify(tariffs).upsertAll(anyList());
+        assertEquals(WitsBackfillJobEntity.STATUS_COMPLETED, stored.getStatus());
+        assertEquals(4, stored.getNextIndex());
+        assertEquals(4, stored.getRowsWritten());
+    }
+
+    @Test
+    void startBackfill_upstreamKeepsFailing_retriesThenFailsJobBeforeBatch() {
+        AtomicInteger attempts = new AtomicInteger();
+        WitsApiService wits = mock(WitsApiService.class);
+        when(wits.getTariffRate(any(), any(), any(), any())).thenAnswer(invocation -> Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new WitsApiException("WITS API returned 503", 503));
+        }));
+
+        newService(wits, 2, 0, 10).startBackfill(request(List.of(100630), 2020, 2020));
+
+        // First attempt plus two retries
+        assertEquals(3, attempts.get());
+        verify(tariffs, never()).upsertAll(anyList());
+        WitsBackfillJobEntity job = insertedJob();
+        assertEquals(WitsBackfillJobEntity.STATUS_FAILED, job.getStatus());
+        assertEquals(0, job.getNextIndex());
+        assertTrue(job.getMessage().startsWith("1 of 1 WITS lookups failed"), job.getMessage());
+    }
+
+    @Test
+    void startBackfill_failuresWithinMaxFailureRate_areCountedAndSkipped() {
+        WitsApiService wits = mock(WitsApiService.class);
+        when(wits.getTariffRate(any(), any(), any(), any())).thenAnswer(invocation -> {
+            String year = invocation.getArgument(3);
+            return "2017".equals(year)
+                    ? Mono.error(new WitsApiException("WITS API returned 503", 503))
+                    : Mono.just(rate("840", "356", 100630, year, "5"));
+        });
+
+        // One failure in a batch of four is exactly the 25% allowed
+        newService(wits, 2, 0, 4).startBackfill(request(List.of(100630), 2017, 2020));
+
+        WitsBackfillJobEntity job = insertedJob();
+        assertEquals(WitsBackfillJobEntity.STATUS_COMPLETED, job.getStatus());
+        assertEquals(1, job.getFailed());
+        assertEquals(3, job.getRowsWritten());
+        assertEquals(4, job.getNextIndex());
+    }
+
+    @Test
+    void startBackfill_writeFails_failsJobWithoutMovingCheckpoint() {
+        WitsApiService wits = mock(WitsApiService.class);
+        when(wits.getTariffRate(any(), any(), any(), any()))
+                .thenReturn(Mono.just(rate("840", "356", 100630, "2020", "5")));
+        when(tariffs.upsertAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        WitsBackfillService service = newService(wits, 2, 0, 10);
+
+        service.startBackfill(request(List.of(100630), 2020, 2020));
+
+        WitsBackfillJobEntity job = insertedJob();
+        assertEquals(WitsBackfillJobEntity.STATUS_FAILED, job.getStatus());
+        assertEquals(0, job.getNextIndex());
+        assertEquals("down", job.getMessage());
+        // The slot is released, so the next job can start
+        assertDoesNotThrow(() -> service.startBackfill(request(List.of(100630), 2020, 2020)));
+    }
+
+    @Test
+    void startBackfill_fansOutUpToConcurrencyAndNoFurther() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        WitsApiService wits = mock(WitsApiService.class);
+        // Counted down before the outcome reaches the backfill, which may then start the next lookup
+        when(wits.getTariffRate(any(), any(), any(), any())).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(20))
+                .then(Mono.<WitsTariffRateResponse>error(new WitsDataNotFoundException("840", "356", 100630, "2020")))
+                .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doOnTerminate(inFlight::decrementAndGet));
+
+        newService(wits, 3, 0, 5).startBackfill(request(List.of(100630, 100640, 100650, 100660), 2018, 2020));
+
+        assertEquals(3, maxInFlight.get());
+        assertEquals(12, insertedJob().getNoRate());
+    }
+
+    @Test
+    void startBackfill_requestsPerSecond_pacesLookups() {
+        WitsApiService wits = mock(WitsApiService.class);
+        when(wits.getTariffRate(any(), any(), any(), any()))
+                .thenReturn(Mono.error(new WitsDataNotFoundException("840", "356", 100630, "2020")));
+
+        long start = System.nanoTime();
+        newService(wits, 8, 50, 10).startBackfill(request(List.of(100630), 2016, 2020));
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // Five lookups at 50/s are spaced 20 ms apart however high the concurrency
+        assertTrue(elapsedMs >= 90, "elapsed " + elapsedMs + " ms");
+        assertEquals(5, insertedJob().getNoRate());
+    }
+
+    @Test
+    void startBackfill_invalidRanges_areRejected() {
+        WitsBackfillService service = newService(mock(WitsApiService.class), 2, 0, 10);
+
+        assertThrows(InvalidTariffQueryException.class,
+                () -> service.startBackfill(request(List.of(100630), 2021, 2020)));
+        // 1 x 1 x 1 x 1001 years exceeds the 1000-lookup limit
+        assertThrows(InvalidTariffQueryException.class,
+                () -> service.startBackfill(request(List.of(100630), 1000, 2000)));
+        verify(jobs, never()).insert(any());
+    }
+
+    @Test
+    void startBackfill_whileAnotherRuns_isRejected() {
+        // A job that is never run keeps the slot
+        WitsBackfillService service = newService(mock(WitsApiService.class), task -> { }, 2, 0, 10);
+        WitsBackfillJobResponse first = service.startBackfill(request(List.of(100630), 2020, 2020));
+
+        assertThrows(WitsBackfillRejectedException.class,
+                () -> service.startBackfill(request(List.of(100640), 2020, 2020)));
+        assertThrows(WitsBackfillRejectedException.class, () -> service.resumeBackfill(first.getJobId()));
+        assertEquals(WitsBackfillJobEntity.STATUS_QUEUED, service.getJob(first.getJobId()).getStatus());
+    }
+
+    @Test
+    void resumeBackfill_completedOrUnknownJob_isRejected() {
+        WitsBackfillJobEntity completed = new WitsBackfillJobEntity();
+        completed.setJobId("done");
+        completed.setStatus(WitsBackfillJobEntity.STATUS_COMPLETED);
+        when(jobs.find("done")).thenReturn(completed);
+        WitsBackfillService service = newService(mock(WitsApiService.class), 2, 0, 10);
+
+        assertThrows(WitsBackfillRejectedException.class, () -> service.resumeBackfill("done"));
+        assertThrows(WitsBackfillJobNotFoundException.class, () -> service.resumeBackfill("missing"));
+        assertThrows(WitsBackfillJobNotFoundException.class, () -> service.getJob("missing"));
+    }
+}
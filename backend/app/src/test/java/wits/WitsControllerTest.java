@@ -10,6 +10,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
+import reactor.core.publisher.Mono;
+
 import wits.dto.WitsTariffRateResponse;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,10 +27,10 @@ class WitsControllerTest {
     void getTariffRate_success_returnsBodyFromService() {
         WitsTariffRateResponse resp =
             new WitsTariffRateResponse("840","000",100630,"2020","5.0","10.0","7.5");
-        when(witsService.getTariffRate("840","000",100630,"2020")).thenReturn(resp);
+        when(witsService.getTariffRate("840","000",100630,"2020")).thenReturn(Mono.just(resp));
 
         ResponseEntity<WitsTariffRateResponse> entity =
-                controller.getTariffRate("840","000",100630,"2020");
+                controller.getTariffRate("840","000",100630,"2020").block();
 
         assertEquals(200, entity.getStatusCodeValue());
         assertSame(resp, entity.getBody());
@@ -38,10 +40,10 @@ class WitsControllerTest {
 
     @Test
     void getRawTariffData_success_returnsBodyFromService() {
-        when(witsService.getRawTariffData("702","156",100630,"2019")).thenReturn("{\"ok\":true}");
+        when(witsService.getRawTariffData("702","156",100630,"2019")).thenReturn(Mono.just("{\"ok\":true}"));
 
         ResponseEntity<String> entity =
-                controller.getRawTariffData("702","156",100630,"2019");
+                controller.getRawTariffData("702","156",100630,"2019").block();
 
         assertEquals(200, entity.getStatusCodeValue());
         assertEquals("{\"ok\":true}", entity.getBody());
@@ -0,0 +1,34 @@
+package wits;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import wits.dto.WitsTariffRateResponse;
+
+class WitsRatesTest {
+
+    private static WitsTariffRateResponse lookup(String min, String max, String avg) {
+        return new WitsTariffRateResponse("840", "356", 100630, "2020", min, max, avg);
+    }
+
+    @Test
+    void representativeRate_prefersAverage() {
+        assertEquals(3.7, WitsRates.representativeRate(lookup("1.4", "11.2", "3.7")));
+    }
+
+    @Test
+    void representativeRate_fallsBackToMinThenMax() {
+        assertEquals(1.4, WitsRates.representativeRate(lookup("1.4", "11.2", "n/a")));
+        assertEquals(11.2, WitsRates.representativeRate(lookup(" ", "11.2", null)));
+        assertNull(WitsRates.representativeRate(lookup(null, "NaN", "")));
+    }
+
+    @Test
+    void isPersistable_boundsOfTheRateColumn() {
+        assertTrue(WitsRates.isPersistable(0));
+        assertTrue(WitsRates.isPersistable(999.999));
+        assertFalse(WitsRates.isPersistable(-0.5));
+        assertFalse(WitsRates.isPersistable(1000));
+    }
+}
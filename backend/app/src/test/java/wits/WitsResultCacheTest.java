@@ -0,0 +1,116 @@
+package wits;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import wits.entity.WitsResultEntity;
+import wits.repository.WitsResultRepository;
+
+class WitsResultCacheTest {
+
+    private static final long TTL_MINUTES = 60;
+    private static final long NO_DATA_TTL_MINUTES = 600;
+
+    private WitsResultRepository repository;
+    private WitsResultCache cache;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(WitsResultRepository.class);
+        cache = new WitsResultCache(repository, TTL_MINUTES, NO_DATA_TTL_MINUTES, 2);
+    }
+
+    private static WitsResultEntity entity(String year, Instant fetchedAt) {
+        WitsResultEntity entity = new WitsResultEntity();
+        entity.setReporter("840");
+        entity.setPartner("000");
+        entity.setProduct(100630);
+        entity.setYear(year);
+        entity.setDataAvailable(true);
+        entity.setAvgRate("3.7");
+        entity.setSource(WitsResultEntity.SOURCE_WITS);
+        entity.setFetchedAt(fetchedAt);
+        return entity;
+    }
+
+    @Test
+    void isFresh_pastYear_neverExpires() {
+        String lastYear = String.valueOf(Year.now().getValue() - 1);
+
+        assertTrue(cache.isFresh(entity(lastYear, Instant.parse("2001-01-01T00:00:00Z"))));
+    }
+
+    @Test
+    void isFresh_currentYear_expiresAfterTtl() {
+        String thisYear = String.valueOf(Year.now().getValue());
+        Instant now = Instant.now();
+
+        assertTrue(cache.isFresh(entity(thisYear, now.minus(Duration.ofMinutes(TTL_MINUTES - 1)))));
+        assertFalse(cache.isFresh(entity(thisYear, now.minus(Duration.ofMinutes(TTL_MINUTES + 1)))));
+    }
+
+    @Test
+    void isFresh_pastYearNoData_expiresAfterNoDataTtl() {
+        String lastYear = String.valueOf(Year.now().getValue() - 1);
+        Instant now = Instant.now();
+        WitsResultEntity recent = entity(lastYear, now.minus(Duration.ofMinutes(NO_DATA_TTL_MINUTES - 1)));
+        recent.setDataAvailable(false);
+        WitsResultEntity old = entity(lastYear, now.minus(Duration.ofMinutes(NO_DATA_TTL_MINUTES + 1)));
+        old.setDataAvailable(false);
+
+        assertTrue(cache.isFresh(recent));
+        assertFalse(cache.isFresh(old));
+    }
+
+    @Test
+    void isFresh_unparseableYear_followsTtl() {
+        assertFalse(cache.isFresh(entity("all", Instant.now().minus(Duration.ofDays(1)))));
+    }
+
+    @Test
+    void load_storedResult_isThenServedFromMemory() {
+        WitsResultEntity stored = entity("2020", Instant.now());
+        when(repository.find("840", "000", 100630, "2020")).thenReturn(stored);
+
+        assertNull(cache.peek("840", "000", 100630, "2020"));
+        assertSame(stored, cache.load("840", "000", 100630, "2020"));
+        assertSame(stored, cache.peek("840", "000", 100630, "2020"));
+    }
+
+    @Test
+    void load_databaseDown_isAMiss() {
+        when(repository.find(any(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertNull(cache.load("840", "000", 100630, "2020"));
+    }
+
+    @Test
+    void save_databaseDown_stillKeepsResultInMemory() {
+        doThrow(new DataAccessResourceFailureException("down")).when(repository).save(any());
+        WitsResultEntity result = entity("2020", Instant.now());
+
+        cache.save(result);
+
+        assertSame(result, cache.peek("840", "000", 100630, "2020"));
+    }
+
+    @Test
+    void memory_isBoundedByMaxEntries() {
+        cache.save(entity("2018", Instant.now()));
+        cache.save(entity("2019", Instant.now()));
+        cache.save(entity("2020", Instant.now()));
+
+        assertNull(cache.peek("840", "000", 100630, "2018"));
+        assertNotNull(cache.peek("840", "000", 100630, "2020"));
+    }
+}
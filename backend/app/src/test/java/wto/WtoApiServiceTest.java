@@ -17,6 +17,11 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.mockito.ArgumentCaptor;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for WtoApiService — no Spring context.
@@ -106,4 +111,36 @@ class WtoApiServiceTest {
         String url = urlCap.getValue();
         assertFalse(url.contains("subscription-key="));
     }
+
+    @Test
+    void concurrentIdenticalQueries_shareOneUpstreamCall() throws Exception {
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rest.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+            .thenAnswer(inv -> {
+                upstreamStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok("{\"Dataset\":[]}");
+            });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<String>> first = pool.submit(() ->
+                    service.callWtoApi(Map.of("i", "HS_P_0070", "r", "702", "ps", "2018", "pc", "100630")));
+            assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+
+            // Same effective query: different map, blank partner dropped as buildUrl drops it
+            Map<String, String> same = new LinkedHashMap<>();
+            same.put("pc", "100630"); same.put("ps", "2018"); same.put("p", ""); same.put("r", "702"); same.put("i", "HS_P_0070");
+            Future<ResponseEntity<String>> second = pool.submit(() -> service.callWtoApi(same));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("{\"Dataset\":[]}", first.get(5, TimeUnit.SECONDS).getBody());
+            assertSame(first.get().getBody(), second.get(5, TimeUnit.SECONDS).getBody());
+            verify(rest, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
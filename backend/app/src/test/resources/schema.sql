@@ -7,8 +7,89 @@ CREATE TABLE IF NOT EXISTS wto_tariffs.TariffRates (
   `year`               INT           NOT NULL,
   rate                 DECIMAL(6,3)  NOT NULL,
   unit                 VARCHAR(20)   NOT NULL,
+  change_id            BIGINT        NOT NULL DEFAULT 0,
   PRIMARY KEY (country_id, partner_country_id, product_id, `year`)
 );
+CREATE INDEX IF NOT EXISTS idx_tariff_rates_change_id ON wto_tariffs.TariffRates (change_id);
+CREATE INDEX IF NOT EXISTS idx_tariff_rates_product_year
+  ON wto_tariffs.TariffRates (product_id, `year`, country_id, partner_country_id, rate);
+-- V6 also partitions TariffRates by year; H2 has no table partitioning, so only the index is mirrored
+CREATE INDEX IF NOT EXISTS idx_tariff_rates_lookup
+  ON wto_tariffs.TariffRates (country_id, partner_country_id, `year`, product_id, rate, unit);
+
+-- Keys deleted from TariffRates, with the change id of the delete (drives the change feed)
+CREATE TABLE IF NOT EXISTS wto_tariffs.TariffTombstones (
+  country_id           VARCHAR(10)   NOT NULL,
+  partner_country_id   VARCHAR(10)   NOT NULL,
+  product_id           INT           NOT NULL,
+  `year`               INT           NOT NULL,
+  change_id            BIGINT        NOT NULL,
+  PRIMARY KEY (country_id, partner_country_id, product_id, `year`)
+);
+CREATE INDEX IF NOT EXISTS idx_tariff_tombstones_change_id ON wto_tariffs.TariffTombstones (change_id);
+
+-- HS2 (level 2) and HS4 (level 4) aggregates of TariffRates per reporter/partner/year
+CREATE TABLE IF NOT EXISTS wto_tariffs.TariffRollups (
+  country_id           VARCHAR(10)   NOT NULL,
+  partner_country_id   VARCHAR(10)   NOT NULL,
+  `year`               INT           NOT NULL,
+  `level`              TINYINT       NOT NULL,
+  prefix               INT           NOT NULL,
+  row_count            INT           NOT NULL,
+  rate_sum             DECIMAL(15,3) NOT NULL,
+  min_rate             DECIMAL(6,3)  NOT NULL,
+  max_rate             DECIMAL(6,3)  NOT NULL,
+  PRIMARY KEY (country_id, partner_country_id, `year`, `level`, prefix)
+);
+
+-- Single-row version of TariffRollups, bumped by every rollup refresh
+CREATE TABLE IF NOT EXISTS wto_tariffs.TariffRollupVersion (
+  id       TINYINT  NOT NULL PRIMARY KEY,
+  version  BIGINT   NOT NULL
+);
+MERGE INTO wto_tariffs.TariffRollupVersion (id, version) KEY (id) VALUES (1, 0);
+
+-- Cached WITS lookups: rates as reported, or data_available = FALSE for a definitive miss
+CREATE TABLE IF NOT EXISTS wto_tariffs.WitsResults (
+  country_id           VARCHAR(10)   NOT NULL,
+  partner_country_id   VARCHAR(10)   NOT NULL,
+  product_id           INT           NOT NULL,
+  `year`               VARCHAR(10)   NOT NULL,
+  data_available       BOOLEAN       NOT NULL,
+  min_rate             VARCHAR(32),
+  max_rate             VARCHAR(32),
+  avg_rate             VARCHAR(32),
+  source               VARCHAR(20)   NOT NULL,
+  fetched_at           TIMESTAMP(3)  NOT NULL,
+  PRIMARY KEY (country_id, partner_country_id, product_id, `year`)
+);
+
+CREATE TABLE IF NOT EXISTS wto_tariffs.WitsBackfillJobs (
+  job_id               VARCHAR(36)   NOT NULL,
+  reporters            TEXT          NOT NULL,
+  partners             TEXT          NOT NULL,
+  products             TEXT          NOT NULL,
+  from_year            INT           NOT NULL,
+  to_year              INT           NOT NULL,
+  status               VARCHAR(16)   NOT NULL,
+  total_lookups        BIGINT        NOT NULL,
+  next_index           BIGINT        NOT NULL DEFAULT 0,
+  rows_written         BIGINT        NOT NULL DEFAULT 0,
+  no_rate              BIGINT        NOT NULL DEFAULT 0,
+  failed               BIGINT        NOT NULL DEFAULT 0,
+  message              VARCHAR(1000),
+  created_at           TIMESTAMP(3)  NOT NULL,
+  updated_at           TIMESTAMP(3)  NOT NULL,
+  finished_at          TIMESTAMP(3),
+  PRIMARY KEY (job_id)
+);
+
+-- One row per tariff write; the AUTO_INCREMENT version drives ETags and the change feed
+CREATE TABLE IF NOT EXISTS wto_tariffs.TariffChangeLog (
+  version     BIGINT        AUTO_INCREMENT PRIMARY KEY,
+  change_id   BIGINT        NOT NULL UNIQUE,
+  created_at  TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
 
 -- News and sources
 CREATE TABLE IF NOT EXISTS News (